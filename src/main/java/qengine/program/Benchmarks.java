@@ -0,0 +1,38 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+
+/**
+ * Outils communs aux programmes de mesure du paquetage.
+ */
+final class Benchmarks {
+    /**
+     * Espace de noms des IRIs WatDiv utilisées pour générer les données.
+     */
+    static final String WSDBM = "http://db.uwaterloo.ca/~galuc/wsdbm/";
+
+    private Benchmarks() {
+    }
+
+    static Literal<String> literal(String value) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(value);
+    }
+
+    /**
+     * Tas occupé une fois stabilisé (GC répétés jusqu'à ce que la mesure ne baisse plus).
+     */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
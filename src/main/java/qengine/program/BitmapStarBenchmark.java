@@ -0,0 +1,107 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+import qengine.storage.RDFDictionary;
+import qengine.storage.RDFHexaStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+
+/**
+ * Requêtes en étoile dont tous les motifs sont {@code (?x, p, o)}, comme celles de
+ * {@code data/STAR_ALL_workload.queryset} : {@link RDFHexaStore} avec feuilles
+ * {@code HashSet} contre feuilles bitmap (intersection des ensembles de sujets).
+ * <p>
+ * Usage : {@code BitmapStarBenchmark [sujets]} (20 000 par défaut), avec par exemple
+ * {@code -Xmx4g}.
+ */
+public final class BitmapStarBenchmark {
+
+    private static final int PROPERTIES = 8;
+    private static final int VALUES = 20;
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        int subjects = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        List<RDFTriple> triples = generateTriples(subjects);
+        List<StarQuery> queries = generateQueries(200);
+        System.out.printf("%,d triplets, %d requêtes de 2 à 4 motifs%n", triples.size(), queries.size());
+
+        RDFHexaStore hashSets = new RDFHexaStore(new RDFDictionary(), false);
+        hashSets.addAll(triples);
+        RDFHexaStore bitmaps = new RDFHexaStore(new RDFDictionary(), true);
+        bitmaps.addAll(triples);
+
+        long[] answers = new long[2];
+        long hashSetTime = best(() -> answers[0] = run(hashSets, queries));
+        long bitmapTime = best(() -> answers[1] = run(bitmaps, queries));
+        if (answers[0] != answers[1]) {
+            throw new IllegalStateException("Réponses différentes : " + answers[0] + " / " + answers[1]);
+        }
+        System.out.printf("feuilles HashSet : %8.1f µs/requête%n", hashSetTime / 1000.0 / queries.size());
+        System.out.printf("feuilles bitmap  : %8.1f µs/requête (%,d réponses)%n",
+                bitmapTime / 1000.0 / queries.size(), answers[1]);
+    }
+
+    private static long run(RDFHexaStore store, List<StarQuery> queries) {
+        long answers = 0;
+        for (StarQuery query : queries) {
+            var it = store.match(query);
+            while (it.hasNext()) {
+                it.next();
+                answers++;
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * Temps minimal en nanosecondes.
+     */
+    private static long best(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static List<RDFTriple> generateTriples(int subjects) {
+        Random random = new Random(1);
+        List<RDFTriple> triples = new ArrayList<>(subjects * PROPERTIES);
+        for (int i = 0; i < subjects; i++) {
+            for (int k = 0; k < PROPERTIES; k++) {
+                // Valeurs biaisées : quelques valeurs fréquentes, comme les pays de WatDiv
+                int value = (int) (VALUES * Math.pow(random.nextDouble(), 2));
+                triples.add(new RDFTriple(literal(WSDBM + "User" + i), literal(WSDBM + "property" + k),
+                        literal(WSDBM + "Value" + value)));
+            }
+        }
+        return triples;
+    }
+
+    private static List<StarQuery> generateQueries(int count) {
+        Random random = new Random(2);
+        Variable x = SameObjectTermFactory.instance().createOrGetVariable("?x");
+        List<StarQuery> queries = new ArrayList<>(count);
+        for (int q = 0; q < count; q++) {
+            List<RDFTriple> patterns = new ArrayList<>();
+            int size = 2 + random.nextInt(3);
+            for (int k = 0; k < size; k++) {
+                patterns.add(new RDFTriple(x, literal(WSDBM + "property" + k),
+                        literal(WSDBM + "Value" + random.nextInt(VALUES / 2))));
+            }
+            queries.add(new StarQuery("q" + q, patterns, List.of(x)));
+        }
+        return queries;
+    }
+}
@@ -0,0 +1,66 @@
+package qengine.program;
+
+import qengine.model.RDFTriple;
+import qengine.storage.BulkLoader;
+import qengine.storage.FrozenRDFHexaStore;
+import qengine.storage.RDFHexaStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+
+/**
+ * Chargement triplet par triplet ({@link RDFHexaStore#addAll}) contre chargement en
+ * masse ({@link BulkLoader}) sur des triplets générés à la manière de WatDiv.
+ * <p>
+ * Usage : {@code BulkLoadBenchmark [triplets]} (1 000 000 par défaut), avec par exemple
+ * {@code -Xmx8g}. Le parallélisme du tri suit le pool fork-join commun
+ * ({@code -Djava.util.concurrent.ForkJoinPool.common.parallelism=N}).
+ */
+public final class BulkLoadBenchmark {
+
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<RDFTriple> triples = generateTriples(n);
+        System.out.printf("%,d triplets, parallélisme fork-join %d%n", n, ForkJoinPool.getCommonPoolParallelism());
+
+        long hexaStore = Long.MAX_VALUE;
+        long bulk = Long.MAX_VALUE;
+        long build = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            new RDFHexaStore().addAll(triples);
+            hexaStore = Math.min(hexaStore, (System.nanoTime() - start) / 1_000_000);
+
+            start = System.nanoTime();
+            BulkLoader loader = new BulkLoader();
+            loader.addAll(triples);
+            long encoded = System.nanoTime();
+            FrozenRDFHexaStore store = loader.build();
+            long end = System.nanoTime();
+            bulk = Math.min(bulk, (end - start) / 1_000_000);
+            build = Math.min(build, (end - encoded) / 1_000_000);
+            if (store.size() == 0) {
+                throw new IllegalStateException("Store vide");
+            }
+        }
+        System.out.printf("RDFHexaStore.addAll : %6d ms%n", hexaStore);
+        System.out.printf("BulkLoader          : %6d ms (dont tri et index %d ms)%n", bulk, build);
+    }
+
+    private static List<RDFTriple> generateTriples(int n) {
+        List<RDFTriple> triples = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            triples.add(new RDFTriple(
+                    literal(WSDBM + "User" + i / 4),
+                    literal(WSDBM + "property" + (i % 40)),
+                    i % 2 == 0 ? literal(WSDBM + "Country" + (i % 250)) : literal("\"" + i + "\"")));
+        }
+        return triples;
+    }
+}
@@ -0,0 +1,127 @@
+package qengine.program;
+
+import qengine.model.RDFTriple;
+import qengine.storage.BulkLoader;
+import qengine.storage.EncodedRDFStorage;
+import qengine.storage.FrozenRDFHexaStore;
+import qengine.storage.RDFDictionary;
+import qengine.storage.RDFHexaStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+import static qengine.program.Benchmarks.usedHeap;
+
+/**
+ * Feuilles d'index compressées (différences + varint) contre feuilles {@code HashSet}.
+ * <p>
+ * Sur des triplets générés à la manière de WatDiv, compare {@link RDFHexaStore} et
+ * {@link FrozenRDFHexaStore} avec et sans compression : octets par
+ * triplet des index (tas occupé moins le dictionnaire pour {@link RDFHexaStore},
+ * {@link FrozenRDFHexaStore#indexBytes()} pour les stores figés) et débit de parcours des motifs
+ * {@code (?s, p, ?o)} et {@code (s, ?p, ?o)}.
+ * Usage : {@code CompressedIndexBenchmark [triplets]} (500 000 par défaut), avec par
+ * exemple {@code -Xmx4g -XX:+UseSerialGC}.
+ */
+public final class CompressedIndexBenchmark {
+
+    private static final int RUNS = 3;
+    private static final int SCANS = 10;
+
+    // Garde la structure mesurée atteignable pendant la mesure
+    private static Object retained;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        List<RDFTriple> triples = generateTriples(n);
+        System.out.printf("%,d triplets%n", n);
+
+        long before = usedHeap();
+        RDFDictionary dictionary = new RDFDictionary();
+        for (RDFTriple triple : triples) {
+            dictionary.encode(triple.getTripleSubject().toString());
+            dictionary.encode(triple.getTriplePredicate().toString());
+            dictionary.encode(triple.getTripleObject().toString());
+        }
+        retained = dictionary;
+        long dictionaryHeap = usedHeap() - before;
+        retained = null;
+
+        report("RDFHexaStore (HashSet)", n, dictionaryHeap, () -> {
+            RDFHexaStore store = new RDFHexaStore(new RDFDictionary());
+            store.addAll(triples);
+            return store;
+        });
+        report("FrozenRDFHexaStore", n, dictionaryHeap, () -> load(triples, false));
+        report("Frozen, varint", n, dictionaryHeap, () -> load(triples, true));
+    }
+
+    private static EncodedRDFStorage load(List<RDFTriple> triples, boolean compressed) {
+        BulkLoader loader = new BulkLoader(new RDFDictionary());
+        loader.addAll(triples);
+        return loader.build(compressed);
+    }
+
+    private static void report(String label, int n, long dictionaryHeap, Supplier<EncodedRDFStorage> factory) {
+        long before = usedHeap();
+        EncodedRDFStorage store = factory.get();
+        retained = store;
+        long heap = usedHeap() - before;
+
+        int[] predicates = new int[40];
+        for (int k = 0; k < predicates.length; k++) {
+            predicates[k] = store.getDictionary().getIdOrNull(WSDBM + "property" + k);
+        }
+        int[] subjects = new int[n / 4];
+        for (int k = 0; k < subjects.length; k++) {
+            subjects[k] = store.getDictionary().getIdOrNull(WSDBM + "User" + k);
+        }
+        long[] checksum = {0};
+        long byPredicate = best(() -> {
+            for (int round = 0; round < SCANS; round++) {
+                for (int p : predicates) {
+                    store.forEachMatch(EncodedRDFStorage.ANY, p, EncodedRDFStorage.ANY, (s, foundP, o) -> checksum[0] += o);
+                }
+            }
+        });
+        long bySubject = best(() -> {
+            for (int round = 0; round < SCANS; round++) {
+                for (int s : subjects) {
+                    store.forEachMatch(s, EncodedRDFStorage.ANY, EncodedRDFStorage.ANY, (foundS, p, o) -> checksum[0] += o);
+                }
+            }
+        });
+        retained = null;
+        long index = store instanceof FrozenRDFHexaStore frozen ? frozen.indexBytes() : heap - dictionaryHeap;
+        System.out.printf("%-23s : index %7.1f o/triplet | (?s, p, ?o) %6.1f triplets/µs | (s, ?p, ?o) %6.1f triplets/µs%n",
+                label, (double) index / n, throughput(n, byPredicate), throughput(n, bySubject));
+    }
+
+    private static double throughput(int n, long ms) {
+        return (double) SCANS * n / 1000.0 / Math.max(1, ms);
+    }
+
+    private static long best(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+
+    private static List<RDFTriple> generateTriples(int n) {
+        List<RDFTriple> triples = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            triples.add(new RDFTriple(
+                    literal(WSDBM + "User" + i / 4),
+                    literal(WSDBM + "property" + (i % 40)),
+                    i % 2 == 0 ? literal(WSDBM + "Country" + (i % 250)) : literal("\"" + i + "\"")));
+        }
+        return triples;
+    }
+}
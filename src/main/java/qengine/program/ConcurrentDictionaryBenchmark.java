@@ -0,0 +1,95 @@
+package qengine.program;
+
+import qengine.storage.ConcurrentRDFDictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static qengine.program.Benchmarks.WSDBM;
+
+/**
+ * Débit d'encodage de {@link ConcurrentRDFDictionary} selon le nombre de threads.
+ * <p>
+ * Simule un chargement WatDiv : chaque thread encode sa part d'un flux de triplets
+ * (sujet, prédicat, objet), où les prédicats et une partie des objets se répètent
+ * beaucoup et où sujets et littéraux sont majoritairement nouveaux. Pour chaque
+ * nombre de threads, un dictionnaire neuf est rempli plusieurs fois et le meilleur
+ * temps est retenu.
+ * <p>
+ * Usage : {@code ConcurrentDictionaryBenchmark [triplets] [threadsMax]}
+ * (2 000 000 triplets et 16 threads par défaut).
+ */
+public final class ConcurrentDictionaryBenchmark {
+
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int triples = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        String[] terms = generateTriples(triples);
+        System.out.printf("%,d triplets (%,d termes), %d processeurs%n",
+                triples, terms.length, Runtime.getRuntime().availableProcessors());
+        System.out.println("threads | Mtermes/s | accélération");
+
+        double reference = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                best = Math.min(best, timeLoad(terms, threads));
+            }
+            // Termes par microseconde = millions de termes par seconde
+            double throughput = (double) terms.length / best;
+            if (threads == 1) {
+                reference = throughput;
+            }
+            System.out.printf("%7d | %9.2f | %.2fx%n", threads, throughput, throughput / reference);
+        }
+    }
+
+    /**
+     * Encode tous les termes avec le nombre de threads donné.
+     *
+     * @return la durée en microsecondes
+     */
+    private static long timeLoad(String[] terms, int threads) throws Exception {
+        ConcurrentRDFDictionary dictionary = new ConcurrentRDFDictionary(16 * threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            int chunk = (terms.length + threads - 1) / threads;
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int from = t * chunk;
+                int to = Math.min(terms.length, from + chunk);
+                futures.add(pool.submit(() -> {
+                    for (int i = from; i < to; i++) {
+                        dictionary.encode(terms[i]);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return (System.nanoTime() - start) / 1_000;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String[] generateTriples(int triples) {
+        String[] terms = new String[triples * 3];
+        for (int i = 0; i < triples; i++) {
+            int subject = i / 4;
+            terms[3 * i] = WSDBM + "User" + subject;
+            terms[3 * i + 1] = WSDBM + "property" + (i % 40);
+            terms[3 * i + 2] = i % 2 == 0
+                    ? WSDBM + "Country" + (i % 250)
+                    : "\"" + i + "\"";
+        }
+        return terms;
+    }
+}
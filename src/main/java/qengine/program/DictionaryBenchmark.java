@@ -0,0 +1,219 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Term;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import qengine.model.RDFTriple;
+import qengine.parser.RDFTriplesParser;
+import qengine.storage.InlineRDFDictionary;
+import qengine.storage.NamespaceRDFDictionary;
+import qengine.storage.OffHeapRDFDictionary;
+import qengine.storage.RDFDictionary;
+import qengine.storage.TermDictionary;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.usedHeap;
+
+/**
+ * Mesure l'occupation mémoire des différents dictionnaires.
+ * <p>
+ * Les termes sont soit lus depuis un fichier N-Triples (argument se terminant par
+ * {@code .nt}), soit générés à la manière de WatDiv (argument numérique : nombre
+ * de termes distincts, 1 000 000 par défaut). Chaque dictionnaire reçoit sa propre
+ * copie des chaînes : le tas mesuré comprend donc tout ce que le dictionnaire
+ * retient, chaînes comprises. L'ancienne implémentation basée sur deux
+ * {@code HashMap} (chaîne → Integer et Integer → chaîne) sert de référence.
+ * Pour les petits fichiers, plusieurs dictionnaires identiques sont construits
+ * (au moins un million de termes au total) afin que la mesure ne soit pas noyée
+ * dans le bruit du GC. Pour {@link OffHeapRDFDictionary}, l'arène hors tas est
+ * affichée à part. Pour {@link InlineRDFDictionary}, le coût par terme est ramené
+ * au nombre total de termes distincts, valeurs en ligne comprises.
+ * <p>
+ * Le débit est ensuite mesuré sur toutes les occurrences : encodage dans un
+ * dictionnaire vide, puis recherche ({@code getIdOrNull}) dans le dictionnaire
+ * rempli, en gardant le meilleur de plusieurs passes.
+ * <p>
+ * À lancer avec un tas suffisant, par exemple {@code java -Xmx4g ... DictionaryBenchmark 1000000}.
+ */
+public final class DictionaryBenchmark {
+
+    private static final String SCHEMA = "http://schema.org/";
+    private static final String[] WSDBM_CLASSES = {"User", "Product", "Review", "Offer", "Retailer", "City"};
+    private static final String[] SCHEMA_PROPERTIES = {"birthDate", "nationality", "eligibleRegion",
+            "caption", "text", "contentRating", "keywords", "trailer", "language", "email"};
+
+    private static final int ROUNDS = 5;
+
+    // Garde la structure mesurée atteignable pendant la mesure
+    private static Object retained;
+
+    public static void main(String[] args) throws IOException {
+        String input = args.length > 0 ? args[0] : "1000000";
+        String[] occurrences = input.endsWith(".nt")
+                ? readTerms(input)
+                : generateTerms(Integer.parseInt(input));
+
+        int distinct = countDistinct(occurrences);
+        int copies = Math.max(1, 1_000_000 / Math.max(1, distinct));
+        System.out.printf("Entrée : %s — %,d occurrences, %,d termes distincts, %d copie(s)%n",
+                input, occurrences.length, distinct, copies);
+
+        long terms = (long) distinct * copies;
+        report("HashMap x2 (référence)", measureBaseline(occurrences, copies), terms);
+        report("RDFDictionary", measure(RDFDictionary::new, occurrences, copies), terms);
+        report("NamespaceRDFDictionary", measure(NamespaceRDFDictionary::new, occurrences, copies), terms);
+        report("InlineRDFDictionary", measure(InlineRDFDictionary::new, occurrences, copies), terms);
+        report("Inline + Namespace", measure(
+                () -> new InlineRDFDictionary(new NamespaceRDFDictionary()), occurrences, copies), terms);
+
+        // Blocs d'arène proportionnés à l'entrée, pour ne pas réserver 16 Mo par petite copie
+        int chunkSize = Math.min(1 << 20, Math.max(4096, distinct * 64));
+        List<OffHeapRDFDictionary> offHeap = new ArrayList<>();
+        report("OffHeapRDFDictionary (tas)", measure(() -> {
+            OffHeapRDFDictionary dictionary = new OffHeapRDFDictionary(chunkSize);
+            offHeap.add(dictionary);
+            return dictionary;
+        }, occurrences, copies), terms);
+        long arena = offHeap.stream().mapToLong(OffHeapRDFDictionary::offHeapBytes).sum();
+        System.out.printf("  arène hors tas : %,d octets (blocs de %,d octets)%n", arena, chunkSize);
+
+        System.out.println();
+        System.out.println("Débit (ns par occurrence, meilleur de " + ROUNDS + " passes) :");
+        throughput("RDFDictionary", RDFDictionary::new, occurrences);
+        throughput("NamespaceRDFDictionary", NamespaceRDFDictionary::new, occurrences);
+        throughput("InlineRDFDictionary", InlineRDFDictionary::new, occurrences);
+        throughput("Inline + Namespace", () -> new InlineRDFDictionary(new NamespaceRDFDictionary()), occurrences);
+        throughput("OffHeapRDFDictionary", () -> new OffHeapRDFDictionary(chunkSize), occurrences);
+    }
+
+    private static void throughput(String label, Supplier<TermDictionary> factory, String[] terms) {
+        TermDictionary[] filled = new TermDictionary[1];
+        long encode = best(() -> {
+            TermDictionary dictionary = factory.get();
+            for (String term : terms) {
+                dictionary.encode(term);
+            }
+            filled[0] = dictionary;
+        });
+        long[] found = {0};
+        long lookup = best(() -> {
+            for (String term : terms) {
+                if (filled[0].getIdOrNull(term) != null) {
+                    found[0]++;
+                }
+            }
+        });
+        System.out.printf("%-28s : encode %6.1f ns, getIdOrNull %6.1f ns%n",
+                label, (double) encode / terms.length, (double) lookup / terms.length);
+    }
+
+    /**
+     * Meilleur temps, en nanosecondes, sur {@link #ROUNDS} exécutions.
+     */
+    private static long best(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void report(String label, long bytes, long terms) {
+        System.out.printf("%-28s : %,14d octets, %.1f o/terme%n", label, bytes, (double) bytes / terms);
+    }
+
+    /**
+     * Termes (sujet, prédicat, objet de chaque triplet) tels que les stores les encodent.
+     */
+    private static String[] readTerms(String ntFile) throws IOException {
+        List<String> terms = new ArrayList<>();
+        try (RDFTriplesParser parser = new RDFTriplesParser(new FileReader(ntFile), RDFFormat.NTRIPLES)) {
+            while (parser.hasNext()) {
+                RDFTriple triple = parser.next();
+                for (Term term : triple.getTerms()) {
+                    terms.add(term.toString());
+                }
+            }
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    /**
+     * Génère des termes distincts ayant la forme de ceux de WatDiv : IRIs wsdbm
+     * et schema.org, dates et entiers littéraux.
+     */
+    private static String[] generateTerms(int n) {
+        String[] terms = new String[n];
+        for (int i = 0; i < n; i++) {
+            terms[i] = switch (i % 8) {
+                case 0 -> "\"" + (1950 + i % 60) + "-" + (1 + i % 12) + "-" + (1 + i % 28) + "-" + i + "\"";
+                case 1 -> "\"" + i + "\"";
+                case 2 -> SCHEMA + SCHEMA_PROPERTIES[i % SCHEMA_PROPERTIES.length] + i;
+                default -> WSDBM + WSDBM_CLASSES[i % WSDBM_CLASSES.length] + i;
+            };
+        }
+        return terms;
+    }
+
+    private static int countDistinct(String[] terms) {
+        RDFDictionary dictionary = new RDFDictionary();
+        for (String term : terms) {
+            dictionary.encode(term);
+        }
+        return dictionary.size();
+    }
+
+    private static long measureBaseline(String[] terms, int copies) {
+        long before = usedHeap();
+        Object[] dictionaries = new Object[copies];
+        for (int c = 0; c < copies; c++) {
+            Map<String, Integer> stringToInt = new HashMap<>();
+            Map<Integer, String> intToString = new HashMap<>();
+            int nextId = 0;
+            for (String term : terms) {
+                String copy = copyOf(term);
+                if (!stringToInt.containsKey(copy)) {
+                    stringToInt.put(copy, nextId);
+                    intToString.put(nextId, copy);
+                    nextId++;
+                }
+            }
+            dictionaries[c] = new Object[]{stringToInt, intToString};
+        }
+        retained = dictionaries;
+        long after = usedHeap();
+        retained = null;
+        return after - before;
+    }
+
+    private static long measure(Supplier<TermDictionary> factory, String[] terms, int copies) {
+        long before = usedHeap();
+        TermDictionary[] dictionaries = new TermDictionary[copies];
+        for (int c = 0; c < copies; c++) {
+            dictionaries[c] = factory.get();
+            for (String term : terms) {
+                dictionaries[c].encode(copyOf(term));
+            }
+        }
+        retained = dictionaries;
+        long after = usedHeap();
+        retained = null;
+        return after - before;
+    }
+
+    /**
+     * Copie indépendante de la chaîne, comme celle produite par le parseur pour chaque triplet.
+     */
+    private static String copyOf(String term) {
+        return new String(term.toCharArray());
+    }
+}
@@ -0,0 +1,111 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+import qengine.storage.FrozenRDFHexaStore;
+import qengine.storage.RDFHexaStore;
+import qengine.storage.RDFStorage;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+
+/**
+ * Premières réponses d'une requête peu sélective : un motif seul
+ * {@code (?x, type, Person)} et une étoile dont les trois motifs couvrent tous les
+ * utilisateurs. Pour chaque requête, affiche le temps jusqu'à la première réponse,
+ * le temps et les octets alloués d'un {@code LIMIT 10}, d'un {@code ASK} et de
+ * l'évaluation complète, sur {@link RDFHexaStore} et {@link FrozenRDFHexaStore}.
+ * Usage : {@code LimitBenchmark [utilisateurs]} (200 000 par défaut).
+ */
+public final class LimitBenchmark {
+
+    private static final Literal<String> TYPE = literal("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+    private static final Literal<String> PERSON = literal(WSDBM + "Person");
+    private static final Literal<String> WORKS_FOR = literal(WSDBM + "worksFor");
+    private static final Literal<String> LIVES_IN = literal(WSDBM + "livesIn");
+    private static final Variable X = SameObjectTermFactory.instance().createOrGetVariable("?x");
+    private static final Variable Y = SameObjectTermFactory.instance().createOrGetVariable("?y");
+    private static final Variable Z = SameObjectTermFactory.instance().createOrGetVariable("?z");
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        RDFHexaStore hexaStore = new RDFHexaStore();
+        Random random = new Random(1);
+        for (int i = 0; i < users; i++) {
+            Literal<String> user = literal(WSDBM + "User" + i);
+            hexaStore.add(new RDFTriple(user, TYPE, PERSON));
+            hexaStore.add(new RDFTriple(user, WORKS_FOR, literal(WSDBM + "Company" + random.nextInt(1000))));
+            hexaStore.add(new RDFTriple(user, LIVES_IN, literal(WSDBM + "City" + random.nextInt(100))));
+        }
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(hexaStore);
+        System.out.printf("%,d triplets%n", frozen.size());
+
+        StarQuery pattern = new StarQuery("motif", List.of(new RDFTriple(X, TYPE, PERSON)), List.of(X));
+        StarQuery star = new StarQuery("étoile", List.of(
+                new RDFTriple(X, TYPE, PERSON),
+                new RDFTriple(X, WORKS_FOR, Y),
+                new RDFTriple(X, LIVES_IN, Z)), List.of(X, Y, Z));
+        for (RDFStorage store : List.of(hexaStore, frozen)) {
+            for (StarQuery query : List.of(pattern, star)) {
+                long first = best(() -> {
+                    Iterator<Substitution> answers = store.match(query);
+                    return answers.hasNext() ? answers.next().keys().size() : 0;
+                });
+                long limit = best(() -> count(store.match(query, 10)));
+                long ask = best(() -> store.ask(query) ? 1 : 0);
+                long full = best(() -> count(store.match(query)));
+                System.out.printf("%-18s %-7s : 1re réponse %,10.1f µs, LIMIT 10 %,10.1f µs %,12d o, ASK %,10.1f µs, complète %,12.1f µs %,14d o (%,d réponses)%n",
+                        store.getClass().getSimpleName(), query.getLabel(), first / 1000.0,
+                        limit / 1000.0, allocated(() -> count(store.match(query, 10))), ask / 1000.0,
+                        full / 1000.0, allocated(() -> count(store.match(query))), count(store.match(query)));
+            }
+        }
+    }
+
+    /**
+     * Temps minimal sur cinq exécutions, en nanosecondes.
+     */
+    private static long best(LongSupplier run) {
+        long best = Long.MAX_VALUE;
+        long sink = 0;
+        for (int r = 0; r < 5; r++) {
+            long start = System.nanoTime();
+            sink += run.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink < 0) {
+            throw new IllegalStateException();
+        }
+        return best;
+    }
+
+    /**
+     * Octets alloués par le thread courant pendant une exécution.
+     */
+    private static long allocated(LongSupplier run) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        run.getAsLong();
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+
+    private static long count(Iterator<Substitution> answers) {
+        long n = 0;
+        for (; answers.hasNext(); answers.next()) {
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,116 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import qengine.model.RDFTriple;
+import qengine.storage.LongRDFDictionary;
+import qengine.storage.LongRDFHexaStore;
+import qengine.storage.RDFDictionary;
+import qengine.storage.RDFHexaStore;
+import qengine.storage.RDFStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+import static qengine.program.Benchmarks.usedHeap;
+
+/**
+ * Coût des identifiants sur 64 bits par rapport aux identifiants {@code int}.
+ * <p>
+ * Compare, sur des triplets générés à la manière de WatDiv :
+ * <ul>
+ *     <li>le débit d'encodage de {@link RDFDictionary} et {@link LongRDFDictionary} ;</li>
+ *     <li>le chargement, le tas occupé et le débit de {@code match} (motifs {@code (?s, p, o)})
+ *     de {@link RDFHexaStore} et {@link LongRDFHexaStore}.</li>
+ * </ul>
+ * Usage : {@code LongIdBenchmark [triplets]} (500 000 par défaut), avec par exemple
+ * {@code -Xmx4g -XX:+UseSerialGC}.
+ */
+public final class LongIdBenchmark {
+
+    private static final int RUNS = 3;
+
+    // Garde la structure mesurée atteignable pendant la mesure
+    private static Object retained;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        List<RDFTriple> triples = generateTriples(n);
+        String[] terms = new String[3 * n];
+        for (int i = 0; i < n; i++) {
+            terms[3 * i] = triples.get(i).getTripleSubject().toString();
+            terms[3 * i + 1] = triples.get(i).getTriplePredicate().toString();
+            terms[3 * i + 2] = triples.get(i).getTripleObject().toString();
+        }
+        System.out.printf("%,d triplets%n", n);
+
+        long intEncode = best(() -> {
+            RDFDictionary dictionary = new RDFDictionary();
+            for (String term : terms) {
+                dictionary.encode(term);
+            }
+        });
+        long longEncode = best(() -> {
+            LongRDFDictionary dictionary = new LongRDFDictionary();
+            for (String term : terms) {
+                dictionary.encode(term);
+            }
+        });
+        System.out.printf("encodage    int : %6d ms | long : %6d ms (%.2fx)%n",
+                intEncode, longEncode, (double) longEncode / intEncode);
+
+        compare("RDFHexaStore", RDFHexaStore::new, triples);
+        compare("LongRDFHexaStore", LongRDFHexaStore::new, triples);
+    }
+
+    private static void compare(String label, Supplier<RDFStorage> factory, List<RDFTriple> triples) {
+        long load = best(() -> factory.get().addAll(triples));
+
+        long before = usedHeap();
+        RDFStorage store = factory.get();
+        store.addAll(triples);
+        retained = store;
+        long heap = usedHeap() - before;
+
+        Variable x = SameObjectTermFactory.instance().createOrGetVariable("?x");
+        List<RDFTriple> patterns = new ArrayList<>();
+        for (int k = 0; k < 40; k++) {
+            patterns.add(new RDFTriple(x, literal(WSDBM + "property" + k), literal(WSDBM + "Country" + (k % 250))));
+        }
+        long[] matched = {0};
+        long match = best(() -> {
+            for (int round = 0; round < 50; round++) {
+                for (RDFTriple pattern : patterns) {
+                    store.match(pattern).forEachRemaining(s -> matched[0]++);
+                }
+            }
+        });
+        retained = null;
+        System.out.printf("%-17s : chargement %6d ms, tas %,12d octets (%.1f o/triplet), match %5d ms%n",
+                label, load, heap, (double) heap / triples.size(), match);
+    }
+
+    private static long best(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+
+    private static List<RDFTriple> generateTriples(int n) {
+        List<RDFTriple> triples = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            triples.add(new RDFTriple(
+                    literal(WSDBM + "User" + i / 4),
+                    literal(WSDBM + "property" + (i % 40)),
+                    i % 2 == 0 ? literal(WSDBM + "Country" + (i % 250)) : literal("\"" + i + "\"")));
+        }
+        return triples;
+    }
+}
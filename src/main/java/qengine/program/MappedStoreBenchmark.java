@@ -0,0 +1,74 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import qengine.model.RDFTriple;
+import qengine.storage.BulkLoader;
+import qengine.storage.FrozenRDFHexaStore;
+import qengine.storage.MappedRDFHexaStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+
+/**
+ * Écriture puis réouverture d'un {@link MappedRDFHexaStore}.
+ * <p>
+ * Charge des triplets générés à la manière de WatDiv, les enregistre dans un
+ * répertoire, puis mesure la réouverture et une série de motifs {@code (?s, p, o)}
+ * servis depuis les fichiers projetés.
+ * Usage : {@code MappedStoreBenchmark [triplets] [répertoire]} (1 000 000 par défaut,
+ * répertoire temporaire sinon).
+ */
+public final class MappedStoreBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("hexastore");
+
+        long start = System.nanoTime();
+        BulkLoader loader = new BulkLoader();
+        for (int i = 0; i < n; i++) {
+            loader.add(new RDFTriple(
+                    literal(WSDBM + "User" + i / 4),
+                    literal(WSDBM + "property" + (i % 40)),
+                    i % 2 == 0 ? literal(WSDBM + "Country" + (i % 250)) : literal("\"" + i + "\"")));
+        }
+        FrozenRDFHexaStore frozen = loader.build();
+        long load = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        MappedRDFHexaStore.write(frozen, directory);
+        long write = (System.nanoTime() - start) / 1_000_000;
+        long bytes;
+        try (Stream<Path> files = Files.list(directory)) {
+            bytes = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+        frozen = null;
+
+        start = System.nanoTime();
+        MappedRDFHexaStore store = MappedRDFHexaStore.open(directory);
+        long open = (System.nanoTime() - start) / 1_000;
+
+        Variable x = SameObjectTermFactory.instance().createOrGetVariable("?x");
+        long[] answers = {0};
+        long[] rounds = new long[2];
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int k = 0; k < 40; k++) {
+                store.match(new RDFTriple(x, literal(WSDBM + "property" + k), literal(WSDBM + "Country" + (k % 250))))
+                        .forEachRemaining(s -> answers[0]++);
+            }
+            rounds[round] = (System.nanoTime() - start) / 1_000;
+        }
+
+        System.out.printf("%,d triplets, %,d octets dans %s%n", store.size(), bytes, directory);
+        System.out.printf("chargement %d ms, écriture %d ms, ouverture %d µs%n", load, write, open);
+        System.out.printf("40 motifs (?x, p, o) : premier passage %d µs, second %d µs (%,d réponses)%n",
+                rounds[0], rounds[1], answers[0]);
+    }
+}
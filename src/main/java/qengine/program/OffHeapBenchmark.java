@@ -0,0 +1,80 @@
+package qengine.program;
+
+import qengine.model.RDFTriple;
+import qengine.storage.OffHeapRDFHexaStore;
+import qengine.storage.RDFHexaStore;
+import qengine.storage.RDFStorage;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+import static qengine.program.Benchmarks.usedHeap;
+
+/**
+ * Tas occupé et pauses du GC : {@link RDFHexaStore} contre {@link OffHeapRDFHexaStore}.
+ * <p>
+ * Charge des triplets générés à la volée à la manière de WatDiv (sans les garder
+ * en mémoire), puis mesure le nombre et la durée cumulée des collections pendant le
+ * chargement, le tas occupé une fois le store chargé et la durée d'un GC complet
+ * ({@code System.gc()}) avec le store vivant.
+ * Usage : {@code OffHeapBenchmark [triplets]} (2 000 000 par défaut), avec par exemple
+ * {@code -Xmx4g -XX:MaxDirectMemorySize=4g}.
+ */
+public final class OffHeapBenchmark {
+
+    // Garde la structure mesurée atteignable pendant la mesure
+    private static Object retained;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        System.out.printf("%,d triplets%n", n);
+        report("RDFHexaStore", n, RDFHexaStore::new);
+        report("OffHeapRDFHexaStore", n, OffHeapRDFHexaStore::new);
+    }
+
+    private static void report(String label, int n, Supplier<RDFStorage> factory) {
+        long heapBefore = usedHeap();
+        long[] gcBefore = gcCountAndTime();
+        long start = System.nanoTime();
+        RDFStorage store = factory.get();
+        for (int i = 0; i < n; i++) {
+            store.add(triple(i));
+        }
+        long load = (System.nanoTime() - start) / 1_000_000;
+        long[] gcAfter = gcCountAndTime();
+        retained = store;
+
+        long heap = usedHeap() - heapBefore;
+        start = System.nanoTime();
+        System.gc();
+        long fullGc = (System.nanoTime() - start) / 1_000_000;
+        String offHeap = store instanceof OffHeapRDFHexaStore offHeapStore
+                ? String.format(", hors tas %,d octets", offHeapStore.offHeapBytes()) : "";
+        System.out.printf("%-20s : chargement %6d ms, %4d GC (%6d ms), tas %,13d octets, GC complet %5d ms%s%n",
+                label, load, gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1], heap, fullGc, offHeap);
+        retained = null;
+    }
+
+    private static RDFTriple triple(int i) {
+        return new RDFTriple(
+                literal(WSDBM + "User" + i / 4),
+                literal(WSDBM + "property" + (i % 40)),
+                i % 2 == 0 ? literal(WSDBM + "Country" + (i % 250)) : literal("\"" + i + "\""));
+    }
+
+    /**
+     * Nombre de collections et temps cumulé (ms), tous collecteurs confondus.
+     */
+    private static long[] gcCountAndTime() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+}
@@ -0,0 +1,61 @@
+package qengine.program;
+
+import qengine.model.RDFTriple;
+import qengine.storage.RDFHexaStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+
+/**
+ * Suppression dans {@link RDFHexaStore} : un appel à {@code remove} par triplet
+ * contre un seul {@code removeAll} trié par lots.
+ * <p>
+ * Charge des triplets générés à la manière de WatDiv puis retire une fraction
+ * tirée au hasard des deux façons, sur deux stores identiques.
+ * Usage : {@code RemoveBenchmark [triplets] [fraction retirée]} (1 000 000 et 0.5 par défaut).
+ */
+public final class RemoveBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        double fraction = args.length > 1 ? Double.parseDouble(args[1]) : 0.5;
+        List<RDFTriple> triples = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            triples.add(triple(i));
+        }
+        List<RDFTriple> removed = new ArrayList<>(triples);
+        Collections.shuffle(removed, new Random(1));
+        removed = removed.subList(0, (int) (fraction * n));
+        System.out.printf("%,d triplets, %,d retirés%n", n, removed.size());
+
+        for (int round = 0; round < 3; round++) {
+            RDFHexaStore store = new RDFHexaStore();
+            store.addAll(triples);
+            long start = System.nanoTime();
+            for (RDFTriple triple : removed) {
+                store.remove(triple);
+            }
+            long single = (System.nanoTime() - start) / 1_000_000;
+
+            RDFHexaStore batched = new RDFHexaStore();
+            batched.addAll(triples);
+            start = System.nanoTime();
+            batched.removeAll(removed);
+            long bulk = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("remove x %,d : %6d ms, removeAll : %6d ms (%,d restants)%n",
+                    removed.size(), single, bulk, batched.size());
+        }
+    }
+
+    private static RDFTriple triple(int i) {
+        return new RDFTriple(
+                literal(WSDBM + "User" + i / 4),
+                literal(WSDBM + "property" + (i % 40)),
+                i % 2 == 0 ? literal(WSDBM + "Country" + (i % 250)) : literal("\"" + i + "\""));
+    }
+}
@@ -0,0 +1,127 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+import qengine.storage.RDFHexaStore;
+import qengine.storage.RDFStorage;
+import qengine.storage.VersionedRDFHexaStore;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+
+/**
+ * Lectures pendant l'ingestion : {@link RDFHexaStore} protégé par un verrou
+ * lecteurs-écrivain contre les instantanés sans verrou de {@link VersionedRDFHexaStore}.
+ * <p>
+ * Un thread charge des triplets générés à la manière de WatDiv pendant que des
+ * threads lecteurs enchaînent des requêtes en étoile ; on mesure la durée du
+ * chargement et le nombre de requêtes terminées pendant ce temps.
+ * Usage : {@code SnapshotReadBenchmark [triplets] [lecteurs]} (500 000 et 4 par défaut).
+ */
+public final class SnapshotReadBenchmark {
+
+    private static final Variable VAR_X = SameObjectTermFactory.instance().createOrGetVariable("?x");
+    private static final Variable VAR_Y = SameObjectTermFactory.instance().createOrGetVariable("?y");
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        System.out.printf("%,d triplets, %d lecteurs, %d processeurs%n",
+                n, readers, Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 2; round++) {
+            ReadWriteLock lock = new ReentrantReadWriteLock();
+            RDFHexaStore locked = new RDFHexaStore();
+            run("RDFHexaStore + verrou", n, readers,
+                    triple -> {
+                        lock.writeLock().lock();
+                        try {
+                            locked.add(triple);
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                    },
+                    query -> {
+                        lock.readLock().lock();
+                        try {
+                            return count(locked, query);
+                        } finally {
+                            lock.readLock().unlock();
+                        }
+                    });
+            VersionedRDFHexaStore versioned = new VersionedRDFHexaStore();
+            run("VersionedRDFHexaStore", n, readers, versioned::add, query -> count(versioned.snapshot(), query));
+        }
+    }
+
+    private interface Writer {
+        void add(RDFTriple triple);
+    }
+
+    private interface Reader {
+        long answer(StarQuery query);
+    }
+
+    private static void run(String label, int n, int readerCount, Writer writer, Reader reader) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(readerCount);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong queries = new AtomicLong();
+        AtomicLong answers = new AtomicLong();
+        Future<?>[] running = new Future<?>[readerCount];
+        for (int r = 0; r < readerCount; r++) {
+            Random random = new Random(r);
+            running[r] = pool.submit(() -> {
+                while (!done.get()) {
+                    answers.addAndGet(reader.answer(query(random)));
+                    queries.incrementAndGet();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            writer.add(triple(i));
+        }
+        long load = (System.nanoTime() - start) / 1_000_000;
+        done.set(true);
+        for (Future<?> future : running) {
+            future.get();
+        }
+        pool.shutdown();
+        System.out.printf("%-22s : chargement %6d ms, %,9d requêtes pendant le chargement (%,d réponses)%n",
+                label, load, queries.get(), answers.get());
+    }
+
+    private static long count(RDFStorage store, StarQuery query) {
+        long count = 0;
+        for (var it = store.match(query); it.hasNext(); it.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static StarQuery query(Random random) {
+        int country = random.nextInt(250) & ~1;
+        return new StarQuery("q", List.of(
+                new RDFTriple(VAR_X, literal(WSDBM + "property" + (country % 40)), literal(WSDBM + "Country" + country)),
+                new RDFTriple(VAR_X, literal(WSDBM + "property" + random.nextInt(40)), VAR_Y)),
+                List.of(VAR_X, VAR_Y));
+    }
+
+    private static RDFTriple triple(int i) {
+        return new RDFTriple(
+                literal(WSDBM + "User" + i / 4),
+                literal(WSDBM + "property" + (i % 40)),
+                i % 2 == 0 ? literal(WSDBM + "Country" + (i % 250)) : literal("\"" + i + "\""));
+    }
+}
@@ -0,0 +1,141 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+import qengine.storage.FrozenRDFHexaStore;
+import qengine.storage.RDFHexaStore;
+import qengine.storage.RDFStorage;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+
+/**
+ * Requêtes en étoile à trois et quatre motifs, sur le modèle des gabarits Q_3 et
+ * Q_4 de {@code data/STAR_ALL_workload.queryset} (lieu, nationalité, genre, rôle),
+ * plus un gabarit dont un motif lie une seconde variable ({@code ?v0 likes ?v1}).
+ * Les motifs peu sélectifs (genre, rôle) produisent de longues listes de sujets.
+ * <p>
+ * Affiche le temps moyen et les octets alloués par requête de chaque gabarit sur
+ * {@link RDFHexaStore} et {@link FrozenRDFHexaStore}.
+ * Usage : {@code StarJoinBenchmark [utilisateurs] [requêtes par gabarit]} (50 000 et 20 par défaut).
+ */
+public final class StarJoinBenchmark {
+
+    private static final Variable V0 = SameObjectTermFactory.instance().createOrGetVariable("?v0");
+    private static final Variable V1 = SameObjectTermFactory.instance().createOrGetVariable("?v1");
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int perTemplate = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        List<RDFTriple> triples = generateTriples(users);
+        System.out.printf("%,d triplets, %d requêtes par gabarit%n", triples.size(), perTemplate);
+
+        RDFHexaStore hexaStore = new RDFHexaStore();
+        hexaStore.addAll(triples);
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(hexaStore);
+        Random random = new Random(2);
+        List<List<StarQuery>> templates = List.of(
+                queries(perTemplate, random, 3), queries(perTemplate, random, 4), likesQueries(perTemplate, random));
+        List<String> labels = List.of("Q_3", "Q_4", "likes");
+        for (int t = 0; t < templates.size(); t++) {
+            long answers = run(hexaStore, templates.get(t));
+            long hexaTime = best(hexaStore, templates.get(t));
+            long frozenTime = best(frozen, templates.get(t));
+            long hexaBytes = allocated(hexaStore, templates.get(t));
+            long frozenBytes = allocated(frozen, templates.get(t));
+            System.out.printf("%-6s : RDFHexaStore %,12.1f µs/requête %,12d o/requête, FrozenRDFHexaStore %,12.1f µs/requête %,12d o/requête (%,d réponses)%n",
+                    labels.get(t), hexaTime / 1000.0 / perTemplate, hexaBytes / perTemplate,
+                    frozenTime / 1000.0 / perTemplate, frozenBytes / perTemplate, answers);
+        }
+    }
+
+    /**
+     * Temps minimal sur trois exécutions, en nanosecondes.
+     */
+    private static long best(RDFStorage store, List<StarQuery> queries) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            run(store, queries);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * Octets alloués sur le tas par le thread courant pour évaluer les requêtes et
+     * parcourir leurs réponses.
+     */
+    private static long allocated(RDFStorage store, List<StarQuery> queries) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        run(store, queries);
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+
+    private static long run(RDFStorage store, List<StarQuery> queries) {
+        long answers = 0;
+        for (StarQuery query : queries) {
+            for (var it = store.match(query); it.hasNext(); it.next()) {
+                answers++;
+            }
+        }
+        return answers;
+    }
+
+    private static List<RDFTriple> generateTriples(int users) {
+        Random random = new Random(1);
+        List<RDFTriple> triples = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            Literal<String> user = literal(WSDBM + "User" + i);
+            triples.add(new RDFTriple(user, literal("http://purl.org/dc/terms/Location"),
+                    literal(WSDBM + "City" + random.nextInt(100))));
+            // Nationalités biaisées : quelques pays fréquents, comme dans WatDiv
+            triples.add(new RDFTriple(user, literal("http://schema.org/nationality"),
+                    literal(WSDBM + "Country" + (int) (25 * Math.pow(random.nextDouble(), 3)))));
+            triples.add(new RDFTriple(user, literal(WSDBM + "gender"), literal(WSDBM + "Gender" + random.nextInt(2))));
+            triples.add(new RDFTriple(user, literal("http://www.w3.org/1999/02/22-rdf-syntax-ns#type"),
+                    literal(WSDBM + "Role" + random.nextInt(3))));
+            for (int k = random.nextInt(4); k > 0; k--) {
+                triples.add(new RDFTriple(user, literal(WSDBM + "likes"), literal(WSDBM + "Product" + random.nextInt(1000))));
+            }
+        }
+        return triples;
+    }
+
+    private static List<StarQuery> queries(int count, Random random, int size) {
+        List<StarQuery> queries = new ArrayList<>();
+        for (int q = 0; q < count; q++) {
+            List<RDFTriple> patterns = new ArrayList<>(List.of(
+                    new RDFTriple(V0, literal("http://schema.org/nationality"), literal(WSDBM + "Country" + random.nextInt(3))),
+                    new RDFTriple(V0, literal(WSDBM + "gender"), literal(WSDBM + "Gender" + random.nextInt(2))),
+                    new RDFTriple(V0, literal("http://www.w3.org/1999/02/22-rdf-syntax-ns#type"), literal(WSDBM + "Role" + random.nextInt(3)))));
+            if (size == 4) {
+                patterns.addFirst(new RDFTriple(V0, literal("http://purl.org/dc/terms/Location"), literal(WSDBM + "City" + random.nextInt(100))));
+            }
+            queries.add(new StarQuery("Q_" + size, patterns, List.of(V0)));
+        }
+        return queries;
+    }
+
+    private static List<StarQuery> likesQueries(int count, Random random) {
+        List<StarQuery> queries = new ArrayList<>();
+        for (int q = 0; q < count; q++) {
+            queries.add(new StarQuery("likes", List.of(
+                    new RDFTriple(V0, literal(WSDBM + "likes"), V1),
+                    new RDFTriple(V0, literal(WSDBM + "gender"), literal(WSDBM + "Gender" + random.nextInt(2))),
+                    new RDFTriple(V0, literal("http://schema.org/nationality"), literal(WSDBM + "Country" + random.nextInt(3)))),
+                    List.of(V0, V1)));
+        }
+        return queries;
+    }
+}
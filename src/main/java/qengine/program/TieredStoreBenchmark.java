@@ -0,0 +1,95 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import qengine.model.RDFTriple;
+import qengine.storage.RDFDictionary;
+import qengine.storage.RDFHexaStore;
+import qengine.storage.RDFStorage;
+import qengine.storage.TieredRDFHexaStore;
+
+import java.util.Random;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+
+/**
+ * Latences d'insertion et de requête au fil des mises à jour : {@link RDFHexaStore}
+ * contre {@link TieredRDFHexaStore}.
+ * <p>
+ * Les triplets (générés à la manière de WatDiv) arrivent par lots ; après chaque lot
+ * on affiche la latence moyenne et maximale d'un ajout pendant le lot, puis la
+ * latence moyenne d'une requête (un motif {@code (s, p, ?o)} et un motif
+ * {@code (?s, p, o)} tirés au hasard), ainsi que la taille du delta du store à deux
+ * niveaux. Les fusions tournent en arrière-plan pendant les lots suivants.
+ * Usage : {@code TieredStoreBenchmark [triplets] [lots]} (1 000 000 et 10 par défaut).
+ */
+public final class TieredStoreBenchmark {
+
+    private static final int QUERIES = 20_000;
+    private static final Variable VAR = SameObjectTermFactory.instance().createOrGetVariable("?x");
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int batches = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        System.out.printf("%,d triplets en %d lots, %,d requêtes par mesure%n", n, batches, QUERIES);
+        run("RDFHexaStore", new RDFHexaStore(), n, batches);
+        try (TieredRDFHexaStore tiered = new TieredRDFHexaStore(new RDFDictionary(), 50_000)) {
+            run("TieredRDFHexaStore", tiered, n, batches);
+        }
+    }
+
+    private static void run(String label, RDFStorage store, int n, int batches) {
+        System.out.println(label);
+        int batchSize = n / batches;
+        for (int b = 0; b < batches; b++) {
+            long total = 0;
+            long max = 0;
+            for (int i = b * batchSize; i < (b + 1) * batchSize; i++) {
+                RDFTriple triple = triple(i);
+                long start = System.nanoTime();
+                store.add(triple);
+                long elapsed = System.nanoTime() - start;
+                total += elapsed;
+                max = Math.max(max, elapsed);
+            }
+            int loaded = (b + 1) * batchSize;
+            Random random = new Random(b);
+            long results = 0;
+            long start = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                int i = random.nextInt(loaded);
+                RDFTriple pattern = q % 2 == 0
+                        ? new RDFTriple(subject(i), predicate(i), VAR)
+                        : new RDFTriple(VAR, predicate(i), object(i));
+                results += store.howMany(pattern);
+                var matches = store.match(pattern);
+                while (matches.hasNext()) {
+                    matches.next();
+                }
+            }
+            long query = (System.nanoTime() - start) / QUERIES;
+            String delta = store instanceof TieredRDFHexaStore tiered
+                    ? String.format(", delta %,9d", tiered.deltaSize()) : "";
+            System.out.printf("  %,9d triplets : ajout moy %6d ns max %,11d ns, requête %,8d ns (%d résultats)%s%n",
+                    loaded, total / batchSize, max, query, results, delta);
+        }
+    }
+
+    private static RDFTriple triple(int i) {
+        return new RDFTriple(subject(i), predicate(i), object(i));
+    }
+
+    private static Literal<String> subject(int i) {
+        return literal(WSDBM + "User" + i / 4);
+    }
+
+    private static Literal<String> predicate(int i) {
+        return literal(WSDBM + "property" + (i % 40));
+    }
+
+    private static Literal<String> object(int i) {
+        return i % 2 == 0 ? literal(WSDBM + "Country" + (i % 250)) : literal("\"" + i + "\"");
+    }
+}
@@ -0,0 +1,223 @@
+package qengine.program;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Term;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import qengine.model.RDFTriple;
+import qengine.storage.FrozenRDFHexaStore;
+import qengine.storage.LeapfrogTriejoin;
+import qengine.storage.RDFHexaStore;
+import qengine.storage.RDFStorage;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static qengine.program.Benchmarks.WSDBM;
+import static qengine.program.Benchmarks.literal;
+
+/**
+ * Requêtes en chaîne et cycliques, sur le modèle des gabarits
+ * {@code more query templates/testsuite/linear_incremental} (IL-1-5, IL-1-8) et
+ * {@code C*} de WatDiv : {@link LeapfrogTriejoin} contre un plan de jointures
+ * binaires (jointures par hachage de listes de {@link Substitution}, motifs pris
+ * dans l'ordre de la requête).
+ * <p>
+ * Affiche, par gabarit, le temps moyen par requête des deux plans, le nombre de
+ * réponses, la plus grande liste intermédiaire du plan binaire et la taille
+ * cumulée des tries (seule mémoire intermédiaire de Leapfrog Triejoin).
+ * Usage : {@code TriejoinBenchmark [utilisateurs] [requêtes par gabarit]} (20 000 et 10 par défaut).
+ */
+public final class TriejoinBenchmark {
+
+    private static final Literal<String> FOLLOWS = literal(WSDBM + "follows");
+    private static final Literal<String> FRIEND_OF = literal(WSDBM + "friendOf");
+    private static final Literal<String> LIKES = literal(WSDBM + "likes");
+    private static final Literal<String> MAKES_PURCHASE = literal(WSDBM + "makesPurchase");
+    private static final Literal<String> PURCHASE_FOR = literal(WSDBM + "purchaseFor");
+    private static final Literal<String> HAS_REVIEW = literal("http://purl.org/stuff/rev#hasReview");
+    private static final Literal<String> REVIEWER = literal("http://purl.org/stuff/rev#reviewer");
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int perTemplate = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        RDFHexaStore hexaStore = new RDFHexaStore();
+        hexaStore.addAll(generateTriples(users));
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(hexaStore);
+        System.out.printf("%,d triplets, %d requêtes par gabarit%n", frozen.size(), perTemplate);
+
+        Random random = new Random(2);
+        Map<String, List<List<RDFTriple>>> templates = new LinkedHashMap<>();
+        templates.put("IL-1-5", repeat(perTemplate, () -> chain(user(random.nextInt(users)), 5)));
+        templates.put("IL-1-8", repeat(perTemplate, () -> chain(user(random.nextInt(users)), 8)));
+        templates.put("C-suivis", repeat(perTemplate, () -> followedTwice(user(random.nextInt(users)))));
+        templates.put("C-triangle", List.of(triangle()));
+
+        for (Map.Entry<String, List<List<RDFTriple>>> template : templates.entrySet()) {
+            List<List<RDFTriple>> queries = template.getValue();
+            long[] peak = {0};
+            long answers = 0;
+            long tries = 0;
+            long start = System.nanoTime();
+            for (List<RDFTriple> atoms : queries) {
+                answers += binaryPlan(frozen, atoms, peak).size();
+            }
+            long binaryTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long leapfrogAnswers = 0;
+            LeapfrogTriejoin join = new LeapfrogTriejoin(frozen);
+            for (List<RDFTriple> atoms : queries) {
+                for (var it = join.evaluate(atoms, variables(atoms)); it.hasNext(); it.next()) {
+                    leapfrogAnswers++;
+                }
+            }
+            long leapfrogTime = System.nanoTime() - start;
+            for (List<RDFTriple> atoms : queries) {
+                for (RDFTriple atom : atoms) {
+                    tries += frozen.howMany(atom);
+                }
+            }
+            if (answers != leapfrogAnswers) {
+                throw new IllegalStateException("Les deux plans ne donnent pas les mêmes réponses pour " + template.getKey());
+            }
+            System.out.printf("%-10s : binaire %,12.1f µs/requête (liste max. %,10d), leapfrog %,10.1f µs/requête (tries %,9d) : %,d réponses%n",
+                    template.getKey(), binaryTime / 1000.0 / queries.size(), peak[0],
+                    leapfrogTime / 1000.0 / queries.size(), tries / queries.size(), answers);
+        }
+    }
+
+    /**
+     * Plan de jointures binaires : chaque motif est évalué seul, puis joint par hachage
+     * au résultat des motifs précédents sur leurs variables communes.
+     */
+    private static List<Substitution> binaryPlan(RDFStorage store, List<RDFTriple> atoms, long[] peak) {
+        List<Substitution> left = new ArrayList<>();
+        store.match(atoms.getFirst()).forEachRemaining(left::add);
+        Set<Variable> bound = new HashSet<>(variables(atoms.subList(0, 1)));
+        for (RDFTriple atom : atoms.subList(1, atoms.size())) {
+            List<Substitution> right = new ArrayList<>();
+            store.match(atom).forEachRemaining(right::add);
+            List<Variable> shared = variables(List.of(atom)).stream().filter(bound::contains).toList();
+            Map<List<Term>, List<Substitution>> byKey = new HashMap<>();
+            for (Substitution substitution : right) {
+                byKey.computeIfAbsent(key(substitution, shared), k -> new ArrayList<>()).add(substitution);
+            }
+            List<Substitution> joined = new ArrayList<>();
+            for (Substitution substitution : left) {
+                for (Substitution other : byKey.getOrDefault(key(substitution, shared), List.of())) {
+                    substitution.merged(other).ifPresent(joined::add);
+                }
+            }
+            peak[0] = Math.max(peak[0], Math.max(left.size(), right.size()));
+            left = joined;
+            bound.addAll(variables(List.of(atom)));
+        }
+        return left;
+    }
+
+    private static List<Term> key(Substitution substitution, List<Variable> shared) {
+        return shared.stream().map(substitution::createImageOf).toList();
+    }
+
+    private static List<Variable> variables(List<RDFTriple> atoms) {
+        Set<Variable> variables = new LinkedHashSet<>();
+        for (RDFTriple atom : atoms) {
+            for (Term term : atom.getTerms()) {
+                if (term.isVariable()) {
+                    variables.add((Variable) term);
+                }
+            }
+        }
+        return new ArrayList<>(variables);
+    }
+
+    private static List<RDFTriple> generateTriples(int users) {
+        Random random = new Random(1);
+        int products = Math.max(1, users / 10);
+        List<RDFTriple> triples = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            Literal<String> user = user(i);
+            for (int k = 0; k < 8; k++) {
+                // Suivis biaisés vers les premiers utilisateurs, comme la popularité dans WatDiv
+                triples.add(new RDFTriple(user, FOLLOWS, user((int) (users * Math.pow(random.nextDouble(), 2)))));
+            }
+            for (int k = 0; k < 5; k++) {
+                triples.add(new RDFTriple(user, FRIEND_OF, user(random.nextInt(users))));
+            }
+            for (int k = random.nextInt(4); k > 0; k--) {
+                triples.add(new RDFTriple(user, LIKES, product(random.nextInt(products))));
+            }
+            for (int k = random.nextInt(3); k > 0; k--) {
+                Literal<String> purchase = literal(WSDBM + "Purchase" + i + "_" + k);
+                triples.add(new RDFTriple(user, MAKES_PURCHASE, purchase));
+                triples.add(new RDFTriple(purchase, PURCHASE_FOR, product(random.nextInt(products))));
+            }
+        }
+        for (int i = 0; i < products; i++) {
+            for (int k = random.nextInt(6); k > 0; k--) {
+                Literal<String> review = literal(WSDBM + "Review" + i + "_" + k);
+                triples.add(new RDFTriple(product(i), HAS_REVIEW, review));
+                triples.add(new RDFTriple(review, REVIEWER, user((int) (users * Math.pow(random.nextDouble(), 2)))));
+            }
+        }
+        return triples;
+    }
+
+    /**
+     * Chaîne de {@code length} motifs issue d'un utilisateur, comme IL-1-5 à IL-1-10.
+     */
+    private static List<RDFTriple> chain(Literal<String> start, int length) {
+        List<Literal<String>> predicates = List.of(FOLLOWS, LIKES, HAS_REVIEW, REVIEWER, FRIEND_OF,
+                MAKES_PURCHASE, PURCHASE_FOR, HAS_REVIEW, REVIEWER, FRIEND_OF);
+        List<RDFTriple> atoms = new ArrayList<>();
+        Term subject = start;
+        for (int k = 0; k < length; k++) {
+            Variable object = variable("?v" + (k + 1));
+            atoms.add(new RDFTriple(subject, predicates.get(k), object));
+            subject = object;
+        }
+        return atoms;
+    }
+
+    /**
+     * Cycle par une constante : utilisateurs suivis par l'utilisateur et par quelqu'un qu'il suit.
+     */
+    private static List<RDFTriple> followedTwice(Literal<String> user) {
+        return List.of(
+                new RDFTriple(user, FOLLOWS, variable("?v1")),
+                new RDFTriple(variable("?v1"), FOLLOWS, variable("?v2")),
+                new RDFTriple(user, FOLLOWS, variable("?v2")));
+    }
+
+    /**
+     * Triangle d'amitiés sur tout le graphe.
+     */
+    private static List<RDFTriple> triangle() {
+        return List.of(
+                new RDFTriple(variable("?v0"), FRIEND_OF, variable("?v1")),
+                new RDFTriple(variable("?v1"), FRIEND_OF, variable("?v2")),
+                new RDFTriple(variable("?v2"), FRIEND_OF, variable("?v0")));
+    }
+
+    private static <T> List<T> repeat(int count, Supplier<T> supplier) {
+        List<T> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(supplier.get());
+        }
+        return values;
+    }
+
+    private static Literal<String> user(int i) {
+        return literal(WSDBM + "User" + i);
+    }
+
+    private static Literal<String> product(int i) {
+        return literal(WSDBM + "Product" + i);
+    }
+
+    private static Variable variable(String name) {
+        return SameObjectTermFactory.instance().createOrGetVariable(name);
+    }
+}
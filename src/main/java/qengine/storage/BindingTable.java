@@ -0,0 +1,177 @@
+package qengine.storage;
+
+import java.util.Arrays;
+
+/**
+ * Table de liaisons des évaluateurs : des lignes de largeur fixe (une case par
+ * variable de la requête, {@link EncodedRDFStorage#ANY} si elle n'est pas liée),
+ * rangées bout à bout dans un seul tableau d'entiers.
+ * <p>
+ * Ajouter, fusionner ou trier des lignes n'alloue pas d'objet par ligne : seul le
+ * tableau grandit, par doublement. Les {@code Substitution}s ne sont construites
+ * qu'à la sortie de l'évaluation.
+ */
+final class BindingTable {
+    private static final int ANY = EncodedRDFStorage.ANY;
+    // Taille initiale maximale du tableau : une estimation plus grande est laissée au doublement
+    private static final int MAX_INITIAL_CELLS = 1 << 16;
+    // Taille maximale d'un tableau Java
+    private static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    private final int width;
+    private int[] cells;
+    private int size;
+
+    /**
+     * @param width le nombre de variables d'une ligne
+     */
+    BindingTable(int width) {
+        this(width, 16);
+    }
+
+    /**
+     * @param width    le nombre de variables d'une ligne
+     * @param capacity le nombre de lignes prévu (une estimation, la table grandit au besoin)
+     */
+    BindingTable(int width, long capacity) {
+        this.width = width;
+        long rows = Math.min(Math.max(capacity, 1), MAX_INITIAL_CELLS);
+        this.cells = new int[(int) Math.min(rows * Math.max(1, width), MAX_INITIAL_CELLS)];
+    }
+
+    int width() {
+        return width;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return l'identifiant lié à la variable {@code slot} dans la ligne {@code row}
+     */
+    int get(int row, int slot) {
+        return cells[row * width + slot];
+    }
+
+    /**
+     * Ajoute une ligne dont aucune variable n'est liée.
+     *
+     * @return le numéro de la ligne
+     */
+    int addEmpty() {
+        int row = grow();
+        Arrays.fill(cells, row * width, (row + 1) * width, ANY);
+        return row;
+    }
+
+    /**
+     * Ajoute une copie de {@code values}, de longueur {@link #width()}.
+     */
+    void add(int[] values) {
+        int row = grow();
+        System.arraycopy(values, 0, cells, row * width, width);
+    }
+
+    /**
+     * Ajoute une copie de la ligne {@code row} d'une table de même largeur.
+     */
+    void add(BindingTable from, int row) {
+        int target = grow();
+        System.arraycopy(from.cells, row * width, cells, target * width, width);
+    }
+
+    /**
+     * Lie une variable dans une ligne ; faux si elle y est déjà liée à une autre
+     * valeur (variable répétée dans un motif).
+     */
+    boolean bind(int row, int slot, int id) {
+        if (slot < 0) {
+            return true;
+        }
+        int cell = row * width + slot;
+        if (cells[cell] != ANY && cells[cell] != id) {
+            return false;
+        }
+        cells[cell] = id;
+        return true;
+    }
+
+    void removeLast() {
+        size--;
+    }
+
+    /**
+     * Ajoute la fusion de deux lignes de même largeur, sauf si elles lient une même
+     * variable à deux valeurs différentes.
+     *
+     * @return vrai si la ligne fusionnée a été ajoutée
+     */
+    boolean addMerged(BindingTable left, int l, BindingTable right, int r) {
+        int row = grow();
+        int base = row * width;
+        System.arraycopy(left.cells, l * width, cells, base, width);
+        int other = r * width;
+        for (int k = 0; k < width; k++) {
+            int value = right.cells[other + k];
+            if (value != ANY) {
+                if (cells[base + k] == ANY) {
+                    cells[base + k] = value;
+                } else if (cells[base + k] != value) {
+                    size--;
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trie les lignes par identifiant de la variable {@code slot}, en gardant l'ordre
+     * des lignes de même identifiant.
+     */
+    void sortBy(int slot) {
+        boolean sorted = true;
+        for (int row = 1; row < size && sorted; row++) {
+            sorted = cells[(row - 1) * width + slot] <= cells[row * width + slot];
+        }
+        if (sorted) {
+            return; // Cas fréquent : l'index a rendu les lignes dans l'ordre de cette variable
+        }
+        // Identifiant en poids fort, numéro de ligne en poids faible : l'ordre signé des long est celui voulu
+        long[] order = new long[size];
+        for (int row = 0; row < size; row++) {
+            order[row] = (long) cells[row * width + slot] << 32 | row;
+        }
+        Arrays.sort(order);
+        int[] moved = new int[cells.length];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(cells, (int) order[i] * width, moved, i * width, width);
+        }
+        cells = moved;
+    }
+
+    /**
+     * Réserve la place d'une ligne en fin de table.
+     *
+     * @return le numéro de la nouvelle ligne
+     */
+    private int grow() {
+        long needed = (long) (size + 1) * width;
+        if (needed > cells.length) {
+            if (needed > MAX_CELLS) {
+                throw new IllegalStateException("Trop de lignes pour une table de liaisons: " + (size + 1L));
+            }
+            cells = Arrays.copyOf(cells, (int) Math.min(Math.max(2L * cells.length, needed), MAX_CELLS));
+        }
+        return size++;
+    }
+}
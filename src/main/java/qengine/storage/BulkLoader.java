@@ -0,0 +1,132 @@
+package qengine.storage;
+
+import qengine.model.RDFTriple;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Chargement en masse d'un {@link FrozenRDFHexaStore}.
+ * <p>
+ * Au lieu d'insérer chaque triplet dans six tables imbriquées comme
+ * {@link RDFHexaStore#add(RDFTriple)}, les triplets sont encodés puis accumulés à
+ * plat dans un {@code int[]} (trois cases par triplet). {@link #build()} trie ce
+ * tampon pour chacune des six permutations avec un tri fusion fork-join, puis
+ * construit chaque index en un seul passage sur les triplets triés ; les
+ * statistiques de sélectivité (nombre de triplets par sujet, par couple
+ * sujet-prédicat, etc.) sont les tableaux de positions de ces index.
+ * <p>
+ * Le chargeur n'est utilisable qu'une fois.
+ */
+public class BulkLoader {
+    private final TermDictionary dict;
+    private int[] triples = new int[3 * 1024];
+    private int count;
+    private boolean built;
+
+    /**
+     * @param dict le dictionnaire utilisé pour encoder les termes ; le store construit le partage
+     */
+    public BulkLoader(TermDictionary dict) {
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+    }
+
+    /**
+     * Crée un chargeur avec un {@link RDFDictionary} vide.
+     */
+    public BulkLoader() {
+        this(new RDFDictionary());
+    }
+
+    /**
+     * Encode un triplet et l'ajoute au tampon (les doublons sont éliminés par {@link #build()}).
+     *
+     * @param t le triplet à ajouter
+     */
+    public void add(RDFTriple t) {
+        addIds(dict.encode(t.getTripleSubject().toString()),
+                dict.encode(t.getTriplePredicate().toString()),
+                dict.encode(t.getTripleObject().toString()));
+    }
+
+    /**
+     * Ajoute un triplet déjà encodé par le dictionnaire du chargeur.
+     *
+     * @param s identifiant du sujet
+     * @param p identifiant du prédicat
+     * @param o identifiant de l'objet
+     * @throws IllegalStateException si le store a déjà été construit
+     */
+    public void addIds(int s, int p, int o) {
+        if (built) {
+            throw new IllegalStateException("Le store a déjà été construit.");
+        }
+        if (3 * count == triples.length) {
+            if (count >= Integer.MAX_VALUE / 6) {
+                throw new IllegalStateException("Trop de triplets pour un chargement en masse: " + count);
+            }
+            triples = Arrays.copyOf(triples, 2 * triples.length);
+        }
+        triples[3 * count] = s;
+        triples[3 * count + 1] = p;
+        triples[3 * count + 2] = o;
+        count++;
+    }
+
+    /**
+     * Ajoute tous les triplets du flux.
+     *
+     * @param atoms les triplets à ajouter
+     */
+    public void addAll(Stream<RDFTriple> atoms) {
+        atoms.forEachOrdered(this::add);
+    }
+
+    /**
+     * Ajoute tous les triplets de la collection.
+     *
+     * @param atoms les triplets à ajouter
+     */
+    public void addAll(Collection<RDFTriple> atoms) {
+        addAll(atoms.stream());
+    }
+
+    /**
+     * Retourne le nombre de triplets ajoutés, doublons compris.
+     *
+     * @return le nombre de triplets dans le tampon
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Trie les triplets et construit le store ; le tampon est libéré.
+     *
+     * @return le store figé contenant les triplets ajoutés, sans doublons
+     * @throws IllegalStateException si le store a déjà été construit
+     */
+    public FrozenRDFHexaStore build() {
+        return build(false);
+    }
+
+    /**
+     * Trie les triplets et construit le store, avec ou sans compression des listes
+     * de troisièmes clés ; le tampon est libéré.
+     *
+     * @param compressedLeaves vrai pour un index compressé ({@link VarintLists})
+     * @return le store figé contenant les triplets ajoutés, sans doublons
+     * @throws IllegalStateException si le store a déjà été construit
+     */
+    public FrozenRDFHexaStore build(boolean compressedLeaves) {
+        if (built) {
+            throw new IllegalStateException("Le store a déjà été construit.");
+        }
+        built = true;
+        int[] buffer = triples;
+        triples = null;
+        return new FrozenRDFHexaStore(dict, buffer, count, compressedLeaves);
+    }
+}
@@ -0,0 +1,194 @@
+package qengine.storage;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dictionnaire RDF utilisable par plusieurs threads à la fois, par exemple
+ * pour encoder les termes de plusieurs parseurs en parallèle.
+ * <p>
+ * La table chaîne → identifiant est découpée en segments ({@code stripes}), chacun
+ * étant une table à adressage ouvert protégée par son propre verrou : deux threads
+ * n'attendent l'un l'autre que s'ils encodent des termes tombant dans le même
+ * segment. Les identifiants sont distribués par un compteur atomique et restent
+ * denses (0, 1, 2, ...). Le décodage se fait sans verrou dans un tableau paginé
+ * indexé par identifiant, publié avec une sémantique release/acquire.
+ */
+public class ConcurrentRDFDictionary implements TermDictionary {
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_PAGES = 1 << (31 - PAGE_BITS);
+    private static final int MAX_STRIPES = 1 << 16;
+    private static final int STRIPE_INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final AtomicInteger nextId = new AtomicInteger();
+    // Tableau de décodage paginé : page (id >>> PAGE_BITS), case (id & (PAGE_SIZE - 1))
+    private final AtomicReferenceArray<AtomicReferenceArray<String>> pages =
+            new AtomicReferenceArray<>(MAX_PAGES);
+
+    /**
+     * Crée un dictionnaire avec quatre segments par processeur disponible.
+     */
+    public ConcurrentRDFDictionary() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Crée un dictionnaire avec (au moins) le nombre de segments demandé,
+     * arrondi à la puissance de 2 supérieure.
+     *
+     * @param concurrencyLevel nombre de segments souhaité
+     * @throws IllegalArgumentException si le nombre n'est pas strictement positif
+     */
+    public ConcurrentRDFDictionary(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Le nombre de segments doit être positif: " + concurrencyLevel);
+        }
+        int count = 1;
+        while (count < concurrencyLevel && count < MAX_STRIPES) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        // Les bits de poids fort choisissent le segment, ceux de poids faible la case
+        this.stripeShift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    @Override
+    public int encode(String s) {
+        if (s == null) {
+            throw new IllegalArgumentException("La chaîne ne peut pas être null");
+        }
+        int hash = hash(s);
+        Stripe stripe = stripeFor(hash);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(s, hash);
+            if (stripe.keys[slot] != null) {
+                return stripe.ids[slot];
+            }
+            // Réserve l'identifiant sans jamais dépasser Integer.MAX_VALUE : le compteur ne boucle pas
+            int newId = nextId.getAndUpdate(id -> id == Integer.MAX_VALUE ? id : id + 1);
+            if (newId == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Dictionnaire plein");
+            }
+            // Publier la chaîne avant que l'identifiant ne soit visible par d'autres threads
+            page(newId >>> PAGE_BITS).setRelease(newId & (PAGE_SIZE - 1), s);
+            stripe.insert(slot, s, newId);
+            return newId;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public String decode(int i) {
+        if (i >= 0) {
+            AtomicReferenceArray<String> page = pages.get(i >>> PAGE_BITS);
+            if (page != null) {
+                String value = page.getAcquire(i & (PAGE_SIZE - 1));
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Identifiant inexistant: " + i);
+    }
+
+    @Override
+    public Integer getIdOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        int hash = hash(value);
+        Stripe stripe = stripeFor(hash);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(value, hash);
+            return stripe.keys[slot] == null ? null : stripe.ids[slot];
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Retourne le nombre d'identifiants attribués. Pendant des encodages concurrents,
+     * la valeur peut compter des termes dont l'insertion n'est pas encore terminée.
+     *
+     * @return le nombre d'éléments
+     */
+    @Override
+    public int size() {
+        return nextId.get();
+    }
+
+    private Stripe stripeFor(int hash) {
+        return stripes[stripeShift == 32 ? 0 : hash >>> stripeShift];
+    }
+
+    private AtomicReferenceArray<String> page(int index) {
+        AtomicReferenceArray<String> page = pages.get(index);
+        if (page == null) {
+            pages.compareAndSet(index, null, new AtomicReferenceArray<>(PAGE_SIZE));
+            page = pages.get(index);
+        }
+        return page;
+    }
+
+    private static int hash(String s) {
+        return HashTables.mix(s.hashCode());
+    }
+
+    /**
+     * Segment de la table : table à adressage ouvert (sondage linéaire) protégée par un verrou.
+     */
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        String[] keys = new String[STRIPE_INITIAL_CAPACITY];
+        int[] ids = new int[STRIPE_INITIAL_CAPACITY];
+        int size;
+
+        /**
+         * Case contenant la chaîne, ou case vide où l'insérer.
+         */
+        int find(String s, int hash) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (keys[slot] != null && !keys[slot].equals(s)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        void insert(int slot, String s, int id) {
+            keys[slot] = s;
+            ids[slot] = id;
+            if (HashTables.overloaded(++size, keys.length)) {
+                rehash();
+            }
+        }
+
+        private void rehash() {
+            String[] oldKeys = keys;
+            int[] oldIds = ids;
+            keys = new String[oldKeys.length * 2];
+            ids = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int k = 0; k < oldKeys.length; k++) {
+                if (oldKeys[k] != null) {
+                    int slot = hash(oldKeys[k]) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[k];
+                    ids[slot] = oldIds[k];
+                }
+            }
+        }
+    }
+}
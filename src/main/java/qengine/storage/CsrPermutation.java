@@ -0,0 +1,244 @@
+package qengine.storage;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Une permutation de triplets (par exemple SPO) figée au format CSR
+ * (compressed sparse row) : trois niveaux de tableaux {@code int[]} triés.
+ * <pre>
+ *   keys1[i]                      : i-ème première clé distincte
+ *   keys2[off1[i] .. off1[i+1])   : secondes clés de keys1[i], triées
+ *   keys3[off2[j] .. off2[j+1])   : troisièmes clés de keys2[j], triées
+ * </pre>
+ * Les recherches se font par dichotomie sur des plages contiguës ; les identifiants
+ * peuvent être négatifs (valeurs en ligne), seul leur ordre compte.
+ * <p>
+ * En mode compressé, les listes de troisièmes clés (la plus grande partie de
+ * l'index) sont rangées dans un {@link VarintLists} au lieu de {@code keys3}.
+ */
+final class CsrPermutation implements SortedPermutation {
+    final int[] keys1;
+    final int[] off1;
+    final int[] keys2;
+    final int[] off2;
+    final int[] keys3;
+    final VarintLists packed3;
+
+    /**
+     * Construit la permutation à partir de triplets triés et sans doublons.
+     *
+     * @param sorted les triplets triés, trois cases par triplet, dans l'ordre de la permutation
+     * @param n      le nombre de triplets
+     */
+    CsrPermutation(int[] sorted, int n) {
+        this(sorted, n, false);
+    }
+
+    /**
+     * Construit la permutation à partir de triplets triés et sans doublons.
+     *
+     * @param sorted     les triplets triés, trois cases par triplet, dans l'ordre de la permutation
+     * @param n          le nombre de triplets
+     * @param compressed vrai pour compresser les listes de troisièmes clés
+     */
+    CsrPermutation(int[] sorted, int n, boolean compressed) {
+        int distinct1 = 0;
+        int distinct2 = 0;
+        for (int t = 0; t < n; t++) {
+            boolean new1 = t == 0 || sorted[3 * t] != sorted[3 * t - 3];
+            if (new1) {
+                distinct1++;
+            }
+            if (new1 || sorted[3 * t + 1] != sorted[3 * t - 2]) {
+                distinct2++;
+            }
+        }
+        keys1 = new int[distinct1];
+        off1 = new int[distinct1 + 1];
+        keys2 = new int[distinct2];
+        off2 = new int[distinct2 + 1];
+        int[] leaves = new int[n];
+
+        int i1 = -1;
+        int i2 = -1;
+        for (int t = 0; t < n; t++) {
+            boolean new1 = t == 0 || sorted[3 * t] != sorted[3 * t - 3];
+            if (new1) {
+                keys1[++i1] = sorted[3 * t];
+                off1[i1] = i2 + 1;
+            }
+            if (new1 || sorted[3 * t + 1] != sorted[3 * t - 2]) {
+                keys2[++i2] = sorted[3 * t + 1];
+                off2[i2] = t;
+            }
+            leaves[t] = sorted[3 * t + 2];
+        }
+        off1[distinct1] = distinct2;
+        off2[distinct2] = n;
+        keys3 = compressed ? null : leaves;
+        packed3 = compressed ? new VarintLists(leaves, off2) : null;
+    }
+
+    @Override
+    public int size() {
+        return off2[off2.length - 1];
+    }
+
+    @Override
+    public int distinctFirstKeys() {
+        return keys1.length;
+    }
+
+    /**
+     * @return la position de la première clé dans {@code keys1}, ou -1
+     */
+    @Override
+    public int find1(int a) {
+        return indexOf(keys1, 0, keys1.length, a);
+    }
+
+    /**
+     * @return la position de la seconde clé sous {@code keys1[i1]}, ou -1
+     */
+    @Override
+    public int find2(int i1, int b) {
+        return indexOf(keys2, off1[i1], off1[i1 + 1], b);
+    }
+
+    /**
+     * @return vrai si la troisième clé figure sous {@code keys2[i2]}
+     */
+    @Override
+    public boolean contains3(int i2, int c) {
+        if (packed3 != null) {
+            return packed3.contains(i2, c);
+        }
+        return indexOf(keys3, off2[i2], off2[i2 + 1], c) >= 0;
+    }
+
+    /**
+     * Parcourt les troisièmes clés sous {@code keys2[i2]}, dans l'ordre croissant.
+     */
+    @Override
+    public void forEach3(int i2, IntConsumer action) {
+        if (packed3 != null) {
+            packed3.forEach(i2, action);
+            return;
+        }
+        for (int k = off2[i2]; k < off2[i2 + 1]; k++) {
+            action.accept(keys3[k]);
+        }
+    }
+
+    /**
+     * @return le nombre de triplets dont la première clé est {@code keys1[i1]}
+     */
+    @Override
+    public int count1(int i1) {
+        return off2[off1[i1 + 1]] - off2[off1[i1]];
+    }
+
+    /**
+     * @return le nombre de triplets sous {@code keys2[i2]}
+     */
+    @Override
+    public int count2(int i2) {
+        return off2[i2 + 1] - off2[i2];
+    }
+
+    /**
+     * Parcourt les triplets ayant la première clé {@code keys1[i1]}, dans l'ordre
+     * de la permutation (clés dans l'ordre de la permutation).
+     */
+    @Override
+    public void scan(int i1, EncodedRDFStorage.TripleIdConsumer action) {
+        int a = keys1[i1];
+        if (packed3 == null) {
+            for (int i2 = off1[i1]; i2 < off1[i1 + 1]; i2++) {
+                int b = keys2[i2];
+                for (int k = off2[i2]; k < off2[i2 + 1]; k++) {
+                    action.accept(a, b, keys3[k]);
+                }
+            }
+            return;
+        }
+        int pos = off1[i1] < off1[i1 + 1] ? packed3.seek(off1[i1]) : 0;
+        for (int i2 = off1[i1]; i2 < off1[i1 + 1]; i2++) {
+            int b = keys2[i2];
+            pos = packed3.forEach(i2, pos, c -> action.accept(a, b, c));
+        }
+    }
+
+    @Override
+    public int start2(int i1) {
+        return off1[i1];
+    }
+
+    @Override
+    public EncodedRDFStorage.TripleIdCursor cursor(int i1, int from2, int to2) {
+        int end = from2 < to2 ? off2[to2] : 0;
+        return new EncodedRDFStorage.TripleIdCursor() {
+            private int first = i1;
+            private int pair = from2;
+            private int k = from2 < to2 ? off2[from2] : 0;
+            private final VarintLists.Reader reader = packed3 != null && from2 < to2 ? packed3.reader(from2) : null;
+            private int third;
+
+            @Override
+            public boolean advance() {
+                if (k == end) {
+                    return false;
+                }
+                while (k == off2[pair + 1]) {
+                    pair++;
+                }
+                while (pair == off1[first + 1]) {
+                    first++;
+                }
+                third = reader != null ? reader.next() : keys3[k];
+                k++;
+                return true;
+            }
+
+            @Override
+            public int s() {
+                return keys1[first];
+            }
+
+            @Override
+            public int p() {
+                return keys2[pair];
+            }
+
+            @Override
+            public int o() {
+                return third;
+            }
+        };
+    }
+
+    /**
+     * @return le nombre d'octets occupés par les tableaux de la permutation
+     */
+    long bytes() {
+        long leaves = packed3 != null ? packed3.bytes() : 4L * keys3.length;
+        return 4L * (keys1.length + off1.length + keys2.length + off2.length) + leaves;
+    }
+
+    private static int indexOf(int[] keys, int from, int to, int key) {
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = keys[mid];
+            if (value < key) {
+                low = mid + 1;
+            } else if (value > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,250 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Term;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import fr.boreal.model.logicalElements.impl.SubstitutionImpl;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+
+/**
+ * Store RDF dont les triplets sont encodés par un {@link TermDictionary} et qui
+ * expose ses index au niveau des identifiants.
+ * <p>
+ * Les requêtes en étoile sont alors évaluées entièrement sur des identifiants
+ * ({@link StarQueryEvaluator}) : les termes ne sont décodés que pour les réponses
+ * finales, pour les seules variables réponses, et au fur et à mesure du parcours.
+ * <p>
+ * {@link #match(RDFTriple)} et {@link #howMany(RDFTriple)} ont une implémentation
+ * par défaut fondée sur {@link #cursor} et {@link #howManyIds}. Les réponses sont
+ * produites à la demande : l'itérateur avance le curseur d'index d'un triplet à la
+ * fois, si bien qu'une lecture interrompue (premières réponses, {@code LIMIT},
+ * {@code ASK}) ne coûte que ce qu'elle a lu.
+ */
+public interface EncodedRDFStorage extends RDFStorage {
+
+    /**
+     * Identifiant joker désignant une position libre d'un motif. Aucun dictionnaire
+     * ne produit cette valeur.
+     */
+    int ANY = Integer.MIN_VALUE;
+
+    /**
+     * Reçoit les identifiants d'un triplet.
+     */
+    @FunctionalInterface
+    interface TripleIdConsumer {
+        void accept(int s, int p, int o);
+    }
+
+    /**
+     * Curseur sur les triplets correspondant à un motif encodé, avancé à la demande.
+     * Avant le premier appel à {@link #advance()}, il n'est placé sur aucun triplet.
+     */
+    interface TripleIdCursor {
+        /**
+         * Passe au triplet suivant.
+         *
+         * @return faux s'il n'y en a plus
+         */
+        boolean advance();
+
+        int s();
+
+        int p();
+
+        int o();
+    }
+
+    /**
+     * Retourne le dictionnaire utilisé pour encoder les termes.
+     *
+     * @return le dictionnaire du store
+     */
+    TermDictionary getDictionary();
+
+    /**
+     * Parcourt les triplets correspondant au motif encodé.
+     *
+     * @param s      identifiant du sujet, ou {@link #ANY}
+     * @param p      identifiant du prédicat, ou {@link #ANY}
+     * @param o      identifiant de l'objet, ou {@link #ANY}
+     * @param action appelée pour chaque triplet correspondant
+     */
+    void forEachMatch(int s, int p, int o, TripleIdConsumer action);
+
+    /**
+     * Ouvre un curseur sur les triplets correspondant au motif encodé, dans l'ordre
+     * de {@link #forEachMatch}.
+     * <p>
+     * L'implémentation par défaut recopie les triplets trouvés par
+     * {@link #forEachMatch} avant de rendre la main ; les stores indexés la
+     * remplacent par un parcours pas à pas de leurs index.
+     *
+     * @param s identifiant du sujet, ou {@link #ANY}
+     * @param p identifiant du prédicat, ou {@link #ANY}
+     * @param o identifiant de l'objet, ou {@link #ANY}
+     * @return un curseur placé avant le premier triplet
+     */
+    default TripleIdCursor cursor(int s, int p, int o) {
+        int[][] found = {new int[48]};
+        int[] n = {0};
+        forEachMatch(s, p, o, (ts, tp, to) -> {
+            if (n[0] == found[0].length) {
+                found[0] = Arrays.copyOf(found[0], 2 * n[0]);
+            }
+            found[0][n[0]++] = ts;
+            found[0][n[0]++] = tp;
+            found[0][n[0]++] = to;
+        });
+        int[] triples = found[0];
+        int end = n[0];
+        return new TripleIdCursor() {
+            private int at = -3;
+
+            @Override
+            public boolean advance() {
+                if (at + 3 >= end) {
+                    at = end;
+                    return false;
+                }
+                at += 3;
+                return true;
+            }
+
+            @Override
+            public int s() {
+                return triples[at];
+            }
+
+            @Override
+            public int p() {
+                return triples[at + 1];
+            }
+
+            @Override
+            public int o() {
+                return triples[at + 2];
+            }
+        };
+    }
+
+    /**
+     * Retourne le nombre de triplets correspondant au motif encodé.
+     *
+     * @param s identifiant du sujet, ou {@link #ANY}
+     * @param p identifiant du prédicat, ou {@link #ANY}
+     * @param o identifiant de l'objet, ou {@link #ANY}
+     * @return nombre de triplets correspondants
+     */
+    long howManyIds(int s, int p, int o);
+
+    /**
+     * Retourne le terme associé à un identifiant, tel qu'il apparaît dans les résultats.
+     *
+     * @param id l'identifiant à décoder
+     * @return le terme correspondant
+     */
+    default Term decodeTerm(int id) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(getDictionary().decode(id));
+    }
+
+    /**
+     * Encode les constantes d'un motif, {@link #ANY} pour les variables.
+     *
+     * @return les identifiants (s, p, o), ou null si une constante est inconnue du dictionnaire
+     */
+    private int[] encodePattern(Term[] pattern) {
+        int[] ids = new int[3];
+        for (int k = 0; k < 3; k++) {
+            if (pattern[k].isVariable()) {
+                ids[k] = ANY;
+            } else {
+                Integer id = getDictionary().getIdOrNull(pattern[k].toString());
+                if (id == null) {
+                    return null;
+                }
+                ids[k] = id;
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    default Iterator<Substitution> match(RDFTriple triple) {
+        Term[] pattern = {triple.getTripleSubject(), triple.getTriplePredicate(), triple.getTripleObject()};
+        int[] ids = encodePattern(pattern);
+        if (ids == null) {
+            return Collections.emptyIterator();
+        }
+
+        TripleIdCursor cursor = cursor(ids[0], ids[1], ids[2]);
+        return new Iterator<>() {
+            // Cursor moved to the next answer but not yet returned
+            private boolean ready;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                while (!ready && !exhausted) {
+                    if (!cursor.advance()) {
+                        exhausted = true;
+                    } else {
+                        ready = consistent(pattern, ids, cursor.s(), cursor.p(), cursor.o());
+                    }
+                }
+                return ready;
+            }
+
+            @Override
+            public Substitution next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                int[] found = {cursor.s(), cursor.p(), cursor.o()};
+                Substitution substitution = new SubstitutionImpl();
+                for (int k = 0; k < 3; k++) {
+                    if (ids[k] == ANY) {
+                        substitution.add((Variable) pattern[k], decodeTerm(found[k]));
+                    }
+                }
+                return substitution;
+            }
+        };
+    }
+
+    /**
+     * Variable répétée dans le motif : les identifiants trouvés à ses positions doivent coïncider.
+     */
+    private static boolean consistent(Term[] pattern, int[] ids, int s, int p, int o) {
+        int[] found = {s, p, o};
+        for (int k = 1; k < 3; k++) {
+            for (int j = 0; j < k; j++) {
+                if (ids[k] == ANY && pattern[j].equals(pattern[k]) && found[j] != found[k]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    default long howMany(RDFTriple triple) {
+        int[] ids = encodePattern(new Term[]{triple.getTripleSubject(), triple.getTriplePredicate(), triple.getTripleObject()});
+        return ids == null ? 0 : howManyIds(ids[0], ids[1], ids[2]);
+    }
+
+    @Override
+    default Iterator<Substitution> match(StarQuery q) {
+        return new StarQueryEvaluator(this).evaluate(q);
+    }
+
+    @Override
+    default Iterator<Substitution> match(StarQuery q, long limit) {
+        return new StarQueryEvaluator(this).evaluate(q, limit);
+    }
+}
@@ -0,0 +1,176 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Term;
+import qengine.model.RDFTriple;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Chargement en deux passes attribuant les plus petits identifiants aux termes
+ * les plus fréquents.
+ * <p>
+ * La première passe ({@link #count(RDFTriple)}) compte les occurrences de chaque
+ * terme et repère les prédicats et les classes (objets de {@code rdf:type}).
+ * {@link #seed(TermDictionary)} encode ensuite les termes dans un dictionnaire
+ * vide, dans l'ordre suivant :
+ * <ol>
+ *     <li>les prédicats, du plus fréquent au moins fréquent : identifiants
+ *     {@code [0, predicateCount())} ;</li>
+ *     <li>les classes, de la même façon : identifiants
+ *     {@code [predicateCount(), predicateCount() + classCount())} ;</li>
+ *     <li>tous les autres termes, par fréquence décroissante.</li>
+ * </ol>
+ * Le store construit sur ce dictionnaire retrouve les identifiants déjà attribués
+ * lors de la seconde passe ({@code addAll}). Les termes les plus utilisés ont ainsi
+ * des identifiants petits et proches, ce qui profite aux listes compressées, aux
+ * bitmaps et à la localité des index. À égalité de fréquence, l'ordre de première
+ * apparition est conservé.
+ */
+public class FrequencyOrderedLoader {
+    // IRI de rdf:type, avec ou sans chevrons selon le parseur
+    private static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+    private static final String RDF_TYPE_BRACKETED = "<" + RDF_TYPE + ">";
+
+    // Rôles d'un terme (masque de bits)
+    private static final byte PREDICATE = 1;
+    private static final byte CLASS = 2;
+
+    // Identifiants provisoires, dans l'ordre de première apparition
+    private final RDFDictionary seen = new RDFDictionary();
+    private int[] counts = new int[16];
+    private byte[] roles = new byte[16];
+    private int predicateCount = 0;
+    private int classCount = 0;
+    private boolean seeded = false;
+
+    /**
+     * Charge les triplets dans un store dont le dictionnaire est trié par fréquence.
+     *
+     * @param triples      les triplets à charger
+     * @param storeFactory construit le store à partir du dictionnaire pré-rempli,
+     *                     par exemple {@code RDFHexaStore::new}
+     * @return le store contenant tous les triplets
+     */
+    public static <S extends RDFStorage> S load(Collection<RDFTriple> triples,
+                                                Function<TermDictionary, S> storeFactory) {
+        FrequencyOrderedLoader loader = new FrequencyOrderedLoader();
+        loader.countAll(triples);
+        S store = storeFactory.apply(loader.seed(new RDFDictionary()));
+        store.addAll(triples);
+        return store;
+    }
+
+    /**
+     * Première passe : compte les termes d'un triplet.
+     *
+     * @param triple le triplet à compter
+     */
+    public void count(RDFTriple triple) {
+        if (seeded) {
+            throw new IllegalStateException("Le dictionnaire a déjà été rempli");
+        }
+        String predicate = triple.getTriplePredicate().toString();
+        count(triple.getTripleSubject().toString(), (byte) 0);
+        count(predicate, PREDICATE);
+        boolean type = predicate.equals(RDF_TYPE) || predicate.equals(RDF_TYPE_BRACKETED);
+        count(triple.getTripleObject().toString(), type ? CLASS : 0);
+    }
+
+    /**
+     * Première passe : compte les termes de tous les triplets.
+     *
+     * @param triples les triplets à compter
+     */
+    public void countAll(Collection<RDFTriple> triples) {
+        for (RDFTriple triple : triples) {
+            count(triple);
+        }
+    }
+
+    /**
+     * Encode tous les termes comptés dans le dictionnaire, par rôle puis par
+     * fréquence décroissante. Le dictionnaire doit être vide.
+     *
+     * @param dict le dictionnaire à remplir
+     * @return le même dictionnaire, pour le passer au constructeur d'un store
+     * @throws IllegalArgumentException si le dictionnaire n'est pas vide
+     */
+    public <D extends TermDictionary> D seed(D dict) {
+        Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+        if (dict.size() != 0) {
+            throw new IllegalArgumentException("Le dictionnaire doit être vide.");
+        }
+        seeded = true;
+        int n = seen.size();
+        // Tri par (rang du rôle, fréquence décroissante, ordre d'apparition) sur des clés long ;
+        // le bit de signe est inversé pour que l'ordre signé suive l'ordre non signé
+        long[] keys = new long[n];
+        for (int id = 0; id < n; id++) {
+            long rank = (roles[id] & PREDICATE) != 0 ? 0 : (roles[id] & CLASS) != 0 ? 1 : 2;
+            long frequency = Integer.MAX_VALUE - counts[id];
+            keys[id] = ((rank << 62) | (frequency << 31) | id) ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(keys);
+        for (long key : keys) {
+            dict.encode(seen.decode((int) (key & Integer.MAX_VALUE)));
+        }
+        return dict;
+    }
+
+    /**
+     * Retourne le nombre de prédicats distincts : ils occupent les identifiants
+     * {@code [0, predicateCount())} du dictionnaire rempli.
+     *
+     * @return le nombre de prédicats
+     */
+    public int predicateCount() {
+        return predicateCount;
+    }
+
+    /**
+     * Retourne le nombre de classes distinctes (objets de {@code rdf:type} qui ne
+     * sont pas aussi des prédicats) : elles suivent immédiatement les prédicats.
+     *
+     * @return le nombre de classes
+     */
+    public int classCount() {
+        return classCount;
+    }
+
+    /**
+     * Retourne le nombre d'occurrences comptées pour un terme.
+     *
+     * @param term le terme
+     * @return le nombre d'occurrences, 0 si le terme n'a pas été vu
+     */
+    public int frequency(Term term) {
+        Integer id = seen.getIdOrNull(term.toString());
+        return id == null ? 0 : counts[id];
+    }
+
+    private void count(String term, byte role) {
+        int id = seen.encode(term);
+        if (id == counts.length) {
+            counts = Arrays.copyOf(counts, counts.length * 2);
+            roles = Arrays.copyOf(roles, roles.length * 2);
+        }
+        if (counts[id] < Integer.MAX_VALUE) {
+            counts[id]++;
+        }
+        byte before = roles[id];
+        byte after = (byte) (before | role);
+        if (before != after) {
+            roles[id] = after;
+            // Un prédicat reste dans la plage des prédicats même s'il sert aussi de classe
+            if ((after & PREDICATE) != 0) {
+                predicateCount += (before & PREDICATE) == 0 ? 1 : 0;
+                classCount -= (before & CLASS) != 0 ? 1 : 0;
+            } else {
+                classCount++;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package qengine.storage;
+
+import qengine.model.RDFTriple;
+
+/**
+ * HexaStore figé, optimisé pour la lecture.
+ * <p>
+ * Les six permutations (SPO, SOP, PSO, POS, OSP, OPS) sont rangées au format CSR
+ * ({@link CsrPermutation}) : des tableaux {@code int[]} triés, sans objet par
+ * triplet. {@code match} et {@code howMany} procèdent par dichotomie puis parcours
+ * d'une plage contiguë, et les statistiques de sélectivité se lisent directement
+ * dans les tableaux de positions. Les résultats d'un motif sortent triés par
+ * identifiant, ce dont peuvent profiter des jointures par fusion.
+ * <p>
+ * En mode compressé, les listes de troisièmes clés sont codées par différences en
+ * varint ({@link VarintLists}) : l'index prend moins de place, au prix d'un
+ * décodage séquentiel des listes lors des parcours.
+ * <p>
+ * Le store est construit en une fois à partir d'un autre store encodé et partage
+ * son dictionnaire ; il n'accepte plus d'ajouts.
+ */
+public class FrozenRDFHexaStore extends SortedRDFStore {
+    // SPO, SOP, PSO, POS, OSP, OPS
+    private final CsrPermutation[] permutations;
+
+    /**
+     * Fige le contenu actuel d'un store encodé.
+     *
+     * @param source le store à figer ; son dictionnaire est partagé
+     * @throws IllegalArgumentException si le store contient trop de triplets
+     */
+    public FrozenRDFHexaStore(EncodedRDFStorage source) {
+        this(source, false);
+    }
+
+    /**
+     * Fige le contenu actuel d'un store encodé, avec ou sans compression des listes
+     * de troisièmes clés ({@link VarintLists}).
+     *
+     * @param source           le store à figer ; son dictionnaire est partagé
+     * @param compressedLeaves vrai pour un index compressé, plus compact mais plus lent à parcourir
+     * @throws IllegalArgumentException si le store contient trop de triplets
+     */
+    public FrozenRDFHexaStore(EncodedRDFStorage source, boolean compressedLeaves) {
+        this(source.getDictionary(), collect(source), (int) source.size(), compressedLeaves);
+    }
+
+    /**
+     * Construit le store à partir de triplets encodés (doublons autorisés).
+     *
+     * @param dict    le dictionnaire ayant servi à encoder les triplets
+     * @param triples les triplets, trois cases (s, p, o) par triplet ; le tableau est réutilisé
+     * @param n       le nombre de triplets
+     */
+    FrozenRDFHexaStore(TermDictionary dict, int[] triples, int n) {
+        this(dict, triples, n, false);
+    }
+
+    /**
+     * Construit le store à partir de triplets encodés (doublons autorisés).
+     *
+     * @param dict             le dictionnaire ayant servi à encoder les triplets
+     * @param triples          les triplets, trois cases (s, p, o) par triplet ; le tableau est réutilisé
+     * @param n                le nombre de triplets
+     * @param compressedLeaves vrai pour compresser les listes de troisièmes clés
+     */
+    FrozenRDFHexaStore(TermDictionary dict, int[] triples, int n, boolean compressedLeaves) {
+        this(dict, build(triples, n, compressedLeaves));
+    }
+
+    private FrozenRDFHexaStore(TermDictionary dict, CsrPermutation[] permutations) {
+        super(dict, permutations);
+        this.permutations = permutations;
+    }
+
+    /**
+     * Trie les triplets, retire les doublons et construit les six permutations.
+     */
+    private static CsrPermutation[] build(int[] triples, int n, boolean compressed) {
+        TripleSorter.parallelSort(triples, n);
+        n = removeDuplicates(triples, n);
+        return new CsrPermutation[]{
+                new CsrPermutation(triples, n, compressed),
+                permutation(triples, n, compressed, 0, 2, 1),
+                permutation(triples, n, compressed, 1, 0, 2),
+                permutation(triples, n, compressed, 1, 2, 0),
+                permutation(triples, n, compressed, 2, 0, 1),
+                permutation(triples, n, compressed, 2, 1, 0)};
+    }
+
+    private static int[] collect(EncodedRDFStorage source) {
+        if (source.size() > Integer.MAX_VALUE / 3) {
+            throw new IllegalArgumentException("Trop de triplets pour un store figé: " + source.size());
+        }
+        int[] triples = new int[3 * (int) source.size()];
+        int[] n = {0};
+        source.forEachMatch(ANY, ANY, ANY, (s, p, o) -> {
+            triples[3 * n[0]] = s;
+            triples[3 * n[0] + 1] = p;
+            triples[3 * n[0] + 2] = o;
+            n[0]++;
+        });
+        return triples;
+    }
+
+    private static int removeDuplicates(int[] sorted, int n) {
+        int kept = 0;
+        for (int t = 0; t < n; t++) {
+            if (kept == 0 || TripleSorter.compare(sorted, t, sorted, kept - 1) != 0) {
+                sorted[3 * kept] = sorted[3 * t];
+                sorted[3 * kept + 1] = sorted[3 * t + 1];
+                sorted[3 * kept + 2] = sorted[3 * t + 2];
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Réordonne les triplets SPO selon les positions données, les trie et construit la permutation.
+     */
+    private static CsrPermutation permutation(int[] spo, int n, boolean compressed,
+                                              int first, int second, int third) {
+        int[] permuted = new int[3 * n];
+        for (int t = 0; t < n; t++) {
+            permuted[3 * t] = spo[3 * t + first];
+            permuted[3 * t + 1] = spo[3 * t + second];
+            permuted[3 * t + 2] = spo[3 * t + third];
+        }
+        TripleSorter.parallelSort(permuted, n);
+        return new CsrPermutation(permuted, n, compressed);
+    }
+
+    /**
+     * @throws UnsupportedOperationException toujours : le store est figé
+     */
+    @Override
+    public boolean add(RDFTriple t) {
+        throw new UnsupportedOperationException("Le store figé n'accepte pas d'ajout.");
+    }
+
+    /**
+     * Retourne une estimation de la mémoire occupée par les six permutations.
+     *
+     * @return le nombre d'octets des tableaux d'index
+     */
+    public long indexBytes() {
+        long total = 0;
+        for (CsrPermutation perm : permutations) {
+            total += perm.bytes();
+        }
+        return total;
+    }
+
+    /**
+     * @return les permutations SPO, SOP, PSO, POS, OSP et OPS, dans cet ordre
+     */
+    CsrPermutation[] permutations() {
+        return permutations;
+    }
+}
@@ -0,0 +1,69 @@
+package qengine.storage;
+
+/**
+ * Réglages et brassage communs aux tables de hachage à adressage ouvert (sondage
+ * linéaire) du paquetage.
+ */
+final class HashTables {
+    // Taux de remplissage maximal d'une table, exprimé en 1/4 (3/4 = 0.75)
+    static final int MAX_LOAD_QUARTERS = 3;
+    // Taille des pages des tables dont la capacité dépasse celle d'un tableau Java
+    static final int PAGE_BITS = 20;
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private HashTables() {
+    }
+
+    /**
+     * @return vrai si {@code used} cases occupées dépassent le taux de remplissage
+     * maximal d'une table de {@code capacity} cases
+     */
+    static boolean overloaded(long used, long capacity) {
+        return used * 4 > capacity * MAX_LOAD_QUARTERS;
+    }
+
+    /**
+     * Brasse une empreinte de 32 bits (multiplication de Fibonacci puis repli des bits
+     * hauts), pour que les bits bas qui choisissent la case dépendent de toute l'empreinte.
+     */
+    static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Brasse les 64 bits d'un identifiant, pour des tables pouvant dépasser 2^32 cases.
+     */
+    static long mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * Alloue les pages d'une table paginée de {@code capacity} cases (puissance de 2) :
+     * une seule page plus petite tant que la table tient dans une page.
+     */
+    static long[][] newPages(long capacity) {
+        long[][] pages = new long[pageCount(capacity)][];
+        for (int k = 0; k < pages.length; k++) {
+            pages[k] = new long[pageLength(capacity)];
+        }
+        return pages;
+    }
+
+    static int pageCount(long capacity) {
+        return (int) Math.max(1, capacity >>> PAGE_BITS);
+    }
+
+    static int pageLength(long capacity) {
+        return (int) Math.min(capacity, PAGE_SIZE);
+    }
+
+    static int page(long slot) {
+        return (int) (slot >>> PAGE_BITS);
+    }
+
+    static int offset(long slot) {
+        return (int) (slot & (PAGE_SIZE - 1));
+    }
+}
@@ -0,0 +1,222 @@
+package qengine.storage;
+
+import java.util.Objects;
+
+/**
+ * Dictionnaire RDF qui encode directement dans l'identifiant les petites valeurs
+ * littérales, sans entrée dans le dictionnaire.
+ * <p>
+ * Les identifiants négatifs (bit de poids fort à 1) sont des valeurs en ligne :
+ * <pre>
+ *   1 | type (2 bits) | guillemets (1 bit) | valeur (28 bits)
+ * </pre>
+ * <ul>
+ *     <li>type 1 : entier décimal canonique (sans zéro en tête) entre 0 et 2^28 - 1 ;</li>
+ *     <li>type 2 : date {@code AAAA-MM-JJ} (année sur 14 bits, mois sur 4, jour sur 5) ;</li>
+ *     <li>type 3 : littéral entre guillemets dont le contenu est une chaîne ASCII d'au
+ *     plus 4 caractères (7 bits chacun, sans caractère nul).</li>
+ * </ul>
+ * Le bit « guillemets » indique que la valeur était écrite entre guillemets
+ * ({@code "1988-09-24"}), comme les littéraux lus dans un fichier N-Triples.
+ * {@link #decode(int)} reconstruit exactement la chaîne d'origine. Les autres termes
+ * (IRIs, même courtes, littéraux longs ou typés, formes non canoniques) sont confiés
+ * au dictionnaire délégué, dont les identifiants restent positifs. Le type 0 n'est
+ * jamais produit : les identifiants de {@code 0x80000000} à {@code 0x9FFFFFFF}
+ * n'existent pas.
+ */
+public class InlineRDFDictionary implements TermDictionary {
+    private static final int INLINE_TAG = 0x80000000;
+    private static final int KIND_SHIFT = 29;
+    private static final int KIND_INTEGER = 1;
+    private static final int KIND_DATE = 2;
+    private static final int KIND_ASCII = 3;
+    private static final int QUOTED = 1 << 28;
+    private static final int VALUE_MASK = QUOTED - 1;
+    private static final int MAX_ASCII_LENGTH = 4;
+
+    private final TermDictionary delegate;
+
+    /**
+     * Crée un dictionnaire en ligne délégant les autres termes à un {@link RDFDictionary}.
+     */
+    public InlineRDFDictionary() {
+        this(new RDFDictionary());
+    }
+
+    /**
+     * Crée un dictionnaire en ligne délégant les autres termes au dictionnaire fourni.
+     *
+     * @param delegate le dictionnaire des termes non encodables en ligne
+     */
+    public InlineRDFDictionary(TermDictionary delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "Le dictionnaire ne peut pas être null.");
+    }
+
+    /**
+     * Indique si un identifiant porte une valeur en ligne.
+     *
+     * @param id l'identifiant
+     * @return vrai si la valeur est encodée dans l'identifiant
+     */
+    public static boolean isInline(int id) {
+        return id < 0;
+    }
+
+    @Override
+    public int encode(String s) {
+        if (s == null) {
+            throw new IllegalArgumentException("La chaîne ne peut pas être null");
+        }
+        int inline = inlineId(s);
+        return inline != 0 ? inline : delegate.encode(s);
+    }
+
+    @Override
+    public String decode(int i) {
+        if (!isInline(i)) {
+            return delegate.decode(i);
+        }
+        int value = i & VALUE_MASK;
+        String decoded = switch ((i >>> KIND_SHIFT) & 3) {
+            case KIND_INTEGER -> Integer.toString(value);
+            case KIND_DATE -> decodeDate(value);
+            case KIND_ASCII -> decodeAscii(value);
+            default -> throw new IllegalArgumentException("Identifiant inexistant: " + i);
+        };
+        return (i & QUOTED) != 0 ? '"' + decoded + '"' : decoded;
+    }
+
+    @Override
+    public Integer getIdOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        int inline = inlineId(value);
+        return inline != 0 ? Integer.valueOf(inline) : delegate.getIdOrNull(value);
+    }
+
+    /**
+     * Retourne le nombre de termes stockés par le dictionnaire délégué ; les valeurs
+     * en ligne ne sont pas comptées.
+     *
+     * @return le nombre d'éléments
+     */
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * Identifiant en ligne de la chaîne, ou 0 si elle ne peut pas être encodée en ligne.
+     */
+    private static int inlineId(String s) {
+        int from = 0;
+        int to = s.length();
+        int quoted = 0;
+        if (to >= 2 && s.charAt(0) == '"' && s.charAt(to - 1) == '"') {
+            from = 1;
+            to--;
+            quoted = QUOTED;
+        }
+        int value;
+        if ((value = parseInteger(s, from, to)) >= 0) {
+            return INLINE_TAG | KIND_INTEGER << KIND_SHIFT | quoted | value;
+        }
+        if ((value = parseDate(s, from, to)) >= 0) {
+            return INLINE_TAG | KIND_DATE << KIND_SHIFT | quoted | value;
+        }
+        if (quoted != 0 && (value = parseAscii(s, from, to)) >= 0) {
+            return INLINE_TAG | KIND_ASCII << KIND_SHIFT | quoted | value;
+        }
+        return 0;
+    }
+
+    /**
+     * Entier canonique {@code s[from, to)}, ou -1 s'il n'est pas encodable.
+     */
+    private static int parseInteger(String s, int from, int to) {
+        int length = to - from;
+        // 2^28 - 1 = 268435455 a 9 chiffres
+        if (length == 0 || length > 9 || (length > 1 && s.charAt(from) == '0')) {
+            return -1;
+        }
+        int value = 0;
+        for (int k = from; k < to; k++) {
+            int digit = s.charAt(k) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value <= VALUE_MASK ? value : -1;
+    }
+
+    /**
+     * Date {@code AAAA-MM-JJ} dans {@code s[from, to)}, ou -1 si elle n'est pas encodable.
+     */
+    private static int parseDate(String s, int from, int to) {
+        if (to - from != 10 || s.charAt(from + 4) != '-' || s.charAt(from + 7) != '-') {
+            return -1;
+        }
+        int year = digits(s, from, 4);
+        int month = digits(s, from + 5, 2);
+        int day = digits(s, from + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return -1;
+        }
+        return year << 9 | month << 5 | day;
+    }
+
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int k = from; k < from + count; k++) {
+            int digit = s.charAt(k) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Chaîne ASCII courte {@code s[from, to)}, ou -1 si elle n'est pas encodable.
+     * Les caractères sont rangés à partir des bits de poids faible, complétés par des zéros.
+     */
+    private static int parseAscii(String s, int from, int to) {
+        if (to - from > MAX_ASCII_LENGTH) {
+            return -1;
+        }
+        int value = 0;
+        for (int k = to - 1; k >= from; k--) {
+            char c = s.charAt(k);
+            if (c == 0 || c > 0x7F) {
+                return -1;
+            }
+            value = value << 7 | c;
+        }
+        return value;
+    }
+
+    private static String decodeDate(int value) {
+        int year = value >>> 9;
+        int month = (value >>> 5) & 0xF;
+        int day = value & 0x1F;
+        char[] chars = {
+                (char) ('0' + year / 1000), (char) ('0' + year / 100 % 10),
+                (char) ('0' + year / 10 % 10), (char) ('0' + year % 10), '-',
+                (char) ('0' + month / 10), (char) ('0' + month % 10), '-',
+                (char) ('0' + day / 10), (char) ('0' + day % 10)
+        };
+        return new String(chars);
+    }
+
+    private static String decodeAscii(int value) {
+        StringBuilder sb = new StringBuilder(MAX_ASCII_LENGTH);
+        while (value != 0) {
+            sb.append((char) (value & 0x7F));
+            value >>>= 7;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,355 @@
+package qengine.storage;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Ensemble d'entiers compressé à la manière de Roaring.
+ * <p>
+ * Les valeurs sont réparties par leurs 16 bits de poids fort ; chaque groupe est
+ * rangé dans un conteneur selon sa densité :
+ * <ul>
+ *     <li>tableau trié de {@code char} (16 bits de poids faible) jusqu'à
+ *     {@value #ARRAY_MAX} valeurs ;</li>
+ *     <li>au-delà, bitmap de 2^16 bits ({@code long[1024]}, 8 Ko).</li>
+ * </ul>
+ * Les retraits rendent au conteneur sa forme la plus compacte.
+ * L'intersection {@link #and(IntBitmap, IntBitmap)} travaille conteneur par
+ * conteneur (fusion de tableaux, filtrage par bits ou ET de mots), sans
+ * boxing. La classe implémente {@code Set<Integer>} pour pouvoir servir de
+ * feuille aux index de {@link RDFHexaStore}.
+ */
+final class IntBitmap extends AbstractSet<Integer> {
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    // Clés (16 bits de poids fort, non signés) triées, et conteneur associé :
+    // char[] trié ou long[] de BITMAP_WORDS mots
+    private char[] keys = new char[1];
+    private Object[] containers = new Object[1];
+    // Nombre de valeurs de chaque conteneur
+    private int[] cardinalities = new int[1];
+    private int count;
+    private int size;
+
+    @Override
+    public boolean add(Integer value) {
+        return add(value.intValue());
+    }
+
+    /**
+     * Ajoute une valeur.
+     *
+     * @param value la valeur à ajouter
+     * @return vrai si la valeur n'était pas présente
+     */
+    boolean add(int value) {
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int i = Arrays.binarySearch(keys, 0, count, key);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, key, new char[4]);
+        }
+        boolean added = containers[i] instanceof char[] array
+                ? addToArray(i, array, low)
+                : addToBitmap((long[]) containers[i], low);
+        if (added) {
+            cardinalities[i]++;
+            size++;
+        }
+        return added;
+    }
+
+    private boolean addToArray(int i, char[] array, char low) {
+        int n = cardinalities[i];
+        int pos = Arrays.binarySearch(array, 0, n, low);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -pos - 1;
+        if (n == ARRAY_MAX) {
+            long[] bitmap = new long[BITMAP_WORDS];
+            for (int k = 0; k < n; k++) {
+                bitmap[array[k] >>> 6] |= 1L << array[k];
+            }
+            containers[i] = bitmap;
+            return addToBitmap(bitmap, low);
+        }
+        if (n == array.length) {
+            array = Arrays.copyOf(array, Math.min(ARRAY_MAX, 2 * n));
+            containers[i] = array;
+        }
+        System.arraycopy(array, pos, array, pos + 1, n - pos);
+        array[pos] = low;
+        return true;
+    }
+
+    private static boolean addToBitmap(long[] bitmap, char low) {
+        long before = bitmap[low >>> 6];
+        bitmap[low >>> 6] = before | (1L << low);
+        return bitmap[low >>> 6] != before;
+    }
+
+    private void insertContainer(int i, char key, Object container) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * count);
+            containers = Arrays.copyOf(containers, 2 * count);
+            cardinalities = Arrays.copyOf(cardinalities, 2 * count);
+        }
+        System.arraycopy(keys, i, keys, i + 1, count - i);
+        System.arraycopy(containers, i, containers, i + 1, count - i);
+        System.arraycopy(cardinalities, i, cardinalities, i + 1, count - i);
+        keys[i] = key;
+        containers[i] = container;
+        cardinalities[i] = 0;
+        count++;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer value && remove(value.intValue());
+    }
+
+    /**
+     * Retire une valeur ; un bitmap redescendu à {@value #ARRAY_MAX} valeurs
+     * redevient un tableau et un conteneur vide disparaît.
+     *
+     * @param value la valeur à retirer
+     * @return vrai si la valeur était présente
+     */
+    boolean remove(int value) {
+        int i = Arrays.binarySearch(keys, 0, count, (char) (value >>> 16));
+        if (i < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (containers[i] instanceof char[] array) {
+            int pos = Arrays.binarySearch(array, 0, cardinalities[i], low);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(array, pos + 1, array, pos, cardinalities[i] - pos - 1);
+        } else {
+            long[] bitmap = (long[]) containers[i];
+            long before = bitmap[low >>> 6];
+            bitmap[low >>> 6] = before & ~(1L << low);
+            if (bitmap[low >>> 6] == before) {
+                return false;
+            }
+            if (cardinalities[i] - 1 == ARRAY_MAX) {
+                containers[i] = toArray(bitmap, ARRAY_MAX);
+            }
+        }
+        size--;
+        if (--cardinalities[i] == 0) {
+            System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, count - i - 1);
+            System.arraycopy(cardinalities, i + 1, cardinalities, i, count - i - 1);
+            containers[--count] = null;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer value && contains(value.intValue());
+    }
+
+    /**
+     * @return vrai si la valeur appartient à l'ensemble
+     */
+    boolean contains(int value) {
+        int i = Arrays.binarySearch(keys, 0, count, (char) (value >>> 16));
+        if (i < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (containers[i] instanceof char[] array) {
+            return Arrays.binarySearch(array, 0, cardinalities[i], low) >= 0;
+        }
+        return (((long[]) containers[i])[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Parcourt les valeurs sans boxing, par clé de poids fort croissante.
+     *
+     * @param action appelée pour chaque valeur
+     */
+    void forEachInt(IntConsumer action) {
+        for (int i = 0; i < count; i++) {
+            int high = keys[i] << 16;
+            if (containers[i] instanceof char[] array) {
+                for (int k = 0; k < cardinalities[i]; k++) {
+                    action.accept(high | array[k]);
+                }
+            } else {
+                long[] bitmap = (long[]) containers[i];
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = bitmap[w];
+                    while (word != 0) {
+                        action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Itérateur paresseux, dans l'ordre de {@link #forEachInt} : il avance conteneur
+     * par conteneur sans copier les valeurs. L'ensemble ne doit pas être modifié
+     * pendant le parcours.
+     */
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            // Conteneur courant, puis position dans son tableau ou mot courant de son bitmap
+            private int i;
+            private int k;
+            private int w = -1;
+            private long word;
+
+            @Override
+            public boolean hasNext() {
+                while (i < count) {
+                    if (containers[i] instanceof char[]) {
+                        if (k < cardinalities[i]) {
+                            return true;
+                        }
+                    } else {
+                        long[] bitmap = (long[]) containers[i];
+                        while (word == 0 && w + 1 < BITMAP_WORDS) {
+                            word = bitmap[++w];
+                        }
+                        if (word != 0) {
+                            return true;
+                        }
+                    }
+                    i++;
+                    k = 0;
+                    w = -1;
+                    word = 0;
+                }
+                return false;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int high = keys[i] << 16;
+                if (containers[i] instanceof char[] array) {
+                    return high | array[k++];
+                }
+                int low = (w << 6) | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return high | low;
+            }
+        };
+    }
+
+    /**
+     * Intersection de deux ensembles.
+     *
+     * @return un nouvel ensemble contenant les valeurs communes
+     */
+    static IntBitmap and(IntBitmap a, IntBitmap b) {
+        IntBitmap result = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.count && j < b.count) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Object container = and(a.containers[i], a.cardinalities[i], b.containers[j], b.cardinalities[j]);
+                int cardinality = container instanceof char[] array ? array.length : cardinality((long[]) container);
+                if (cardinality > 0) {
+                    result.insertContainer(result.count, a.keys[i], container);
+                    result.cardinalities[result.count - 1] = cardinality;
+                    result.size += cardinality;
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Intersection de deux conteneurs ; un tableau résultat a exactement la taille
+     * de son contenu.
+     */
+    private static Object and(Object a, int na, Object b, int nb) {
+        if (a instanceof char[] arrayA && b instanceof char[] arrayB) {
+            char[] out = new char[Math.min(na, nb)];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < na && j < nb) {
+                if (arrayA[i] < arrayB[j]) {
+                    i++;
+                } else if (arrayA[i] > arrayB[j]) {
+                    j++;
+                } else {
+                    out[n++] = arrayA[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+        if (a instanceof long[] bitmapA && b instanceof long[] bitmapB) {
+            long[] out = new long[BITMAP_WORDS];
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                out[w] = bitmapA[w] & bitmapB[w];
+            }
+            int cardinality = cardinality(out);
+            return cardinality > ARRAY_MAX ? out : toArray(out, cardinality);
+        }
+        // Tableau contre bitmap : on filtre le tableau
+        char[] array = a instanceof char[] arrayA ? arrayA : (char[]) b;
+        int n = a instanceof char[] ? na : nb;
+        long[] bitmap = a instanceof long[] bitmapA ? bitmapA : (long[]) b;
+        char[] out = new char[n];
+        int kept = 0;
+        for (int k = 0; k < n; k++) {
+            if ((bitmap[array[k] >>> 6] & (1L << array[k])) != 0) {
+                out[kept++] = array[k];
+            }
+        }
+        return Arrays.copyOf(out, kept);
+    }
+
+    private static int cardinality(long[] bitmap) {
+        int cardinality = 0;
+        for (long word : bitmap) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    private static char[] toArray(long[] bitmap, int cardinality) {
+        char[] array = new char[cardinality];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = bitmap[w];
+            while (word != 0) {
+                array[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+}
@@ -0,0 +1,451 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Term;
+import fr.boreal.model.logicalElements.api.Variable;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+
+/**
+ * Évaluation d'une conjonction quelconque de motifs (chaînes, cycles, flocons) par
+ * Leapfrog Triejoin, sur les identifiants d'un {@link EncodedRDFStorage}.
+ * <p>
+ * Les variables reçoivent un ordre global choisi d'après les statistiques du store :
+ * d'abord la variable du motif le plus sélectif, puis, tant que possible, une variable
+ * partageant un motif avec celles déjà placées. Chaque motif devient un trie : ses
+ * triplets, réduits à ses variables rangées dans l'ordre global, triés et dédoublonnés
+ * en colonnes. La jointure lie ensuite les variables une à une ; pour chacune, les
+ * tries des motifs qui la contiennent avancent à saute-mouton par galop jusqu'à une
+ * valeur commune.
+ * <p>
+ * Aucune jointure intermédiaire n'est matérialisée : la mémoire se limite aux tries
+ * (la taille des motifs) et aux réponses, et le temps est borné par la taille de la
+ * pire réponse possible, là où un plan de jointures binaires peut produire bien plus
+ * de lignes intermédiaires que de réponses (cycles, longues chaînes).
+ */
+public class LeapfrogTriejoin {
+    private static final int ANY = EncodedRDFStorage.ANY;
+
+    private final EncodedRDFStorage store;
+    private final TermDictionary dict;
+
+    /**
+     * @param store le store à interroger
+     */
+    public LeapfrogTriejoin(EncodedRDFStorage store) {
+        this.store = Objects.requireNonNull(store, "Le store ne peut pas être null.");
+        this.dict = store.getDictionary();
+    }
+
+    /**
+     * Évalue une requête en étoile comme une conjonction quelconque.
+     *
+     * @param q star query
+     * @return un itérateur de substitutions limitées aux variables réponses
+     */
+    public Iterator<Substitution> evaluate(StarQuery q) {
+        return evaluate(q.getRdfAtoms(), q.getAnswerVariables());
+    }
+
+    /**
+     * Évalue la conjonction des motifs.
+     *
+     * @param atoms           les motifs de la requête
+     * @param answerVariables les variables réponses
+     * @return un itérateur de substitutions limitées aux variables réponses, une par
+     * affectation de toutes les variables des motifs
+     * @throws IllegalArgumentException si une variable réponse n'apparaît dans aucun motif
+     */
+    public Iterator<Substitution> evaluate(List<RDFTriple> atoms, Collection<Variable> answerVariables) {
+        List<Variable> variables = new ArrayList<>();
+        for (RDFTriple atom : atoms) {
+            for (Term term : atom.getTerms()) {
+                if (term.isVariable() && !variables.contains((Variable) term)) {
+                    variables.add((Variable) term);
+                }
+            }
+        }
+        for (Variable answer : answerVariables) {
+            if (!variables.contains(answer)) {
+                throw new IllegalArgumentException("La variable réponse " + answer + " n'est présente dans aucun motif.");
+            }
+        }
+
+        List<Atom> encoded = new ArrayList<>();
+        for (RDFTriple atom : atoms) {
+            Atom a = encode(atom, variables);
+            if (a == null) {
+                // Constante absente du dictionnaire : aucune réponse possible
+                return Collections.emptyIterator();
+            }
+            a.cardinality = store.howManyIds(a.ids[0], a.ids[1], a.ids[2]);
+            if (a.cardinality == 0) {
+                return Collections.emptyIterator();
+            }
+            encoded.add(a);
+        }
+        if (encoded.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+
+        int[] order = variableOrder(encoded, variables.size());
+        int[] depthOf = new int[order.length];
+        for (int d = 0; d < order.length; d++) {
+            depthOf[order[d]] = d;
+        }
+        // Tries, et pour chaque profondeur ceux qui contiennent la variable à lier
+        List<List<Trie>> participants = new ArrayList<>();
+        for (int d = 0; d < order.length; d++) {
+            participants.add(new ArrayList<>());
+        }
+        for (Atom atom : encoded) {
+            int[] slots = atom.variables(depthOf);
+            if (slots.length == 0) {
+                continue; // Motif clos, présent dans le store d'après sa cardinalité
+            }
+            Trie trie = trie(atom, slots);
+            if (trie.size == 0) {
+                return Collections.emptyIterator();
+            }
+            for (int slot : slots) {
+                participants.get(depthOf[slot]).add(trie);
+            }
+        }
+
+        Join join = new Join(order, participants, variables.size());
+        join.run(0);
+        return StarQueryEvaluator.materialize(store, join.results, answerVariables, variables);
+    }
+
+    /**
+     * Ordre des variables : la plus sélective (plus petite cardinalité d'un motif qui
+     * la contient, puis plus grand nombre de motifs) parmi celles reliées aux
+     * variables déjà placées, ou parmi toutes s'il n'y en a pas.
+     */
+    private static int[] variableOrder(List<Atom> atoms, int width) {
+        long[] cost = new long[width];
+        int[] occurrences = new int[width];
+        Arrays.fill(cost, Long.MAX_VALUE);
+        for (Atom atom : atoms) {
+            for (int slot : atom.slots) {
+                if (slot >= 0) {
+                    cost[slot] = Math.min(cost[slot], atom.cardinality);
+                    occurrences[slot]++;
+                }
+            }
+        }
+        int[] order = new int[width];
+        boolean[] placed = new boolean[width];
+        for (int d = 0; d < width; d++) {
+            boolean[] linked = new boolean[width];
+            boolean anyLinked = false;
+            for (Atom atom : atoms) {
+                if (atom.touches(placed)) {
+                    for (int slot : atom.slots) {
+                        if (slot >= 0 && !placed[slot]) {
+                            linked[slot] = true;
+                            anyLinked = true;
+                        }
+                    }
+                }
+            }
+            int best = -1;
+            for (int v = 0; v < width; v++) {
+                if (placed[v] || (anyLinked && !linked[v])) {
+                    continue;
+                }
+                if (best < 0 || cost[v] < cost[best]
+                        || (cost[v] == cost[best] && occurrences[v] > occurrences[best])) {
+                    best = v;
+                }
+            }
+            order[d] = best;
+            placed[best] = true;
+        }
+        return order;
+    }
+
+    /**
+     * Encode un motif : identifiant des constantes, numéro de variable ailleurs.
+     *
+     * @return le motif, ou null si une constante est inconnue du dictionnaire
+     */
+    private Atom encode(RDFTriple triple, List<Variable> variables) {
+        Atom atom = new Atom();
+        Term[] terms = {triple.getTripleSubject(), triple.getTriplePredicate(), triple.getTripleObject()};
+        for (int k = 0; k < 3; k++) {
+            if (terms[k].isVariable()) {
+                atom.ids[k] = ANY;
+                atom.slots[k] = variables.indexOf((Variable) terms[k]);
+            } else {
+                Integer id = dict.getIdOrNull(terms[k].toString());
+                if (id == null) {
+                    return null;
+                }
+                atom.ids[k] = id;
+                atom.slots[k] = -1;
+            }
+        }
+        return atom;
+    }
+
+    /**
+     * Construit le trie d'un motif sur ses variables {@code slots}, déjà dans l'ordre global.
+     */
+    private Trie trie(Atom atom, int[] slots) {
+        int arity = slots.length;
+        // Position dans le triplet de chaque niveau du trie, et de la première occurrence de chaque position
+        int[] positions = new int[arity];
+        int[] first = new int[3];
+        for (int k = 0; k < 3; k++) {
+            first[k] = -1;
+            if (atom.slots[k] >= 0) {
+                for (int j = 0; j < k; j++) {
+                    if (atom.slots[j] == atom.slots[k]) {
+                        first[k] = j;
+                        break;
+                    }
+                }
+                if (first[k] < 0) {
+                    for (int level = 0; level < arity; level++) {
+                        if (slots[level] == atom.slots[k]) {
+                            positions[level] = k;
+                        }
+                    }
+                }
+            }
+        }
+
+        int[][] tuples = {new int[16 * arity]};
+        int[] n = {0};
+        store.forEachMatch(atom.ids[0], atom.ids[1], atom.ids[2], (s, p, o) -> {
+            int[] triple = {s, p, o};
+            for (int k = 0; k < 3; k++) {
+                if (first[k] >= 0 && triple[first[k]] != triple[k]) {
+                    return; // Variable répétée liée à deux valeurs
+                }
+            }
+            if ((n[0] + 1) * arity > tuples[0].length) {
+                tuples[0] = Arrays.copyOf(tuples[0], 2 * tuples[0].length);
+            }
+            for (int level = 0; level < arity; level++) {
+                tuples[0][n[0] * arity + level] = triple[positions[level]];
+            }
+            n[0]++;
+        });
+        return new Trie(sortColumns(tuples[0], n[0], arity));
+    }
+
+    /**
+     * Trie lexicographiquement {@code n} tuples rangés à plat, supprime les doublons
+     * et les rend en colonnes.
+     */
+    private static int[][] sortColumns(int[] flat, int n, int arity) {
+        if (arity == 1) {
+            int[] column = Arrays.copyOf(flat, n);
+            Arrays.sort(column);
+            int distinct = 0;
+            for (int r = 0; r < n; r++) {
+                if (distinct == 0 || column[r] != column[distinct - 1]) {
+                    column[distinct++] = column[r];
+                }
+            }
+            return new int[][]{Arrays.copyOf(column, distinct)};
+        }
+        if (arity == 2) {
+            // Paire rangée dans un long dont l'ordre signé est l'ordre lexicographique des deux int
+            long[] pairs = new long[n];
+            for (int r = 0; r < n; r++) {
+                pairs[r] = (long) flat[2 * r] << 32 | (flat[2 * r + 1] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+            }
+            Arrays.sort(pairs);
+            int distinct = 0;
+            for (int r = 0; r < n; r++) {
+                if (distinct == 0 || pairs[r] != pairs[distinct - 1]) {
+                    pairs[distinct++] = pairs[r];
+                }
+            }
+            int[][] columns = new int[2][distinct];
+            for (int r = 0; r < distinct; r++) {
+                columns[0][r] = (int) (pairs[r] >> 32);
+                columns[1][r] = (int) pairs[r] ^ Integer.MIN_VALUE;
+            }
+            return columns;
+        }
+        int[][] rows = new int[n][];
+        for (int r = 0; r < n; r++) {
+            rows[r] = Arrays.copyOfRange(flat, r * arity, (r + 1) * arity);
+        }
+        Arrays.sort(rows, Arrays::compare);
+        int distinct = 0;
+        for (int r = 0; r < n; r++) {
+            if (distinct == 0 || !Arrays.equals(rows[r], rows[distinct - 1])) {
+                rows[distinct++] = rows[r];
+            }
+        }
+        int[][] columns = new int[arity][distinct];
+        for (int r = 0; r < distinct; r++) {
+            for (int level = 0; level < arity; level++) {
+                columns[level][r] = rows[r][level];
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Motif encodé : pour chaque position, l'identifiant de la constante (ou
+     * {@link EncodedRDFStorage#ANY}) et le numéro de la variable (ou -1).
+     */
+    private static final class Atom {
+        final int[] ids = new int[3];
+        final int[] slots = new int[3];
+        long cardinality;
+
+        /**
+         * @return les variables distinctes du motif, triées par profondeur
+         */
+        int[] variables(int[] depthOf) {
+            return Arrays.stream(slots).filter(slot -> slot >= 0).distinct()
+                    .boxed().sorted(Comparator.comparingInt(slot -> depthOf[slot]))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+
+        boolean touches(boolean[] placed) {
+            for (int slot : slots) {
+                if (slot >= 0 && placed[slot]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Trie d'un motif : tuples triés et sans doublons, rangés par colonnes (une par
+     * niveau). Un itérateur descend niveau par niveau ; à chaque niveau, il parcourt
+     * les valeurs distinctes de la colonne dans l'intervalle fixé par les niveaux
+     * supérieurs.
+     */
+    private static final class Trie {
+        final int[][] columns;
+        final int size;
+        // Niveau courant (-1 à la racine), et pour chaque niveau : position et fin de l'intervalle
+        private int level = -1;
+        private final int[] pos;
+        private final int[] end;
+
+        Trie(int[][] columns) {
+            this.columns = columns;
+            this.size = columns[0].length;
+            this.pos = new int[columns.length];
+            this.end = new int[columns.length];
+        }
+
+        /**
+         * Descend au niveau suivant, sur les tuples qui partagent la valeur courante.
+         */
+        void open() {
+            if (level < 0) {
+                pos[0] = 0;
+                end[0] = size;
+            } else {
+                int from = pos[level];
+                pos[level + 1] = from;
+                end[level + 1] = StarQueryEvaluator.gallop(columns[level], from, end[level], columns[level][from] + 1);
+            }
+            level++;
+        }
+
+        void up() {
+            level--;
+        }
+
+        boolean atEnd() {
+            return pos[level] >= end[level];
+        }
+
+        int key() {
+            return columns[level][pos[level]];
+        }
+
+        void next() {
+            pos[level] = StarQueryEvaluator.gallop(columns[level], pos[level], end[level], key() + 1);
+        }
+
+        /**
+         * Avance jusqu'à la première valeur au moins égale à {@code key}.
+         */
+        void seek(int key) {
+            pos[level] = StarQueryEvaluator.gallop(columns[level], pos[level], end[level], key);
+        }
+    }
+
+    /**
+     * Parcours en profondeur des variables dans l'ordre global ; chaque affectation
+     * complète devient une ligne de résultat.
+     */
+    private static final class Join {
+        final int[] order;
+        final Trie[][] participants;
+        final int[] row;
+        final BindingTable results;
+
+        Join(int[] order, List<List<Trie>> participants, int width) {
+            this.order = order;
+            this.participants = new Trie[order.length][];
+            for (int d = 0; d < order.length; d++) {
+                this.participants[d] = participants.get(d).toArray(new Trie[0]);
+            }
+            this.row = new int[order.length];
+            this.results = new BindingTable(width);
+        }
+
+        void run(int depth) {
+            if (depth == order.length) {
+                results.add(row);
+                return;
+            }
+            Trie[] tries = participants[depth];
+            for (Trie trie : tries) {
+                trie.open();
+            }
+            leapfrog(depth, tries);
+            for (Trie trie : tries) {
+                trie.up();
+            }
+        }
+
+        /**
+         * Saute-mouton : chaque trie, à tour de rôle, avance jusqu'à la plus grande
+         * valeur courante ; quand tous s'accordent, la valeur est liée.
+         */
+        private void leapfrog(int depth, Trie[] tries) {
+            for (Trie trie : tries) {
+                if (trie.atEnd()) {
+                    return;
+                }
+            }
+            Arrays.sort(tries, Comparator.comparingInt(Trie::key));
+            int k = tries.length;
+            int p = 0;
+            int max = tries[k - 1].key();
+            while (true) {
+                Trie trie = tries[p];
+                if (trie.key() == max) {
+                    row[order[depth]] = max;
+                    run(depth + 1);
+                    trie.next();
+                } else {
+                    trie.seek(max);
+                }
+                if (trie.atEnd()) {
+                    return;
+                }
+                max = trie.key();
+                p = (p + 1) % k;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package qengine.storage;
+
+/**
+ * Compteurs indexés par identifiant {@code long}, à adressage ouvert (sondage
+ * linéaire) : clé + 1 (0 = case vide) et compteur dans deux tables primitives
+ * paginées comme celle de {@link LongSet}.
+ * Utilisés pour les statistiques de {@link LongRDFHexaStore}.
+ */
+final class LongCounts {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[][] keys = HashTables.newPages(INITIAL_CAPACITY);
+    private long[][] counts = HashTables.newPages(INITIAL_CAPACITY);
+    private long capacity = INITIAL_CAPACITY;
+    private long size = 0;
+
+    /**
+     * @return le compteur associé à la clé, 0 s'il n'existe pas
+     */
+    long get(long key) {
+        long slot = find(keys, capacity, key);
+        int page = HashTables.page(slot);
+        int offset = HashTables.offset(slot);
+        return keys[page][offset] != 0 ? counts[page][offset] : 0;
+    }
+
+    void increment(long key) {
+        long slot = find(keys, capacity, key);
+        int page = HashTables.page(slot);
+        int offset = HashTables.offset(slot);
+        counts[page][offset]++;
+        if (keys[page][offset] == 0) {
+            keys[page][offset] = key + 1;
+            if (HashTables.overloaded(++size, capacity)) {
+                rehash();
+            }
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    private void rehash() {
+        long newCapacity = capacity * 2;
+        long[][] newKeys = HashTables.newPages(newCapacity);
+        long[][] newCounts = HashTables.newPages(newCapacity);
+        for (int page = 0; page < keys.length; page++) {
+            for (int offset = 0; offset < keys[page].length; offset++) {
+                long key = keys[page][offset];
+                if (key != 0) {
+                    long slot = find(newKeys, newCapacity, key - 1);
+                    newKeys[HashTables.page(slot)][HashTables.offset(slot)] = key;
+                    newCounts[HashTables.page(slot)][HashTables.offset(slot)] = counts[page][offset];
+                }
+            }
+        }
+        keys = newKeys;
+        counts = newCounts;
+        capacity = newCapacity;
+    }
+
+    private static long find(long[][] keys, long capacity, long key) {
+        long mask = capacity - 1;
+        long slot = HashTables.mix(key) & mask;
+        long entry;
+        while ((entry = keys[HashTables.page(slot)][HashTables.offset(slot)]) != 0 && entry != key + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,105 @@
+package qengine.storage;
+
+import java.util.function.LongFunction;
+
+/**
+ * Table associative à clés {@code long} positives ou nulles, à adressage ouvert
+ * (sondage linéaire) : chaque case contient la clé + 1 (0 = case vide), la valeur
+ * étant rangée à la même position. Clés et valeurs sont paginées comme dans
+ * {@link LongSet}.
+ * Utilisée pour les niveaux intermédiaires des index de {@link LongRDFHexaStore}.
+ *
+ * @param <V> type des valeurs
+ */
+final class LongMap<V> {
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Reçoit une entrée de la table.
+     */
+    @FunctionalInterface
+    interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private long[][] keys = HashTables.newPages(INITIAL_CAPACITY);
+    private Object[][] values = newValues(INITIAL_CAPACITY);
+    private long capacity = INITIAL_CAPACITY;
+    private long size = 0;
+
+    /**
+     * @return la valeur associée à la clé, ou null
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        long slot = find(keys, capacity, key);
+        int page = HashTables.page(slot);
+        int offset = HashTables.offset(slot);
+        return keys[page][offset] != 0 ? (V) values[page][offset] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V computeIfAbsent(long key, LongFunction<V> factory) {
+        long slot = find(keys, capacity, key);
+        int page = HashTables.page(slot);
+        int offset = HashTables.offset(slot);
+        if (keys[page][offset] != 0) {
+            return (V) values[page][offset];
+        }
+        V value = factory.apply(key);
+        keys[page][offset] = key + 1;
+        values[page][offset] = value;
+        if (HashTables.overloaded(++size, capacity)) {
+            rehash();
+        }
+        return value;
+    }
+
+    long size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(EntryConsumer<V> action) {
+        for (int page = 0; page < keys.length; page++) {
+            for (int offset = 0; offset < keys[page].length; offset++) {
+                if (keys[page][offset] != 0) {
+                    action.accept(keys[page][offset] - 1, (V) values[page][offset]);
+                }
+            }
+        }
+    }
+
+    private void rehash() {
+        long newCapacity = capacity * 2;
+        long[][] newKeys = HashTables.newPages(newCapacity);
+        Object[][] newValues = newValues(newCapacity);
+        for (int page = 0; page < keys.length; page++) {
+            for (int offset = 0; offset < keys[page].length; offset++) {
+                long key = keys[page][offset];
+                if (key != 0) {
+                    long slot = find(newKeys, newCapacity, key - 1);
+                    newKeys[HashTables.page(slot)][HashTables.offset(slot)] = key;
+                    newValues[HashTables.page(slot)][HashTables.offset(slot)] = values[page][offset];
+                }
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+        capacity = newCapacity;
+    }
+
+    private static Object[][] newValues(long capacity) {
+        return new Object[HashTables.pageCount(capacity)][HashTables.pageLength(capacity)];
+    }
+
+    private static long find(long[][] keys, long capacity, long key) {
+        long mask = capacity - 1;
+        long slot = HashTables.mix(key) & mask;
+        long entry;
+        while ((entry = keys[HashTables.page(slot)][HashTables.offset(slot)]) != 0 && entry != key + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,141 @@
+package qengine.storage;
+
+import java.util.Arrays;
+
+/**
+ * Dictionnaire RDF à identifiants {@code long}, sans limite de 2^31 termes.
+ * <p>
+ * Même organisation que {@link RDFDictionary} (table à adressage ouvert contenant
+ * l'identifiant + 1, tableau de décodage indexé par identifiant), mais les deux
+ * tableaux sont découpés en pages de 2^20 cases pour dépasser la taille maximale
+ * d'un tableau Java. Tant que la table a au plus 2^32 cases, l'empreinte est le
+ * {@code hashCode} (mis en cache par {@link String}) ; au-delà, elle est calculée
+ * sur 64 bits pour que la table reste bien répartie.
+ */
+public class LongRDFDictionary implements LongTermDictionary {
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Table de hachage paginée : identifiant + 1, 0 pour une case vide
+    private long[][] slots = newSlots(INITIAL_CAPACITY);
+    private long capacity = INITIAL_CAPACITY;
+    // Tableau de décodage paginé, indexé par identifiant
+    private String[][] terms = new String[1][INITIAL_CAPACITY];
+    private long nextId = 0;
+
+    @Override
+    public long encode(String s) {
+        if (s == null) {
+            throw new IllegalArgumentException("La chaîne ne peut pas être null");
+        }
+        long slot = find(s);
+        long entry = slot(slot);
+        if (entry != 0) {
+            return entry - 1;
+        }
+
+        long newId = nextId++;
+        int page = (int) (newId >>> PAGE_BITS);
+        if (page == terms.length) {
+            terms = Arrays.copyOf(terms, terms.length * 2);
+        }
+        if (terms[page] == null) {
+            terms[page] = new String[PAGE_SIZE];
+        } else if (page == 0 && newId == terms[0].length) {
+            // Première page, encore plus petite qu'une page complète
+            terms[page] = Arrays.copyOf(terms[page], Math.min(PAGE_SIZE, terms[page].length * 2));
+        }
+        terms[page][(int) (newId & (PAGE_SIZE - 1))] = s;
+        slots[(int) (slot >>> PAGE_BITS)][(int) (slot & (PAGE_SIZE - 1))] = newId + 1;
+        if (HashTables.overloaded(nextId, capacity)) {
+            rehash(capacity * 2);
+        }
+        return newId;
+    }
+
+    @Override
+    public String decode(long i) {
+        if (i < 0 || i >= nextId) {
+            throw new IllegalArgumentException("Identifiant inexistant: " + i);
+        }
+        return term(i);
+    }
+
+    @Override
+    public Long getIdOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        long entry = slot(find(value));
+        return entry == 0 ? null : entry - 1;
+    }
+
+    @Override
+    public long size() {
+        return nextId;
+    }
+
+    private String term(long id) {
+        return terms[(int) (id >>> PAGE_BITS)][(int) (id & (PAGE_SIZE - 1))];
+    }
+
+    private long slot(long slot) {
+        return slots[(int) (slot >>> PAGE_BITS)][(int) (slot & (PAGE_SIZE - 1))];
+    }
+
+    /**
+     * Cherche la case contenant la chaîne, ou la case vide où l'insérer.
+     */
+    private long find(String s) {
+        long mask = capacity - 1;
+        long slot = hash(s, capacity) & mask;
+        long entry;
+        while ((entry = slot(slot)) != 0 && !term(entry - 1).equals(s)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Reconstruit la table de hachage avec une nouvelle capacité (puissance de 2).
+     */
+    private void rehash(long newCapacity) {
+        long[][] newSlots = newSlots(newCapacity);
+        long mask = newCapacity - 1;
+        for (long id = 0; id < nextId; id++) {
+            long slot = hash(term(id), newCapacity) & mask;
+            while (newSlots[(int) (slot >>> PAGE_BITS)][(int) (slot & (PAGE_SIZE - 1))] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[(int) (slot >>> PAGE_BITS)][(int) (slot & (PAGE_SIZE - 1))] = id + 1;
+        }
+        slots = newSlots;
+        capacity = newCapacity;
+    }
+
+    private static long[][] newSlots(long capacity) {
+        int pages = (int) Math.max(1, capacity >>> PAGE_BITS);
+        long[][] slots = new long[pages][];
+        for (int k = 0; k < pages; k++) {
+            slots[k] = new long[(int) Math.min(capacity, PAGE_SIZE)];
+        }
+        return slots;
+    }
+
+    /**
+     * Empreinte de la chaîne pour une table de la capacité donnée : {@code hashCode}
+     * brassé jusqu'à 2^32 cases, FNV-1a sur 64 bits des caractères au-delà.
+     */
+    private static long hash(String s, long capacity) {
+        if (capacity <= 1L << 32) {
+            return HashTables.mix(s.hashCode()) & 0xFFFFFFFFL;
+        }
+        long h = 0xCBF29CE484222325L;
+        for (int k = 0; k < s.length(); k++) {
+            h = (h ^ s.charAt(k)) * 0x100000001B3L;
+        }
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,162 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Term;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import fr.boreal.model.logicalElements.impl.SubstitutionImpl;
+import qengine.model.RDFTriple;
+
+import java.util.*;
+
+/**
+ * "Giant Table" à identifiants {@code long} : les triplets encodés sont rangés à
+ * la suite dans des pages de {@code long[]} (trois cases par triplet), sans objet
+ * par triplet ni limite de taille d'un tableau Java.
+ */
+public class LongRDFGiantTable implements RDFStorage {
+    // Triplets par page (3 longs chacun)
+    private static final int PAGE_TRIPLES = 1 << 18;
+    // Identifiant d'une constante inconnue du dictionnaire (-1 désigne une position libre)
+    private static final long MISSING = -2;
+
+    private final LongTermDictionary dict;
+    private long[][] pages = new long[1][];
+    private long size = 0;
+
+    /**
+     * Crée une table vide utilisant un {@link LongRDFDictionary}.
+     */
+    public LongRDFGiantTable() {
+        this(new LongRDFDictionary());
+    }
+
+    /**
+     * Crée une table vide utilisant le dictionnaire fourni.
+     *
+     * @param dict le dictionnaire servant à encoder les termes
+     */
+    public LongRDFGiantTable(LongTermDictionary dict) {
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+    }
+
+    @Override
+    public boolean add(RDFTriple triple) {
+        long s = dict.encode(triple.getTripleSubject().toString());
+        long p = dict.encode(triple.getTriplePredicate().toString());
+        long o = dict.encode(triple.getTripleObject().toString());
+
+        // éviter les doublons
+        if (count(s, p, o) > 0) {
+            return false;
+        }
+
+        int page = (int) (size / PAGE_TRIPLES);
+        if (page == pages.length) {
+            pages = Arrays.copyOf(pages, pages.length * 2);
+        }
+        if (pages[page] == null) {
+            pages[page] = new long[3 * PAGE_TRIPLES];
+        }
+        int pos = 3 * (int) (size % PAGE_TRIPLES);
+        pages[page][pos] = s;
+        pages[page][pos + 1] = p;
+        pages[page][pos + 2] = o;
+        size++;
+        return true;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Substitution> match(RDFTriple triple) {
+        Term s = triple.getTripleSubject();
+        Term p = triple.getTriplePredicate();
+        Term o = triple.getTripleObject();
+
+        boolean vs = s.isVariable();
+        boolean vp = p.isVariable();
+        boolean vo = o.isVariable();
+
+        long sId = vs ? -1 : idOrMissing(s);
+        long pId = vp ? -1 : idOrMissing(p);
+        long oId = vo ? -1 : idOrMissing(o);
+        if (sId == MISSING || pId == MISSING || oId == MISSING) {
+            return Collections.emptyIterator();
+        }
+
+        List<Substitution> results = new ArrayList<>();
+        for (long t = 0; t < size; t++) {
+            long[] page = pages[(int) (t / PAGE_TRIPLES)];
+            int pos = 3 * (int) (t % PAGE_TRIPLES);
+            long ts = page[pos], tp = page[pos + 1], to = page[pos + 2];
+
+            // vérifier les constantes
+            if (!vs && ts != sId) continue;
+            if (!vp && tp != pId) continue;
+            if (!vo && to != oId) continue;
+
+            Map<Variable, Term> map = new HashMap<>();
+            if (vs) map.put((Variable) s, literal(ts));
+            if (vp) map.put((Variable) p, literal(tp));
+            if (vo) map.put((Variable) o, literal(to));
+            results.add(new SubstitutionImpl(map));
+        }
+        return results.iterator();
+    }
+
+    private long idOrMissing(Term term) {
+        Long id = dict.getIdOrNull(term.toString());
+        return id == null ? MISSING : id;
+    }
+
+    /** Helper pour décoder un identifiant en Literal */
+    private Literal<String> literal(long id) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(id));
+    }
+
+    @Override
+    public long howMany(RDFTriple triple) {
+        Term s = triple.getTripleSubject();
+        Term p = triple.getTriplePredicate();
+        Term o = triple.getTripleObject();
+
+        long sId = s.isVariable() ? -1 : idOrMissing(s);
+        long pId = p.isVariable() ? -1 : idOrMissing(p);
+        long oId = o.isVariable() ? -1 : idOrMissing(o);
+        if (sId == MISSING || pId == MISSING || oId == MISSING) {
+            return 0;
+        }
+        return count(sId, pId, oId);
+    }
+
+    /**
+     * Nombre de triplets correspondant au motif encodé (-1 pour une position libre).
+     */
+    private long count(long s, long p, long o) {
+        long count = 0;
+        for (long t = 0; t < size; t++) {
+            long[] page = pages[(int) (t / PAGE_TRIPLES)];
+            int pos = 3 * (int) (t % PAGE_TRIPLES);
+            if ((s < 0 || page[pos] == s) && (p < 0 || page[pos + 1] == p) && (o < 0 || page[pos + 2] == o)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Collection<RDFTriple> getAtoms() {
+        Collection<RDFTriple> res = new ArrayList<>();
+        for (long t = 0; t < size; t++) {
+            long[] page = pages[(int) (t / PAGE_TRIPLES)];
+            int pos = 3 * (int) (t % PAGE_TRIPLES);
+            res.add(new RDFTriple(literal(page[pos]), literal(page[pos + 1]), literal(page[pos + 2])));
+        }
+        return res;
+    }
+}
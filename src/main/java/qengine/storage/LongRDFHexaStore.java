@@ -0,0 +1,227 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.*;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import fr.boreal.model.logicalElements.impl.SubstitutionImpl;
+import qengine.model.RDFTriple;
+
+import java.util.*;
+
+/**
+ * HexaStore à identifiants {@code long}, pour les jeux de données dépassant
+ * 2^31 termes distincts.
+ * <p>
+ * Mêmes six index et mêmes statistiques que {@link RDFHexaStore}, mais sur des
+ * collections primitives ({@link LongMap}, {@link LongSet}, {@link LongCounts}) :
+ * aucun {@code Long} ni {@code HashMap.Node} par entrée, si bien que la mémoire
+ * reste proportionnelle au nombre de triplets malgré des clés deux fois plus larges.
+ * Ces tables sont paginées : un niveau d'index ou une table de statistiques peut
+ * dépasser 2^31 entrées.
+ */
+public class LongRDFHexaStore implements RDFStorage {
+    // Dictionary
+    final LongTermDictionary dict;
+    // Indexes
+    private final LongMap<LongMap<LongSet>> indexSPO = new LongMap<>();
+    private final LongMap<LongMap<LongSet>> indexSOP = new LongMap<>();
+    private final LongMap<LongMap<LongSet>> indexPSO = new LongMap<>();
+    private final LongMap<LongMap<LongSet>> indexPOS = new LongMap<>();
+    private final LongMap<LongMap<LongSet>> indexOSP = new LongMap<>();
+    private final LongMap<LongMap<LongSet>> indexOPS = new LongMap<>();
+    // Statistics
+    private final LongCounts countS = new LongCounts();
+    private final LongCounts countP = new LongCounts();
+    private final LongCounts countO = new LongCounts();
+    private final LongMap<LongCounts> countSP = new LongMap<>();
+    private final LongMap<LongCounts> countSO = new LongMap<>();
+    private final LongMap<LongCounts> countPO = new LongMap<>();
+    private long size = 0;
+
+    /**
+     * Crée un HexaStore vide utilisant un {@link LongRDFDictionary}.
+     */
+    public LongRDFHexaStore() {
+        this(new LongRDFDictionary());
+    }
+
+    /**
+     * Crée un HexaStore vide utilisant le dictionnaire fourni.
+     *
+     * @param dict le dictionnaire servant à encoder les termes
+     */
+    public LongRDFHexaStore(LongTermDictionary dict) {
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+    }
+
+    @Override
+    public boolean add(RDFTriple triple) {
+        long s = dict.encode(triple.getTripleSubject().toString());
+        long p = dict.encode(triple.getTriplePredicate().toString());
+        long o = dict.encode(triple.getTripleObject().toString());
+
+        // SPO decides whether the triple is new
+        if (!addToIndex(indexSPO, s, p, o)) {
+            return false;
+        }
+        addToIndex(indexSOP, s, o, p);
+        addToIndex(indexPSO, p, s, o);
+        addToIndex(indexPOS, p, o, s);
+        addToIndex(indexOSP, o, s, p);
+        addToIndex(indexOPS, o, p, s);
+
+        countS.increment(s);
+        countP.increment(p);
+        countO.increment(o);
+        countSP.computeIfAbsent(s, k -> new LongCounts()).increment(p);
+        countSO.computeIfAbsent(s, k -> new LongCounts()).increment(o);
+        countPO.computeIfAbsent(p, k -> new LongCounts()).increment(o);
+        size++;
+        return true;
+    }
+
+    private static boolean addToIndex(LongMap<LongMap<LongSet>> index, long key1, long key2, long key3) {
+        return index.computeIfAbsent(key1, k -> new LongMap<>())
+                .computeIfAbsent(key2, k -> new LongSet())
+                .add(key3);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Substitution> match(RDFTriple triple) {
+        List<Substitution> results = new ArrayList<>();
+
+        Term s = triple.getTripleSubject();
+        Term p = triple.getTriplePredicate();
+        Term o = triple.getTripleObject();
+
+        boolean sVar = s.isVariable();
+        boolean pVar = p.isVariable();
+        boolean oVar = o.isVariable();
+
+        Long sId = sVar ? null : dict.getIdOrNull(s.toString());
+        Long pId = pVar ? null : dict.getIdOrNull(p.toString());
+        Long oId = oVar ? null : dict.getIdOrNull(o.toString());
+
+        // If any constant is not in dictionary, no results possible
+        if ((!sVar && sId == null) || (!pVar && pId == null) || (!oVar && oId == null)) {
+            return Collections.emptyIterator();
+        }
+
+        if (!sVar && !pVar && !oVar) { // (s, p, o) - SPO
+            LongSet leaf = leaf(indexSPO, sId, pId);
+            if (leaf != null && leaf.contains(oId)) {
+                results.add(new SubstitutionImpl(new HashMap<>()));
+            }
+        } else if (!sVar && !pVar) { // (s, p, ?o) - SPO
+            forEachLeaf(leaf(indexSPO, sId, pId), (Variable) o, results);
+        } else if (!sVar && !oVar) { // (s, ?p, o) - SOP
+            forEachLeaf(leaf(indexSOP, sId, oId), (Variable) p, results);
+        } else if (!pVar && !oVar) { // (?s, p, o) - POS
+            forEachLeaf(leaf(indexPOS, pId, oId), (Variable) s, results);
+        } else if (!sVar) { // (s, ?p, ?o) - SPO
+            forEachPair(indexSPO.get(sId), (Variable) p, (Variable) o, results);
+        } else if (!pVar) { // (?s, p, ?o) - PSO
+            forEachPair(indexPSO.get(pId), (Variable) s, (Variable) o, results);
+        } else if (!oVar) { // (?s, ?p, o) - OPS
+            forEachPair(indexOPS.get(oId), (Variable) p, (Variable) s, results);
+        } else { // (?s, ?p, ?o) - full scan using SPO
+            indexSPO.forEach((foundS, pMap) -> pMap.forEach((foundP, oSet) -> oSet.forEach(foundO -> {
+                Map<Variable, Term> map = new HashMap<>();
+                map.put((Variable) s, literal(foundS));
+                map.put((Variable) p, literal(foundP));
+                map.put((Variable) o, literal(foundO));
+                results.add(new SubstitutionImpl(map));
+            })));
+        }
+        return results.iterator();
+    }
+
+    private static LongSet leaf(LongMap<LongMap<LongSet>> index, long key1, long key2) {
+        LongMap<LongSet> level = index.get(key1);
+        return level == null ? null : level.get(key2);
+    }
+
+    private void forEachLeaf(LongSet leaf, Variable var, List<Substitution> results) {
+        if (leaf != null) {
+            leaf.forEach(id -> {
+                Map<Variable, Term> map = new HashMap<>();
+                map.put(var, literal(id));
+                results.add(new SubstitutionImpl(map));
+            });
+        }
+    }
+
+    private void forEachPair(LongMap<LongSet> level, Variable var2, Variable var3, List<Substitution> results) {
+        if (level != null) {
+            level.forEach((id2, leaf) -> leaf.forEach(id3 -> {
+                Map<Variable, Term> map = new HashMap<>();
+                map.put(var2, literal(id2));
+                map.put(var3, literal(id3));
+                results.add(new SubstitutionImpl(map));
+            }));
+        }
+    }
+
+    private Literal<String> literal(long id) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(id));
+    }
+
+    @Override
+    public long howMany(RDFTriple triple) {
+        Term s = triple.getTripleSubject();
+        Term p = triple.getTriplePredicate();
+        Term o = triple.getTripleObject();
+
+        boolean vs = s.isVariable();
+        boolean vp = p.isVariable();
+        boolean vo = o.isVariable();
+
+        Long sId = vs ? null : dict.getIdOrNull(s.toString());
+        Long pId = vp ? null : dict.getIdOrNull(p.toString());
+        Long oId = vo ? null : dict.getIdOrNull(o.toString());
+        if ((!vs && sId == null) || (!vp && pId == null) || (!vo && oId == null)) {
+            return 0;
+        }
+
+        if (!vs && !vp && !vo) {
+            LongSet leaf = leaf(indexSPO, sId, pId);
+            return leaf != null && leaf.contains(oId) ? 1 : 0;
+        }
+        if (vs && !vp && !vo) { // (?s, p, o)
+            return count(countPO, pId, oId);
+        }
+        if (!vs && vp && !vo) { // (s, ?p, o)
+            return count(countSO, sId, oId);
+        }
+        if (!vs && !vp) { // (s, p, ?o)
+            return count(countSP, sId, pId);
+        }
+        if (vs && vp && !vo) { // (?s, ?p, o)
+            return countO.get(oId);
+        }
+        if (vs && !vp) { // (?s, p, ?o)
+            return countP.get(pId);
+        }
+        if (!vs) { // (s, ?p, ?o)
+            return countS.get(sId);
+        }
+        return size();
+    }
+
+    private static long count(LongMap<LongCounts> counts, long key1, long key2) {
+        LongCounts level = counts.get(key1);
+        return level == null ? 0 : level.get(key2);
+    }
+
+    @Override
+    public Collection<RDFTriple> getAtoms() {
+        Collection<RDFTriple> res = new ArrayList<>();
+        indexSPO.forEach((s, pMap) -> pMap.forEach((p, oSet) -> oSet.forEach(o ->
+                res.add(new RDFTriple(literal(s), literal(p), literal(o))))));
+        return res;
+    }
+}
@@ -0,0 +1,79 @@
+package qengine.storage;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Ensemble d'identifiants {@code long} positifs ou nuls, à adressage ouvert
+ * (sondage linéaire) : chaque case contient l'identifiant + 1 (0 = case vide).
+ * La table est découpée en pages de {@link HashTables#PAGE_SIZE} cases, si bien
+ * que sa capacité n'est pas bornée par la taille maximale d'un tableau Java.
+ * Utilisé pour les feuilles des index de {@link LongRDFHexaStore}.
+ */
+final class LongSet {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[][] slots = HashTables.newPages(INITIAL_CAPACITY);
+    private long capacity = INITIAL_CAPACITY;
+    private long size = 0;
+
+    /**
+     * @return vrai si l'identifiant a été ajouté, faux s'il était déjà présent
+     */
+    boolean add(long id) {
+        long slot = find(slots, capacity, id);
+        long[] page = slots[HashTables.page(slot)];
+        int offset = HashTables.offset(slot);
+        if (page[offset] != 0) {
+            return false;
+        }
+        page[offset] = id + 1;
+        if (HashTables.overloaded(++size, capacity)) {
+            rehash();
+        }
+        return true;
+    }
+
+    boolean contains(long id) {
+        long slot = find(slots, capacity, id);
+        return slots[HashTables.page(slot)][HashTables.offset(slot)] != 0;
+    }
+
+    long size() {
+        return size;
+    }
+
+    void forEach(LongConsumer action) {
+        for (long[] page : slots) {
+            for (long slot : page) {
+                if (slot != 0) {
+                    action.accept(slot - 1);
+                }
+            }
+        }
+    }
+
+    private void rehash() {
+        long newCapacity = capacity * 2;
+        long[][] newSlots = HashTables.newPages(newCapacity);
+        for (long[] page : slots) {
+            for (long slot : page) {
+                if (slot != 0) {
+                    long target = find(newSlots, newCapacity, slot - 1);
+                    newSlots[HashTables.page(target)][HashTables.offset(target)] = slot;
+                }
+            }
+        }
+        slots = newSlots;
+        capacity = newCapacity;
+    }
+
+    private static long find(long[][] slots, long capacity, long id) {
+        long mask = capacity - 1;
+        long slot = HashTables.mix(id) & mask;
+        long entry;
+        while ((entry = slots[HashTables.page(slot)][HashTables.offset(slot)]) != 0 && entry != id + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,43 @@
+package qengine.storage;
+
+/**
+ * Contrat d'un dictionnaire RDF à identifiants sur 64 bits, pour les jeux de
+ * données dépassant les 2^31 termes distincts de {@link TermDictionary}.
+ * Les identifiants sont positifs ou nuls.
+ */
+public interface LongTermDictionary {
+
+    /**
+     * Encode une chaîne en un identifiant unique.
+     * Si la chaîne existe déjà, retourne l'identifiant existant.
+     *
+     * @param s la chaîne à encoder
+     * @return l'identifiant unique associé
+     * @throws IllegalArgumentException si s est null
+     */
+    long encode(String s);
+
+    /**
+     * Décode un identifiant pour retrouver la chaîne associée.
+     *
+     * @param i l'identifiant à décoder
+     * @return la chaîne associée
+     * @throws IllegalArgumentException si l'identifiant n'existe pas
+     */
+    String decode(long i);
+
+    /**
+     * Retourne l'identifiant d'une chaîne sans jamais modifier le dictionnaire.
+     *
+     * @param value la chaîne recherchée
+     * @return l'identifiant associé, ou null si la chaîne n'a jamais été encodée
+     */
+    Long getIdOrNull(String value);
+
+    /**
+     * Retourne le nombre d'éléments dans le dictionnaire.
+     *
+     * @return le nombre d'éléments
+     */
+    long size();
+}
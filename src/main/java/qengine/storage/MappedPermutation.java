@@ -0,0 +1,207 @@
+package qengine.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+
+/**
+ * Permutation au format CSR (voir {@link CsrPermutation}) lue directement dans un
+ * fichier projeté en mémoire.
+ * <p>
+ * Format (entiers en big-endian) :
+ * <pre>
+ *   en-tête : MAGIC, VERSION, n1, n2, n3
+ *   keys1[n1], off1[n1 + 1], keys2[n2], off2[n2 + 1], keys3[n3]
+ * </pre>
+ */
+final class MappedPermutation implements SortedPermutation {
+    private static final int MAGIC = 0x52444650; // "RDFP"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 5;
+
+    private final IntBuffer keys1;
+    private final IntBuffer off1;
+    private final IntBuffer keys2;
+    private final IntBuffer off2;
+    private final IntBuffer keys3;
+
+    private MappedPermutation(IntBuffer ints, int n1, int n2, int n3) {
+        int start = HEADER_INTS;
+        keys1 = ints.slice(start, n1);
+        start += n1;
+        off1 = ints.slice(start, n1 + 1);
+        start += n1 + 1;
+        keys2 = ints.slice(start, n2);
+        start += n2;
+        off2 = ints.slice(start, n2 + 1);
+        start += n2 + 1;
+        keys3 = ints.slice(start, n3);
+    }
+
+    /**
+     * Enregistre une permutation en mémoire (listes non compressées).
+     *
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void write(CsrPermutation perm, Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(perm.keys1.length);
+            out.writeInt(perm.keys2.length);
+            out.writeInt(perm.keys3.length);
+            for (int[] array : new int[][]{perm.keys1, perm.off1, perm.keys2, perm.off2, perm.keys3}) {
+                for (int value : array) {
+                    out.writeInt(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ouvre un fichier écrit par {@link #write(CsrPermutation, Path)}.
+     *
+     * @throws IOException si le fichier est illisible ou invalide
+     */
+    static MappedPermutation open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < 4L * HEADER_INTS || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Fichier de permutation invalide: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        IntBuffer ints = buffer.asIntBuffer();
+        int n1 = ints.get(2);
+        int n2 = ints.get(3);
+        int n3 = ints.get(4);
+        if (ints.get(0) != MAGIC || ints.get(1) != VERSION || n1 < 0 || n2 < 0 || n3 < 0
+                || HEADER_INTS + 2L + n1 + n1 + n2 + n2 + n3 != ints.capacity()) {
+            throw new IOException("Fichier de permutation invalide: " + file);
+        }
+        return new MappedPermutation(ints, n1, n2, n3);
+    }
+
+    @Override
+    public int size() {
+        return keys3.capacity();
+    }
+
+    @Override
+    public int distinctFirstKeys() {
+        return keys1.capacity();
+    }
+
+    @Override
+    public int find1(int a) {
+        return indexOf(keys1, 0, keys1.capacity(), a);
+    }
+
+    @Override
+    public int find2(int i1, int b) {
+        return indexOf(keys2, off1.get(i1), off1.get(i1 + 1), b);
+    }
+
+    @Override
+    public boolean contains3(int i2, int c) {
+        return indexOf(keys3, off2.get(i2), off2.get(i2 + 1), c) >= 0;
+    }
+
+    @Override
+    public void forEach3(int i2, IntConsumer action) {
+        for (int k = off2.get(i2), end = off2.get(i2 + 1); k < end; k++) {
+            action.accept(keys3.get(k));
+        }
+    }
+
+    @Override
+    public void scan(int i1, EncodedRDFStorage.TripleIdConsumer action) {
+        int a = keys1.get(i1);
+        for (int i2 = off1.get(i1), end2 = off1.get(i1 + 1); i2 < end2; i2++) {
+            int b = keys2.get(i2);
+            for (int k = off2.get(i2), end3 = off2.get(i2 + 1); k < end3; k++) {
+                action.accept(a, b, keys3.get(k));
+            }
+        }
+    }
+
+    @Override
+    public int count1(int i1) {
+        return off2.get(off1.get(i1 + 1)) - off2.get(off1.get(i1));
+    }
+
+    @Override
+    public int count2(int i2) {
+        return off2.get(i2 + 1) - off2.get(i2);
+    }
+
+    @Override
+    public int start2(int i1) {
+        return off1.get(i1);
+    }
+
+    @Override
+    public EncodedRDFStorage.TripleIdCursor cursor(int i1, int from2, int to2) {
+        int end = from2 < to2 ? off2.get(to2) : 0;
+        return new EncodedRDFStorage.TripleIdCursor() {
+            private int first = i1;
+            private int pair = from2;
+            private int k = from2 < to2 ? off2.get(from2) : 0;
+            private int third;
+
+            @Override
+            public boolean advance() {
+                if (k == end) {
+                    return false;
+                }
+                while (k == off2.get(pair + 1)) {
+                    pair++;
+                }
+                while (pair == off1.get(first + 1)) {
+                    first++;
+                }
+                third = keys3.get(k++);
+                return true;
+            }
+
+            @Override
+            public int s() {
+                return keys1.get(first);
+            }
+
+            @Override
+            public int p() {
+                return keys2.get(pair);
+            }
+
+            @Override
+            public int o() {
+                return third;
+            }
+        };
+    }
+
+    private static int indexOf(IntBuffer keys, int from, int to, int key) {
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = keys.get(mid);
+            if (value < key) {
+                low = mid + 1;
+            } else if (value > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
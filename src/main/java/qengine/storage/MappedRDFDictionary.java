@@ -0,0 +1,226 @@
+package qengine.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Dictionnaire RDF relu depuis un fichier instantané projeté en mémoire.
+ * <p>
+ * {@link #write(TermDictionary, Path)} enregistre un dictionnaire dans un fichier
+ * binaire compact ; {@link #open(Path)} le rouvre par {@code FileChannel.map} sans
+ * rien désérialiser : l'ouverture ne lit que l'en-tête, et le système charge les
+ * pages du fichier à la demande lors des recherches. Les identifiants sont ceux du
+ * dictionnaire enregistré, ce qui permet de réutiliser des index construits avec lui.
+ * <p>
+ * Format (entiers en big-endian) :
+ * <pre>
+ *   en-tête   : MAGIC, VERSION, nombre de termes n, capacité c de la table
+ *   table     : c entiers, identifiant + 1 (0 = case vide), sondage linéaire
+ *   positions : n + 1 entiers, début du terme i dans le bloc de chaînes
+ *   chaînes   : termes en UTF-8, concaténés dans l'ordre des identifiants
+ * </pre>
+ * Le fichier n'est jamais modifié : les termes encodés après l'ouverture sont
+ * ajoutés à un {@link RDFDictionary} en mémoire, avec des identifiants à partir de n.
+ */
+public class MappedRDFDictionary implements TermDictionary {
+    private static final int MAGIC = 0x52444644; // "RDFD"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int capacity;
+    private final int offsetsStart;
+    private final int stringsStart;
+    // Termes ajoutés depuis l'ouverture
+    private final RDFDictionary overflow = new RDFDictionary();
+
+    private MappedRDFDictionary(MappedByteBuffer buffer, int count, int capacity) {
+        this.buffer = buffer;
+        this.count = count;
+        this.capacity = capacity;
+        this.offsetsStart = HEADER_SIZE + 4 * capacity;
+        this.stringsStart = offsetsStart + 4 * (count + 1);
+    }
+
+    /**
+     * Enregistre un dictionnaire dans un fichier instantané.
+     *
+     * @param dict le dictionnaire à enregistrer
+     * @param file le fichier à créer ou à remplacer
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws IllegalStateException si le fichier dépasserait 2 Go
+     */
+    public static void write(TermDictionary dict, Path file) throws IOException {
+        int n = dict.size();
+        byte[][] terms = new byte[n][];
+        int[] hashes = new int[n];
+        long total = 0;
+        for (int id = 0; id < n; id++) {
+            terms[id] = dict.decode(id).getBytes(StandardCharsets.UTF_8);
+            hashes[id] = hash(terms[id]);
+            total += terms[id].length;
+        }
+
+        int capacity = 16;
+        while (HashTables.overloaded(n, capacity)) {
+            capacity <<= 1;
+        }
+        if (HEADER_SIZE + 4L * capacity + 4L * (n + 1) + total > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Dictionnaire trop grand pour un instantané");
+        }
+        int[] slots = new int[capacity];
+        for (int id = 0; id < n; id++) {
+            int slot = hashes[id] & (capacity - 1);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            slots[slot] = id + 1;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(capacity);
+            for (int slot : slots) {
+                out.writeInt(slot);
+            }
+            int offset = 0;
+            for (byte[] term : terms) {
+                out.writeInt(offset);
+                offset += term.length;
+            }
+            out.writeInt(offset);
+            for (byte[] term : terms) {
+                out.write(term);
+            }
+        }
+    }
+
+    /**
+     * Ouvre un fichier instantané écrit par {@link #write(TermDictionary, Path)}.
+     *
+     * @param file le fichier à ouvrir
+     * @return le dictionnaire projeté en mémoire
+     * @throws IOException si le fichier est illisible ou n'est pas un instantané valide
+     */
+    public static MappedRDFDictionary open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Fichier de dictionnaire invalide: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Fichier de dictionnaire invalide: " + file);
+        }
+        int count = buffer.getInt(8);
+        int capacity = buffer.getInt(12);
+        if (count < 0 || capacity <= 0 || Integer.bitCount(capacity) != 1
+                || HEADER_SIZE + 4L * capacity + 4L * (count + 1) > buffer.capacity()) {
+            throw new IOException("Fichier de dictionnaire invalide: " + file);
+        }
+        return new MappedRDFDictionary(buffer, count, capacity);
+    }
+
+    @Override
+    public int encode(String s) {
+        if (s == null) {
+            throw new IllegalArgumentException("La chaîne ne peut pas être null");
+        }
+        int id = find(s.getBytes(StandardCharsets.UTF_8));
+        return id >= 0 ? id : count + overflow.encode(s);
+    }
+
+    @Override
+    public String decode(int i) {
+        if (i >= count) {
+            return overflow.decode(i - count);
+        }
+        if (i < 0) {
+            throw new IllegalArgumentException("Identifiant inexistant: " + i);
+        }
+        int start = offset(i);
+        byte[] bytes = new byte[offset(i + 1) - start];
+        buffer.get(stringsStart + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Integer getIdOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        int id = find(value.getBytes(StandardCharsets.UTF_8));
+        if (id >= 0) {
+            return id;
+        }
+        Integer added = overflow.getIdOrNull(value);
+        return added == null ? null : count + added;
+    }
+
+    @Override
+    public int size() {
+        return count + overflow.size();
+    }
+
+    /**
+     * Retourne le nombre de termes lus depuis le fichier.
+     *
+     * @return le nombre de termes de l'instantané
+     */
+    public int snapshotSize() {
+        return count;
+    }
+
+    /**
+     * Identifiant des octets dans l'instantané, ou -1 s'ils n'y figurent pas.
+     */
+    private int find(byte[] bytes) {
+        int mask = capacity - 1;
+        int slot = hash(bytes) & mask;
+        int entry;
+        while ((entry = buffer.getInt(HEADER_SIZE + 4 * slot)) != 0) {
+            int id = entry - 1;
+            if (sameBytes(id, bytes)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean sameBytes(int id, byte[] bytes) {
+        int start = offset(id);
+        if (offset(id + 1) - start != bytes.length) {
+            return false;
+        }
+        return buffer.slice(stringsStart + start, bytes.length).equals(ByteBuffer.wrap(bytes));
+    }
+
+    private int offset(int id) {
+        return buffer.getInt(offsetsStart + 4 * id);
+    }
+
+    /**
+     * Empreinte FNV-1a des octets UTF-8, brassée pour la table à adressage ouvert.
+     * La table enregistrée en dépend : elle ne doit pas changer sans changer {@code VERSION}.
+     */
+    private static int hash(byte[] bytes) {
+        int h = 0x811C9DC5;
+        for (byte b : bytes) {
+            h = (h ^ b) * 0x01000193;
+        }
+        return HashTables.mix(h);
+    }
+}
@@ -0,0 +1,82 @@
+package qengine.storage;
+
+import qengine.model.RDFTriple;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * HexaStore persistant, servi directement depuis des fichiers projetés en mémoire.
+ * <p>
+ * {@link #write(EncodedRDFStorage, Path)} enregistre dans un répertoire le
+ * dictionnaire ({@link MappedRDFDictionary}) et les six permutations triées au format
+ * CSR ({@link MappedPermutation}) ; {@link #open(Path)} les rouvre par
+ * {@code FileChannel.map} sans rien relire ni reconstruire. Les recherches lisent
+ * les fichiers projetés : c'est le cache de pages du système qui décide de ce qui
+ * reste en mémoire, et les données peuvent dépasser la taille de la RAM.
+ * <p>
+ * Le store est en lecture seule. Chaque fichier de permutation est limité à 2 Go,
+ * soit environ 500 millions de triplets.
+ */
+public class MappedRDFHexaStore extends SortedRDFStore {
+    private static final String DICTIONARY_FILE = "dictionary.bin";
+    private static final String[] PERMUTATION_FILES = {"spo.idx", "sop.idx", "pso.idx", "pos.idx", "osp.idx", "ops.idx"};
+
+    private MappedRDFHexaStore(MappedRDFDictionary dict, SortedPermutation[] permutations) {
+        super(dict, permutations);
+    }
+
+    /**
+     * Enregistre le contenu d'un store encodé dans un répertoire (créé au besoin ;
+     * les fichiers existants sont remplacés).
+     *
+     * @param source    le store à enregistrer
+     * @param directory le répertoire de destination
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws IllegalArgumentException si le store utilise des identifiants en ligne,
+     *                                  que l'instantané du dictionnaire ne contient pas
+     */
+    public static void write(EncodedRDFStorage source, Path directory) throws IOException {
+        FrozenRDFHexaStore frozen = source instanceof FrozenRDFHexaStore f && f.permutations()[0].keys3 != null
+                ? f : new FrozenRDFHexaStore(source);
+        CsrPermutation[] permutations = frozen.permutations();
+        // SPO, PSO et OSP ont pour premières clés les sujets, prédicats et objets, triés
+        for (int k : new int[]{0, 2, 4}) {
+            if (permutations[k].keys1.length > 0 && permutations[k].keys1[0] < 0) {
+                throw new IllegalArgumentException("Identifiants en ligne non pris en charge: "
+                        + permutations[k].keys1[0]);
+            }
+        }
+
+        Files.createDirectories(directory);
+        MappedRDFDictionary.write(source.getDictionary(), directory.resolve(DICTIONARY_FILE));
+        for (int k = 0; k < PERMUTATION_FILES.length; k++) {
+            MappedPermutation.write(permutations[k], directory.resolve(PERMUTATION_FILES[k]));
+        }
+    }
+
+    /**
+     * Ouvre un store écrit par {@link #write(EncodedRDFStorage, Path)}.
+     *
+     * @param directory le répertoire du store
+     * @return le store projeté en mémoire
+     * @throws IOException si un fichier manque, est illisible ou invalide
+     */
+    public static MappedRDFHexaStore open(Path directory) throws IOException {
+        MappedRDFDictionary dict = MappedRDFDictionary.open(directory.resolve(DICTIONARY_FILE));
+        SortedPermutation[] permutations = new SortedPermutation[PERMUTATION_FILES.length];
+        for (int k = 0; k < PERMUTATION_FILES.length; k++) {
+            permutations[k] = MappedPermutation.open(directory.resolve(PERMUTATION_FILES[k]));
+        }
+        return new MappedRDFHexaStore(dict, permutations);
+    }
+
+    /**
+     * @throws UnsupportedOperationException toujours : le store est en lecture seule
+     */
+    @Override
+    public boolean add(RDFTriple t) {
+        throw new UnsupportedOperationException("Le store persistant n'accepte pas d'ajout.");
+    }
+}
@@ -0,0 +1,346 @@
+package qengine.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionnaire RDF qui factorise les espaces de noms des IRIs.
+ * <p>
+ * Chaque IRI (terme commençant par un schéma, {@code http:}, {@code urn:}...) est
+ * découpée après son dernier {@code '/'} ou {@code '#'} :
+ * le préfixe (espace de noms, par exemple {@code http://schema.org/}) est stocké
+ * une seule fois dans une table des espaces de noms, et seul le nom local
+ * ({@code birthDate}) est conservé pour le terme, en UTF-8 dans une arène
+ * d'octets, accompagné de l'identifiant de son espace de noms. Les littéraux et
+ * les IRIs sans séparateur ont l'espace de noms vide : un littéral contenant un
+ * {@code '/'} n'ajoute pas d'entrée à la table des espaces de noms. {@link #decode(int)} recolle
+ * les deux parties et redonne exactement la chaîne d'origine.
+ * <p>
+ * La table de hachage ne porte que sur le nom local et l'identifiant d'espace
+ * de noms ; l'espace de noms du dernier terme encodé est mémorisé, ce qui évite
+ * de rechercher le préfixe pour les suites de termes qui le partagent. Les
+ * lectures ({@link #getIdOrNull(String)}, {@link #decode(int)}) ne modifient rien
+ * et peuvent être concurrentes.
+ */
+public class NamespaceRDFDictionary implements TermDictionary {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Table des espaces de noms
+    private final RDFDictionary namespaces = new RDFDictionary();
+    // Dernier espace de noms encodé, pour éviter une recherche par terme ; le couple
+    // est un seul objet immuable, jamais lu à moitié mis à jour
+    private LastNamespace last = new LastNamespace("", namespaces.encode(""));
+
+    // Table de hachage : identifiant + 1, 0 pour une case vide
+    private int[] slots = new int[INITIAL_CAPACITY];
+    // Espace de noms de chaque terme, indexé par identifiant
+    private int[] namespaceIds = new int[INITIAL_CAPACITY];
+    // Noms locaux en UTF-8 : le terme i occupe [offsets[i], offsets[i + 1]) dans l'arène
+    private int[] offsets = new int[INITIAL_CAPACITY + 1];
+    private byte[] arena = new byte[INITIAL_CAPACITY * 8];
+    private int nextId = 0;
+
+    @Override
+    public int encode(String s) {
+        if (s == null) {
+            throw new IllegalArgumentException("La chaîne ne peut pas être null");
+        }
+        int split = splitIndex(s);
+        int ns = namespaceId(s, split, true);
+        int slot = find(ns, s, split);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+
+        int newId = nextId++;
+        if (newId == namespaceIds.length) {
+            namespaceIds = Arrays.copyOf(namespaceIds, namespaceIds.length * 2);
+            offsets = Arrays.copyOf(offsets, namespaceIds.length + 1);
+        }
+        int start = offsets[newId];
+        long end = (long) start + utf8Length(s, split);
+        if (end > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Arène des noms locaux pleine");
+        }
+        if (end > arena.length) {
+            arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(2L * arena.length, end)));
+        }
+        int pos = start;
+        for (int k = split; k < s.length(); ) {
+            char c = s.charAt(k);
+            if (c < 0x80) {
+                arena[pos++] = (byte) c;
+                k++;
+                continue;
+            }
+            int cp = codePoint(s, k);
+            k += cp >= 0x10000 ? 2 : 1;
+            int length = utf8Length(cp);
+            for (int j = 0; j < length; j++) {
+                arena[pos++] = utf8Byte(cp, length, j);
+            }
+        }
+        offsets[newId + 1] = pos;
+        namespaceIds[newId] = ns;
+        slots[slot] = newId + 1;
+        if (HashTables.overloaded(nextId, slots.length)) {
+            rehash(slots.length * 2);
+        }
+        return newId;
+    }
+
+    @Override
+    public String decode(int i) {
+        if (i < 0 || i >= nextId) {
+            throw new IllegalArgumentException("Identifiant inexistant: " + i);
+        }
+        String local = new String(arena, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        String namespace = namespaces.decode(namespaceIds[i]);
+        return namespace.isEmpty() ? local : namespace.concat(local);
+    }
+
+    @Override
+    public Integer getIdOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        int split = splitIndex(value);
+        int ns = namespaceId(value, split, false);
+        if (ns < 0) {
+            return null;
+        }
+        int slot = find(ns, value, split);
+        return slots[slot] == 0 ? null : slots[slot] - 1;
+    }
+
+    @Override
+    public int size() {
+        return nextId;
+    }
+
+    /**
+     * Retourne le nombre d'espaces de noms distincts (l'espace vide compris).
+     *
+     * @return la taille de la table des espaces de noms
+     */
+    public int namespaceCount() {
+        return namespaces.size();
+    }
+
+    /**
+     * Position du premier caractère du nom local (0 si le terme n'a pas d'espace de
+     * noms : littéral, ou IRI sans séparateur).
+     */
+    private static int splitIndex(String s) {
+        if (!hasScheme(s)) {
+            return 0;
+        }
+        for (int k = s.length() - 1; k >= 0; k--) {
+            char c = s.charAt(k);
+            if (c == '/' || c == '#') {
+                return k + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return vrai si le terme commence par un schéma d'IRI : une lettre, puis des
+     *         lettres, chiffres, {@code '+'}, {@code '-'} ou {@code '.'}, puis {@code ':'}
+     */
+    private static boolean hasScheme(String s) {
+        if (s.isEmpty() || !Character.isLetter(s.charAt(0))) {
+            return false;
+        }
+        for (int k = 1; k < s.length(); k++) {
+            char c = s.charAt(k);
+            if (c == ':') {
+                return true;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '+' && c != '-' && c != '.') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Identifiant de l'espace de noms {@code s[0, split)}.
+     *
+     * @param create vrai pour ajouter l'espace de noms s'il est inconnu
+     * @return l'identifiant, ou -1 s'il est inconnu et que {@code create} est faux
+     */
+    private int namespaceId(String s, int split, boolean create) {
+        LastNamespace cached = last;
+        // Le nom local ne contient ni '/' ni '#' : la longueur suffit à délimiter le préfixe
+        if (split == cached.prefix().length() && s.startsWith(cached.prefix())) {
+            return cached.id();
+        }
+        String namespace = s.substring(0, split);
+        if (!create) {
+            // Lecture : le cache n'est pas touché
+            Integer id = namespaces.getIdOrNull(namespace);
+            return id == null ? -1 : id;
+        }
+        int id = namespaces.encode(namespace);
+        last = new LastNamespace(namespace, id);
+        return id;
+    }
+
+    /**
+     * Dernier espace de noms encodé et son identifiant.
+     */
+    private record LastNamespace(String prefix, int id) {
+    }
+
+    /**
+     * Cherche la case de la table contenant le terme de nom local {@code s[split, length)},
+     * ou la case vide où l'insérer. Le nom local est haché et comparé à l'arène
+     * caractère par caractère, sans être extrait ni converti en UTF-8.
+     */
+    private int find(int ns, String s, int split) {
+        int mask = slots.length - 1;
+        int slot = hash(ns, s, split) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (namespaceIds[id] == ns && localEquals(id, s, split)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @return vrai si le nom local du terme {@code id} a pour UTF-8 celui de {@code s[split, length)}
+     */
+    private boolean localEquals(int id, String s, int split) {
+        int pos = offsets[id];
+        int end = offsets[id + 1];
+        for (int k = split; k < s.length(); ) {
+            char c = s.charAt(k);
+            if (c < 0x80) {
+                if (pos == end || arena[pos++] != c) {
+                    return false;
+                }
+                k++;
+                continue;
+            }
+            int cp = codePoint(s, k);
+            k += cp >= 0x10000 ? 2 : 1;
+            int length = utf8Length(cp);
+            if (end - pos < length) {
+                return false;
+            }
+            for (int j = 0; j < length; j++) {
+                if (arena[pos++] != utf8Byte(cp, length, j)) {
+                    return false;
+                }
+            }
+        }
+        return pos == end;
+    }
+
+    /**
+     * Reconstruit la table de hachage avec une nouvelle capacité (puissance de 2).
+     */
+    private void rehash(int capacity) {
+        int[] newSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < nextId; id++) {
+            int slot = hash(namespaceIds[id], arena, offsets[id], offsets[id + 1]) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    /**
+     * Empreinte du couple (espace de noms, nom local) calculée sur les seuls
+     * octets du nom local {@code bytes[from, to)}.
+     */
+    private static int hash(int ns, byte[] bytes, int from, int to) {
+        int h = ns;
+        for (int k = from; k < to; k++) {
+            h = 31 * h + bytes[k];
+        }
+        return HashTables.mix(h);
+    }
+
+    /**
+     * Même empreinte que {@link #hash(int, byte[], int, int)}, calculée sur les octets
+     * UTF-8 de {@code s[split, length)} produits à la volée.
+     */
+    private static int hash(int ns, String s, int split) {
+        int h = ns;
+        for (int k = split; k < s.length(); ) {
+            char c = s.charAt(k);
+            if (c < 0x80) {
+                h = 31 * h + c;
+                k++;
+                continue;
+            }
+            int cp = codePoint(s, k);
+            k += cp >= 0x10000 ? 2 : 1;
+            int length = utf8Length(cp);
+            for (int j = 0; j < length; j++) {
+                h = 31 * h + utf8Byte(cp, length, j);
+            }
+        }
+        return HashTables.mix(h);
+    }
+
+    /**
+     * Point de code commençant à {@code s[k]}, comme le lit {@code getBytes(UTF_8)} :
+     * une demi-paire de substitution isolée devient {@code '?'}.
+     */
+    private static int codePoint(String s, int k) {
+        char c = s.charAt(k);
+        if (!Character.isSurrogate(c)) {
+            return c;
+        }
+        if (Character.isHighSurrogate(c) && k + 1 < s.length() && Character.isLowSurrogate(s.charAt(k + 1))) {
+            return Character.toCodePoint(c, s.charAt(k + 1));
+        }
+        return '?';
+    }
+
+    /**
+     * Nombre d'octets UTF-8 de {@code s[split, length)}.
+     */
+    private static int utf8Length(String s, int split) {
+        int bytes = 0;
+        for (int k = split; k < s.length(); ) {
+            char c = s.charAt(k);
+            if (c < 0x80) {
+                bytes++;
+                k++;
+                continue;
+            }
+            int cp = codePoint(s, k);
+            k += cp >= 0x10000 ? 2 : 1;
+            bytes += utf8Length(cp);
+        }
+        return bytes;
+    }
+
+    private static int utf8Length(int cp) {
+        return cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * Octet {@code j} du codage UTF-8 sur {@code length} octets du point de code.
+     */
+    private static byte utf8Byte(int cp, int length, int j) {
+        if (length == 1) {
+            return (byte) cp;
+        }
+        if (j == 0) {
+            // En-tête : length bits à 1, un bit à 0, puis les bits de poids fort
+            return (byte) ((0xFF00 >> length) | (cp >> (6 * (length - 1))));
+        }
+        return (byte) (0x80 | ((cp >> (6 * (length - 1 - j))) & 0x3F));
+    }
+}
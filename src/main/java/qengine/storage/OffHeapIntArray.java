@@ -0,0 +1,72 @@
+package qengine.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tableau d'entiers extensible rangé hors du tas, dans des {@link ByteBuffer} directs.
+ * <p>
+ * Tant que le tableau tient dans une page, celle-ci double de taille à la demande ;
+ * au-delà de {@code 2^PAGE_BITS} entiers (4 Mo), on ajoute des pages pleines. Sur le
+ * tas ne reste qu'un objet par page. Les cases neuves valent 0.
+ */
+final class OffHeapIntArray {
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final List<IntBuffer> pages = new ArrayList<>();
+    private int pageSize;
+
+    /**
+     * @param capacity nombre de cases disponibles d'emblée
+     */
+    OffHeapIntArray(long capacity) {
+        pageSize = (int) Math.min(PAGE_SIZE, Math.max(16, Long.highestOneBit(Math.max(1, capacity - 1)) << 1));
+        pages.add(allocate(pageSize));
+        ensureCapacity(capacity);
+    }
+
+    /**
+     * @return le nombre de cases disponibles
+     */
+    long capacity() {
+        return (long) pages.size() * pageSize;
+    }
+
+    /**
+     * Agrandit le tableau pour qu'il compte au moins {@code capacity} cases.
+     */
+    void ensureCapacity(long capacity) {
+        while (pageSize < PAGE_SIZE && pageSize < capacity) {
+            IntBuffer bigger = allocate(2 * pageSize);
+            bigger.put(0, pages.getFirst(), 0, pageSize);
+            pages.set(0, bigger);
+            pageSize *= 2;
+        }
+        while (capacity() < capacity) {
+            pages.add(allocate(PAGE_SIZE));
+        }
+    }
+
+    int get(long i) {
+        return pages.get((int) (i >>> PAGE_BITS)).get((int) (i & PAGE_MASK));
+    }
+
+    void set(long i, int value) {
+        pages.get((int) (i >>> PAGE_BITS)).put((int) (i & PAGE_MASK), value);
+    }
+
+    /**
+     * @return le nombre d'octets réservés hors du tas
+     */
+    long bytes() {
+        return 4 * capacity();
+    }
+
+    private static IntBuffer allocate(int ints) {
+        return ByteBuffer.allocateDirect(4 * ints).asIntBuffer();
+    }
+}
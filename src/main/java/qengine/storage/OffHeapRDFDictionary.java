@@ -0,0 +1,236 @@
+package qengine.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dictionnaire RDF dont les termes sont stockés hors du tas Java.
+ * <p>
+ * Chaque terme est écrit une seule fois en UTF-8, précédé de sa longueur (varint),
+ * dans une arène de {@link ByteBuffer} directs découpée en blocs. Sur le tas ne
+ * restent que des tableaux primitifs : la position de chaque terme dans l'arène
+ * (indexée par identifiant), l'empreinte de chaque terme, et la table de hachage
+ * à adressage ouvert calculée sur les octets bruts. Le nombre d'objets vivants
+ * ne dépend donc plus de la taille du dictionnaire, ce qui évite que les pauses
+ * du GC et l'occupation de la vieille génération grossissent avec les données.
+ * <p>
+ * Contrepartie : {@link #decode(int)} reconstruit une nouvelle chaîne à chaque appel.
+ */
+public class OffHeapRDFDictionary implements TermDictionary {
+    private static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int chunkSize;
+    // Arène hors tas : blocs de taille fixe (un terme plus grand qu'un bloc a son propre bloc)
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+
+    // Position de chaque terme : (numéro de bloc << 32) | décalage dans le bloc
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    // Empreinte des octets de chaque terme, pour filtrer les comparaisons et rehacher
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    // Table de hachage : identifiant + 1, 0 pour une case vide
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int nextId = 0;
+
+    /**
+     * Crée un dictionnaire hors tas avec des blocs de 16 Mo.
+     */
+    public OffHeapRDFDictionary() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Crée un dictionnaire hors tas avec la taille de bloc donnée.
+     *
+     * @param chunkSize taille en octets de chaque bloc de l'arène
+     * @throws IllegalArgumentException si la taille n'est pas strictement positive
+     */
+    public OffHeapRDFDictionary(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("La taille de bloc doit être positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int encode(String s) {
+        if (s == null) {
+            throw new IllegalArgumentException("La chaîne ne peut pas être null");
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        int slot = find(bytes, hash);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+
+        int newId = nextId++;
+        if (newId == addresses.length) {
+            addresses = Arrays.copyOf(addresses, addresses.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        addresses[newId] = append(bytes);
+        hashes[newId] = hash;
+        slots[slot] = newId + 1;
+        if (HashTables.overloaded(nextId, slots.length)) {
+            rehash(slots.length * 2);
+        }
+        return newId;
+    }
+
+    @Override
+    public String decode(int i) {
+        if (i < 0 || i >= nextId) {
+            throw new IllegalArgumentException("Identifiant inexistant: " + i);
+        }
+        ByteBuffer chunk = chunks.get((int) (addresses[i] >>> 32));
+        int pos = (int) addresses[i];
+        int length = lengthAt(chunk, pos);
+        byte[] bytes = new byte[length];
+        chunk.get(pos + prefixSize(length), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Integer getIdOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int slot = find(bytes, hash(bytes));
+        return slots[slot] == 0 ? null : slots[slot] - 1;
+    }
+
+    @Override
+    public int size() {
+        return nextId;
+    }
+
+    /**
+     * Retourne le nombre d'octets hors tas réservés par l'arène.
+     *
+     * @return la capacité cumulée des blocs alloués
+     */
+    public long offHeapBytes() {
+        long total = 0;
+        for (ByteBuffer chunk : chunks) {
+            total += chunk.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * Cherche la case de la table contenant ces octets, ou la case vide où les insérer.
+     */
+    private int find(byte[] bytes, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && sameBytes(id, bytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Compare les octets stockés pour un identifiant avec ceux fournis.
+     */
+    private boolean sameBytes(int id, byte[] bytes) {
+        ByteBuffer chunk = chunks.get((int) (addresses[id] >>> 32));
+        int pos = (int) addresses[id];
+        int length = lengthAt(chunk, pos);
+        if (length != bytes.length) {
+            return false;
+        }
+        pos += prefixSize(length);
+        for (int k = 0; k < length; k++) {
+            if (chunk.get(pos + k) != bytes[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Écrit le terme (longueur varint puis octets) à la fin de l'arène.
+     *
+     * @return l'adresse du terme
+     */
+    private long append(byte[] bytes) {
+        int needed = bytes.length + 5;
+        if (current == null || current.remaining() < needed) {
+            current = ByteBuffer.allocateDirect(Math.max(chunkSize, needed));
+            chunks.add(current);
+        }
+        long address = ((long) (chunks.size() - 1) << 32) | current.position();
+        int length = bytes.length;
+        while ((length & ~0x7F) != 0) {
+            current.put((byte) ((length & 0x7F) | 0x80));
+            length >>>= 7;
+        }
+        current.put((byte) length);
+        current.put(bytes);
+        return address;
+    }
+
+    /**
+     * Lit la longueur (varint) d'un terme stocké à la position donnée.
+     */
+    private static int lengthAt(ByteBuffer chunk, int pos) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = chunk.get(pos++);
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return length;
+    }
+
+    /**
+     * Nombre d'octets occupés par le préfixe varint d'une longueur.
+     */
+    private static int prefixSize(int length) {
+        int size = 1;
+        while ((length & ~0x7F) != 0) {
+            length >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Reconstruit la table de hachage avec une nouvelle capacité (puissance de 2).
+     */
+    private void rehash(int capacity) {
+        int[] newSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < nextId; id++) {
+            int slot = hashes[id] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    /**
+     * Empreinte FNV-1a des octets UTF-8, brassée pour la table à adressage ouvert.
+     */
+    private static int hash(byte[] bytes) {
+        int h = 0x811C9DC5;
+        for (byte b : bytes) {
+            h = (h ^ b) * 0x01000193;
+        }
+        return HashTables.mix(h);
+    }
+}
@@ -0,0 +1,401 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Term;
+import qengine.model.RDFTriple;
+
+import java.util.*;
+
+/**
+ * HexaStore dont les index et les statistiques sont rangés hors du tas Java.
+ * <p>
+ * Chaque triplet est un enregistrement de neuf entiers dans un {@link OffHeapIntArray} :
+ * (s, p, o) puis, pour chacune des six clés S, P, O, SP, SO et PO, le triplet
+ * suivant ayant la même clé. Six tables de hachage à adressage ouvert, elles aussi
+ * hors tas, associent à chaque clé le premier triplet de sa chaîne et le nombre de
+ * triplets (les statistiques de sélectivité). Une septième table sert à détecter les
+ * doublons. Chaque motif se résout en suivant une seule chaîne.
+ * <p>
+ * Sur le tas ne restent qu'une poignée d'objets par structure (une page de 4 Mo au
+ * plus par objet) : la taille du tas et les pauses du GC ne dépendent plus du nombre
+ * de triplets. Le dictionnaire par défaut est un {@link OffHeapRDFDictionary}.
+ */
+public class OffHeapRDFHexaStore implements EncodedRDFStorage {
+    // Champs d'un enregistrement ; les chaînes contiennent numéro de triplet + 1 (0 = fin)
+    private static final int S = 0;
+    private static final int P = 1;
+    private static final int O = 2;
+    private static final int NEXT_S = 3;
+    private static final int NEXT_P = 4;
+    private static final int NEXT_O = 5;
+    private static final int NEXT_SP = 6;
+    private static final int NEXT_SO = 7;
+    private static final int NEXT_PO = 8;
+    private static final int RECORD_SIZE = 9;
+    // Pseudo-champ de chaînage d'un curseur parcourant tous les enregistrements
+    private static final int ALL = -1;
+
+    private final TermDictionary dict;
+    private final TermCache terms;
+
+    private final OffHeapIntArray records = new OffHeapIntArray(16L * RECORD_SIZE);
+    private int size;
+
+    private final KeyTable bySubject = new KeyTable();
+    private final KeyTable byPredicate = new KeyTable();
+    private final KeyTable byObject = new KeyTable();
+    private final KeyTable bySubjectPredicate = new KeyTable();
+    private final KeyTable bySubjectObject = new KeyTable();
+    private final KeyTable byPredicateObject = new KeyTable();
+    private final TripleTable triples = new TripleTable();
+
+    /**
+     * Crée un HexaStore hors tas vide utilisant un {@link OffHeapRDFDictionary}.
+     */
+    public OffHeapRDFHexaStore() {
+        this(new OffHeapRDFDictionary());
+    }
+
+    /**
+     * Crée un HexaStore hors tas vide utilisant le dictionnaire fourni.
+     *
+     * @param dict le dictionnaire servant à encoder les termes
+     */
+    public OffHeapRDFHexaStore(TermDictionary dict) {
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+        this.terms = new TermCache(dict);
+    }
+
+    @Override
+    public boolean add(RDFTriple triple) {
+        int s = dict.encode(triple.getTripleSubject().toString());
+        int p = dict.encode(triple.getTriplePredicate().toString());
+        int o = dict.encode(triple.getTripleObject().toString());
+        if (triples.contains(s, p, o)) {
+            return false;
+        }
+        if (size == Integer.MAX_VALUE - 1) {
+            throw new IllegalStateException("Trop de triplets pour le store hors tas");
+        }
+
+        int record = size;
+        long base = (long) record * RECORD_SIZE;
+        records.ensureCapacity(base + RECORD_SIZE);
+        records.set(base + S, s);
+        records.set(base + P, p);
+        records.set(base + O, o);
+        records.set(base + NEXT_S, bySubject.push(s, 0, record + 1));
+        records.set(base + NEXT_P, byPredicate.push(p, 0, record + 1));
+        records.set(base + NEXT_O, byObject.push(o, 0, record + 1));
+        records.set(base + NEXT_SP, bySubjectPredicate.push(s, p, record + 1));
+        records.set(base + NEXT_SO, bySubjectObject.push(s, o, record + 1));
+        records.set(base + NEXT_PO, byPredicateObject.push(p, o, record + 1));
+        size++;
+        triples.add(record);
+        return true;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public TermDictionary getDictionary() {
+        return dict;
+    }
+
+    @Override
+    public Term decodeTerm(int id) {
+        return terms.get(id);
+    }
+
+    @Override
+    public void forEachMatch(int s, int p, int o, TripleIdConsumer action) {
+        boolean sVar = s == ANY;
+        boolean pVar = p == ANY;
+        boolean oVar = o == ANY;
+
+        if (!sVar && !pVar && !oVar) { // (s, p, o)
+            if (triples.contains(s, p, o)) {
+                action.accept(s, p, o);
+            }
+        } else if (!sVar && !pVar) { // (s, p, ?o)
+            walk(bySubjectPredicate.head(s, p), NEXT_SP, action);
+        } else if (!sVar && !oVar) { // (s, ?p, o)
+            walk(bySubjectObject.head(s, o), NEXT_SO, action);
+        } else if (!pVar && !oVar) { // (?s, p, o)
+            walk(byPredicateObject.head(p, o), NEXT_PO, action);
+        } else if (!sVar) { // (s, ?p, ?o)
+            walk(bySubject.head(s, 0), NEXT_S, action);
+        } else if (!pVar) { // (?s, p, ?o)
+            walk(byPredicate.head(p, 0), NEXT_P, action);
+        } else if (!oVar) { // (?s, ?p, o)
+            walk(byObject.head(o, 0), NEXT_O, action);
+        } else { // (?s, ?p, ?o) - all records
+            for (int record = 0; record < size; record++) {
+                long base = (long) record * RECORD_SIZE;
+                action.accept(records.get(base + S), records.get(base + P), records.get(base + O));
+            }
+        }
+    }
+
+    /**
+     * Suit une chaîne de triplets à partir de {@code head} (numéro + 1, 0 si vide).
+     */
+    private void walk(int head, int nextField, TripleIdConsumer action) {
+        for (int next = head; next != 0; ) {
+            long base = (long) (next - 1) * RECORD_SIZE;
+            action.accept(records.get(base + S), records.get(base + P), records.get(base + O));
+            next = records.get(base + nextField);
+        }
+    }
+
+    @Override
+    public TripleIdCursor cursor(int s, int p, int o) {
+        boolean sVar = s == ANY;
+        boolean pVar = p == ANY;
+        boolean oVar = o == ANY;
+
+        if (!sVar && !pVar && !oVar) { // (s, p, o) - at most one triple
+            return EncodedRDFStorage.super.cursor(s, p, o);
+        } else if (!sVar && !pVar) { // (s, p, ?o)
+            return new ChainCursor(bySubjectPredicate.head(s, p), NEXT_SP);
+        } else if (!sVar && !oVar) { // (s, ?p, o)
+            return new ChainCursor(bySubjectObject.head(s, o), NEXT_SO);
+        } else if (!pVar && !oVar) { // (?s, p, o)
+            return new ChainCursor(byPredicateObject.head(p, o), NEXT_PO);
+        } else if (!sVar) { // (s, ?p, ?o)
+            return new ChainCursor(bySubject.head(s, 0), NEXT_S);
+        } else if (!pVar) { // (?s, p, ?o)
+            return new ChainCursor(byPredicate.head(p, 0), NEXT_P);
+        } else if (!oVar) { // (?s, ?p, o)
+            return new ChainCursor(byObject.head(o, 0), NEXT_O);
+        }
+        return new ChainCursor(size == 0 ? 0 : 1, ALL); // (?s, ?p, ?o) - all records
+    }
+
+    /**
+     * Curseur suivant une chaîne de triplets, ou tous les enregistrements dans l'ordre
+     * (champ {@link #ALL}), un enregistrement par avancée.
+     */
+    private final class ChainCursor implements TripleIdCursor {
+        private final int nextField;
+        // Nombre d'enregistrements à la création, borne du parcours complet
+        private final int end = size;
+        // Numéro + 1 du prochain triplet, 0 en fin de chaîne
+        private int next;
+        private long base;
+
+        ChainCursor(int head, int nextField) {
+            this.next = head;
+            this.nextField = nextField;
+        }
+
+        @Override
+        public boolean advance() {
+            if (next == 0) {
+                return false;
+            }
+            base = (long) (next - 1) * RECORD_SIZE;
+            if (nextField == ALL) {
+                next = next < end ? next + 1 : 0;
+            } else {
+                next = records.get(base + nextField);
+            }
+            return true;
+        }
+
+        @Override
+        public int s() {
+            return records.get(base + S);
+        }
+
+        @Override
+        public int p() {
+            return records.get(base + P);
+        }
+
+        @Override
+        public int o() {
+            return records.get(base + O);
+        }
+    }
+
+    @Override
+    public long howManyIds(int s, int p, int o) {
+        boolean vs = s == ANY;
+        boolean vp = p == ANY;
+        boolean vo = o == ANY;
+
+        if (!vs && !vp && !vo) {
+            return triples.contains(s, p, o) ? 1 : 0;
+        }
+        if (vs && !vp && !vo) { // (?s, p, o)
+            return byPredicateObject.count(p, o);
+        }
+        if (!vs && vp && !vo) { // (s, ?p, o)
+            return bySubjectObject.count(s, o);
+        }
+        if (!vs && !vp) { // (s, p, ?o)
+            return bySubjectPredicate.count(s, p);
+        }
+        if (vs && vp && !vo) { // (?s, ?p, o)
+            return byObject.count(o, 0);
+        }
+        if (vs && !vp) { // (?s, p, ?o)
+            return byPredicate.count(p, 0);
+        }
+        if (!vs) { // (s, ?p, ?o)
+            return bySubject.count(s, 0);
+        }
+        return size();
+    }
+
+    @Override
+    public Collection<RDFTriple> getAtoms() {
+        Collection<RDFTriple> res = new ArrayList<>();
+        forEachMatch(ANY, ANY, ANY, (s, p, o) -> res.add(new RDFTriple(terms.get(s), terms.get(p), terms.get(o))));
+        return res;
+    }
+
+    /**
+     * Retourne la mémoire réservée hors du tas par les enregistrements et les tables.
+     *
+     * @return le nombre d'octets réservés
+     */
+    public long offHeapBytes() {
+        long total = records.bytes() + triples.bytes();
+        for (KeyTable table : List.of(bySubject, byPredicate, byObject,
+                bySubjectPredicate, bySubjectObject, byPredicateObject)) {
+            total += table.bytes();
+        }
+        return total;
+    }
+
+    /**
+     * Table hors tas (clé1, clé2) -> (tête de chaîne, nombre de triplets), à sondage
+     * linéaire. Une case occupe quatre entiers ; une tête nulle marque une case vide.
+     */
+    private static final class KeyTable {
+        private static final int SLOT_SIZE = 4;
+
+        private OffHeapIntArray slots = new OffHeapIntArray(16L * SLOT_SIZE);
+        private int capacity = 16;
+        private int used;
+
+        /**
+         * Case de la clé, ou case vide où l'insérer.
+         */
+        private long find(int k1, int k2) {
+            int mask = capacity - 1;
+            int slot = HashTables.mix(31 * k1 + k2) & mask;
+            while (true) {
+                long base = (long) slot * SLOT_SIZE;
+                if (slots.get(base + 2) == 0 || (slots.get(base) == k1 && slots.get(base + 1) == k2)) {
+                    return base;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        int head(int k1, int k2) {
+            return slots.get(find(k1, k2) + 2);
+        }
+
+        int count(int k1, int k2) {
+            return slots.get(find(k1, k2) + 3);
+        }
+
+        /**
+         * Place le triplet en tête de la chaîne de la clé.
+         *
+         * @return l'ancienne tête (0 si la clé était absente)
+         */
+        int push(int k1, int k2, int recordPlusOne) {
+            long base = find(k1, k2);
+            int previous = slots.get(base + 2);
+            if (previous == 0) {
+                slots.set(base, k1);
+                slots.set(base + 1, k2);
+            }
+            slots.set(base + 2, recordPlusOne);
+            slots.set(base + 3, slots.get(base + 3) + 1);
+            if (previous == 0 && HashTables.overloaded(++used, capacity)) {
+                rehash(capacity * 2);
+            }
+            return previous;
+        }
+
+        private void rehash(int newCapacity) {
+            OffHeapIntArray old = slots;
+            int oldCapacity = capacity;
+            slots = new OffHeapIntArray((long) newCapacity * SLOT_SIZE);
+            capacity = newCapacity;
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                long base = (long) slot * SLOT_SIZE;
+                if (old.get(base + 2) != 0) {
+                    long target = find(old.get(base), old.get(base + 1));
+                    for (int k = 0; k < SLOT_SIZE; k++) {
+                        slots.set(target + k, old.get(base + k));
+                    }
+                }
+            }
+        }
+
+        long bytes() {
+            return slots.bytes();
+        }
+    }
+
+    /**
+     * Ensemble hors tas des triplets présents : numéro de triplet + 1 (0 = case vide),
+     * les identifiants étant relus dans les enregistrements.
+     */
+    private final class TripleTable {
+        private OffHeapIntArray slots = new OffHeapIntArray(16);
+        private int capacity = 16;
+
+        private int find(int s, int p, int o) {
+            int mask = capacity - 1;
+            int slot = HashTables.mix(31 * (31 * s + p) + o) & mask;
+            int entry;
+            while ((entry = slots.get(slot)) != 0) {
+                long base = (long) (entry - 1) * RECORD_SIZE;
+                if (records.get(base + S) == s && records.get(base + P) == p && records.get(base + O) == o) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        boolean contains(int s, int p, int o) {
+            return slots.get(find(s, p, o)) != 0;
+        }
+
+        /**
+         * Ajoute un triplet déjà écrit dans les enregistrements et compté dans {@code size}.
+         */
+        void add(int record) {
+            long base = (long) record * RECORD_SIZE;
+            slots.set(find(records.get(base + S), records.get(base + P), records.get(base + O)), record + 1);
+            if (HashTables.overloaded(size, capacity)) {
+                OffHeapIntArray old = slots;
+                int oldCapacity = capacity;
+                capacity *= 2;
+                slots = new OffHeapIntArray(capacity);
+                for (int slot = 0; slot < oldCapacity; slot++) {
+                    int entry = old.get(slot);
+                    if (entry != 0) {
+                        long b = (long) (entry - 1) * RECORD_SIZE;
+                        slots.set(find(records.get(b + S), records.get(b + P), records.get(b + O)), entry);
+                    }
+                }
+            }
+        }
+
+        long bytes() {
+            return slots.bytes();
+        }
+    }
+}
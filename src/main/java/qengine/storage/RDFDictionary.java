@@ -1,16 +1,25 @@
 package qengine.storage;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Classe représentant un dictionnaire RDF qui permet de mapper des chaînes de
  * caractères (représentant des éléments RDF) à des identifiants uniques (entiers)
  * et vice versa.
+ * <p>
+ * L'encodage repose sur une table à adressage ouvert (sondage linéaire) qui ne
+ * stocke que des {@code int} : chaque case contient l'identifiant + 1 (0 = case vide),
+ * la chaîne étant retrouvée dans le tableau de décodage. Le décodage est un simple
+ * accès au tableau {@code terms} indexé par l'identifiant, sans aucun objet
+ * {@code Integer} alloué.
  */
-public class RDFDictionary {
-    private final Map<String, Integer> stringToInt = new HashMap<>();
-    private final Map<Integer, String> intToString = new HashMap<>();
+public class RDFDictionary implements TermDictionary {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Table de hachage : identifiant + 1, 0 pour une case vide
+    private int[] slots = new int[INITIAL_CAPACITY];
+    // Tableau de décodage indexé par identifiant
+    private String[] terms = new String[INITIAL_CAPACITY];
     private int nextId = 0;
 
     /**
@@ -21,20 +30,32 @@ public class RDFDictionary {
      * @return l'identifiant unique associé
      * @throws IllegalArgumentException si s est null
      */
+    @Override
     public int encode(String s) {
         if (s == null) {
             throw new IllegalArgumentException("La chaîne ne peut pas être null");
         }
-        
-        Integer id = stringToInt.get(s);
-        if (id != null) {
-            return id;
+
+        int mask = slots.length - 1;
+        int slot = hash(s) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (terms[id].equals(s)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
         }
-        
+
         // Nouvelle chaîne : assigner un ID
         int newId = nextId++;
-        stringToInt.put(s, newId);
-        intToString.put(newId, s);
+        if (newId == terms.length) {
+            terms = Arrays.copyOf(terms, terms.length * 2);
+        }
+        terms[newId] = s;
+        slots[slot] = newId + 1;
+        if (HashTables.overloaded(nextId, slots.length)) {
+            rehash(slots.length * 2);
+        }
         return newId;
     }
 
@@ -45,24 +66,68 @@ public class RDFDictionary {
      * @return la chaîne associée
      * @throws IllegalArgumentException si l'identifiant n'existe pas
      */
+    @Override
     public String decode(int i) {
-        String value = intToString.get(i);
-        if (value == null) {
+        if (i < 0 || i >= nextId) {
             throw new IllegalArgumentException("Identifiant inexistant: " + i);
         }
-        return value;
+        return terms[i];
     }
-    
+
     /**
      * Retourne le nombre d'éléments dans le dictionnaire.
      *
      * @return le nombre d'éléments
      */
+    @Override
     public int size() {
-        return stringToInt.size();
+        return nextId;
     }
 
+    /**
+     * Retourne l'identifiant d'une chaîne sans jamais modifier le dictionnaire.
+     *
+     * @param value la chaîne recherchée
+     * @return l'identifiant associé, ou null si la chaîne n'a jamais été encodée
+     */
+    @Override
     public Integer getIdOrNull(String value) {
-        return stringToInt.get(value);  // Returns null if not found
+        if (value == null) {
+            return null;
+        }
+        int mask = slots.length - 1;
+        int slot = hash(value) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (terms[id].equals(value)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;  // Returns null if not found
+    }
+
+    /**
+     * Reconstruit la table de hachage avec une nouvelle capacité (puissance de 2).
+     */
+    private void rehash(int capacity) {
+        int[] newSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < nextId; id++) {
+            int slot = hash(terms[id]) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    /**
+     * Mélange le hashCode de la chaîne pour mieux répartir les IRIs qui ne
+     * diffèrent que par leurs derniers caractères.
+     */
+    private static int hash(String s) {
+        return HashTables.mix(s.hashCode());
     }
 }
@@ -1,11 +1,6 @@
 package qengine.storage;
 
-import fr.boreal.model.logicalElements.api.Literal;
-import fr.boreal.model.logicalElements.api.Substitution;
 import fr.boreal.model.logicalElements.api.Term;
-import fr.boreal.model.logicalElements.api.Variable;
-import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
-import fr.boreal.model.logicalElements.impl.SubstitutionImpl;
 import qengine.model.RDFTriple;
 
 import java.util.*;
@@ -15,12 +10,30 @@ import java.util.*;
  * un stockage "Giant Table" sans aucun index, basé uniquement sur une liste
  * des triplets encodés.
  */
-public class RDFGiantTable implements RDFStorage {
+public class RDFGiantTable implements EncodedRDFStorage {
 
-    private final RDFDictionary dict = new RDFDictionary();
+    private final TermDictionary dict;
+    private final TermCache terms;
 
     private final List<int[]> table = new ArrayList<>();
 
+    /**
+     * Crée une table vide utilisant un {@link RDFDictionary} sur le tas.
+     */
+    public RDFGiantTable() {
+        this(new RDFDictionary());
+    }
+
+    /**
+     * Crée une table vide utilisant le dictionnaire fourni.
+     *
+     * @param dict le dictionnaire servant à encoder les termes
+     */
+    public RDFGiantTable(TermDictionary dict) {
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+        this.terms = new TermCache(dict);
+    }
+
     @Override
     public boolean add(RDFTriple triple) {
 
@@ -45,8 +58,13 @@ public class RDFGiantTable implements RDFStorage {
         return table.size();
     }
 
+    /** Helper pour décoder un entier en terme (via le cache) */
+    private Term literal(int id) {
+        return terms.get(id);
+    }
+
     @Override
-    public Iterator<Substitution> match(RDFTriple triple) {
+    public long howMany(RDFTriple triple) {
 
         Term s = triple.getTripleSubject();
         Term p = triple.getTriplePredicate();
@@ -56,69 +74,87 @@ public class RDFGiantTable implements RDFStorage {
         boolean vp = p.isVariable();
         boolean vo = o.isVariable();
 
-        Integer sId = vs ? null : dict.encode(s.toString());
-        Integer pId = vp ? null : dict.encode(p.toString());
-        Integer oId = vo ? null : dict.encode(o.toString());
-
-        List<Substitution> results = new ArrayList<>();
+        Integer sId = vs ? null : dict.getIdOrNull(s.toString());
+        Integer pId = vp ? null : dict.getIdOrNull(p.toString());
+        Integer oId = vo ? null : dict.getIdOrNull(o.toString());
+        if ((!vs && sId == null) || (!vp && pId == null) || (!vo && oId == null)) {
+            return 0;
+        }
 
-        Variable VS = vs ? SameObjectTermFactory.instance().createOrGetVariable(s.toString()) : null;
-        Variable VP = vp ? SameObjectTermFactory.instance().createOrGetVariable(p.toString()) : null;
-        Variable VO = vo ? SameObjectTermFactory.instance().createOrGetVariable(o.toString()) : null;
+        long count = 0;
 
         for (int[] t : table) {
             int ts = t[0], tp = t[1], to = t[2];
 
-            // vérifier les constantes
             if (!vs && ts != sId) continue;
             if (!vp && tp != pId) continue;
             if (!vo && to != oId) continue;
 
-            Map<Variable, Term> map = new HashMap<>();
-
-            if (vs) map.put(VS, literal(ts));
-            if (vp) map.put(VP, literal(tp));
-            if (vo) map.put(VO, literal(to));
-
-            results.add(new SubstitutionImpl(map));
+            count++;
         }
 
-        return results.iterator();
+        return count;
     }
 
-    /** Helper pour décoder un entier en Literal */
-    private Literal<String> literal(int id) {
-        return SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(id));
+    @Override
+    public TermDictionary getDictionary() {
+        return dict;
     }
 
     @Override
-    public long howMany(RDFTriple triple) {
-
-        Term s = triple.getTripleSubject();
-        Term p = triple.getTriplePredicate();
-        Term o = triple.getTripleObject();
-
-        boolean vs = s.isVariable();
-        boolean vp = p.isVariable();
-        boolean vo = o.isVariable();
-
-        Integer sId = vs ? null : dict.encode(s.toString());
-        Integer pId = vp ? null : dict.encode(p.toString());
-        Integer oId = vo ? null : dict.encode(o.toString());
-
-        long count = 0;
+    public Term decodeTerm(int id) {
+        return terms.get(id);
+    }
 
+    @Override
+    public void forEachMatch(int s, int p, int o, TripleIdConsumer action) {
         for (int[] t : table) {
-            int ts = t[0], tp = t[1], to = t[2];
-
-            if (!vs && ts != sId) continue;
-            if (!vp && tp != pId) continue;
-            if (!vo && to != oId) continue;
-
-            count++;
+            if ((s == ANY || t[0] == s) && (p == ANY || t[1] == p) && (o == ANY || t[2] == o)) {
+                action.accept(t[0], t[1], t[2]);
+            }
         }
+    }
 
-        return count;
+    @Override
+    public TripleIdCursor cursor(int s, int p, int o) {
+        Iterator<int[]> rows = table.iterator();
+        return new TripleIdCursor() {
+            private int[] current;
+
+            @Override
+            public boolean advance() {
+                while (rows.hasNext()) {
+                    int[] t = rows.next();
+                    if ((s == ANY || t[0] == s) && (p == ANY || t[1] == p) && (o == ANY || t[2] == o)) {
+                        current = t;
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public int s() {
+                return current[0];
+            }
+
+            @Override
+            public int p() {
+                return current[1];
+            }
+
+            @Override
+            public int o() {
+                return current[2];
+            }
+        };
+    }
+
+    @Override
+    public long howManyIds(int s, int p, int o) {
+        long[] count = {0};
+        forEachMatch(s, p, o, (ts, tp, to) -> count[0]++);
+        return count[0];
     }
 
     @Override
@@ -128,9 +164,9 @@ public class RDFGiantTable implements RDFStorage {
         for (int[] t : table) {
             int s = t[0], p = t[1], o = t[2];
 
-            Literal<String> subject = literal(s);
-            Literal<String> predicate = literal(p);
-            Literal<String> object = literal(o);
+            Term subject = literal(s);
+            Term predicate = literal(p);
+            Term object = literal(o);
 
             res.add(new RDFTriple(subject, predicate, object));
         }
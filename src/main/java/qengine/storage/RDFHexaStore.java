@@ -1,20 +1,33 @@
 package qengine.storage;
 
 import fr.boreal.model.logicalElements.api.*;
-import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
 import fr.boreal.model.logicalElements.impl.SubstitutionImpl;
 import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Implémentation d'un HexaStore pour stocker des RDFAtom.
  * Cette classe utilise six index pour optimiser les recherches.
  * Les index sont basés sur les combinaisons (Sujet, Prédicat, Objet), (Sujet, Objet, Prédicat),
  * (Prédicat, Sujet, Objet), (Prédicat, Objet, Sujet), (Objet, Sujet, Prédicat) et (Objet, Prédicat, Sujet).
+ * <p>
+ * En option, les feuilles des index PSO et POS sont des bitmaps compressés
+ * ({@link IntBitmap}) ; les requêtes en étoile dont tous les motifs sont de la forme
+ * {@code (?x, p, o)} sont alors évaluées par intersection des ensembles de sujets.
+ * <p>
+ * Les suppressions se font par lots : les triplets encodés sont triés dans l'ordre de
+ * chaque index, qui est alors parcouru une fois par groupe de clés plutôt qu'une fois
+ * par triplet. Les termes restent dans le dictionnaire.
  */
-public class RDFHexaStore implements RDFStorage {
+public class RDFHexaStore implements EncodedRDFStorage {
     // Dictionary
-    RDFDictionary dict = new RDFDictionary();
+    final TermDictionary dict;
+    // Terms already built, indexed by ID
+    private final TermCache terms;
+    // PSO and POS leaves are IntBitmaps
+    private final boolean bitmapLeaves;
     // Indexes
     Map<Integer, Map<Integer, Set<Integer>>> indexSPO = new HashMap<>();
     Map<Integer, Map<Integer, Set<Integer>>> indexSOP = new HashMap<>();
@@ -30,6 +43,33 @@ public class RDFHexaStore implements RDFStorage {
     Map<Integer, Map<Integer, Integer>> countSO = new HashMap<>();
     Map<Integer, Map<Integer, Integer>> countPO = new HashMap<>();
 
+    /**
+     * Crée un HexaStore vide utilisant un {@link RDFDictionary} sur le tas.
+     */
+    public RDFHexaStore() {
+        this(new RDFDictionary());
+    }
+
+    /**
+     * Crée un HexaStore vide utilisant le dictionnaire fourni.
+     *
+     * @param dict le dictionnaire servant à encoder les termes
+     */
+    public RDFHexaStore(TermDictionary dict) {
+        this(dict, false);
+    }
+
+    /**
+     * Crée un HexaStore vide utilisant le dictionnaire fourni.
+     *
+     * @param dict         le dictionnaire servant à encoder les termes
+     * @param bitmapLeaves vrai pour ranger les feuilles PSO et POS dans des bitmaps compressés
+     */
+    public RDFHexaStore(TermDictionary dict, boolean bitmapLeaves) {
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+        this.terms = new TermCache(dict);
+        this.bitmapLeaves = bitmapLeaves;
+    }
 
     @Override
     public boolean add(RDFTriple triple) {
@@ -47,12 +87,12 @@ public class RDFHexaStore implements RDFStorage {
     }
 
     // 3. Insert into all 6 indexes
-    addToIndex(indexSPO, s, p, o);  // SPO
-    addToIndex(indexSOP, s, o, p);  // SOP
-    addToIndex(indexPSO, p, s, o);  // PSO
-    addToIndex(indexPOS, p, o, s);  // POS
-    addToIndex(indexOSP, o, s, p);  // OSP
-    addToIndex(indexOPS, o, p, s);  // OPS
+    addToIndex(indexSPO, s, p, o, false);  // SPO
+    addToIndex(indexSOP, s, o, p, false);  // SOP
+    addToIndex(indexPSO, p, s, o, bitmapLeaves);  // PSO
+    addToIndex(indexPOS, p, o, s, bitmapLeaves);  // POS
+    addToIndex(indexOSP, o, s, p, false);  // OSP
+    addToIndex(indexOPS, o, p, s, false);  // OPS
 
     // 4. Update statistics (for selectivity)
     countS.merge(s, 1, Integer::sum);
@@ -67,171 +107,138 @@ public class RDFHexaStore implements RDFStorage {
 
     // Helper method to add to a specific index
     private void addToIndex(Map<Integer, Map<Integer, Set<Integer>>> index,
-                            int key1, int key2, int key3) {
+                            int key1, int key2, int key3, boolean bitmap) {
         index.computeIfAbsent(key1, k -> new HashMap<>())
-             .computeIfAbsent(key2, k -> new HashSet<>())
+             .computeIfAbsent(key2, k -> bitmap ? new IntBitmap() : new HashSet<>())
              .add(key3);
     }
 
     @Override
-    public long size() {
-        long res = 0;
-        for (Map<Integer, Set<Integer>> pMap : indexSPO.values()) {
-            for (Set<Integer> oSet : pMap.values()) {
-                res += oSet.size();
-            }
-        }
-        return res;
+    public boolean remove(RDFTriple triple) {
+        return removeAll(Stream.of(triple));
     }
 
     @Override
-    public Iterator<Substitution> match(RDFTriple triple) {
-        List<Substitution> results = new ArrayList<>();
-
-        Term s = triple.getTripleSubject();
-        Term p = triple.getTriplePredicate();
-        Term o = triple.getTripleObject();
-
-        boolean sVar = s.isVariable();
-        boolean pVar = p.isVariable();
-        boolean oVar = o.isVariable();
-
-        // Encode constants only (check if they exist in the dictionary)
-        Integer sId = sVar ? null : dict.getIdOrNull(s.toString());
-        Integer pId = pVar ? null : dict.getIdOrNull(p.toString());
-        Integer oId = oVar ? null : dict.getIdOrNull(o.toString());
-
-        // If any constant is not in dictionary, no results possible
-        if ((!sVar && sId == null) || (!pVar && pId == null) || (!oVar && oId == null)) {
-            return Collections.emptyIterator();
-        }
-
-        // Case 0: No variables (s, p, o) - exact match check
-        if (!sVar && !pVar && !oVar) {
-            boolean exists = indexSPO.containsKey(sId)
-                    && indexSPO.get(sId).containsKey(pId)
-                    && indexSPO.get(sId).get(pId).contains(oId);
-            if (exists) {
-                results.add(new SubstitutionImpl(new HashMap<>()));
+    public boolean removeAll(Stream<RDFTriple> atoms) {
+        int[] triples = new int[3 * 16];
+        int n = 0;
+        for (Iterator<RDFTriple> it = atoms.iterator(); it.hasNext(); ) {
+            RDFTriple triple = it.next();
+            Integer s = dict.getIdOrNull(triple.getTripleSubject().toString());
+            Integer p = dict.getIdOrNull(triple.getTriplePredicate().toString());
+            Integer o = dict.getIdOrNull(triple.getTripleObject().toString());
+            if (s == null || p == null || o == null) {
+                continue; // Unknown term: the triple cannot be in the store
             }
-            return results.iterator();
-        }
-
-        // Case 1: Only an object is variable (s, p, ?o) - use SPO
-        if (!sVar && !pVar && oVar) {
-            if (indexSPO.containsKey(sId) && indexSPO.get(sId).containsKey(pId)) {
-                for (Integer foundO : indexSPO.get(sId).get(pId)) {
-                    results.add(createSubstitution((Variable) o, foundO));
-                }
+            if (3 * n == triples.length) {
+                triples = Arrays.copyOf(triples, 2 * triples.length);
             }
-            return results.iterator();
+            triples[3 * n] = s;
+            triples[3 * n + 1] = p;
+            triples[3 * n + 2] = o;
+            n++;
         }
+        return removeIds(triples, n) > 0;
+    }
 
-        // Case 2: Only predicate is variable (s, ?p, o) - use SOP
-        if (!sVar && pVar && !oVar) {
-            if (indexSOP.containsKey(sId) && indexSOP.get(sId).containsKey(oId)) {
-                for (Integer foundP : indexSOP.get(sId).get(oId)) {
-                    results.add(createSubstitution((Variable) p, foundP));
-                }
-            }
-            return results.iterator();
+    /**
+     * Retire des triplets encodés (trois cases par triplet) des six index et des statistiques.
+     *
+     * @return le nombre de triplets effectivement retirés
+     */
+    private int removeIds(int[] triples, int n) {
+        // SPO first: it drops absent and duplicate triples, the other indexes then hold all of them
+        TripleSorter.sort(triples, n);
+        n = removeSorted(indexSPO, triples, n, countS, countSP);
+        if (n == 0) {
+            return 0;
         }
+        int[] buffer = new int[3 * n];
+        removeSorted(indexSOP, permute(triples, n, 0, 2, 1, buffer), n, null, countSO);
+        removeSorted(indexPSO, permute(triples, n, 1, 0, 2, buffer), n, countP, null);
+        removeSorted(indexPOS, permute(triples, n, 1, 2, 0, buffer), n, null, countPO);
+        removeSorted(indexOSP, permute(triples, n, 2, 0, 1, buffer), n, countO, null);
+        removeSorted(indexOPS, permute(triples, n, 2, 1, 0, buffer), n, null, null);
+        return n;
+    }
 
-        // Case 3: Only subject is variable (?s, p, o) - use POS
-        if (sVar && !pVar && !oVar) {
-            if (indexPOS.containsKey(pId) && indexPOS.get(pId).containsKey(oId)) {
-                for (Integer foundS : indexPOS.get(pId).get(oId)) {
-                    results.add(createSubstitution((Variable) s, foundS));
-                }
-            }
-            return results.iterator();
+    // Helper: reorder SPO triples into (a, b, c) positions and sort them
+    private static int[] permute(int[] spo, int n, int a, int b, int c, int[] out) {
+        for (int i = 0; i < n; i++) {
+            out[3 * i] = spo[3 * i + a];
+            out[3 * i + 1] = spo[3 * i + b];
+            out[3 * i + 2] = spo[3 * i + c];
         }
+        TripleSorter.sort(out, n);
+        return out;
+    }
 
-        // Case 4: Subject and predicate are variables (?s, ?p, o) - use OPS
-        if (sVar && pVar && !oVar) {
-            if (indexOPS.containsKey(oId)) {
-                for (Map.Entry<Integer, Set<Integer>> pEntry : indexOPS.get(oId).entrySet()) {
-                    Integer foundP = pEntry.getKey();
-                    for (Integer foundS : pEntry.getValue()) {
-                        results.add(createSubstitution((Variable) s, foundS, (Variable) p, foundP));
+    /**
+     * Retire d'un index des triplets triés dans l'ordre de ses clés, un groupe de
+     * première puis de deuxième clé à la fois, et décrémente les compteurs de ces
+     * clés (null si l'index n'en a pas). Les niveaux vidés sont supprimés.
+     *
+     * @return le nombre de triplets retirés, regroupés en tête du tableau (les absents sont éliminés)
+     */
+    private static int removeSorted(Map<Integer, Map<Integer, Set<Integer>>> index, int[] t, int n,
+                                    Map<Integer, Integer> count1, Map<Integer, Map<Integer, Integer>> count12) {
+        int kept = 0;
+        int i = 0;
+        while (i < n) {
+            int k1 = t[3 * i];
+            Map<Integer, Set<Integer>> level2 = index.get(k1);
+            int removed1 = 0;
+            while (i < n && t[3 * i] == k1) {
+                int k2 = t[3 * i + 1];
+                Set<Integer> leaves = level2 == null ? null : level2.get(k2);
+                int removed2 = 0;
+                for (; i < n && t[3 * i] == k1 && t[3 * i + 1] == k2; i++) {
+                    if (leaves != null && leaves.remove(t[3 * i + 2])) {
+                        System.arraycopy(t, 3 * i, t, 3 * kept, 3);
+                        kept++;
+                        removed2++;
                     }
                 }
-            }
-            return results.iterator();
-        }
-
-        // Case 5: Subject and object are variables (?s, p, ?o) - use PSO
-        if (sVar && !pVar && oVar) {
-            if (indexPSO.containsKey(pId)) {
-                for (Map.Entry<Integer, Set<Integer>> sEntry : indexPSO.get(pId).entrySet()) {
-                    Integer foundS = sEntry.getKey();
-                    for (Integer foundO : sEntry.getValue()) {
-                        results.add(createSubstitution((Variable) s, foundS, (Variable) o, foundO));
+                if (removed2 > 0) {
+                    if (leaves.isEmpty()) {
+                        level2.remove(k2);
                     }
-                }
-            }
-            return results.iterator();
-        }
-
-        // Case 6: Predicate and object are variables (s, ?p, ?o) - use SPO
-        if (!sVar && pVar && oVar) {
-            if (indexSPO.containsKey(sId)) {
-                for (Map.Entry<Integer, Set<Integer>> pEntry : indexSPO.get(sId).entrySet()) {
-                    Integer foundP = pEntry.getKey();
-                    for (Integer foundO : pEntry.getValue()) {
-                        results.add(createSubstitution((Variable) p, foundP, (Variable) o, foundO));
+                    if (count12 != null) {
+                        Map<Integer, Integer> counts = count12.get(k1);
+                        decrement(counts, k2, removed2);
+                        if (counts.isEmpty()) {
+                            count12.remove(k1);
+                        }
                     }
+                    removed1 += removed2;
                 }
             }
-            return results.iterator();
-        }
-
-        // Case 7: All variables (?s, ?p, ?o) - full scan using SPO
-        if (sVar && pVar && oVar) {
-            for (Map.Entry<Integer, Map<Integer, Set<Integer>>> sEntry : indexSPO.entrySet()) {
-                Integer foundS = sEntry.getKey();
-                for (Map.Entry<Integer, Set<Integer>> pEntry : sEntry.getValue().entrySet()) {
-                    Integer foundP = pEntry.getKey();
-                    for (Integer foundO : pEntry.getValue()) {
-                        results.add(createSubstitution(
-                                (Variable) s, foundS,
-                                (Variable) p, foundP,
-                                (Variable) o, foundO
-                        ));
-                    }
+            if (removed1 > 0) {
+                if (level2.isEmpty()) {
+                    index.remove(k1);
+                }
+                if (count1 != null) {
+                    decrement(count1, k1, removed1);
                 }
             }
-            return results.iterator();
         }
-
-        return results.iterator();
+        return kept;
     }
 
-    // Helper: create a substitution with 1 binding
-    private Substitution createSubstitution(Variable var, Integer encodedValue) {
-        Map<Variable, Term> map = new HashMap<>();
-        Term term = SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(encodedValue));
-        map.put(var, term);
-        return new SubstitutionImpl(map);
+    // Helper: subtract from a statistic, dropping it when it reaches zero
+    private static void decrement(Map<Integer, Integer> counts, int key, int by) {
+        counts.computeIfPresent(key, (k, count) -> count == by ? null : count - by);
     }
 
-    // Helper: create a substitution with 2 bindings
-    private Substitution createSubstitution(Variable var1, Integer val1, Variable var2, Integer val2) {
-        Map<Variable, Term> map = new HashMap<>();
-        map.put(var1, SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(val1)));
-        map.put(var2, SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(val2)));
-        return new SubstitutionImpl(map);
-    }
-
-    // Helper: create a substitution with 3 bindings
-    private Substitution createSubstitution(Variable var1, Integer val1,
-                                            Variable var2, Integer val2,
-                                            Variable var3, Integer val3) {
-        Map<Variable, Term> map = new HashMap<>();
-        map.put(var1, SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(val1)));
-        map.put(var2, SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(val2)));
-        map.put(var3, SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(val3)));
-        return new SubstitutionImpl(map);
+    @Override
+    public long size() {
+        long res = 0;
+        for (Map<Integer, Set<Integer>> pMap : indexSPO.values()) {
+            for (Set<Integer> oSet : pMap.values()) {
+                res += oSet.size();
+            }
+        }
+        return res;
     }
 
     @Override
@@ -245,9 +252,13 @@ public class RDFHexaStore implements RDFStorage {
         boolean vp = p.isVariable();
         boolean vo = o.isVariable();
 
-        Integer sId = vs ? null : dict.encode(s.toString());
-        Integer pId = vp ? null : dict.encode(p.toString());
-        Integer oId = vo ? null : dict.encode(o.toString());
+        // Lookups only: a query never adds its constants to the dictionary
+        Integer sId = vs ? null : dict.getIdOrNull(s.toString());
+        Integer pId = vp ? null : dict.getIdOrNull(p.toString());
+        Integer oId = vo ? null : dict.getIdOrNull(o.toString());
+        if ((!vs && sId == null) || (!vp && pId == null) || (!vo && oId == null)) {
+            return 0;
+        }
 
         // Pattern 0 variables = exact triple
         if (!vs && !vp && !vo) {
@@ -286,15 +297,311 @@ public class RDFHexaStore implements RDFStorage {
         return size();
     }
 
+    @Override
+    public TermDictionary getDictionary() {
+        return dict;
+    }
+
+    @Override
+    public Term decodeTerm(int id) {
+        return terms.get(id);
+    }
+
+    @Override
+    public void forEachMatch(int s, int p, int o, TripleIdConsumer action) {
+        boolean sVar = s == ANY;
+        boolean pVar = p == ANY;
+        boolean oVar = o == ANY;
+
+        if (!sVar && !pVar && !oVar) { // (s, p, o) - SPO
+            if (indexSPO.getOrDefault(s, Collections.emptyMap()).getOrDefault(p, Collections.emptySet()).contains(o)) {
+                action.accept(s, p, o);
+            }
+        } else if (!sVar && !pVar) { // (s, p, ?o) - SPO
+            for (int foundO : indexSPO.getOrDefault(s, Collections.emptyMap()).getOrDefault(p, Collections.emptySet())) {
+                action.accept(s, p, foundO);
+            }
+        } else if (!sVar && !oVar) { // (s, ?p, o) - SOP
+            for (int foundP : indexSOP.getOrDefault(s, Collections.emptyMap()).getOrDefault(o, Collections.emptySet())) {
+                action.accept(s, foundP, o);
+            }
+        } else if (!pVar && !oVar) { // (?s, p, o) - POS
+            Set<Integer> subjects = indexPOS.getOrDefault(p, Collections.emptyMap()).getOrDefault(o, Collections.emptySet());
+            if (subjects instanceof IntBitmap bitmap) {
+                bitmap.forEachInt(foundS -> action.accept(foundS, p, o));
+                return;
+            }
+            for (int foundS : subjects) {
+                action.accept(foundS, p, o);
+            }
+        } else if (!sVar) { // (s, ?p, ?o) - SPO
+            for (Map.Entry<Integer, Set<Integer>> pEntry : indexSPO.getOrDefault(s, Collections.emptyMap()).entrySet()) {
+                int foundP = pEntry.getKey();
+                for (int foundO : pEntry.getValue()) {
+                    action.accept(s, foundP, foundO);
+                }
+            }
+        } else if (!pVar) { // (?s, p, ?o) - PSO
+            for (Map.Entry<Integer, Set<Integer>> sEntry : indexPSO.getOrDefault(p, Collections.emptyMap()).entrySet()) {
+                int foundS = sEntry.getKey();
+                if (sEntry.getValue() instanceof IntBitmap bitmap) {
+                    bitmap.forEachInt(foundO -> action.accept(foundS, p, foundO));
+                    continue;
+                }
+                for (int foundO : sEntry.getValue()) {
+                    action.accept(foundS, p, foundO);
+                }
+            }
+        } else if (!oVar) { // (?s, ?p, o) - OPS
+            for (Map.Entry<Integer, Set<Integer>> pEntry : indexOPS.getOrDefault(o, Collections.emptyMap()).entrySet()) {
+                int foundP = pEntry.getKey();
+                for (int foundS : pEntry.getValue()) {
+                    action.accept(foundS, foundP, o);
+                }
+            }
+        } else { // (?s, ?p, ?o) - full scan using SPO
+            for (Map.Entry<Integer, Map<Integer, Set<Integer>>> sEntry : indexSPO.entrySet()) {
+                int foundS = sEntry.getKey();
+                for (Map.Entry<Integer, Set<Integer>> pEntry : sEntry.getValue().entrySet()) {
+                    int foundP = pEntry.getKey();
+                    for (int foundO : pEntry.getValue()) {
+                        action.accept(foundS, foundP, foundO);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public TripleIdCursor cursor(int s, int p, int o) {
+        boolean sVar = s == ANY;
+        boolean pVar = p == ANY;
+        boolean oVar = o == ANY;
+
+        if (!sVar && !pVar && !oVar) { // (s, p, o): at most one triple
+            return EncodedRDFStorage.super.cursor(s, p, o);
+        } else if (!sVar && !pVar) { // (s, p, ?o) - SPO
+            return IndexCursor.leaf(indexSPO, new int[]{s, p, ANY}, 0, 1, 2);
+        } else if (!sVar && !oVar) { // (s, ?p, o) - SOP
+            return IndexCursor.leaf(indexSOP, new int[]{s, ANY, o}, 0, 2, 1);
+        } else if (!pVar && !oVar) { // (?s, p, o) - POS
+            return IndexCursor.leaf(indexPOS, new int[]{ANY, p, o}, 1, 2, 0);
+        } else if (!sVar) { // (s, ?p, ?o) - SPO
+            return IndexCursor.firstKey(indexSPO, new int[]{s, ANY, ANY}, 0, 1, 2);
+        } else if (!pVar) { // (?s, p, ?o) - PSO
+            return IndexCursor.firstKey(indexPSO, new int[]{ANY, p, ANY}, 1, 0, 2);
+        } else if (!oVar) { // (?s, ?p, o) - OPS
+            return IndexCursor.firstKey(indexOPS, new int[]{ANY, ANY, o}, 2, 1, 0);
+        }
+        return new IndexCursor(indexSPO, new int[3], 0, 1, 2); // (?s, ?p, ?o) - full scan using SPO
+    }
+
+    /**
+     * Parcours pas à pas d'un index à trois niveaux, avec les itérateurs des
+     * tables elles-mêmes : seuls les niveaux libres du motif sont itérés.
+     */
+    private static final class IndexCursor implements TripleIdCursor {
+        // (s, p, o) of the current triple; constants of the pattern are set once
+        private final int[] triple;
+        // Positions in (s, p, o) of the first, second and third keys of the index
+        private final int at1;
+        private final int at2;
+        private final int at3;
+        private Iterator<Map.Entry<Integer, Map<Integer, Set<Integer>>>> firsts;
+        private Iterator<Map.Entry<Integer, Set<Integer>>> seconds;
+        private Iterator<Integer> thirds = Collections.emptyIterator();
+
+        /**
+         * Curseur sur tout l'index.
+         */
+        IndexCursor(Map<Integer, Map<Integer, Set<Integer>>> index, int[] triple, int at1, int at2, int at3) {
+            this(triple, at1, at2, at3);
+            firsts = index.entrySet().iterator();
+        }
+
+        private IndexCursor(int[] triple, int at1, int at2, int at3) {
+            this.triple = triple;
+            this.at1 = at1;
+            this.at2 = at2;
+            this.at3 = at3;
+        }
+
+        /**
+         * Curseur sur les triplets de première clé {@code triple[at1]}.
+         */
+        static IndexCursor firstKey(Map<Integer, Map<Integer, Set<Integer>>> index, int[] triple,
+                                    int at1, int at2, int at3) {
+            IndexCursor cursor = new IndexCursor(triple, at1, at2, at3);
+            cursor.seconds = index.getOrDefault(triple[at1], Collections.emptyMap()).entrySet().iterator();
+            return cursor;
+        }
+
+        /**
+         * Curseur sur la feuille du couple ({@code triple[at1]}, {@code triple[at2]}).
+         */
+        static IndexCursor leaf(Map<Integer, Map<Integer, Set<Integer>>> index, int[] triple,
+                                int at1, int at2, int at3) {
+            IndexCursor cursor = new IndexCursor(triple, at1, at2, at3);
+            cursor.thirds = index.getOrDefault(triple[at1], Collections.emptyMap())
+                    .getOrDefault(triple[at2], Collections.emptySet()).iterator();
+            return cursor;
+        }
+
+        @Override
+        public boolean advance() {
+            while (!thirds.hasNext()) {
+                if (seconds != null && seconds.hasNext()) {
+                    Map.Entry<Integer, Set<Integer>> second = seconds.next();
+                    triple[at2] = second.getKey();
+                    thirds = second.getValue().iterator();
+                } else if (firsts != null && firsts.hasNext()) {
+                    Map.Entry<Integer, Map<Integer, Set<Integer>>> first = firsts.next();
+                    triple[at1] = first.getKey();
+                    seconds = first.getValue().entrySet().iterator();
+                } else {
+                    return false;
+                }
+            }
+            triple[at3] = thirds.next();
+            return true;
+        }
+
+        @Override
+        public int s() {
+            return triple[0];
+        }
+
+        @Override
+        public int p() {
+            return triple[1];
+        }
+
+        @Override
+        public int o() {
+            return triple[2];
+        }
+    }
+
+    @Override
+    public Iterator<Substitution> match(StarQuery q) {
+        if (bitmapLeaves) {
+            Iterator<Substitution> answers = matchByBitmaps(q);
+            if (answers != null) {
+                return answers;
+            }
+        }
+        return EncodedRDFStorage.super.match(q);
+    }
+
+    /**
+     * Évalue une requête dont tous les motifs sont {@code (?x, p, o)}, avec la même
+     * variable {@code ?x} seule variable réponse possible, par intersection des
+     * feuilles POS, de la plus petite à la plus grande.
+     *
+     * @return les réponses, ou null si la requête n'a pas cette forme
+     */
+    private Iterator<Substitution> matchByBitmaps(StarQuery q) {
+        Variable center = null;
+        for (RDFTriple triple : q.getRdfAtoms()) {
+            Term subject = triple.getTripleSubject();
+            if (!subject.isVariable() || triple.getTriplePredicate().isVariable()
+                    || triple.getTripleObject().isVariable() || (center != null && !center.equals(subject))) {
+                return null;
+            }
+            center = (Variable) subject;
+        }
+        if (center == null) {
+            return null;
+        }
+        for (Variable answer : q.getAnswerVariables()) {
+            if (!answer.equals(center)) {
+                return null;
+            }
+        }
+
+        List<IntBitmap> subjectSets = new ArrayList<>();
+        for (RDFTriple triple : q.getRdfAtoms()) {
+            Integer p = dict.getIdOrNull(triple.getTriplePredicate().toString());
+            Integer o = dict.getIdOrNull(triple.getTripleObject().toString());
+            Set<Integer> subjects = p == null || o == null ? null : indexPOS.getOrDefault(p, Collections.emptyMap()).get(o);
+            if (subjects == null) {
+                return Collections.emptyIterator();
+            }
+            subjectSets.add((IntBitmap) subjects);
+        }
+        subjectSets.sort(Comparator.comparingInt(IntBitmap::size));
+        IntBitmap result = subjectSets.getFirst();
+        for (int i = 1; i < subjectSets.size() && !result.isEmpty(); i++) {
+            result = IntBitmap.and(result, subjectSets.get(i));
+        }
+
+        int[] ids = new int[result.size()];
+        int[] n = {0};
+        result.forEachInt(id -> ids[n[0]++] = id);
+        Collection<Variable> answers = q.getAnswerVariables();
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < ids.length;
+            }
+
+            @Override
+            public Substitution next() {
+                if (next == ids.length) {
+                    throw new NoSuchElementException();
+                }
+                Substitution substitution = new SubstitutionImpl();
+                for (Variable answer : answers) {
+                    substitution.add(answer, terms.get(ids[next]));
+                }
+                next++;
+                return substitution;
+            }
+        };
+    }
+
+    @Override
+    public long howManyIds(int s, int p, int o) {
+        boolean vs = s == ANY;
+        boolean vp = p == ANY;
+        boolean vo = o == ANY;
+
+        if (!vs && !vp && !vo) {
+            return indexSPO.getOrDefault(s, Collections.emptyMap())
+                    .getOrDefault(p, Collections.emptySet()).contains(o) ? 1 : 0;
+        }
+        if (vs && !vp && !vo) { // (?s, p, o)
+            return countPO.getOrDefault(p, Collections.emptyMap()).getOrDefault(o, 0);
+        }
+        if (!vs && vp && !vo) { // (s, ?p, o)
+            return countSO.getOrDefault(s, Collections.emptyMap()).getOrDefault(o, 0);
+        }
+        if (!vs && !vp) { // (s, p, ?o)
+            return countSP.getOrDefault(s, Collections.emptyMap()).getOrDefault(p, 0);
+        }
+        if (vs && vp && !vo) { // (?s, ?p, o)
+            return countO.getOrDefault(o, 0);
+        }
+        if (vs && !vp) { // (?s, p, ?o)
+            return countP.getOrDefault(p, 0);
+        }
+        if (!vs) { // (s, ?p, ?o)
+            return countS.getOrDefault(s, 0);
+        }
+        return size();
+    }
+
     @Override
     public Collection<RDFTriple> getAtoms() {
         Collection<RDFTriple> res = new ArrayList<>();
         for (Integer s : indexSPO.keySet()) {
             for (Integer p : indexSPO.get(s).keySet()) {
                 for (Integer o : indexSPO.get(s).get(p)) {
-                    Literal<String> subject = SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(s));
-                    Literal<String> predicate = SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(p));
-                    Literal<String> object = SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(o));
+                    Term subject = terms.get(s);
+                    Term predicate = terms.get(p);
+                    Term object = terms.get(o);
                     RDFTriple atom = new RDFTriple(subject, predicate, object);
                     res.add(atom);
                 }
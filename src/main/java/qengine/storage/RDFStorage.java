@@ -9,6 +9,17 @@ import qengine.model.StarQuery;
 
 /**
  * Contrat pour un système de stockage de données RDF
+ * <p>
+ * Les lectures ({@code match}, {@code howMany}, {@code size}, {@code getAtoms}) ne
+ * modifient ni le contenu du store ni son dictionnaire : une constante inconnue
+ * donne simplement un résultat vide, sans être encodée. Seuls des caches internes
+ * prévus pour les accès concurrents, comme {@link TermCache}, peuvent être remplis.
+ * Un store chargé peut donc être interrogé par plusieurs threads à la fois, tant
+ * qu'aucun ne l'écrit. Les ajouts et retraits doivent être exclus des lectures par
+ * l'appelant, sauf pour {@link VersionedRDFHexaStore} et {@link TieredRDFHexaStore},
+ * dont un écrivain peut ajouter des triplets pendant les lectures. Les itérateurs
+ * pouvant lire les index au fil de leur parcours, une lecture dure jusqu'au dernier
+ * appel à l'itérateur rendu.
  */
 public interface RDFStorage {
 
@@ -20,6 +31,17 @@ public interface RDFStorage {
      */
     boolean add(RDFTriple t);
 
+    /**
+     * Retire un RDFAtom du store.
+     *
+     * @param t le triplet à retirer
+     * @return true si le RDFAtom a été retiré, false s'il était absent
+     * @throws UnsupportedOperationException si le store ne permet pas la suppression
+     */
+    default boolean remove(RDFTriple t) {
+        throw new UnsupportedOperationException("Ce store ne permet pas la suppression.");
+    }
+
     /**
      * @param a atom
      * @return un itérateur de substitutions correspondant aux matchs des atomes
@@ -54,11 +76,13 @@ public interface RDFStorage {
         for (int i=1; i < patterns.size(); i++) {
             List<Substitution> newCandidates = new ArrayList<>();
 
-            for (Substitution candidate : candidates) {
-                Iterator<Substitution> patternResults = match(patterns.get(i));
+            // Match the pattern once, not once per candidate
+            List<Substitution> patternResults = new ArrayList<>();
+            match(patterns.get(i)).forEachRemaining(patternResults::add);
 
-                while (patternResults.hasNext()) {
-                    Optional<Substitution> merged = candidate.merged(patternResults.next());
+            for (Substitution candidate : candidates) {
+                for (Substitution result : patternResults) {
+                    Optional<Substitution> merged = candidate.merged(result);
                     merged.ifPresent(newCandidates::add);
                 }
             }
@@ -72,6 +96,52 @@ public interface RDFStorage {
         return candidates.iterator();
     }
 
+    /**
+     * Évalue la requête en s'arrêtant après {@code limit} réponses ({@code LIMIT}).
+     * Les stores qui produisent leurs réponses à la demande n'effectuent que le
+     * travail nécessaire à ces premières réponses ; l'implémentation par défaut
+     * tronque {@link #match(StarQuery)}.
+     *
+     * @param q     star query
+     * @param limit le nombre maximal de réponses
+     * @return un itérateur sur au plus {@code limit} réponses
+     * @throws IllegalArgumentException si la limite est négative
+     */
+    default Iterator<Substitution> match(StarQuery q, long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("La limite ne peut pas être négative: " + limit);
+        }
+        Iterator<Substitution> answers = match(q);
+        return new Iterator<>() {
+            private long left = limit;
+
+            @Override
+            public boolean hasNext() {
+                return left > 0 && answers.hasNext();
+            }
+
+            @Override
+            public Substitution next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                left--;
+                return answers.next();
+            }
+        };
+    }
+
+    /**
+     * Indique si la requête a au moins une réponse ({@code ASK}) : l'évaluation
+     * s'arrête à la première.
+     *
+     * @param q star query
+     * @return vrai si la requête a une réponse
+     */
+    default boolean ask(StarQuery q) {
+        return match(q, 1).hasNext();
+    }
+
     /**
      * Retourne le nombre de triplets du store correspondant à l'atome donné
      *
@@ -114,4 +184,26 @@ public interface RDFStorage {
     default boolean addAll(Collection<RDFTriple> atoms) {
         return this.addAll(atoms.stream());
     }
+
+    /**
+     * Retire des RDFAtom du store.
+     *
+     * @param atoms les RDFAtom à retirer
+     * @return true si au moins un RDFAtom a été retiré, false s'ils étaient tous absents
+     * @throws UnsupportedOperationException si le store ne permet pas la suppression
+     */
+    default boolean removeAll(Stream<RDFTriple> atoms) {
+        return atoms.map(this::remove).reduce(Boolean::logicalOr).orElse(false);
+    }
+
+    /**
+     * Retire des RDFAtom du store.
+     *
+     * @param atoms les RDFAtom à retirer
+     * @return true si au moins un RDFAtom a été retiré, false s'ils étaient tous absents
+     * @throws UnsupportedOperationException si le store ne permet pas la suppression
+     */
+    default boolean removeAll(Collection<RDFTriple> atoms) {
+        return this.removeAll(atoms.stream());
+    }
 }
@@ -0,0 +1,77 @@
+package qengine.storage;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Une permutation de triplets (par exemple SPO) rangée triée sur trois niveaux :
+ * premières clés distinctes, secondes clés de chacune, troisièmes clés de chaque
+ * couple. Les positions {@code i1} et {@code i2} désignent une première clé et un
+ * couple (première, seconde clé) ; elles sont obtenues par {@link #find1(int)} et
+ * {@link #find2(int, int)}.
+ * <p>
+ * Implémentée en mémoire ({@link CsrPermutation}) et sur disque ({@link MappedPermutation}).
+ */
+interface SortedPermutation {
+
+    /**
+     * @return le nombre de triplets
+     */
+    int size();
+
+    /**
+     * @return le nombre de premières clés distinctes
+     */
+    int distinctFirstKeys();
+
+    /**
+     * @return la position de la première clé, ou -1
+     */
+    int find1(int a);
+
+    /**
+     * @return la position de la seconde clé sous la première clé {@code i1}, ou -1
+     */
+    int find2(int i1, int b);
+
+    /**
+     * @return vrai si la troisième clé figure sous le couple {@code i2}
+     */
+    boolean contains3(int i2, int c);
+
+    /**
+     * Parcourt les troisièmes clés sous le couple {@code i2}, dans l'ordre croissant.
+     */
+    void forEach3(int i2, IntConsumer action);
+
+    /**
+     * Parcourt les triplets ayant la première clé {@code i1}, dans l'ordre de la
+     * permutation (clés dans l'ordre de la permutation).
+     */
+    void scan(int i1, EncodedRDFStorage.TripleIdConsumer action);
+
+    /**
+     * @return la position du premier couple de la première clé {@code i1} ; pour
+     *         {@code i1 == distinctFirstKeys()}, le nombre total de couples
+     */
+    int start2(int i1);
+
+    /**
+     * Curseur sur les triplets des couples {@code [from2, to2)}, dans l'ordre de la
+     * permutation (clés rendues dans l'ordre de la permutation par {@code s()},
+     * {@code p()} et {@code o()}). Les couples étant rangés à la suite d'une première
+     * clé à l'autre, une plage couvre un couple, une première clé ou toute la permutation.
+     *
+     * @param i1 la position de la première clé du couple {@code from2}
+     */
+    EncodedRDFStorage.TripleIdCursor cursor(int i1, int from2, int to2);
+
+    /**
+     * @return le nombre de triplets ayant la première clé {@code i1}
+     */
+    int count1(int i1);
+
+    /**
+     * @return le nombre de triplets sous le couple {@code i2}
+     */
+    int count2(int i2);
+}
@@ -0,0 +1,235 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Term;
+import qengine.model.RDFTriple;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Store en lecture seule dont les six permutations (SPO, SOP, PSO, POS, OSP, OPS)
+ * sont triées ({@link SortedPermutation}). {@code match} et {@code howMany}
+ * procèdent par dichotomie puis parcours d'une plage contiguë, et les statistiques
+ * de sélectivité se lisent dans les positions des permutations. Les résultats d'un
+ * motif sortent triés par identifiant ; {@link #cursor} les lit un à un dans la plage.
+ */
+abstract class SortedRDFStore implements EncodedRDFStorage {
+    private final TermDictionary dict;
+    private final TermCache terms;
+    private final SortedPermutation spo;
+    private final SortedPermutation sop;
+    private final SortedPermutation pso;
+    private final SortedPermutation pos;
+    private final SortedPermutation osp;
+    private final SortedPermutation ops;
+
+    /**
+     * @param dict         le dictionnaire ayant servi à encoder les triplets
+     * @param permutations les permutations SPO, SOP, PSO, POS, OSP et OPS, dans cet ordre
+     */
+    SortedRDFStore(TermDictionary dict, SortedPermutation[] permutations) {
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+        this.terms = new TermCache(dict);
+        this.spo = permutations[0];
+        this.sop = permutations[1];
+        this.pso = permutations[2];
+        this.pos = permutations[3];
+        this.osp = permutations[4];
+        this.ops = permutations[5];
+    }
+
+    @Override
+    public long size() {
+        return spo.size();
+    }
+
+    @Override
+    public TermDictionary getDictionary() {
+        return dict;
+    }
+
+    @Override
+    public Term decodeTerm(int id) {
+        return terms.get(id);
+    }
+
+    @Override
+    public void forEachMatch(int s, int p, int o, TripleIdConsumer action) {
+        boolean sVar = s == ANY;
+        boolean pVar = p == ANY;
+        boolean oVar = o == ANY;
+
+        if (!sVar && !pVar && !oVar) { // (s, p, o) - SPO
+            int i2 = find(spo, s, p);
+            if (i2 >= 0 && spo.contains3(i2, o)) {
+                action.accept(s, p, o);
+            }
+        } else if (!sVar && !pVar) { // (s, p, ?o) - SPO
+            forEachLeaf(spo, find(spo, s, p), foundO -> action.accept(s, p, foundO));
+        } else if (!sVar && !oVar) { // (s, ?p, o) - SOP
+            forEachLeaf(sop, find(sop, s, o), foundP -> action.accept(s, foundP, o));
+        } else if (!pVar && !oVar) { // (?s, p, o) - POS
+            forEachLeaf(pos, find(pos, p, o), foundS -> action.accept(foundS, p, o));
+        } else if (!sVar) { // (s, ?p, ?o) - SPO
+            scan(spo, spo.find1(s), (a, b, c) -> action.accept(a, b, c));
+        } else if (!pVar) { // (?s, p, ?o) - PSO
+            scan(pso, pso.find1(p), (a, b, c) -> action.accept(b, a, c));
+        } else if (!oVar) { // (?s, ?p, o) - OPS
+            scan(ops, ops.find1(o), (a, b, c) -> action.accept(c, b, a));
+        } else { // (?s, ?p, ?o) - full scan using SPO
+            for (int i1 = 0; i1 < spo.distinctFirstKeys(); i1++) {
+                scan(spo, i1, action);
+            }
+        }
+    }
+
+    @Override
+    public TripleIdCursor cursor(int s, int p, int o) {
+        boolean sVar = s == ANY;
+        boolean pVar = p == ANY;
+        boolean oVar = o == ANY;
+
+        if (!sVar && !pVar && !oVar) { // (s, p, o): at most one triple
+            return EncodedRDFStorage.super.cursor(s, p, o);
+        } else if (!sVar && !pVar) { // (s, p, ?o) - SPO
+            return leaf(spo, s, p);
+        } else if (!sVar && !oVar) { // (s, ?p, o) - SOP
+            return reorder(leaf(sop, s, o), 0, 2, 1);
+        } else if (!pVar && !oVar) { // (?s, p, o) - POS
+            return reorder(leaf(pos, p, o), 2, 0, 1);
+        } else if (!sVar) { // (s, ?p, ?o) - SPO
+            return firstKey(spo, s);
+        } else if (!pVar) { // (?s, p, ?o) - PSO
+            return reorder(firstKey(pso, p), 1, 0, 2);
+        } else if (!oVar) { // (?s, ?p, o) - OPS
+            return reorder(firstKey(ops, o), 2, 1, 0);
+        }
+        return spo.cursor(0, 0, spo.start2(spo.distinctFirstKeys())); // (?s, ?p, ?o) - full scan using SPO
+    }
+
+    /**
+     * Curseur sur les triplets du couple (a, b) de la permutation (aucun s'il est absent).
+     */
+    private static TripleIdCursor leaf(SortedPermutation perm, int a, int b) {
+        int i1 = perm.find1(a);
+        int i2 = i1 < 0 ? -1 : perm.find2(i1, b);
+        return i2 < 0 ? perm.cursor(0, 0, 0) : perm.cursor(i1, i2, i2 + 1);
+    }
+
+    /**
+     * Curseur sur les triplets de première clé {@code a} (aucun si elle est absente).
+     */
+    private static TripleIdCursor firstKey(SortedPermutation perm, int a) {
+        int i1 = perm.find1(a);
+        return i1 < 0 ? perm.cursor(0, 0, 0) : perm.cursor(i1, perm.start2(i1), perm.start2(i1 + 1));
+    }
+
+    /**
+     * Remet dans l'ordre (s, p, o) les clés d'un curseur de permutation : {@code sAt},
+     * {@code pAt} et {@code oAt} sont les rangs du sujet, du prédicat et de l'objet
+     * dans la permutation.
+     */
+    private static TripleIdCursor reorder(TripleIdCursor keys, int sAt, int pAt, int oAt) {
+        return new TripleIdCursor() {
+            @Override
+            public boolean advance() {
+                return keys.advance();
+            }
+
+            @Override
+            public int s() {
+                return key(sAt);
+            }
+
+            @Override
+            public int p() {
+                return key(pAt);
+            }
+
+            @Override
+            public int o() {
+                return key(oAt);
+            }
+
+            private int key(int rank) {
+                return rank == 0 ? keys.s() : rank == 1 ? keys.p() : keys.o();
+            }
+        };
+    }
+
+    /**
+     * Position dans {@code keys2} du couple (a, b), ou -1.
+     */
+    private static int find(SortedPermutation perm, int a, int b) {
+        int i1 = perm.find1(a);
+        return i1 < 0 ? -1 : perm.find2(i1, b);
+    }
+
+    /**
+     * Parcourt les troisièmes clés sous {@code keys2[i2]} (rien si {@code i2 < 0}), triées.
+     */
+    private static void forEachLeaf(SortedPermutation perm, int i2, IntConsumer action) {
+        if (i2 >= 0) {
+            perm.forEach3(i2, action);
+        }
+    }
+
+    /**
+     * Parcourt les triplets de la permutation ayant la première clé {@code keys1[i1]}
+     * (rien si {@code i1 < 0}), dans l'ordre de la permutation.
+     */
+    private static void scan(SortedPermutation perm, int i1, TripleIdConsumer action) {
+        if (i1 >= 0) {
+            perm.scan(i1, action);
+        }
+    }
+
+    @Override
+    public long howManyIds(int s, int p, int o) {
+        boolean vs = s == ANY;
+        boolean vp = p == ANY;
+        boolean vo = o == ANY;
+
+        if (!vs && !vp && !vo) {
+            int i2 = find(spo, s, p);
+            return i2 >= 0 && spo.contains3(i2, o) ? 1 : 0;
+        }
+        if (vs && !vp && !vo) { // (?s, p, o)
+            return count2(pos, p, o);
+        }
+        if (!vs && vp && !vo) { // (s, ?p, o)
+            return count2(sop, s, o);
+        }
+        if (!vs && !vp) { // (s, p, ?o)
+            return count2(spo, s, p);
+        }
+        if (vs && vp && !vo) { // (?s, ?p, o)
+            return count1(osp, o);
+        }
+        if (vs && !vp) { // (?s, p, ?o)
+            return count1(pso, p);
+        }
+        if (!vs) { // (s, ?p, ?o)
+            return count1(spo, s);
+        }
+        return size();
+    }
+
+    private static int count1(SortedPermutation perm, int a) {
+        int i1 = perm.find1(a);
+        return i1 < 0 ? 0 : perm.count1(i1);
+    }
+
+    private static int count2(SortedPermutation perm, int a, int b) {
+        int i2 = find(perm, a, b);
+        return i2 < 0 ? 0 : perm.count2(i2);
+    }
+
+    @Override
+    public Collection<RDFTriple> getAtoms() {
+        Collection<RDFTriple> res = new ArrayList<>();
+        forEachMatch(ANY, ANY, ANY, (s, p, o) -> res.add(new RDFTriple(terms.get(s), terms.get(p), terms.get(o))));
+        return res;
+    }
+
+}
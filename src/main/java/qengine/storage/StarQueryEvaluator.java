@@ -0,0 +1,628 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Term;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.impl.SubstitutionImpl;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+
+/**
+ * Évaluation d'une requête en étoile sur les identifiants d'un {@link EncodedRDFStorage}.
+ * <p>
+ * Les résultats intermédiaires sont les lignes d'identifiants d'une {@link BindingTable},
+ * indexées par le numéro de variable. Les constantes sont encodées une fois au début ; les
+ * {@link Substitution}s ne sont construites que lors du parcours de l'itérateur
+ * renvoyé, et seules les variables réponses sont décodées.
+ * <p>
+ * La jointure se fait sur la variable centrale : les lignes de chaque motif sont
+ * triées par identifiant central, et les listes d'identifiants distincts sont
+ * intersectées par galop (recherche exponentielle), du motif le plus sélectif au
+ * moins sélectif. Seules les lignes des identifiants retenus sont ensuite combinées,
+ * au lieu de confronter chaque candidat à toutes les lignes de chaque motif.
+ * <p>
+ * Quand le motif suivant a nettement plus de triplets qu'il ne reste de candidats,
+ * il n'est pas parcouru : chaque candidat y est substitué à la variable centrale et le
+ * motif ainsi lié est cherché dans l'index (jointure par boucle indexée). Un motif
+ * dont la variable centrale est la seule variable devient un simple test de présence.
+ * <p>
+ * Les réponses sont combinées au fil de l'itération, un identifiant central à la fois.
+ * Si le premier motif (ou la limite de {@link #evaluate(StarQuery, long)}) promet au
+ * moins {@code PROBE_RATIO} fois moins de lignes que le motif suivant n'a de triplets,
+ * rien n'est lu d'avance : le premier motif est parcouru triplet par triplet dans
+ * l'index et les autres sont sondés pour chacun.
+ */
+public class StarQueryEvaluator {
+    private static final int ANY = EncodedRDFStorage.ANY;
+    // Un motif est sondé candidat par candidat s'il a au moins PROBE_RATIO fois plus de triplets que de candidats
+    private static final int PROBE_RATIO = 4;
+
+    private final EncodedRDFStorage store;
+    private final TermDictionary dict;
+
+    /**
+     * @param store le store à interroger
+     */
+    public StarQueryEvaluator(EncodedRDFStorage store) {
+        this.store = Objects.requireNonNull(store, "Le store ne peut pas être null.");
+        this.dict = store.getDictionary();
+    }
+
+    /**
+     * Évalue la requête.
+     *
+     * @param q star query
+     * @return un itérateur de substitutions limitées aux variables réponses
+     */
+    public Iterator<Substitution> evaluate(StarQuery q) {
+        return evaluate(q, Long.MAX_VALUE);
+    }
+
+    /**
+     * Évalue la requête en s'arrêtant après {@code limit} réponses. Les réponses sont
+     * produites au fil de l'itération, par lots d'un identifiant central : une fois la
+     * limite atteinte, ni les index ni les lignes restantes ne sont plus parcourus.
+     *
+     * @param q     star query
+     * @param limit le nombre maximal de réponses
+     * @return un itérateur sur au plus {@code limit} substitutions limitées aux variables réponses
+     * @throws IllegalArgumentException si la limite est négative
+     */
+    public Iterator<Substitution> evaluate(StarQuery q, long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("La limite ne peut pas être négative: " + limit);
+        }
+        List<Variable> variables = new ArrayList<>();
+        List<Pattern> patterns = new ArrayList<>();
+        for (RDFTriple triple : q.getRdfAtoms()) {
+            Pattern pattern = encode(triple, variables);
+            if (pattern == null) {
+                // Constante absente du dictionnaire : aucune réponse possible
+                return Collections.emptyIterator();
+            }
+            patterns.add(pattern);
+        }
+        if (patterns.isEmpty() || limit == 0) {
+            return Collections.emptyIterator();
+        }
+
+        // Sort patterns by selectivity
+        for (Pattern pattern : patterns) {
+            pattern.cardinality = store.howManyIds(pattern.ids[0], pattern.ids[1], pattern.ids[2]);
+        }
+        patterns.sort(Comparator.comparingLong(pattern -> pattern.cardinality));
+
+        int width = variables.size();
+        Batches batches;
+        if (patterns.size() == 1) {
+            batches = scan(patterns.getFirst(), width);
+        } else {
+            int central = variables.indexOf(q.getCentralVariable());
+            // Rows the first pattern will have to deliver, at most
+            long needed = Math.min(limit, patterns.getFirst().cardinality);
+            batches = needed * PROBE_RATIO <= patterns.get(1).cardinality
+                    ? new NestedLoop(patterns, width, central)
+                    : joinOnCentral(patterns, width, central);
+        }
+        return new Answers(store, batches, limit, q.getAnswerVariables(), variables);
+    }
+
+    /**
+     * Un motif seul : une ligne par triplet, lue dans l'index au moment où elle est demandée.
+     */
+    private Batches scan(Pattern pattern, int width) {
+        EncodedRDFStorage.TripleIdCursor cursor = store.cursor(pattern.ids[0], pattern.ids[1], pattern.ids[2]);
+        BindingTable batch = new BindingTable(width, 1);
+        return () -> {
+            if (!cursor.advance()) {
+                return null;
+            }
+            batch.clear();
+            addMatch(batch, pattern.slots, cursor.s(), cursor.p(), cursor.o());
+            return batch;
+        };
+    }
+
+    /**
+     * Jointure des motifs (triés par sélectivité) sur la variable centrale, présente dans chacun.
+     */
+    private Batches joinOnCentral(List<Pattern> patterns, int width, int central) {
+        List<Rows> patternRows = new ArrayList<>();
+        int[] keys = null;
+        int keyCount = 0;
+        for (Pattern pattern : patterns) {
+            Rows rows;
+            if (keys != null && (long) keyCount * PROBE_RATIO <= pattern.cardinality) {
+                rows = probe(pattern, keys, keyCount, width, central);
+            } else {
+                rows = pattern.bindsOnly(central)
+                        ? new Rows(centralIds(pattern))
+                        : new Rows(matches(pattern, width), central);
+            }
+            patternRows.add(rows);
+            if (keys == null) {
+                keys = rows.keys.clone();
+                keyCount = keys.length;
+            } else {
+                keyCount = intersect(keys, keyCount, rows.keys);
+            }
+            if (keyCount == 0) {
+                return () -> null;
+            }
+        }
+        return new CentralJoin(patternRows, keys, keyCount, width, central);
+    }
+
+    /**
+     * Combinaison, identifiant central par identifiant central, des lignes des motifs
+     * pour les identifiants retenus par l'intersection.
+     */
+    private static final class CentralJoin implements Batches {
+        private final List<Rows> patternRows;
+        private final int[] keys;
+        private final int keyCount;
+        private final int central;
+        private final int[] cursors;
+        private BindingTable partial;
+        private BindingTable next;
+        private int k;
+
+        CentralJoin(List<Rows> patternRows, int[] keys, int keyCount, int width, int central) {
+            this.patternRows = patternRows;
+            this.keys = keys;
+            this.keyCount = keyCount;
+            this.central = central;
+            this.cursors = new int[patternRows.size()];
+            this.partial = new BindingTable(width);
+            this.next = new BindingTable(width);
+        }
+
+        @Override
+        public BindingTable next() {
+            if (k == keyCount) {
+                return null;
+            }
+            int key = keys[k++];
+            partial.clear();
+            for (int i = 0; i < patternRows.size() && (i == 0 || !partial.isEmpty()); i++) {
+                Rows rows = patternRows.get(i);
+                if (rows.rows == null) {
+                    // Pattern binding only the central variable: nothing to add but the key itself
+                    if (i == 0) {
+                        partial.bind(partial.addEmpty(), central, key);
+                    }
+                    continue;
+                }
+                int g = gallop(rows.keys, cursors[i], rows.keys.length, key);
+                cursors[i] = g;
+                if (i == 0) {
+                    for (int r = rows.starts[g]; r < rows.starts[g + 1]; r++) {
+                        partial.add(rows.rows, r);
+                    }
+                    continue;
+                }
+                next.clear();
+                for (int left = 0; left < partial.size(); left++) {
+                    for (int r = rows.starts[g]; r < rows.starts[g + 1]; r++) {
+                        next.addMerged(partial, left, rows.rows, r);
+                    }
+                }
+                BindingTable swap = partial;
+                partial = next;
+                next = swap;
+            }
+            return partial;
+        }
+    }
+
+    /**
+     * Plan par ligne, quand le motif le plus sélectif (ou la limite) promet nettement
+     * moins de lignes que n'en ont les autres motifs : ses triplets sont lus un à un
+     * dans l'index, et pour chaque identifiant central les autres motifs sont sondés
+     * avec cet identifiant substitué. Leurs lignes combinées sont gardées tant que
+     * l'identifiant central ne change pas. Rien n'est lu d'avance : la première réponse
+     * et la mémoire occupée ne dépendent pas du nombre total de réponses.
+     */
+    private final class NestedLoop implements Batches {
+        private final List<Pattern> patterns;
+        private final int central;
+        private final EncodedRDFStorage.TripleIdCursor cursor;
+        // Motifs suivants, la variable centrale substituée par l'identifiant courant
+        private final int[][] bound;
+        private final BindingTable row;
+        private final BindingTable batch;
+        private final BindingTable found;
+        private BindingTable tail;
+        private BindingTable next;
+        private boolean tailKnown;
+        private int tailKey;
+
+        NestedLoop(List<Pattern> patterns, int width, int central) {
+            this.patterns = patterns;
+            this.central = central;
+            Pattern head = patterns.getFirst();
+            this.cursor = store.cursor(head.ids[0], head.ids[1], head.ids[2]);
+            this.bound = new int[patterns.size()][];
+            for (int i = 1; i < patterns.size(); i++) {
+                bound[i] = patterns.get(i).ids.clone();
+            }
+            this.row = new BindingTable(width, 1);
+            this.batch = new BindingTable(width);
+            this.found = new BindingTable(width);
+            this.tail = new BindingTable(width);
+            this.next = new BindingTable(width);
+        }
+
+        @Override
+        public BindingTable next() {
+            if (!cursor.advance()) {
+                return null;
+            }
+            row.clear();
+            batch.clear();
+            addMatch(row, patterns.getFirst().slots, cursor.s(), cursor.p(), cursor.o());
+            if (row.isEmpty()) {
+                return batch;
+            }
+            int key = row.get(0, central);
+            if (!tailKnown || key != tailKey) {
+                combineOthers(key);
+                tailKey = key;
+                tailKnown = true;
+            }
+            for (int t = 0; t < tail.size(); t++) {
+                batch.addMerged(row, 0, tail, t);
+            }
+            return batch;
+        }
+
+        /**
+         * Lignes des autres motifs pour l'identifiant central {@code key}, combinées dans {@code tail}.
+         */
+        private void combineOthers(int key) {
+            tail.clear();
+            tail.bind(tail.addEmpty(), central, key);
+            for (int i = 1; i < patterns.size() && !tail.isEmpty(); i++) {
+                Pattern pattern = patterns.get(i);
+                int[] ids = bound[i];
+                bindCentral(ids, pattern.slots, central, key);
+                if (pattern.bindsOnly(central)) {
+                    if (store.howManyIds(ids[0], ids[1], ids[2]) == 0) {
+                        tail.clear();
+                    }
+                    continue;
+                }
+                found.clear();
+                store.forEachMatch(ids[0], ids[1], ids[2], (s, p, o) -> addMatch(found, pattern.slots, s, p, o));
+                next.clear();
+                for (int left = 0; left < tail.size(); left++) {
+                    for (int r = 0; r < found.size(); r++) {
+                        next.addMerged(tail, left, found, r);
+                    }
+                }
+                BindingTable swap = tail;
+                tail = next;
+                next = swap;
+            }
+        }
+    }
+
+    /**
+     * Lignes d'un motif pour les seuls identifiants centraux candidats : chaque
+     * candidat est substitué à la variable centrale et le motif, plus lié, est
+     * cherché dans l'index (un test d'appartenance s'il n'a pas d'autre variable).
+     * Les candidats sans correspondance disparaissent des clés.
+     */
+    private Rows probe(Pattern pattern, int[] keys, int keyCount, int width, int central) {
+        int[] ids = pattern.ids.clone();
+        int[] slots = pattern.slots;
+        int[] found = new int[keyCount];
+        int n = 0;
+        if (pattern.bindsOnly(central)) {
+            for (int k = 0; k < keyCount; k++) {
+                bindCentral(ids, slots, central, keys[k]);
+                if (store.howManyIds(ids[0], ids[1], ids[2]) > 0) {
+                    found[n++] = keys[k];
+                }
+            }
+            return new Rows(Arrays.copyOf(found, n));
+        }
+
+        BindingTable rows = new BindingTable(width);
+        int[] starts = new int[keyCount + 1];
+        for (int k = 0; k < keyCount; k++) {
+            int before = rows.size();
+            bindCentral(ids, slots, central, keys[k]);
+            store.forEachMatch(ids[0], ids[1], ids[2], (s, p, o) -> addMatch(rows, slots, s, p, o));
+            if (rows.size() > before) {
+                starts[n] = before;
+                found[n++] = keys[k];
+            }
+        }
+        starts[n] = rows.size();
+        return new Rows(rows, Arrays.copyOf(found, n), Arrays.copyOf(starts, n + 1));
+    }
+
+    /**
+     * Remplace la variable centrale du motif par l'identifiant donné, à toutes ses positions.
+     */
+    private static void bindCentral(int[] ids, int[] slots, int central, int id) {
+        for (int k = 0; k < 3; k++) {
+            if (slots[k] == central) {
+                ids[k] = id;
+            }
+        }
+    }
+
+    /**
+     * Identifiants distincts et triés pris par la variable centrale dans un motif
+     * où elle est la seule variable (éventuellement répétée).
+     */
+    private int[] centralIds(Pattern pattern) {
+        int[][] ids = {new int[16]};
+        int[] n = {0};
+        int[] slots = pattern.slots;
+        store.forEachMatch(pattern.ids[0], pattern.ids[1], pattern.ids[2], (s, p, o) -> {
+            int id = slots[0] >= 0 ? s : slots[1] >= 0 ? p : o;
+            if ((slots[0] >= 0 && s != id) || (slots[1] >= 0 && p != id) || (slots[2] >= 0 && o != id)) {
+                return; // Repeated variable bound to two values
+            }
+            if (n[0] == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], 2 * n[0]);
+            }
+            ids[0][n[0]++] = id;
+        });
+        int[] keys = ids[0];
+        Arrays.sort(keys, 0, n[0]);
+        int distinct = 0;
+        for (int i = 0; i < n[0]; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    /**
+     * Intersecte {@code keys[0..n)} avec {@code other} (tous deux triés, sans doublons),
+     * en cherchant chaque clé par galop dans {@code other}. Le résultat remplace le
+     * début de {@code keys}.
+     *
+     * @return le nombre de clés communes
+     */
+    static int intersect(int[] keys, int n, int[] other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < n && j < other.length; i++) {
+            j = gallop(other, j, other.length, keys[i]);
+            if (j < other.length && other[j] == keys[i]) {
+                keys[kept++] = keys[i];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Premier indice de {@code a[from..to)} (trié) dont la valeur est au moins {@code key} :
+     * pas doublés depuis {@code from}, puis dichotomie dans le dernier intervalle.
+     */
+    static int gallop(int[] a, int from, int to, int key) {
+        if (from >= to || a[from] >= key) {
+            return from;
+        }
+        int step = 1;
+        int lo = from;
+        while (lo + step < to && a[lo + step] < key) {
+            lo += step;
+            step <<= 1;
+        }
+        // a[lo] < key et, si hi < to, a[hi] >= key
+        int hi = Math.min(lo + step, to);
+        lo++;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Encode un motif : identifiant des constantes, numéro de variable ailleurs.
+     *
+     * @return le motif, ou null si une constante est inconnue du dictionnaire
+     */
+    private Pattern encode(RDFTriple triple, List<Variable> variables) {
+        Pattern pattern = new Pattern();
+        Term[] terms = {triple.getTripleSubject(), triple.getTriplePredicate(), triple.getTripleObject()};
+        for (int k = 0; k < 3; k++) {
+            if (terms[k].isVariable()) {
+                int slot = variables.indexOf((Variable) terms[k]);
+                if (slot < 0) {
+                    slot = variables.size();
+                    variables.add((Variable) terms[k]);
+                }
+                pattern.ids[k] = ANY;
+                pattern.slots[k] = slot;
+            } else {
+                Integer id = dict.getIdOrNull(terms[k].toString());
+                if (id == null) {
+                    return null;
+                }
+                pattern.ids[k] = id;
+                pattern.slots[k] = -1;
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Lignes produites par un motif seul (variables non liées à {@link EncodedRDFStorage#ANY}).
+     */
+    private BindingTable matches(Pattern pattern, int width) {
+        BindingTable rows = new BindingTable(width);
+        int[] slots = pattern.slots;
+        store.forEachMatch(pattern.ids[0], pattern.ids[1], pattern.ids[2], (s, p, o) -> addMatch(rows, slots, s, p, o));
+        return rows;
+    }
+
+    /**
+     * Ajoute la ligne liant les variables du motif au triplet trouvé, sauf si une
+     * variable répétée y prend deux valeurs.
+     */
+    private static void addMatch(BindingTable rows, int[] slots, int s, int p, int o) {
+        int row = rows.addEmpty();
+        if (!rows.bind(row, slots[0], s) || !rows.bind(row, slots[1], p) || !rows.bind(row, slots[2], o)) {
+            rows.removeLast();
+        }
+    }
+
+    /**
+     * Itérateur qui décode les variables réponses d'une ligne au moment où elle est demandée.
+     */
+    static Iterator<Substitution> materialize(EncodedRDFStorage store, BindingTable rows,
+                                              Collection<Variable> answerVariables, List<Variable> variables) {
+        boolean[] given = {false};
+        Batches single = () -> {
+            if (given[0]) {
+                return null;
+            }
+            given[0] = true;
+            return rows;
+        };
+        return new Answers(store, single, Long.MAX_VALUE, answerVariables, variables);
+    }
+
+    /**
+     * Source de lignes d'une évaluation, lot par lot.
+     */
+    @FunctionalInterface
+    private interface Batches {
+        /**
+         * @return le lot suivant (éventuellement vide, et réutilisé par l'appel
+         *         suivant), ou null s'il n'y en a plus
+         */
+        BindingTable next();
+    }
+
+    /**
+     * Réponses tirées des lots à la demande : un lot n'est produit que lorsque les
+     * lignes du précédent ont toutes été rendues, et plus aucun quand la limite est atteinte.
+     */
+    private static final class Answers implements Iterator<Substitution> {
+        private final EncodedRDFStorage store;
+        private final Batches batches;
+        private final Variable[] answers;
+        private final int[] answerSlots;
+        private long left;
+        private BindingTable batch;
+        private int row;
+
+        Answers(EncodedRDFStorage store, Batches batches, long limit,
+                Collection<Variable> answerVariables, List<Variable> variables) {
+            this.store = store;
+            this.batches = batches;
+            this.left = limit;
+            this.answers = answerVariables.toArray(new Variable[0]);
+            this.answerSlots = new int[answers.length];
+            for (int k = 0; k < answers.length; k++) {
+                answerSlots[k] = variables.indexOf(answers[k]);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (left > 0 && (batch == null || row == batch.size())) {
+                batch = batches.next();
+                row = 0;
+                if (batch == null) {
+                    left = 0;
+                }
+            }
+            return left > 0;
+        }
+
+        @Override
+        public Substitution next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            // Built in place: SubstitutionImpl(Map) would copy an intermediate map
+            Substitution substitution = new SubstitutionImpl();
+            for (int k = 0; k < answers.length; k++) {
+                substitution.add(answers[k], store.decodeTerm(batch.get(row, answerSlots[k])));
+            }
+            row++;
+            left--;
+            return substitution;
+        }
+    }
+
+    /**
+     * Lignes d'un motif triées par identifiant central : {@code keys} liste les
+     * identifiants distincts, dont les lignes sont {@code rows[starts[k]..starts[k + 1])}.
+     * Pour un motif qui ne lie que la variable centrale, seules les clés sont gardées
+     * ({@code rows} et {@code starts} sont null).
+     */
+    private static final class Rows {
+        final BindingTable rows;
+        final int[] keys;
+        final int[] starts;
+
+        Rows(int[] keys) {
+            this(null, keys, null);
+        }
+
+        Rows(BindingTable rows, int[] keys, int[] starts) {
+            this.rows = rows;
+            this.keys = keys;
+            this.starts = starts;
+        }
+
+        Rows(BindingTable matches, int central) {
+            rows = matches;
+            rows.sortBy(central);
+            int size = rows.size();
+            int[] distinct = new int[size];
+            int[] offsets = new int[size + 1];
+            int n = 0;
+            for (int r = 0; r < size; r++) {
+                int key = rows.get(r, central);
+                if (n == 0 || key != distinct[n - 1]) {
+                    distinct[n] = key;
+                    offsets[n++] = r;
+                }
+            }
+            offsets[n] = size;
+            keys = Arrays.copyOf(distinct, n);
+            starts = Arrays.copyOf(offsets, n + 1);
+        }
+    }
+
+    /**
+     * Motif encodé : pour chaque position, l'identifiant de la constante (ou
+     * {@link EncodedRDFStorage#ANY}) et le numéro de la variable (ou -1).
+     */
+    private static final class Pattern {
+        final int[] ids = new int[3];
+        final int[] slots = new int[3];
+        long cardinality;
+
+        /**
+         * @return vrai si la seule variable du motif est celle du numéro donné
+         */
+        boolean bindsOnly(int slot) {
+            for (int k = 0; k < 3; k++) {
+                if (slots[k] >= 0 && slots[k] != slot) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
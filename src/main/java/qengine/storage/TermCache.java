@@ -0,0 +1,82 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Term;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Cache des {@link Term}s indexé par identifiant de dictionnaire.
+ * <p>
+ * Transformer un identifiant en terme demande normalement un décodage puis une
+ * recherche dans la table globale de {@link SameObjectTermFactory}. Le cache retient
+ * le terme obtenu dans un tableau découpé en pages de {@value #PAGE_SIZE} cases,
+ * remplies à la demande : un identifiant déjà vu coûte un accès au tableau. Chaque
+ * page est tenue par une {@link SoftReference}, que le GC peut libérer sous pression
+ * mémoire ; la page est alors simplement reconstruite au besoin.
+ * <p>
+ * Les identifiants négatifs (valeurs en ligne, voir {@link InlineRDFDictionary})
+ * ne passent pas par le cache. Les accès concurrents sont sans verrou : au pire, deux
+ * threads calculent le même terme, et la fabrique renvoie le même objet.
+ */
+public class TermCache {
+    static final int PAGE_SIZE = 1 << 12;
+    private static final int PAGE_BITS = 12;
+
+    private final TermDictionary dict;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private volatile SoftReference<Term[]>[] pages = new SoftReference[16];
+
+    /**
+     * @param dict le dictionnaire dont les identifiants sont mis en cache
+     */
+    public TermCache(TermDictionary dict) {
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+    }
+
+    /**
+     * Retourne le terme associé à un identifiant.
+     *
+     * @param id l'identifiant à décoder
+     * @return le terme (un littéral, comme ceux construits par les stores)
+     * @throws IllegalArgumentException si l'identifiant n'existe pas
+     */
+    public Term get(int id) {
+        if (id < 0) {
+            return create(id);
+        }
+        int index = id >>> PAGE_BITS;
+        SoftReference<Term[]>[] current = pages;
+        Term[] page = index < current.length && current[index] != null ? current[index].get() : null;
+        if (page == null) {
+            page = newPage(index);
+        }
+        int slot = id & (PAGE_SIZE - 1);
+        Term term = page[slot];
+        if (term == null) {
+            term = create(id);
+            page[slot] = term;
+        }
+        return term;
+    }
+
+    private Term create(int id) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(dict.decode(id));
+    }
+
+    private synchronized Term[] newPage(int index) {
+        SoftReference<Term[]>[] current = pages;
+        if (index >= current.length) {
+            current = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+        }
+        Term[] page = current[index] != null ? current[index].get() : null;
+        if (page == null) {
+            page = new Term[PAGE_SIZE];
+            current[index] = new SoftReference<>(page);
+        }
+        pages = current;
+        return page;
+    }
+}
@@ -0,0 +1,46 @@
+package qengine.storage;
+
+/**
+ * Contrat d'un dictionnaire RDF : associe à chaque terme (sous forme de chaîne)
+ * un identifiant entier unique, et permet l'opération inverse.
+ * <p>
+ * Les stores ({@link RDFHexaStore}, {@link RDFGiantTable}) manipulent leur
+ * dictionnaire uniquement à travers cette interface, ce qui permet de choisir
+ * la représentation des termes (sur le tas, hors tas, ...) à la construction.
+ */
+public interface TermDictionary {
+
+    /**
+     * Encode une chaîne en un identifiant unique.
+     * Si la chaîne existe déjà, retourne l'identifiant existant.
+     *
+     * @param s la chaîne à encoder
+     * @return l'identifiant unique associé
+     * @throws IllegalArgumentException si s est null
+     */
+    int encode(String s);
+
+    /**
+     * Décode un identifiant pour retrouver la chaîne associée.
+     *
+     * @param i l'identifiant à décoder
+     * @return la chaîne associée
+     * @throws IllegalArgumentException si l'identifiant n'existe pas
+     */
+    String decode(int i);
+
+    /**
+     * Retourne l'identifiant d'une chaîne sans jamais modifier le dictionnaire.
+     *
+     * @param value la chaîne recherchée
+     * @return l'identifiant associé, ou null si la chaîne n'a jamais été encodée
+     */
+    Integer getIdOrNull(String value);
+
+    /**
+     * Retourne le nombre d'éléments dans le dictionnaire.
+     *
+     * @return le nombre d'éléments
+     */
+    int size();
+}
@@ -0,0 +1,367 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Term;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Store à deux niveaux, à la manière d'un LSM : un petit {@link VersionedRDFHexaStore}
+ * modifiable (le delta) devant un {@link FrozenRDFHexaStore} compressé et immuable
+ * (le principal).
+ * <p>
+ * Les ajouts vont dans le delta. Quand il atteint son seuil, il est figé et un
+ * thread d'arrière-plan le fusionne avec le principal en un nouveau store figé,
+ * pendant qu'un delta vide reçoit les ajouts suivants. Les requêtes parcourent les
+ * niveaux présents, dont les contenus sont disjoints (un triplet n'est ajouté au
+ * delta que s'il n'est dans aucun niveau). Le seuil grandit avec le principal pour
+ * que le coût total des fusions reste linéaire.
+ * <p>
+ * Un écrivain peut ajouter des triplets pendant que d'autres threads interrogent
+ * le store. Chaque requête (motif ou étoile) lit les niveaux présents à son début et
+ * le delta actif à l'époque publiée à cet instant ; les ajouts suivants ne lui sont
+ * pas visibles.
+ * Tous les niveaux partagent le dictionnaire, qui doit alors supporter les accès
+ * concurrents ({@link ConcurrentRDFDictionary} par défaut) ; la fusion ne manipule
+ * que des identifiants et ne le consulte jamais.
+ * <p>
+ * Une fusion qui échoue laisse le delta figé en place, toujours interrogé ; elle
+ * est relancée au prochain dépassement du seuil ou par {@link #flush()}, qui
+ * signale l'échec s'il se reproduit. {@link #close()} arrête le thread de fusion.
+ */
+public class TieredRDFHexaStore implements EncodedRDFStorage, AutoCloseable {
+    private static final int DEFAULT_DELTA_THRESHOLD = 100_000;
+    // Le delta peut atteindre 1/MAIN_RATIO du principal avant d'être fusionné
+    private static final int MAIN_RATIO = 8;
+
+    private final TermDictionary dict;
+    private final TermCache terms;
+    private final int deltaThreshold;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hexastore-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Niveaux courants, remplacés en bloc sous le verrou de l'instance
+    private volatile Tiers tiers;
+    // Taille du delta actif, lue et modifiée sous le verrou de l'instance
+    private int deltaSize;
+    private Future<?> compaction;
+
+    /**
+     * Crée un store vide utilisant un {@link ConcurrentRDFDictionary}, fusionné tous les 100 000 ajouts au moins.
+     */
+    public TieredRDFHexaStore() {
+        this(new ConcurrentRDFDictionary(), DEFAULT_DELTA_THRESHOLD);
+    }
+
+    /**
+     * Crée un store vide.
+     *
+     * @param dict           le dictionnaire servant à encoder les termes, qui doit supporter
+     *                       les accès concurrents si des requêtes accompagnent les ajouts
+     * @param deltaThreshold taille minimale du delta déclenchant une fusion
+     * @throws IllegalArgumentException si le seuil n'est pas strictement positif
+     */
+    public TieredRDFHexaStore(TermDictionary dict, int deltaThreshold) {
+        if (deltaThreshold <= 0) {
+            throw new IllegalArgumentException("Le seuil du delta doit être positif: " + deltaThreshold);
+        }
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+        this.terms = new TermCache(dict);
+        this.deltaThreshold = deltaThreshold;
+        this.tiers = new Tiers(new FrozenRDFHexaStore(dict, new int[0], 0, true), null, 0, new VersionedRDFHexaStore(dict));
+    }
+
+    /**
+     * Niveaux du store : principal, delta figé en cours de fusion (ou null) et sa taille, delta actif.
+     */
+    private record Tiers(FrozenRDFHexaStore main, VersionedRDFHexaStore flushing, int flushingSize,
+                         VersionedRDFHexaStore delta) {
+        /**
+         * @return les niveaux à interroger, le delta actif étant lu à sa dernière époque publiée
+         */
+        List<EncodedRDFStorage> read() {
+            EncodedRDFStorage active = delta.snapshot();
+            return flushing == null ? List.of(main, active) : List.of(main, flushing, active);
+        }
+    }
+
+    @Override
+    public synchronized boolean add(RDFTriple triple) {
+        Tiers current = tiers;
+        int s = dict.encode(triple.getTripleSubject().toString());
+        int p = dict.encode(triple.getTriplePredicate().toString());
+        int o = dict.encode(triple.getTripleObject().toString());
+        if (current.main.howManyIds(s, p, o) > 0
+                || (current.flushing != null && current.flushing.howManyIds(s, p, o) > 0)
+                || !current.delta.add(s, p, o)) {
+            return false;
+        }
+        deltaSize++;
+        if ((current.flushing == null || failed(compaction))
+                && deltaSize >= Math.max(deltaThreshold, current.main.size() / MAIN_RATIO)) {
+            startCompaction();
+        }
+        return true;
+    }
+
+    private static boolean failed(Future<?> compaction) {
+        return compaction != null && compaction.state() == Future.State.FAILED;
+    }
+
+    /**
+     * Lance en arrière-plan la fusion du delta figé avec le principal. Sans delta figé
+     * (aucune fusion précédente en échec), le delta actif est d'abord figé. Ne fait
+     * rien une fois le store fermé.
+     */
+    private synchronized void startCompaction() {
+        if (compactor.isShutdown()) {
+            return;
+        }
+        Tiers current = tiers;
+        if (current.flushing == null) {
+            current = new Tiers(current.main, current.delta, deltaSize, new VersionedRDFHexaStore(dict));
+            tiers = current;
+            deltaSize = 0;
+        }
+        Tiers frozen = current;
+        try {
+            compaction = compactor.submit(() -> {
+                FrozenRDFHexaStore merged = merge(frozen.main, frozen.flushing, frozen.flushingSize);
+                synchronized (this) {
+                    tiers = new Tiers(merged, null, 0, tiers.delta);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Fermeture concurrente : le delta figé reste interrogé
+        }
+    }
+
+    private FrozenRDFHexaStore merge(FrozenRDFHexaStore main, VersionedRDFHexaStore delta, int deltaSize) {
+        long total = main.size() + deltaSize;
+        if (total > Integer.MAX_VALUE / 3) {
+            throw new IllegalStateException("Trop de triplets pour un store figé: " + total);
+        }
+        int[] triples = new int[3 * (int) total];
+        int[] n = {0};
+        TripleIdConsumer collect = (s, p, o) -> {
+            triples[3 * n[0]] = s;
+            triples[3 * n[0] + 1] = p;
+            triples[3 * n[0] + 2] = o;
+            n[0]++;
+        };
+        main.forEachMatch(ANY, ANY, ANY, collect);
+        delta.forEachMatch(ANY, ANY, ANY, collect);
+        return new FrozenRDFHexaStore(dict, triples, n[0], true);
+    }
+
+    /**
+     * Fusionne tout le delta dans le principal et attend la fin de la fusion. Une
+     * fusion précédente en échec est relancée une fois.
+     *
+     * @throws IllegalStateException si la fusion échoue de nouveau, ou si le store est
+     *                               fermé alors qu'il reste un delta à fusionner
+     */
+    public void flush() {
+        boolean retried = false;
+        while (true) {
+            Future<?> pending;
+            synchronized (this) {
+                pending = compaction;
+                if (pending == null || pending.isDone()) {
+                    if (failed(pending)) {
+                        if (retried) {
+                            throw new IllegalStateException("Échec de la fusion du delta", pending.exceptionNow());
+                        }
+                        retried = true;
+                    }
+                    if (tiers.flushing == null && deltaSize == 0) {
+                        return;
+                    }
+                    if (compactor.isShutdown()) {
+                        throw new IllegalStateException("Le store est fermé, le delta ne peut plus être fusionné");
+                    }
+                    startCompaction();
+                    pending = compaction;
+                }
+            }
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Attente de la fusion interrompue", e);
+            } catch (ExecutionException e) {
+                // Examiné au tour suivant
+            }
+        }
+    }
+
+    /**
+     * Arrête le thread de fusion une fois la fusion en cours terminée. Le store reste
+     * interrogeable ; les ajouts suivants restent dans le delta.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+    }
+
+    /**
+     * Retourne le nombre de triplets encore hors du principal (delta actif et delta en cours de fusion).
+     *
+     * @return la taille des deltas
+     */
+    public synchronized long deltaSize() {
+        return deltaSize + tiers.flushingSize;
+    }
+
+    @Override
+    public synchronized long size() {
+        return tiers.main.size() + deltaSize();
+    }
+
+    @Override
+    public TermDictionary getDictionary() {
+        return dict;
+    }
+
+    @Override
+    public Term decodeTerm(int id) {
+        return terms.get(id);
+    }
+
+    @Override
+    public void forEachMatch(int s, int p, int o, TripleIdConsumer action) {
+        view().forEachMatch(s, p, o, action);
+    }
+
+    @Override
+    public TripleIdCursor cursor(int s, int p, int o) {
+        return view().cursor(s, p, o);
+    }
+
+    @Override
+    public long howManyIds(int s, int p, int o) {
+        return view().howManyIds(s, p, o);
+    }
+
+    @Override
+    public Iterator<Substitution> match(StarQuery q) {
+        return view().match(q);
+    }
+
+    @Override
+    public Iterator<Substitution> match(StarQuery q, long limit) {
+        return view().match(q, limit);
+    }
+
+    @Override
+    public Collection<RDFTriple> getAtoms() {
+        return view().getAtoms();
+    }
+
+    private View view() {
+        return new View(tiers.read());
+    }
+
+    /**
+     * Vue en lecture seule des niveaux présents à sa création : une requête en étoile
+     * évaluée dessus voit le même état pour tous ses motifs.
+     */
+    private final class View implements EncodedRDFStorage {
+        private final List<EncodedRDFStorage> levels;
+
+        private View(List<EncodedRDFStorage> levels) {
+            this.levels = levels;
+        }
+
+        @Override
+        public boolean add(RDFTriple t) {
+            throw new UnsupportedOperationException("Une vue est en lecture seule.");
+        }
+
+        @Override
+        public long size() {
+            long size = 0;
+            for (EncodedRDFStorage level : levels) {
+                size += level.size();
+            }
+            return size;
+        }
+
+        @Override
+        public TermDictionary getDictionary() {
+            return dict;
+        }
+
+        @Override
+        public Term decodeTerm(int id) {
+            return terms.get(id);
+        }
+
+        @Override
+        public void forEachMatch(int s, int p, int o, TripleIdConsumer action) {
+            for (EncodedRDFStorage level : levels) {
+                level.forEachMatch(s, p, o, action);
+            }
+        }
+
+        @Override
+        public TripleIdCursor cursor(int s, int p, int o) {
+            Iterator<EncodedRDFStorage> remaining = levels.iterator();
+            return new TripleIdCursor() {
+                private TripleIdCursor current = remaining.next().cursor(s, p, o);
+
+                @Override
+                public boolean advance() {
+                    while (!current.advance()) {
+                        if (!remaining.hasNext()) {
+                            return false;
+                        }
+                        current = remaining.next().cursor(s, p, o);
+                    }
+                    return true;
+                }
+
+                @Override
+                public int s() {
+                    return current.s();
+                }
+
+                @Override
+                public int p() {
+                    return current.p();
+                }
+
+                @Override
+                public int o() {
+                    return current.o();
+                }
+            };
+        }
+
+        @Override
+        public long howManyIds(int s, int p, int o) {
+            long count = 0;
+            for (EncodedRDFStorage level : levels) {
+                count += level.howManyIds(s, p, o);
+            }
+            return count;
+        }
+
+        @Override
+        public Collection<RDFTriple> getAtoms() {
+            Collection<RDFTriple> res = new ArrayList<>();
+            forEachMatch(ANY, ANY, ANY, (s, p, o) -> res.add(new RDFTriple(terms.get(s), terms.get(p), terms.get(o))));
+            return res;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package qengine.storage;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tri de triplets encodés rangés à plat dans un {@code int[]} (trois cases par
+ * triplet), par ordre lexicographique sur les trois identifiants.
+ * <p>
+ * Tri fusion ascendant avec un tampon de même taille : stable, sans objet
+ * par triplet, et sans comparateur générique. {@link #parallelSort(int[], int)}
+ * découpe le tableau en fork-join et trie les morceaux sur plusieurs cœurs.
+ */
+final class TripleSorter {
+    // Sous ce nombre de triplets, tri par insertion
+    private static final int INSERTION_THRESHOLD = 24;
+    // Sous ce nombre de triplets, une tâche fork-join trie sa plage séquentiellement
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private TripleSorter() {
+    }
+
+    /**
+     * Trie les {@code n} premiers triplets du tableau.
+     *
+     * @param triples les triplets, trois cases par triplet
+     * @param n       le nombre de triplets
+     */
+    static void sort(int[] triples, int n) {
+        sort(triples, new int[3 * n], 0, n);
+    }
+
+    /**
+     * Trie les {@code n} premiers triplets du tableau sur le pool fork-join commun.
+     *
+     * @param triples les triplets, trois cases par triplet
+     * @param n       le nombre de triplets
+     */
+    static void parallelSort(int[] triples, int n) {
+        parallelSort(triples, n, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Trie les {@code n} premiers triplets du tableau sur le pool donné.
+     */
+    static void parallelSort(int[] triples, int n, ForkJoinPool pool) {
+        if (n <= PARALLEL_THRESHOLD || pool.getParallelism() <= 1) {
+            sort(triples, n);
+        } else {
+            pool.invoke(new SortTask(triples, new int[3 * n], 0, n));
+        }
+    }
+
+    /**
+     * Trie une plage : les deux moitiés en parallèle, puis fusion dans le tampon
+     * et recopie.
+     */
+    @SuppressWarnings("serial") // Tâche de fork/join, jamais sérialisée
+    private static final class SortTask extends RecursiveAction {
+        private final int[] triples;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+
+        SortTask(int[] triples, int[] buffer, int from, int to) {
+            this.triples = triples;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                sort(triples, buffer, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(triples, buffer, from, mid), new SortTask(triples, buffer, mid, to));
+            merge(triples, buffer, from, mid, to);
+            System.arraycopy(buffer, 3 * from, triples, 3 * from, 3 * (to - from));
+        }
+    }
+
+    /**
+     * Trie les triplets {@code [from, to)} en se servant de {@code buffer}
+     * (au moins de la même taille que la plage triée, aux mêmes positions).
+     */
+    static void sort(int[] triples, int[] buffer, int from, int to) {
+        for (int start = from; start < to; start += INSERTION_THRESHOLD) {
+            insertionSort(triples, start, Math.min(to, start + INSERTION_THRESHOLD));
+        }
+        int[] src = triples;
+        int[] dst = buffer;
+        for (int width = INSERTION_THRESHOLD; width < to - from; width *= 2) {
+            for (int left = from; left < to; left += 2 * width) {
+                int mid = Math.min(to, left + width);
+                int right = Math.min(to, left + 2 * width);
+                merge(src, dst, left, mid, right);
+            }
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != triples) {
+            System.arraycopy(src, 3 * from, triples, 3 * from, 3 * (to - from));
+        }
+    }
+
+    /**
+     * Fusionne les plages triées {@code [left, mid)} et {@code [mid, right)} de
+     * {@code src} dans {@code dst}, aux mêmes positions.
+     */
+    static void merge(int[] src, int[] dst, int left, int mid, int right) {
+        int i = left;
+        int j = mid;
+        int k = 3 * left;
+        while (i < mid && j < right) {
+            int from = compare(src, i, src, j) <= 0 ? i++ : j++;
+            dst[k++] = src[3 * from];
+            dst[k++] = src[3 * from + 1];
+            dst[k++] = src[3 * from + 2];
+        }
+        if (i < mid) {
+            System.arraycopy(src, 3 * i, dst, k, 3 * (mid - i));
+        } else if (j < right) {
+            System.arraycopy(src, 3 * j, dst, k, 3 * (right - j));
+        }
+    }
+
+    private static void insertionSort(int[] t, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int a = t[3 * i], b = t[3 * i + 1], c = t[3 * i + 2];
+            int j = i - 1;
+            while (j >= from && compare(t[3 * j], t[3 * j + 1], t[3 * j + 2], a, b, c) > 0) {
+                t[3 * j + 3] = t[3 * j];
+                t[3 * j + 4] = t[3 * j + 1];
+                t[3 * j + 5] = t[3 * j + 2];
+                j--;
+            }
+            t[3 * j + 3] = a;
+            t[3 * j + 4] = b;
+            t[3 * j + 5] = c;
+        }
+    }
+
+    static int compare(int[] t1, int i, int[] t2, int j) {
+        return compare(t1[3 * i], t1[3 * i + 1], t1[3 * i + 2], t2[3 * j], t2[3 * j + 1], t2[3 * j + 2]);
+    }
+
+    private static int compare(int a1, int b1, int c1, int a2, int b2, int c2) {
+        if (a1 != a2) {
+            return Integer.compare(a1, a2);
+        }
+        if (b1 != b2) {
+            return Integer.compare(b1, b2);
+        }
+        return Integer.compare(c1, c2);
+    }
+}
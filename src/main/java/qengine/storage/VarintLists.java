@@ -0,0 +1,218 @@
+package qengine.storage;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Listes triées d'identifiants compressées par différences et entiers de longueur
+ * variable (varint), mises bout à bout dans un seul {@code byte[]}.
+ * <p>
+ * Chaque liste commence par sa première valeur en zigzag (les identifiants en ligne
+ * sont négatifs), suivie pour chaque valeur suivante de l'écart au précédent moins 1,
+ * non signé. Un octet porte 7 bits de valeur, le bit de poids fort indiquant que
+ * l'entier continue ; les identifiants proches tiennent donc sur un ou deux octets
+ * au lieu de quatre. Le décodage est un parcours séquentiel de la liste.
+ * <p>
+ * Le nombre de valeurs de chaque liste est donné par le tableau de positions de
+ * l'index, partagé ; seule une position d'octet toutes les 16 listes est conservée,
+ * les listes intermédiaires étant sautées en comptant les octets de fin de varint.
+ */
+final class VarintLists {
+    // Une position de départ est conservée toutes les 2^CHECKPOINT_BITS listes
+    private static final int CHECKPOINT_BITS = 4;
+
+    private final byte[] data;
+    // Début de chaque liste dans les valeurs d'origine, plus la fin de la dernière
+    private final int[] offsets;
+    // Position dans data de la liste j << CHECKPOINT_BITS
+    private final int[] checkpoints;
+
+    /**
+     * Compresse les listes {@code values[offsets[j] .. offsets[j+1])}, chacune
+     * strictement croissante.
+     *
+     * @param values  les valeurs de toutes les listes, à la suite
+     * @param offsets début de chaque liste dans {@code values}, plus la fin de la dernière ;
+     *                le tableau est conservé et ne doit plus être modifié
+     */
+    VarintLists(int[] values, int[] offsets) {
+        int lists = offsets.length - 1;
+        this.offsets = offsets;
+        this.checkpoints = new int[(lists >>> CHECKPOINT_BITS) + 1];
+        long total = 0;
+        for (int j = 0; j < lists; j++) {
+            if ((j & ((1 << CHECKPOINT_BITS) - 1)) == 0) {
+                checkpoints[j >>> CHECKPOINT_BITS] = (int) total;
+            }
+            for (int k = offsets[j]; k < offsets[j + 1]; k++) {
+                total += length(encoded(values, offsets[j], k));
+            }
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Listes trop grandes pour être compressées");
+            }
+        }
+
+        data = new byte[(int) total];
+        int pos = 0;
+        for (int j = 0; j < lists; j++) {
+            for (int k = offsets[j]; k < offsets[j + 1]; k++) {
+                pos = write(encoded(values, offsets[j], k), pos);
+            }
+        }
+    }
+
+    /**
+     * Parcourt la liste {@code j} dans l'ordre croissant.
+     */
+    void forEach(int j, IntConsumer action) {
+        forEach(j, seek(j), action);
+    }
+
+    /**
+     * Parcourt la liste {@code j}, qui commence à la position {@code pos} de
+     * {@link #seek(int)}, et retourne la position de la liste suivante : les listes
+     * consécutives se parcourent ainsi sans revenir au point de reprise.
+     */
+    int forEach(int j, int pos, IntConsumer action) {
+        int count = offsets[j + 1] - offsets[j];
+        if (count == 0) {
+            return pos;
+        }
+        int raw = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos++];
+            raw |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        int value = (raw >>> 1) ^ -(raw & 1);
+        action.accept(value);
+        for (int k = 1; k < count; k++) {
+            b = data[pos++];
+            raw = b & 0x7F;
+            for (shift = 7; b < 0; shift += 7) {
+                b = data[pos++];
+                raw |= (b & 0x7F) << shift;
+            }
+            value += raw + 1;
+            action.accept(value);
+        }
+        return pos;
+    }
+
+    /**
+     * @return un lecteur placé au début de la liste {@code j}
+     */
+    Reader reader(int j) {
+        return new Reader(j);
+    }
+
+    /**
+     * Lecture pas à pas des valeurs, de la liste {@code j} aux suivantes, pour les
+     * parcours que l'appelant peut interrompre.
+     */
+    final class Reader {
+        private int list;
+        private int k;
+        private int pos;
+        private int value;
+
+        private Reader(int j) {
+            list = j;
+            k = offsets[j];
+            pos = seek(j);
+        }
+
+        /**
+         * @return la valeur suivante, en passant à la liste suivante à la fin de la
+         *         courante ; l'appelant compte les valeurs restantes
+         */
+        int next() {
+            while (k == offsets[list + 1]) {
+                list++;
+            }
+            int raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                raw |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value = k == offsets[list] ? (raw >>> 1) ^ -(raw & 1) : value + raw + 1;
+            k++;
+            return value;
+        }
+    }
+
+    /**
+     * @return vrai si la liste {@code j} contient la valeur
+     */
+    boolean contains(int j, int key) {
+        int pos = seek(j);
+        int value = 0;
+        for (int k = offsets[j]; k < offsets[j + 1]; k++) {
+            int raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                raw |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value = k == offsets[j] ? (raw >>> 1) ^ -(raw & 1) : value + raw + 1;
+            if (value >= key) {
+                return value == key;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return le nombre d'octets occupés par les données et les points de reprise
+     */
+    long bytes() {
+        return data.length + 4L * checkpoints.length;
+    }
+
+    /**
+     * Position du début de la liste {@code j} : on part du point de reprise
+     * précédent et on saute les valeurs des listes intermédiaires (un octet de fin
+     * par valeur).
+     */
+    int seek(int j) {
+        int first = j & -(1 << CHECKPOINT_BITS);
+        int pos = checkpoints[j >>> CHECKPOINT_BITS];
+        for (int skip = offsets[j] - offsets[first]; skip > 0; pos++) {
+            if (data[pos] >= 0) {
+                skip--;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Entier écrit pour {@code values[k]} dans la liste commençant en {@code start}.
+     */
+    private static int encoded(int[] values, int start, int k) {
+        return k == start ? zigzag(values[k]) : values[k] - values[k - 1] - 1;
+    }
+
+    private int write(int value, int pos) {
+        while ((value & ~0x7F) != 0) {
+            data[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int length(int value) {
+        int bits = 32 - Integer.numberOfLeadingZeros(value);
+        return Math.max(1, (bits + 6) / 7);
+    }
+}
@@ -0,0 +1,465 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Term;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HexaStore multi-versions : un écrivain ajoute des triplets pendant que des lecteurs
+ * interrogent, sans verrou, une vue cohérente du store.
+ * <p>
+ * Chaque triplet reçoit à l'ajout un numéro de séquence et est rangé dans un journal
+ * en ajout seul. Les six clés S, P, O, SP, SO et PO mènent à des feuilles versionnées :
+ * la liste croissante des numéros des triplets portant la clé, elle aussi en ajout
+ * seul. Une fois le triplet inscrit dans toutes ses feuilles, l'écrivain publie
+ * l'époque (le nombre de triplets visibles) par une écriture volatile.
+ * <p>
+ * Un {@link Snapshot} n'est que cette époque : ses requêtes ignorent les numéros
+ * qui la dépassent. Les statistiques de sélectivité à une époque s'obtiennent par
+ * recherche dichotomique dans la feuille. Les requêtes posées directement au store
+ * lisent la dernière époque publiée ; une requête en étoile est évaluée sur un seul
+ * instantané.
+ * <p>
+ * Les lecteurs décodent les termes pendant que l'écrivain en encode : le
+ * dictionnaire doit supporter les accès concurrents ({@link ConcurrentRDFDictionary}
+ * par défaut). Les ajouts concurrents sont sérialisés.
+ */
+public class VersionedRDFHexaStore implements EncodedRDFStorage {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final TermDictionary dict;
+    private final TermCache terms;
+
+    // Journal des triplets : trois cases par triplet, par blocs de CHUNK_SIZE triplets
+    private volatile int[][] chunks = new int[16][];
+    // Époque publiée : les triplets de numéro inférieur sont visibles dans toutes les feuilles
+    private volatile int committed;
+
+    private final Map<IdTriple, Integer> triples = new ConcurrentHashMap<>();
+    private final Map<Integer, Leaf> bySubject = new ConcurrentHashMap<>();
+    private final Map<Integer, Leaf> byPredicate = new ConcurrentHashMap<>();
+    private final Map<Integer, Leaf> byObject = new ConcurrentHashMap<>();
+    private final Map<Long, Leaf> bySubjectPredicate = new ConcurrentHashMap<>();
+    private final Map<Long, Leaf> bySubjectObject = new ConcurrentHashMap<>();
+    private final Map<Long, Leaf> byPredicateObject = new ConcurrentHashMap<>();
+
+    /**
+     * Crée un store vide utilisant un {@link ConcurrentRDFDictionary}.
+     */
+    public VersionedRDFHexaStore() {
+        this(new ConcurrentRDFDictionary());
+    }
+
+    /**
+     * Crée un store vide utilisant le dictionnaire fourni, qui doit supporter les accès concurrents.
+     *
+     * @param dict le dictionnaire servant à encoder les termes
+     */
+    public VersionedRDFHexaStore(TermDictionary dict) {
+        this.dict = Objects.requireNonNull(dict, "Le dictionnaire ne peut pas être null.");
+        this.terms = new TermCache(dict);
+    }
+
+    private record IdTriple(int s, int p, int o) {
+    }
+
+    @Override
+    public boolean add(RDFTriple triple) {
+        int s = dict.encode(triple.getTripleSubject().toString());
+        int p = dict.encode(triple.getTriplePredicate().toString());
+        int o = dict.encode(triple.getTripleObject().toString());
+        return add(s, p, o);
+    }
+
+    /**
+     * Ajoute un triplet déjà encodé avec le dictionnaire du store.
+     *
+     * @return vrai si le triplet a été ajouté, faux s'il était déjà présent
+     */
+    synchronized boolean add(int s, int p, int o) {
+        IdTriple key = new IdTriple(s, p, o);
+        if (triples.containsKey(key)) {
+            return false;
+        }
+        int seq = committed;
+        if (seq == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Trop de triplets pour le store versionné");
+        }
+
+        int[][] table = chunks;
+        int chunk = seq >>> CHUNK_BITS;
+        if (chunk == table.length) {
+            table = Arrays.copyOf(table, 2 * table.length);
+            chunks = table;
+        }
+        if (table[chunk] == null) {
+            table[chunk] = new int[3 * CHUNK_SIZE];
+        }
+        int base = 3 * (seq & CHUNK_MASK);
+        table[chunk][base] = s;
+        table[chunk][base + 1] = p;
+        table[chunk][base + 2] = o;
+
+        triples.put(key, seq);
+        leaf(bySubject, s).append(seq);
+        leaf(byPredicate, p).append(seq);
+        leaf(byObject, o).append(seq);
+        leaf(bySubjectPredicate, pair(s, p)).append(seq);
+        leaf(bySubjectObject, pair(s, o)).append(seq);
+        leaf(byPredicateObject, pair(p, o)).append(seq);
+
+        // Publication : tout ce qui précède devient visible aux lecteurs de la nouvelle époque
+        committed = seq + 1;
+        return true;
+    }
+
+    private static <K> Leaf leaf(Map<K, Leaf> index, K key) {
+        return index.computeIfAbsent(key, k -> new Leaf());
+    }
+
+    private static long pair(int k1, int k2) {
+        return ((long) k1 << 32) | (k2 & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Retourne un instantané du store à la dernière époque publiée ; il ne voit
+     * aucun des ajouts suivants.
+     *
+     * @return une vue en lecture seule, utilisable sans verrou par n'importe quel thread
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(committed);
+    }
+
+    @Override
+    public long size() {
+        return committed;
+    }
+
+    @Override
+    public TermDictionary getDictionary() {
+        return dict;
+    }
+
+    @Override
+    public Term decodeTerm(int id) {
+        return terms.get(id);
+    }
+
+    @Override
+    public void forEachMatch(int s, int p, int o, TripleIdConsumer action) {
+        forEachMatch(committed, s, p, o, action);
+    }
+
+    @Override
+    public long howManyIds(int s, int p, int o) {
+        return howManyIds(committed, s, p, o);
+    }
+
+    @Override
+    public TripleIdCursor cursor(int s, int p, int o) {
+        return snapshot().cursor(s, p, o);
+    }
+
+    @Override
+    public Iterator<Substitution> match(StarQuery q) {
+        return snapshot().match(q);
+    }
+
+    @Override
+    public Iterator<Substitution> match(StarQuery q, long limit) {
+        return snapshot().match(q, limit);
+    }
+
+    @Override
+    public Collection<RDFTriple> getAtoms() {
+        return snapshot().getAtoms();
+    }
+
+    private void forEachMatch(int epoch, int s, int p, int o, TripleIdConsumer action) {
+        boolean sVar = s == ANY;
+        boolean pVar = p == ANY;
+        boolean oVar = o == ANY;
+
+        if (!sVar && !pVar && !oVar) { // (s, p, o)
+            if (contains(epoch, s, p, o)) {
+                action.accept(s, p, o);
+            }
+        } else if (!sVar && !pVar) { // (s, p, ?o)
+            walk(epoch, bySubjectPredicate.get(pair(s, p)), action);
+        } else if (!sVar && !oVar) { // (s, ?p, o)
+            walk(epoch, bySubjectObject.get(pair(s, o)), action);
+        } else if (!pVar && !oVar) { // (?s, p, o)
+            walk(epoch, byPredicateObject.get(pair(p, o)), action);
+        } else if (!sVar) { // (s, ?p, ?o)
+            walk(epoch, bySubject.get(s), action);
+        } else if (!pVar) { // (?s, p, ?o)
+            walk(epoch, byPredicate.get(p), action);
+        } else if (!oVar) { // (?s, ?p, o)
+            walk(epoch, byObject.get(o), action);
+        } else { // (?s, ?p, ?o) - whole log up to the epoch
+            int[][] table = chunks;
+            for (int seq = 0; seq < epoch; seq++) {
+                emit(table, seq, action);
+            }
+        }
+    }
+
+    /**
+     * Curseur sur les triplets visibles à l'époque donnée, pour un motif ayant au moins une variable.
+     */
+    private TripleIdCursor cursor(int epoch, int s, int p, int o) {
+        boolean sVar = s == ANY;
+        boolean pVar = p == ANY;
+        boolean oVar = o == ANY;
+
+        if (!sVar && !pVar) { // (s, p, ?o)
+            return new LeafCursor(epoch, bySubjectPredicate.get(pair(s, p)));
+        } else if (!sVar && !oVar) { // (s, ?p, o)
+            return new LeafCursor(epoch, bySubjectObject.get(pair(s, o)));
+        } else if (!pVar && !oVar) { // (?s, p, o)
+            return new LeafCursor(epoch, byPredicateObject.get(pair(p, o)));
+        } else if (!sVar) { // (s, ?p, ?o)
+            return new LeafCursor(epoch, bySubject.get(s));
+        } else if (!pVar) { // (?s, p, ?o)
+            return new LeafCursor(epoch, byPredicate.get(p));
+        } else if (!oVar) { // (?s, ?p, o)
+            return new LeafCursor(epoch, byObject.get(o));
+        }
+        return new LeafCursor(epoch); // (?s, ?p, ?o) - whole log up to the epoch
+    }
+
+    /**
+     * Curseur sur les triplets d'une feuille visibles à une époque, ou sur tout le
+     * journal jusqu'à elle, un triplet par avancée.
+     */
+    private final class LeafCursor implements TripleIdCursor {
+        // Numéros de la feuille, null pour un parcours du journal
+        private final int[] seqs;
+        private final int n;
+        // Journal relu après l'époque : il contient au moins les triplets qu'elle rend visibles
+        private final int[][] table;
+        private int i;
+        private int[] chunk;
+        private int base;
+
+        /**
+         * Curseur sur tout le journal jusqu'à l'époque.
+         */
+        LeafCursor(int epoch) {
+            this.seqs = null;
+            this.n = epoch;
+            this.table = chunks;
+        }
+
+        /**
+         * Curseur sur une feuille, vide si elle n'existe pas.
+         */
+        LeafCursor(int epoch, Leaf leaf) {
+            // Taille lue avant le tableau, qui contient donc ces numéros
+            this.n = leaf == null ? 0 : leaf.count(epoch);
+            this.seqs = leaf == null ? null : leaf.seqs;
+            this.table = chunks;
+        }
+
+        @Override
+        public boolean advance() {
+            if (i == n) {
+                return false;
+            }
+            int seq = seqs == null ? i : seqs[i];
+            i++;
+            chunk = table[seq >>> CHUNK_BITS];
+            base = 3 * (seq & CHUNK_MASK);
+            return true;
+        }
+
+        @Override
+        public int s() {
+            return chunk[base];
+        }
+
+        @Override
+        public int p() {
+            return chunk[base + 1];
+        }
+
+        @Override
+        public int o() {
+            return chunk[base + 2];
+        }
+    }
+
+    /**
+     * Parcourt les triplets d'une feuille visibles à l'époque donnée.
+     */
+    private void walk(int epoch, Leaf leaf, TripleIdConsumer action) {
+        if (leaf == null) {
+            return;
+        }
+        int n = leaf.count(epoch);
+        int[] seqs = leaf.seqs;
+        // Journal relu après l'époque : il contient au moins les triplets qu'elle rend visibles
+        int[][] table = chunks;
+        for (int i = 0; i < n; i++) {
+            emit(table, seqs[i], action);
+        }
+    }
+
+    private static void emit(int[][] table, int seq, TripleIdConsumer action) {
+        int[] chunk = table[seq >>> CHUNK_BITS];
+        int base = 3 * (seq & CHUNK_MASK);
+        action.accept(chunk[base], chunk[base + 1], chunk[base + 2]);
+    }
+
+    private boolean contains(int epoch, int s, int p, int o) {
+        Integer seq = triples.get(new IdTriple(s, p, o));
+        return seq != null && seq < epoch;
+    }
+
+    private long howManyIds(int epoch, int s, int p, int o) {
+        boolean vs = s == ANY;
+        boolean vp = p == ANY;
+        boolean vo = o == ANY;
+
+        if (!vs && !vp && !vo) {
+            return contains(epoch, s, p, o) ? 1 : 0;
+        }
+        if (vs && !vp && !vo) { // (?s, p, o)
+            return count(epoch, byPredicateObject.get(pair(p, o)));
+        }
+        if (!vs && vp && !vo) { // (s, ?p, o)
+            return count(epoch, bySubjectObject.get(pair(s, o)));
+        }
+        if (!vs && !vp) { // (s, p, ?o)
+            return count(epoch, bySubjectPredicate.get(pair(s, p)));
+        }
+        if (vs && vp && !vo) { // (?s, ?p, o)
+            return count(epoch, byObject.get(o));
+        }
+        if (vs && !vp) { // (?s, p, ?o)
+            return count(epoch, byPredicate.get(p));
+        }
+        if (!vs) { // (s, ?p, ?o)
+            return count(epoch, bySubject.get(s));
+        }
+        return epoch;
+    }
+
+    private static int count(int epoch, Leaf leaf) {
+        return leaf == null ? 0 : leaf.count(epoch);
+    }
+
+    /**
+     * Feuille versionnée : numéros de séquence croissants, en ajout seul par l'écrivain.
+     * Un lecteur lit la taille puis le tableau ; un tableau agrandi est publié avant
+     * la taille qui le dépasse et contient une copie des numéros précédents.
+     */
+    private static final class Leaf {
+        private volatile int[] seqs = new int[2];
+        private volatile int size;
+
+        void append(int seq) {
+            int n = size;
+            int[] values = seqs;
+            if (n == values.length) {
+                values = Arrays.copyOf(values, 2 * n);
+                seqs = values;
+            }
+            values[n] = seq;
+            size = n + 1;
+        }
+
+        /**
+         * @return le nombre de numéros inférieurs à {@code epoch}, qui sont en tête de feuille
+         */
+        int count(int epoch) {
+            int n = size;
+            int[] values = seqs;
+            if (n == 0 || values[n - 1] < epoch) {
+                return n;
+            }
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < epoch) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * Vue en lecture seule du store à une époque : le nombre de triplets visibles
+     * est fixé, et toutes ses requêtes (motifs, statistiques, étoiles) voient le même état.
+     */
+    public final class Snapshot implements EncodedRDFStorage {
+        private final int epoch;
+
+        private Snapshot(int epoch) {
+            this.epoch = epoch;
+        }
+
+        /**
+         * @return l'époque de l'instantané, c'est-à-dire le nombre de triplets qu'il contient
+         */
+        public int epoch() {
+            return epoch;
+        }
+
+        @Override
+        public boolean add(RDFTriple t) {
+            throw new UnsupportedOperationException("Un instantané est en lecture seule.");
+        }
+
+        @Override
+        public long size() {
+            return epoch;
+        }
+
+        @Override
+        public TermDictionary getDictionary() {
+            return dict;
+        }
+
+        @Override
+        public Term decodeTerm(int id) {
+            return terms.get(id);
+        }
+
+        @Override
+        public void forEachMatch(int s, int p, int o, TripleIdConsumer action) {
+            VersionedRDFHexaStore.this.forEachMatch(epoch, s, p, o, action);
+        }
+
+        @Override
+        public long howManyIds(int s, int p, int o) {
+            return VersionedRDFHexaStore.this.howManyIds(epoch, s, p, o);
+        }
+
+        @Override
+        public TripleIdCursor cursor(int s, int p, int o) {
+            if (s != ANY && p != ANY && o != ANY) { // (s, p, o) - at most one triple
+                return EncodedRDFStorage.super.cursor(s, p, o);
+            }
+            return VersionedRDFHexaStore.this.cursor(epoch, s, p, o);
+        }
+
+        @Override
+        public Collection<RDFTriple> getAtoms() {
+            Collection<RDFTriple> res = new ArrayList<>();
+            forEachMatch(ANY, ANY, ANY, (s, p, o) -> res.add(new RDFTriple(terms.get(s), terms.get(p), terms.get(o))));
+            return res;
+        }
+    }
+}
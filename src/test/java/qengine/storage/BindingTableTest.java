@@ -0,0 +1,76 @@
+package qengine.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link BindingTable}.
+ */
+class BindingTableTest {
+    private static final int ANY = EncodedRDFStorage.ANY;
+
+    @Test
+    public void testBindAndRepeatedVariable() {
+        BindingTable table = new BindingTable(3);
+        int row = table.addEmpty();
+        assertEquals(ANY, table.get(row, 1));
+        assertTrue(table.bind(row, 0, 7));
+        assertTrue(table.bind(row, -1, 9), "A constant position binds nothing.");
+        assertTrue(table.bind(row, 0, 7));
+        assertFalse(table.bind(row, 0, 8));
+        table.removeLast();
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    public void testGrowsAndMerges() {
+        BindingTable left = new BindingTable(3);
+        BindingTable right = new BindingTable(3);
+        for (int i = 0; i < 100; i++) {
+            left.add(new int[]{i, ANY, ANY});
+            right.add(new int[]{i, i % 2 == 0 ? ANY : i, 2 * i});
+        }
+        assertEquals(100, left.size());
+
+        BindingTable merged = new BindingTable(3);
+        assertTrue(merged.addMerged(left, 5, right, 5));
+        assertEquals(5, merged.get(0, 0));
+        assertEquals(5, merged.get(0, 1));
+        assertEquals(10, merged.get(0, 2));
+        assertFalse(merged.addMerged(left, 5, right, 6), "Rows binding ?0 to 5 and 6 are incompatible.");
+        assertEquals(1, merged.size());
+        assertEquals(5, left.get(5, 0), "Merging must not modify its inputs.");
+        assertEquals(ANY, left.get(5, 1));
+    }
+
+    @Test
+    public void testHugeCapacityEstimateIsCapped() {
+        for (long capacity : new long[]{Integer.MAX_VALUE, Integer.MAX_VALUE / 4 + 1, Long.MAX_VALUE}) {
+            BindingTable table = new BindingTable(5, capacity);
+            assertTrue(table.isEmpty());
+        }
+        BindingTable table = new BindingTable(5, Long.MAX_VALUE);
+        int rows = 20_000;
+        for (int i = 0; i < rows; i++) {
+            table.add(new int[]{i, i + 1, i + 2, i + 3, i + 4});
+        }
+        assertEquals(rows, table.size());
+        assertEquals(rows - 1 + 4, table.get(rows - 1, 4));
+    }
+
+    @Test
+    public void testSortByIsStable() {
+        BindingTable table = new BindingTable(2);
+        int[][] rows = {{3, 0}, {-2, 1}, {3, 2}, {Integer.MAX_VALUE, 3}, {-2, 4}, {0, 5}};
+        for (int[] row : rows) {
+            table.add(row);
+        }
+        table.sortBy(0);
+        int[][] expected = {{-2, 1}, {-2, 4}, {0, 5}, {3, 0}, {3, 2}, {Integer.MAX_VALUE, 3}};
+        for (int r = 0; r < expected.length; r++) {
+            assertEquals(expected[r][0], table.get(r, 0));
+            assertEquals(expected[r][1], table.get(r, 1));
+        }
+    }
+}
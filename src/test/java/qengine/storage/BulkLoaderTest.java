@@ -0,0 +1,89 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.*;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link BulkLoader}.
+ */
+public class BulkLoaderTest {
+    private static final Variable VAR_S = SameObjectTermFactory.instance().createOrGetVariable("?s");
+    private static final Variable VAR_O = SameObjectTermFactory.instance().createOrGetVariable("?o");
+
+    private static Literal<String> literal(String value) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(value);
+    }
+
+    private static List<RDFTriple> randomTriples(int n) {
+        Random random = new Random(7);
+        List<RDFTriple> triples = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            triples.add(new RDFTriple(
+                    literal("s" + random.nextInt(300)),
+                    literal("p" + random.nextInt(10)),
+                    literal("o" + random.nextInt(400))));
+        }
+        return triples;
+    }
+
+    @Test
+    public void testSameContentAsHexaStore() {
+        List<RDFTriple> triples = randomTriples(5000);
+        RDFHexaStore reference = new RDFHexaStore();
+        reference.addAll(triples);
+
+        BulkLoader loader = new BulkLoader();
+        loader.addAll(triples);
+        assertEquals(5000, loader.size());
+        FrozenRDFHexaStore store = loader.build();
+
+        assertEquals(reference.size(), store.size(), "Duplicates should be removed");
+        assertEquals(new HashSet<>(reference.getAtoms()), new HashSet<>(store.getAtoms()));
+        for (RDFTriple pattern : List.of(
+                new RDFTriple(VAR_S, literal("p3"), VAR_O),
+                new RDFTriple(literal("s12"), literal("p1"), VAR_O),
+                new RDFTriple(VAR_S, literal("p4"), literal("o8")))) {
+            assertEquals(reference.howMany(pattern), store.howMany(pattern), "howMany " + pattern);
+        }
+    }
+
+    @Test
+    public void testBuildOnlyOnce() {
+        BulkLoader loader = new BulkLoader();
+        loader.add(new RDFTriple(literal("a"), literal("b"), literal("c")));
+        assertEquals(1, loader.build().size());
+
+        assertThrows(IllegalStateException.class, loader::build);
+        assertThrows(IllegalStateException.class, () -> loader.addIds(0, 1, 2));
+    }
+
+    @Test
+    public void testParallelSortMatchesSequentialSort() {
+        int n = 300_000;
+        Random random = new Random(11);
+        int[] triples = new int[3 * n];
+        for (int i = 0; i < triples.length; i++) {
+            triples[i] = random.nextInt(1000) - 500;
+        }
+        int[] expected = triples.clone();
+        TripleSorter.sort(expected, n);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TripleSorter.parallelSort(triples, n, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(expected, triples);
+        for (int t = 1; t < n; t++) {
+            assertTrue(TripleSorter.compare(triples, t - 1, triples, t) <= 0, "Triples should be sorted");
+        }
+    }
+}
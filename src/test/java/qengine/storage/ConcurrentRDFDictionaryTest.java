@@ -0,0 +1,109 @@
+package qengine.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link ConcurrentRDFDictionary}.
+ */
+class ConcurrentRDFDictionaryTest {
+
+    @Test
+    void testSequentialContract() {
+        ConcurrentRDFDictionary dictionary = new ConcurrentRDFDictionary();
+
+        int first = dictionary.encode("first");
+        int second = dictionary.encode("second");
+
+        assertEquals(0, first, "The first string should be encoded with the ID 0.");
+        assertEquals(1, second);
+        assertEquals(first, dictionary.encode("first"), "The same string should always return the same ID.");
+        assertEquals("second", dictionary.decode(second));
+        assertEquals(second, dictionary.getIdOrNull("second"));
+        assertNull(dictionary.getIdOrNull("unknown"));
+        assertNull(dictionary.getIdOrNull(null));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void testErrors() {
+        ConcurrentRDFDictionary dictionary = new ConcurrentRDFDictionary(1);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> dictionary.encode(null));
+        assertEquals("La chaîne ne peut pas être null", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(0));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(-1));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentRDFDictionary(0));
+    }
+
+    @Test
+    void testFullDictionaryKeepsItsSize() throws Exception {
+        ConcurrentRDFDictionary dictionary = new ConcurrentRDFDictionary(1);
+        // Amène le compteur au bord de l'espace des identifiants sans encoder 2^31 termes
+        var field = ConcurrentRDFDictionary.class.getDeclaredField("nextId");
+        field.setAccessible(true);
+        ((AtomicInteger) field.get(dictionary)).set(Integer.MAX_VALUE - 1);
+
+        assertEquals(Integer.MAX_VALUE - 1, dictionary.encode("last"));
+        assertEquals("last", dictionary.decode(Integer.MAX_VALUE - 1));
+        for (int i = 0; i < 3; i++) {
+            String term = "overflow" + i;
+            assertThrows(IllegalStateException.class, () -> dictionary.encode(term));
+            assertEquals(Integer.MAX_VALUE, dictionary.size(), "The counter never wraps.");
+        }
+        assertEquals(Integer.MAX_VALUE - 1, dictionary.encode("last"));
+    }
+
+    @Test
+    void testConcurrentEncodingAssignsOneDenseIdPerTerm() throws Exception {
+        ConcurrentRDFDictionary dictionary = new ConcurrentRDFDictionary(8);
+        int threads = 8;
+        int distinct = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            // Tous les threads encodent les mêmes termes, chacun dans un ordre différent
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * (distinct / threads);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    int[] ids = new int[distinct];
+                    for (int k = 0; k < distinct; k++) {
+                        int term = (k + offset) % distinct;
+                        ids[term] = dictionary.encode("http://example.org/term" + term);
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            int[] reference = futures.getFirst().get();
+            for (Future<int[]> future : futures) {
+                assertArrayEquals(reference, future.get(), "All threads must see the same ID for a term.");
+            }
+
+            assertEquals(distinct, dictionary.size(), "Each distinct term must get exactly one ID.");
+            boolean[] seen = new boolean[distinct];
+            for (int term = 0; term < distinct; term++) {
+                int id = reference[term];
+                assertTrue(id >= 0 && id < distinct, "IDs must stay dense.");
+                assertFalse(seen[id], "Two terms must not share an ID.");
+                seen[id] = true;
+                assertEquals("http://example.org/term" + term, dictionary.decode(id));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link FrequencyOrderedLoader}.
+ */
+class FrequencyOrderedLoaderTest {
+    private static final Literal<String> TYPE = literal("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+    private static final Literal<String> FRIEND_OF = literal("http://db.uwaterloo.ca/~galuc/wsdbm/friendOf");
+    private static final Literal<String> GENDER = literal("http://db.uwaterloo.ca/~galuc/wsdbm/gender");
+    private static final Literal<String> USER = literal("http://db.uwaterloo.ca/~galuc/wsdbm/User");
+    private static final Literal<String> FEMALE = literal("http://db.uwaterloo.ca/~galuc/wsdbm/Female");
+    private static final Literal<String> USER_0 = literal("http://db.uwaterloo.ca/~galuc/wsdbm/User0");
+    private static final Literal<String> USER_1 = literal("http://db.uwaterloo.ca/~galuc/wsdbm/User1");
+    private static final Literal<String> USER_2 = literal("http://db.uwaterloo.ca/~galuc/wsdbm/User2");
+
+    private static final List<RDFTriple> TRIPLES = List.of(
+            new RDFTriple(USER_0, FRIEND_OF, USER_1),
+            new RDFTriple(USER_0, TYPE, USER),
+            new RDFTriple(USER_1, GENDER, FEMALE),
+            new RDFTriple(USER_1, TYPE, USER),
+            new RDFTriple(USER_2, GENDER, FEMALE),
+            new RDFTriple(USER_2, TYPE, USER),
+            new RDFTriple(USER_2, FRIEND_OF, USER_1)
+    );
+
+    private static Literal<String> literal(String value) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(value);
+    }
+
+    @Test
+    public void testPredicatesThenClassesThenByFrequency() {
+        FrequencyOrderedLoader loader = new FrequencyOrderedLoader();
+        loader.countAll(TRIPLES);
+        RDFDictionary dictionary = loader.seed(new RDFDictionary());
+
+        assertEquals(3, loader.predicateCount());
+        assertEquals(1, loader.classCount());
+        assertEquals(8, dictionary.size());
+
+        // Prédicats : type (3) puis friendOf et gender (2 chacun, ordre d'apparition)
+        assertEquals(0, dictionary.getIdOrNull(TYPE.toString()));
+        assertEquals(1, dictionary.getIdOrNull(FRIEND_OF.toString()));
+        assertEquals(2, dictionary.getIdOrNull(GENDER.toString()));
+        // Classes
+        assertEquals(3, dictionary.getIdOrNull(USER.toString()));
+        // Autres termes : User1 (4), User2 (3), User0 (2) et Female (2)
+        assertEquals(4, dictionary.getIdOrNull(USER_1.toString()));
+        assertEquals(5, dictionary.getIdOrNull(USER_2.toString()));
+        assertEquals(6, dictionary.getIdOrNull(USER_0.toString()));
+        assertEquals(7, dictionary.getIdOrNull(FEMALE.toString()));
+
+        assertEquals(4, loader.frequency(USER_1));
+        assertEquals(0, loader.frequency(literal("unknown")));
+    }
+
+    @Test
+    public void testLoadIntoStore() {
+        RDFHexaStore store = FrequencyOrderedLoader.load(TRIPLES, RDFHexaStore::new);
+
+        assertEquals(TRIPLES.size(), store.size());
+        assertTrue(store.getAtoms().containsAll(TRIPLES));
+        assertEquals(0, store.dict.getIdOrNull(TYPE.toString()));
+        assertEquals(8, store.dict.size(), "The second pass must not add any term.");
+    }
+
+    @Test
+    public void testSeedRequiresEmptyDictionary() {
+        FrequencyOrderedLoader loader = new FrequencyOrderedLoader();
+        loader.countAll(TRIPLES);
+        RDFDictionary dictionary = new RDFDictionary();
+        dictionary.encode("already there");
+
+        assertThrows(IllegalArgumentException.class, () -> loader.seed(dictionary));
+        loader.seed(new RDFDictionary());
+        assertThrows(IllegalStateException.class, () -> loader.count(TRIPLES.getFirst()));
+    }
+}
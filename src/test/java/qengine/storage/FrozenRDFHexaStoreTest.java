@@ -0,0 +1,156 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.*;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static qengine.storage.StoreFixtures.*;
+
+/**
+ * Tests unitaires pour la classe {@link FrozenRDFHexaStore}, par comparaison avec {@link RDFHexaStore}.
+ */
+public class FrozenRDFHexaStoreTest {
+    @Test
+    public void testSameContentAsSource() {
+        RDFHexaStore source = randomStore(new InlineRDFDictionary(), 42);
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(source);
+
+        assertEquals(source.size(), frozen.size());
+        assertEquals(new HashSet<>(source.getAtoms()), new HashSet<>(frozen.getAtoms()));
+        assertSame(source.getDictionary(), frozen.getDictionary());
+    }
+
+    @Test
+    public void testMatchAndHowManyAgreeWithHexaStore() {
+        RDFHexaStore source = randomStore(new InlineRDFDictionary(), 42);
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(source);
+
+        List<Term> subjects = List.of(literal("s0"), literal("s17"), literal("unknown"), VAR_S);
+        List<Term> predicates = List.of(literal("p0"), literal("p5"), VAR_P);
+        List<Term> objects = List.of(literal("o12"), literal("\"7\""), VAR_O);
+        assertSameAnswers(source, frozen, subjects, predicates, objects);
+    }
+
+    @Test
+    public void testCompressedLeavesAgreeWithPlainIndex() {
+        RDFHexaStore source = randomStore(new InlineRDFDictionary(), 42);
+        FrozenRDFHexaStore plain = new FrozenRDFHexaStore(source);
+        FrozenRDFHexaStore compressed = new FrozenRDFHexaStore(source, true);
+
+        assertEquals(plain.size(), compressed.size());
+        assertEquals(new HashSet<>(plain.getAtoms()), new HashSet<>(compressed.getAtoms()));
+        assertSameAnswers(plain, compressed,
+                List.of(literal("s3"), VAR_S),
+                List.of(literal("p7"), VAR_P),
+                List.of(literal("o21"), literal("\"3\""), VAR_O));
+
+        // Identifiants positifs et proches : les écarts tiennent sur un octet
+        RDFHexaStore dense = randomStore(new RDFDictionary(), 42);
+        assertTrue(new FrozenRDFHexaStore(dense, true).indexBytes() < new FrozenRDFHexaStore(dense).indexBytes(),
+                "Compressed leaves should take less space");
+    }
+
+    @Test
+    public void testCompressedLeavesWithExtremeIds() {
+        int[] ids = {Integer.MIN_VALUE + 1, -70000, -1, 0, 1, 127, 128, 300_000, Integer.MAX_VALUE};
+        int[] triples = new int[3 * ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            triples[3 * i] = 5;
+            triples[3 * i + 1] = 6;
+            triples[3 * i + 2] = ids[i];
+        }
+        FrozenRDFHexaStore store = new FrozenRDFHexaStore(new RDFDictionary(), triples, ids.length, true);
+
+        List<Integer> objects = new ArrayList<>();
+        store.forEachMatch(5, 6, EncodedRDFStorage.ANY, (s, p, o) -> objects.add(o));
+        assertEquals(Arrays.stream(ids).boxed().toList(), objects);
+        for (int id : ids) {
+            assertEquals(1, store.howManyIds(5, 6, id));
+            List<Integer> subjects = new ArrayList<>();
+            store.forEachMatch(EncodedRDFStorage.ANY, 6, id, (s, p, o) -> subjects.add(s));
+            assertEquals(List.of(5), subjects);
+        }
+        assertEquals(0, store.howManyIds(5, 6, 2));
+    }
+
+    @Test
+    public void testCursorAgreesWithForEachMatch() {
+        RDFHexaStore source = randomStore(new InlineRDFDictionary(), 42);
+        TermDictionary dict = source.getDictionary();
+        int any = EncodedRDFStorage.ANY;
+        int[] subjects = {any, dict.getIdOrNull(literal("s3").toString()), dict.getIdOrNull(literal("p7").toString())};
+        int[] predicates = {any, dict.getIdOrNull(literal("p7").toString())};
+        int[] objects = {any, dict.getIdOrNull(literal("o21").toString()), dict.getIdOrNull(literal("\"3\"").toString())};
+        for (boolean compressed : List.of(false, true)) {
+            FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(source, compressed);
+            for (int s : subjects) {
+                for (int p : predicates) {
+                    for (int o : objects) {
+                        List<List<Integer>> expected = new ArrayList<>();
+                        frozen.forEachMatch(s, p, o, (ts, tp, to) -> expected.add(List.of(ts, tp, to)));
+                        List<List<Integer>> actual = new ArrayList<>();
+                        EncodedRDFStorage.TripleIdCursor cursor = frozen.cursor(s, p, o);
+                        while (cursor.advance()) {
+                            actual.add(List.of(cursor.s(), cursor.p(), cursor.o()));
+                        }
+                        assertEquals(expected, actual, "cursor " + s + " " + p + " " + o + (compressed ? " (compressed)" : ""));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSortedOutput() {
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(randomStore(new InlineRDFDictionary(), 42));
+        int p = frozen.getDictionary().getIdOrNull("p3");
+        List<Integer> subjects = new ArrayList<>();
+        frozen.forEachMatch(EncodedRDFStorage.ANY, p, EncodedRDFStorage.ANY, (s, foundP, o) -> subjects.add(s));
+
+        List<Integer> sorted = new ArrayList<>(subjects);
+        Collections.sort(sorted);
+        assertEquals(sorted, subjects, "Results of (?s, p, ?o) should come out sorted by subject.");
+    }
+
+    @Test
+    public void testStarQuery() {
+        RDFHexaStore source = randomStore(new InlineRDFDictionary(), 42);
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(source);
+        StarQuery query = new StarQuery("q", List.of(
+                new RDFTriple(VAR_S, literal("p1"), VAR_O),
+                new RDFTriple(VAR_S, literal("p2"), literal("o3"))), List.of(VAR_S, VAR_O));
+
+        Set<Substitution> expected = new HashSet<>();
+        source.match(query).forEachRemaining(expected::add);
+        Set<Substitution> actual = new HashSet<>();
+        frozen.match(query).forEachRemaining(actual::add);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testEmptyAndReadOnly() {
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(new RDFHexaStore());
+
+        assertEquals(0, frozen.size());
+        assertFalse(frozen.match(new RDFTriple(VAR_S, VAR_P, VAR_O)).hasNext());
+        assertThrows(UnsupportedOperationException.class,
+                () -> frozen.add(new RDFTriple(literal("a"), literal("b"), literal("c"))));
+    }
+
+    @Test
+    public void testDuplicatesAreRemoved() {
+        TermDictionary dictionary = new RDFDictionary();
+        int[] triples = {1, 2, 3, 1, 2, 3, 0, 2, 3};
+        for (int i = 0; i < 4; i++) {
+            dictionary.encode("t" + i);
+        }
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(dictionary, triples, 3);
+
+        assertEquals(2, frozen.size());
+        assertEquals(2, frozen.howManyIds(EncodedRDFStorage.ANY, 2, 3));
+    }
+}
@@ -0,0 +1,87 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link InlineRDFDictionary}.
+ */
+class InlineRDFDictionaryTest {
+
+    @Test
+    public void testInlineValuesRoundTripWithoutDictionaryEntry() {
+        InlineRDFDictionary dictionary = new InlineRDFDictionary();
+        String[] values = {"\"9764726\"", "9764726", "0", "268435455", "\"1988-09-24\"", "0001-01-01",
+                "\"abc\"", "\"\""};
+
+        for (String value : values) {
+            int id = dictionary.encode(value);
+            assertTrue(InlineRDFDictionary.isInline(id), value + " should be encoded inline.");
+            assertEquals(value, dictionary.decode(id));
+            assertEquals(id, dictionary.getIdOrNull(value));
+        }
+        assertEquals(0, dictionary.size(), "Inline values must not be stored in the dictionary.");
+        assertNotEquals(dictionary.encode("\"42\""), dictionary.encode("42"));
+    }
+
+    @Test
+    public void testOtherTermsGoToDelegate() {
+        RDFDictionary delegate = new RDFDictionary();
+        InlineRDFDictionary dictionary = new InlineRDFDictionary(delegate);
+        String[] values = {"http://schema.org/birthDate", "\"00007\"", "268435456", "\"1988-9-24\"",
+                "\"1988-13-01\"", "\"hello\"", "-12345", "\"1988-09-24\"^^<http://www.w3.org/2001/XMLSchema#date>",
+                "ex:a", "<a>", "ab", "", "\""};
+
+        for (String value : values) {
+            int id = dictionary.encode(value);
+            assertFalse(InlineRDFDictionary.isInline(id), value + " should not be encoded inline.");
+            assertEquals(value, dictionary.decode(id));
+            assertEquals(delegate.getIdOrNull(value), id);
+        }
+        assertEquals(values.length, dictionary.size());
+        assertNull(dictionary.getIdOrNull("http://example.org/unknown"));
+    }
+
+    @Test
+    public void testErrors() {
+        InlineRDFDictionary dictionary = new InlineRDFDictionary();
+
+        assertThrows(IllegalArgumentException.class, () -> dictionary.encode(null));
+        assertNull(dictionary.getIdOrNull(null));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(Integer.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(0));
+        assertThrows(NullPointerException.class, () -> new InlineRDFDictionary(null));
+    }
+
+    @Test
+    public void testHexaStoreWithInlineIds() {
+        RDFHexaStore store = new RDFHexaStore(new InlineRDFDictionary());
+        Literal<String> user = SameObjectTermFactory.instance().createOrGetLiteral("http://db.uwaterloo.ca/~galuc/wsdbm/User0");
+        Literal<String> birthDate = SameObjectTermFactory.instance().createOrGetLiteral("http://schema.org/birthDate");
+        Literal<String> date = SameObjectTermFactory.instance().createOrGetLiteral("\"1988-09-24\"");
+        Variable x = SameObjectTermFactory.instance().createOrGetVariable("?x");
+
+        assertTrue(store.add(new RDFTriple(user, birthDate, date)));
+        assertFalse(store.add(new RDFTriple(user, birthDate, date)));
+        assertTrue(store.getAtoms().contains(new RDFTriple(user, birthDate, date)));
+        assertEquals(2, store.dict.size(), "Only the IRIs should be stored in the dictionary.");
+
+        List<Substitution> bySubject = new ArrayList<>();
+        store.match(new RDFTriple(x, birthDate, date)).forEachRemaining(bySubject::add);
+        assertEquals(1, bySubject.size());
+        assertEquals(user, bySubject.getFirst().createImageOf(x));
+
+        List<Substitution> byObject = new ArrayList<>();
+        store.match(new RDFTriple(user, birthDate, x)).forEachRemaining(byObject::add);
+        assertEquals(date, byObject.getFirst().createImageOf(x));
+    }
+}
@@ -0,0 +1,157 @@
+package qengine.storage;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link IntBitmap}.
+ */
+public class IntBitmapTest {
+
+    private static IntBitmap bitmapOf(Collection<Integer> values) {
+        IntBitmap bitmap = new IntBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    @Test
+    public void testAddContainsSize() {
+        IntBitmap bitmap = new IntBitmap();
+
+        assertTrue(bitmap.add(5));
+        assertTrue(bitmap.add(70_000));
+        assertTrue(bitmap.add(-3));
+        assertFalse(bitmap.add(5), "Adding a duplicate should return false");
+        assertEquals(3, bitmap.size());
+        assertTrue(bitmap.contains(70_000));
+        assertTrue(bitmap.contains(-3));
+        assertFalse(bitmap.contains(6));
+        assertFalse(bitmap.contains("5"));
+        assertEquals(Set.of(5, 70_000, -3), new HashSet<>(bitmap));
+    }
+
+    @Test
+    public void testArrayContainerBecomesBitmap() {
+        IntBitmap bitmap = new IntBitmap();
+        Set<Integer> expected = new HashSet<>();
+        for (int value = 0; value < 20_000; value += 3) {
+            bitmap.add(value);
+            expected.add(value);
+        }
+
+        assertEquals(expected.size(), bitmap.size());
+        assertEquals(expected, new HashSet<>(bitmap));
+        assertTrue(bitmap.contains(19_998));
+        assertFalse(bitmap.contains(19_999));
+        assertFalse(bitmap.add(300));
+    }
+
+    @Test
+    public void testAndAgreesWithRetainAll() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            Set<Integer> left = new HashSet<>();
+            Set<Integer> right = new HashSet<>();
+            // Mélange de conteneurs creux (tableaux) et denses (bitmaps)
+            int leftCount = round % 2 == 0 ? 500 : 30_000;
+            int rightCount = round % 3 == 0 ? 400 : 25_000;
+            for (int i = 0; i < leftCount; i++) {
+                left.add(random.nextInt(200_000) - 50_000);
+            }
+            for (int i = 0; i < rightCount; i++) {
+                right.add(random.nextInt(200_000) - 50_000);
+            }
+
+            Set<Integer> expected = new HashSet<>(left);
+            expected.retainAll(right);
+            IntBitmap and = IntBitmap.and(bitmapOf(left), bitmapOf(right));
+            assertEquals(expected.size(), and.size());
+            assertEquals(expected, new HashSet<>(and));
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        IntBitmap bitmap = new IntBitmap();
+        Set<Integer> expected = new HashSet<>();
+        for (int value = 0; value < 10_000; value++) {
+            bitmap.add(value);
+            expected.add(value);
+        }
+        bitmap.add(70_000);
+        expected.add(70_000);
+
+        assertFalse(bitmap.remove(10_000));
+        assertFalse(bitmap.remove("5"));
+        // Le conteneur bitmap redescend sous ARRAY_MAX puis se vide
+        for (int value = 0; value < 10_000; value += 2) {
+            assertTrue(bitmap.remove(value));
+            expected.remove(value);
+        }
+        assertEquals(expected, new HashSet<>(bitmap));
+        assertTrue(bitmap.add(4));
+        assertTrue(bitmap.remove(4));
+        for (int value = 1; value < 10_000; value += 2) {
+            assertTrue(bitmap.remove(Integer.valueOf(value)));
+        }
+        assertEquals(Set.of(70_000), new HashSet<>(bitmap));
+        assertTrue(bitmap.remove(70_000));
+        assertEquals(0, bitmap.size());
+        assertFalse(bitmap.contains(70_000));
+        assertTrue(bitmap.add(3));
+        assertEquals(Set.of(3), new HashSet<>(bitmap));
+    }
+
+    @Test
+    public void testIteratorAgreesWithForEachInt() {
+        Set<Integer> values = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            values.add(random.nextInt(1 << 16)); // conteneur bitmap
+        }
+        for (int i = 0; i < 50; i++) {
+            values.add((3 << 16) + random.nextInt(1 << 16)); // conteneur tableau
+            values.add(-1 - random.nextInt(1 << 20));
+        }
+        IntBitmap bitmap = bitmapOf(values);
+
+        List<Integer> viaForEach = new ArrayList<>();
+        bitmap.forEachInt(viaForEach::add);
+        List<Integer> viaIterator = new ArrayList<>();
+        Iterator<Integer> iterator = bitmap.iterator();
+        while (iterator.hasNext()) {
+            assertTrue(iterator.hasNext(), "hasNext should be idempotent");
+            viaIterator.add(iterator.next());
+        }
+        assertEquals(viaForEach, viaIterator);
+        assertEquals(values, new HashSet<>(viaIterator));
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertFalse(new IntBitmap().iterator().hasNext());
+    }
+
+    @Test
+    public void testIteratorDoesNotCopyTheSet() {
+        IntBitmap bitmap = new IntBitmap();
+        for (int value = 0; value < 1_000_000; value++) {
+            bitmap.add(value);
+        }
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        Iterator<Integer> iterator = bitmap.iterator();
+        assertEquals(0, iterator.next());
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        // Une copie des valeurs coûterait 4 Mo
+        assertTrue(allocated < 64 * 1024, "iterator() should not copy the set, allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,177 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Term;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import fr.boreal.model.logicalElements.impl.SubstitutionImpl;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link LeapfrogTriejoin}.
+ */
+class LeapfrogTriejoinTest {
+    private static final Literal<String> KNOWS = literal("knows");
+    private static final Variable VAR_A = variable("?a");
+    private static final Variable VAR_B = variable("?b");
+    private static final Variable VAR_C = variable("?c");
+    private static final Variable VAR_D = variable("?d");
+
+    private static Literal<String> literal(String value) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(value);
+    }
+
+    private static Variable variable(String name) {
+        return SameObjectTermFactory.instance().createOrGetVariable(name);
+    }
+
+    private static RDFHexaStore randomStore() {
+        RDFHexaStore store = new RDFHexaStore();
+        Random random = new Random(17);
+        for (int i = 0; i < 4000; i++) {
+            store.add(new RDFTriple(literal("n" + random.nextInt(200)), literal("p" + random.nextInt(4)),
+                    literal(random.nextInt(4) > 0 ? "n" + random.nextInt(200) : "v" + random.nextInt(5))));
+        }
+        return store;
+    }
+
+    private static Map<Substitution, Integer> count(Iterator<Substitution> it) {
+        Map<Substitution, Integer> counts = new HashMap<>();
+        it.forEachRemaining(substitution -> counts.merge(substitution, 1, Integer::sum));
+        return counts;
+    }
+
+    /**
+     * Évaluation de référence : motif par motif, chaque motif instancié par les liaisons courantes.
+     */
+    private static Map<Substitution, Integer> reference(RDFStorage store, List<RDFTriple> atoms,
+                                                        List<Variable> answers) {
+        Map<Substitution, Integer> counts = new HashMap<>();
+        extend(store, atoms, 0, new HashMap<>(), answers, counts);
+        return counts;
+    }
+
+    private static void extend(RDFStorage store, List<RDFTriple> atoms, int i, Map<Variable, Term> bound,
+                               List<Variable> answers, Map<Substitution, Integer> counts) {
+        if (i == atoms.size()) {
+            Map<Variable, Term> projected = new HashMap<>();
+            for (Variable answer : answers) {
+                projected.put(answer, bound.get(answer));
+            }
+            counts.merge(new SubstitutionImpl(projected), 1, Integer::sum);
+            return;
+        }
+        Term[] terms = atoms.get(i).getTerms().clone();
+        for (int k = 0; k < 3; k++) {
+            if (terms[k].isVariable() && bound.containsKey((Variable) terms[k])) {
+                terms[k] = bound.get((Variable) terms[k]);
+            }
+        }
+        store.match(new RDFTriple(terms[0], terms[1], terms[2])).forEachRemaining(substitution -> {
+            Map<Variable, Term> next = new HashMap<>(bound);
+            for (Variable v : substitution.keys()) {
+                next.put(v, substitution.createImageOf(v));
+            }
+            extend(store, atoms, i + 1, next, answers, counts);
+        });
+    }
+
+    private static void assertAgrees(RDFHexaStore store, List<RDFTriple> atoms, List<Variable> answers) {
+        Map<Substitution, Integer> expected = reference(store, atoms, answers);
+        assertFalse(expected.isEmpty(), "The reference should have answers: " + atoms);
+        assertEquals(expected, count(new LeapfrogTriejoin(store).evaluate(atoms, answers)), atoms.toString());
+    }
+
+    @Test
+    public void testChainAgreesWithReference() {
+        RDFHexaStore store = randomStore();
+        List<RDFTriple> chain = List.of(
+                new RDFTriple(literal("n7"), literal("p0"), VAR_A),
+                new RDFTriple(VAR_A, literal("p1"), VAR_B),
+                new RDFTriple(VAR_B, literal("p2"), VAR_C),
+                new RDFTriple(VAR_C, literal("p3"), VAR_D));
+        assertAgrees(store, chain, List.of(VAR_A, VAR_B, VAR_C, VAR_D));
+        // Projection : une réponse par affectation de toutes les variables
+        assertAgrees(store, chain, List.of(VAR_D));
+    }
+
+    @Test
+    public void testCycleAgreesWithReference() {
+        RDFHexaStore store = randomStore();
+        List<RDFTriple> triangle = List.of(
+                new RDFTriple(VAR_A, literal("p0"), VAR_B),
+                new RDFTriple(VAR_B, literal("p1"), VAR_C),
+                new RDFTriple(VAR_C, literal("p2"), VAR_A));
+        assertAgrees(store, triangle, List.of(VAR_A, VAR_B, VAR_C));
+
+        List<RDFTriple> snowflake = List.of(
+                new RDFTriple(VAR_A, literal("p0"), literal("v1")),
+                new RDFTriple(VAR_A, literal("p1"), VAR_B),
+                new RDFTriple(VAR_C, literal("p2"), VAR_B),
+                new RDFTriple(VAR_C, VAR_D, literal("n3")));
+        assertAgrees(store, snowflake, List.of(VAR_A, VAR_C, VAR_D));
+    }
+
+    @Test
+    public void testRepeatedVariableAndClosedAtom() {
+        RDFHexaStore store = new RDFHexaStore();
+        store.add(new RDFTriple(literal("Bob"), KNOWS, literal("Bob")));
+        store.add(new RDFTriple(literal("Bob"), KNOWS, literal("Alice")));
+        store.add(new RDFTriple(literal("Alice"), KNOWS, literal("Bob")));
+        LeapfrogTriejoin join = new LeapfrogTriejoin(store);
+
+        Map<Substitution, Integer> self = count(join.evaluate(
+                List.of(new RDFTriple(VAR_A, KNOWS, VAR_A)), List.of(VAR_A)));
+        assertEquals(Map.of(new SubstitutionImpl(Map.of(VAR_A, literal("Bob"))), 1), self);
+
+        List<RDFTriple> withFact = List.of(
+                new RDFTriple(literal("Alice"), KNOWS, literal("Bob")),
+                new RDFTriple(VAR_A, KNOWS, literal("Alice")));
+        assertEquals(1, count(join.evaluate(withFact, List.of(VAR_A))).size());
+        List<RDFTriple> withMissingFact = List.of(
+                new RDFTriple(literal("Alice"), KNOWS, literal("Alice")),
+                new RDFTriple(VAR_A, KNOWS, literal("Alice")));
+        assertFalse(join.evaluate(withMissingFact, List.of(VAR_A)).hasNext());
+    }
+
+    @Test
+    public void testUnknownConstantGivesNoAnswer() {
+        RDFHexaStore store = randomStore();
+        int before = store.dict.size();
+        List<RDFTriple> atoms = List.of(
+                new RDFTriple(VAR_A, literal("p0"), VAR_B),
+                new RDFTriple(VAR_B, literal("unknown"), VAR_C));
+
+        assertFalse(new LeapfrogTriejoin(store).evaluate(atoms, List.of(VAR_A)).hasNext());
+        assertEquals(before, store.dict.size(), "Query constants must not be added to the dictionary.");
+    }
+
+    @Test
+    public void testAnswerVariableMustAppearInAtoms() {
+        LeapfrogTriejoin join = new LeapfrogTriejoin(new RDFHexaStore());
+        List<RDFTriple> atoms = List.of(new RDFTriple(VAR_A, KNOWS, VAR_B));
+        assertThrows(IllegalArgumentException.class, () -> join.evaluate(atoms, List.of(VAR_C)));
+    }
+
+    @Test
+    public void testStarQueryAgreesWithStarEvaluator() {
+        RDFHexaStore store = randomStore();
+        FrozenRDFHexaStore frozen = new FrozenRDFHexaStore(store);
+        StarQuery query = new StarQuery("q", List.of(
+                new RDFTriple(VAR_A, literal("p0"), VAR_B),
+                new RDFTriple(VAR_A, literal("p1"), literal("v2")),
+                new RDFTriple(VAR_A, literal("p3"), VAR_C)), List.of(VAR_A, VAR_B, VAR_C));
+
+        Map<Substitution, Integer> expected = count(store.match(query));
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, count(new LeapfrogTriejoin(store).evaluate(query)));
+        assertEquals(expected, count(new LeapfrogTriejoin(frozen).evaluate(query)));
+    }
+}
@@ -0,0 +1,62 @@
+package qengine.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link LongRDFDictionary}.
+ */
+class LongRDFDictionaryTest {
+
+    @Test
+    public void testEncodeDecode() {
+        LongRDFDictionary dictionary = new LongRDFDictionary();
+
+        long first = dictionary.encode("first");
+        long second = dictionary.encode("second");
+
+        assertEquals(0L, first, "The first string should be encoded with the ID 0.");
+        assertEquals(1L, second);
+        assertEquals(first, dictionary.encode("first"), "The same string should always return the same ID.");
+        assertEquals("second", dictionary.decode(second));
+        assertEquals(2L, dictionary.size());
+    }
+
+    @Test
+    public void testGetIdOrNullDoesNotEncode() {
+        LongRDFDictionary dictionary = new LongRDFDictionary();
+        dictionary.encode("known");
+
+        assertEquals(0L, dictionary.getIdOrNull("known"));
+        assertNull(dictionary.getIdOrNull("unknown"));
+        assertNull(dictionary.getIdOrNull(null));
+        assertEquals(1L, dictionary.size());
+    }
+
+    @Test
+    public void testErrors() {
+        LongRDFDictionary dictionary = new LongRDFDictionary();
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> dictionary.encode(null));
+        assertEquals("La chaîne ne peut pas être null", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(0));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(-1));
+    }
+
+    @Test
+    public void testGrowthAcrossPages() {
+        LongRDFDictionary dictionary = new LongRDFDictionary();
+        int n = (1 << 20) + 1000;
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, dictionary.encode("http://example.org/term" + i));
+        }
+
+        assertEquals(n, dictionary.size());
+        for (int i = 0; i < n; i += 4099) {
+            assertEquals("http://example.org/term" + i, dictionary.decode(i));
+            assertEquals(i, dictionary.getIdOrNull("http://example.org/term" + i));
+        }
+        assertEquals("http://example.org/term" + (n - 1), dictionary.decode(n - 1));
+    }
+}
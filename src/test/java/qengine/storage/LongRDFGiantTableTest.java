@@ -0,0 +1,45 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link LongRDFGiantTable}.
+ */
+public class LongRDFGiantTableTest {
+    private static final Literal<String> SUBJECT_1 = SameObjectTermFactory.instance().createOrGetLiteral("subject1");
+    private static final Literal<String> PREDICATE_1 = SameObjectTermFactory.instance().createOrGetLiteral("predicate1");
+    private static final Literal<String> OBJECT_1 = SameObjectTermFactory.instance().createOrGetLiteral("object1");
+    private static final Literal<String> OBJECT_2 = SameObjectTermFactory.instance().createOrGetLiteral("object2");
+    private static final Variable VAR_S = SameObjectTermFactory.instance().createOrGetVariable("?s");
+    private static final Variable VAR_O = SameObjectTermFactory.instance().createOrGetVariable("?o");
+
+    @Test
+    public void testAddMatchHowMany() {
+        LongRDFGiantTable store = new LongRDFGiantTable();
+
+        assertTrue(store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1)));
+        assertTrue(store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_2)));
+        assertFalse(store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1)), "Adding a duplicate triple should return false");
+        assertEquals(2, store.size());
+
+        List<Substitution> results = new ArrayList<>();
+        store.match(new RDFTriple(SUBJECT_1, PREDICATE_1, VAR_O)).forEachRemaining(results::add);
+        Set<String> objects = new HashSet<>();
+        results.forEach(sub -> objects.add(sub.createImageOf(VAR_O).toString()));
+        assertEquals(Set.of("object1", "object2"), objects);
+
+        assertEquals(2, store.howMany(new RDFTriple(VAR_S, PREDICATE_1, VAR_O)));
+        assertEquals(1, store.howMany(new RDFTriple(VAR_S, PREDICATE_1, OBJECT_2)));
+        assertEquals(0, store.howMany(new RDFTriple(VAR_S, PREDICATE_1, SameObjectTermFactory.instance().createOrGetLiteral("unknown"))));
+        assertTrue(store.getAtoms().contains(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_2)));
+    }
+}
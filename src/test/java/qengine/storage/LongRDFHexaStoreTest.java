@@ -0,0 +1,146 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.*;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link LongRDFHexaStore}.
+ */
+public class LongRDFHexaStoreTest {
+    private static final Literal<String> SUBJECT_1 = SameObjectTermFactory.instance().createOrGetLiteral("subject1");
+    private static final Literal<String> PREDICATE_1 = SameObjectTermFactory.instance().createOrGetLiteral("predicate1");
+    private static final Literal<String> OBJECT_1 = SameObjectTermFactory.instance().createOrGetLiteral("object1");
+    private static final Literal<String> SUBJECT_2 = SameObjectTermFactory.instance().createOrGetLiteral("subject2");
+    private static final Literal<String> PREDICATE_2 = SameObjectTermFactory.instance().createOrGetLiteral("predicate2");
+    private static final Literal<String> OBJECT_2 = SameObjectTermFactory.instance().createOrGetLiteral("object2");
+    private static final Literal<String> OBJECT_3 = SameObjectTermFactory.instance().createOrGetLiteral("object3");
+    private static final Variable VAR_S = SameObjectTermFactory.instance().createOrGetVariable("?s");
+    private static final Variable VAR_P = SameObjectTermFactory.instance().createOrGetVariable("?p");
+    private static final Variable VAR_O = SameObjectTermFactory.instance().createOrGetVariable("?o");
+
+    private static LongRDFHexaStore sampleStore() {
+        LongRDFHexaStore store = new LongRDFHexaStore();
+        store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1));
+        store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_2));
+        store.add(new RDFTriple(SUBJECT_1, PREDICATE_2, OBJECT_3));
+        store.add(new RDFTriple(SUBJECT_2, PREDICATE_1, OBJECT_1));
+        return store;
+    }
+
+    @Test
+    public void testAddAndSize() {
+        LongRDFHexaStore store = sampleStore();
+
+        assertEquals(4, store.size());
+        assertFalse(store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1)), "Adding a duplicate triple should return false");
+        assertEquals(4, store.size());
+        assertTrue(store.getAtoms().contains(new RDFTriple(SUBJECT_2, PREDICATE_1, OBJECT_1)));
+        assertEquals(4, store.getAtoms().size());
+    }
+
+    @Test
+    public void testMatchAllPatterns() {
+        LongRDFHexaStore store = sampleStore();
+
+        assertEquals(1, count(store, new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1)));
+        assertEquals(Set.of("object1", "object2"), values(store, new RDFTriple(SUBJECT_1, PREDICATE_1, VAR_O), VAR_O));
+        assertEquals(Set.of("predicate2"), values(store, new RDFTriple(SUBJECT_1, VAR_P, OBJECT_3), VAR_P));
+        assertEquals(Set.of("subject1", "subject2"), values(store, new RDFTriple(VAR_S, PREDICATE_1, OBJECT_1), VAR_S));
+        assertEquals(3, count(store, new RDFTriple(SUBJECT_1, VAR_P, VAR_O)));
+        assertEquals(3, count(store, new RDFTriple(VAR_S, PREDICATE_1, VAR_O)));
+        assertEquals(Set.of("subject1", "subject2"), values(store, new RDFTriple(VAR_S, VAR_P, OBJECT_1), VAR_S));
+        assertEquals(4, count(store, new RDFTriple(VAR_S, VAR_P, VAR_O)));
+        assertEquals(0, count(store, new RDFTriple(VAR_S, PREDICATE_1, SameObjectTermFactory.instance().createOrGetLiteral("unknown"))));
+    }
+
+    @Test
+    public void testHowMany() {
+        LongRDFHexaStore store = sampleStore();
+
+        assertEquals(1, store.howMany(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1)));
+        assertEquals(2, store.howMany(new RDFTriple(SUBJECT_1, PREDICATE_1, VAR_O)));
+        assertEquals(2, store.howMany(new RDFTriple(VAR_S, PREDICATE_1, OBJECT_1)));
+        assertEquals(1, store.howMany(new RDFTriple(SUBJECT_1, VAR_P, OBJECT_3)));
+        assertEquals(3, store.howMany(new RDFTriple(SUBJECT_1, VAR_P, VAR_O)));
+        assertEquals(3, store.howMany(new RDFTriple(VAR_S, PREDICATE_1, VAR_O)));
+        assertEquals(2, store.howMany(new RDFTriple(VAR_S, VAR_P, OBJECT_1)));
+        assertEquals(4, store.howMany(new RDFTriple(VAR_S, VAR_P, VAR_O)));
+        assertEquals(0, store.howMany(new RDFTriple(SameObjectTermFactory.instance().createOrGetLiteral("unknown"), VAR_P, VAR_O)));
+    }
+
+    @Test
+    public void testMatchStarQuery() {
+        LongRDFHexaStore store = sampleStore();
+        StarQuery query = new StarQuery("q", List.of(
+                new RDFTriple(VAR_S, PREDICATE_1, OBJECT_1),
+                new RDFTriple(VAR_S, PREDICATE_2, OBJECT_3)), List.of(VAR_S));
+
+        List<Substitution> results = new ArrayList<>();
+        store.match(query).forEachRemaining(results::add);
+
+        assertEquals(1, results.size());
+        assertEquals(SUBJECT_1, results.getFirst().createImageOf(VAR_S));
+    }
+
+    private static int count(RDFStorage store, RDFTriple pattern) {
+        int count = 0;
+        for (Iterator<Substitution> it = store.match(pattern); it.hasNext(); it.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static Set<String> values(RDFStorage store, RDFTriple pattern, Variable var) {
+        Set<String> values = new HashSet<>();
+        store.match(pattern).forEachRemaining(sub -> values.add(sub.createImageOf(var).toString()));
+        return values;
+    }
+
+    @Test
+    public void testPrimitiveTablesGrowAcrossPages() {
+        // Au-delà de 3/4 de HashTables.PAGE_SIZE entrées, les tables passent à deux pages
+        int n = HashTables.PAGE_SIZE;
+        LongSet set = new LongSet();
+        LongMap<Long> map = new LongMap<>();
+        LongCounts counts = new LongCounts();
+        // Identifiants au-delà de 2^32, pour que le brassage porte sur les 64 bits
+        long base = 1L << 40;
+        for (long id = base; id < base + n; id++) {
+            assertTrue(set.add(id));
+            map.computeIfAbsent(id, key -> key * 2);
+            counts.increment(id);
+            if ((id & 1) == 0) {
+                counts.increment(id);
+            }
+        }
+        assertFalse(set.add(base + 7));
+        assertEquals(n, set.size());
+        assertEquals(n, map.size());
+        assertEquals(n, counts.size());
+
+        for (long id = base; id < base + n; id++) {
+            assertTrue(set.contains(id));
+            assertEquals(id * 2, map.get(id));
+            assertEquals((id & 1) == 0 ? 2 : 1, counts.get(id));
+        }
+        assertFalse(set.contains(base + n));
+        assertNull(map.get(base - 1));
+        assertEquals(0, counts.get(base + n));
+
+        long[] seen = {0, 0};
+        set.forEach(id -> seen[0] += id - base);
+        map.forEach((key, value) -> {
+            assertEquals(key * 2, value);
+            seen[1]++;
+        });
+        assertEquals((long) n * (n - 1) / 2, seen[0]);
+        assertEquals(n, seen[1]);
+    }
+}
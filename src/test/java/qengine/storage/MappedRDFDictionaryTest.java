@@ -0,0 +1,112 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link MappedRDFDictionary}.
+ */
+class MappedRDFDictionaryTest {
+    private Path file;
+
+    @BeforeEach
+    public void createFile() throws IOException {
+        file = Files.createTempFile("dictionary", ".bin");
+    }
+
+    @AfterEach
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testReopenKeepsIds() throws IOException {
+        RDFDictionary original = new RDFDictionary();
+        for (int i = 0; i < 10_000; i++) {
+            original.encode("http://example.org/term" + i);
+        }
+        original.encode("\"Élève ünicode\"");
+        MappedRDFDictionary.write(original, file);
+
+        MappedRDFDictionary mapped = MappedRDFDictionary.open(file);
+
+        assertEquals(original.size(), mapped.size());
+        assertEquals(original.size(), mapped.snapshotSize());
+        for (int id = 0; id < original.size(); id += 7) {
+            String term = original.decode(id);
+            assertEquals(term, mapped.decode(id));
+            assertEquals(id, mapped.getIdOrNull(term));
+            assertEquals(id, mapped.encode(term), "Existing terms keep their ID.");
+        }
+        assertEquals("\"Élève ünicode\"", mapped.decode(original.size() - 1));
+        assertNull(mapped.getIdOrNull("http://example.org/unknown"));
+    }
+
+    @Test
+    public void testNewTermsAfterReopen() throws IOException {
+        RDFDictionary original = new RDFDictionary();
+        original.encode("a");
+        original.encode("b");
+        MappedRDFDictionary.write(original, file);
+        MappedRDFDictionary mapped = MappedRDFDictionary.open(file);
+
+        int c = mapped.encode("c");
+
+        assertEquals(2, c, "New terms follow the snapshot IDs.");
+        assertEquals(c, mapped.encode("c"));
+        assertEquals("c", mapped.decode(c));
+        assertEquals(c, mapped.getIdOrNull("c"));
+        assertEquals(3, mapped.size());
+        assertEquals(2, mapped.snapshotSize());
+    }
+
+    @Test
+    public void testEmptyDictionary() throws IOException {
+        MappedRDFDictionary.write(new RDFDictionary(), file);
+        MappedRDFDictionary mapped = MappedRDFDictionary.open(file);
+
+        assertEquals(0, mapped.size());
+        assertNull(mapped.getIdOrNull("a"));
+        assertThrows(IllegalArgumentException.class, () -> mapped.decode(0));
+        assertThrows(IllegalArgumentException.class, () -> mapped.decode(-1));
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+
+        assertThrows(IOException.class, () -> MappedRDFDictionary.open(file));
+    }
+
+    @Test
+    public void testStoreOnReopenedDictionary() throws IOException {
+        RDFDictionary original = new RDFDictionary();
+        RDFHexaStore store = new RDFHexaStore(original);
+        List<RDFTriple> triples = List.of(
+                new RDFTriple(literal("Bob"), literal("knows"), literal("Alice")),
+                new RDFTriple(literal("Alice"), literal("livesIn"), literal("Paris")));
+        store.addAll(triples);
+        MappedRDFDictionary.write(original, file);
+
+        RDFHexaStore reopened = new RDFHexaStore(MappedRDFDictionary.open(file));
+        reopened.addAll(triples);
+
+        assertEquals(original.size(), reopened.dict.size(), "Reloading must not add any term.");
+        assertTrue(reopened.getAtoms().containsAll(triples));
+    }
+
+    private static Literal<String> literal(String value) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(value);
+    }
+}
@@ -0,0 +1,115 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static qengine.storage.StoreFixtures.*;
+
+/**
+ * Tests unitaires pour la classe {@link MappedRDFHexaStore}.
+ */
+class MappedRDFHexaStoreTest {
+    private Path directory;
+
+    @BeforeEach
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("hexastore");
+    }
+
+    @AfterEach
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testReopenAnswersLikeSource() throws IOException {
+        RDFHexaStore source = randomStore(new RDFDictionary(), 13);
+        MappedRDFHexaStore.write(source, directory);
+
+        MappedRDFHexaStore store = MappedRDFHexaStore.open(directory);
+
+        assertEquals(source.size(), store.size());
+        assertEquals(new HashSet<>(source.getAtoms()), new HashSet<>(store.getAtoms()));
+        assertSameAnswers(source, store,
+                List.of(literal("s5"), literal("unknown"), VAR_S),
+                List.of(literal("p2"), VAR_P),
+                List.of(literal("o40"), VAR_O));
+
+        StarQuery query = new StarQuery("q", List.of(
+                new RDFTriple(VAR_S, literal("p1"), VAR_O),
+                new RDFTriple(VAR_S, literal("p3"), literal("o7"))), List.of(VAR_S, VAR_O));
+        Set<Substitution> expected = new HashSet<>();
+        source.match(query).forEachRemaining(expected::add);
+        Set<Substitution> actual = new HashSet<>();
+        store.match(query).forEachRemaining(actual::add);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testCursorAgreesWithForEachMatch() throws IOException {
+        MappedRDFHexaStore.write(randomStore(new RDFDictionary(), 13), directory);
+        MappedRDFHexaStore store = MappedRDFHexaStore.open(directory);
+        TermDictionary dict = store.getDictionary();
+        int any = EncodedRDFStorage.ANY;
+        int[] subjects = {any, dict.getIdOrNull(literal("s5").toString())};
+        int[] predicates = {any, dict.getIdOrNull(literal("p2").toString())};
+        int[] objects = {any, dict.getIdOrNull(literal("o40").toString())};
+        for (int s : subjects) {
+            for (int p : predicates) {
+                for (int o : objects) {
+                    List<List<Integer>> expected = new ArrayList<>();
+                    store.forEachMatch(s, p, o, (ts, tp, to) -> expected.add(List.of(ts, tp, to)));
+                    List<List<Integer>> actual = new ArrayList<>();
+                    EncodedRDFStorage.TripleIdCursor cursor = store.cursor(s, p, o);
+                    while (cursor.advance()) {
+                        actual.add(List.of(cursor.s(), cursor.p(), cursor.o()));
+                    }
+                    assertEquals(expected, actual, "cursor " + s + " " + p + " " + o);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReadOnly() throws IOException {
+        MappedRDFHexaStore.write(new RDFHexaStore(), directory);
+        MappedRDFHexaStore store = MappedRDFHexaStore.open(directory);
+
+        assertEquals(0, store.size());
+        assertThrows(UnsupportedOperationException.class,
+                () -> store.add(new RDFTriple(literal("a"), literal("b"), literal("c"))));
+    }
+
+    @Test
+    public void testInvalidDirectory() throws IOException {
+        assertThrows(IOException.class, () -> MappedRDFHexaStore.open(directory));
+
+        MappedRDFHexaStore.write(randomStore(new RDFDictionary(), 13), directory);
+        Files.write(directory.resolve("pos.idx"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+        assertThrows(IOException.class, () -> MappedRDFHexaStore.open(directory));
+    }
+
+    @Test
+    public void testInlineIdsRejected() {
+        RDFHexaStore source = new RDFHexaStore(new InlineRDFDictionary());
+        source.add(new RDFTriple(literal("a"), literal("b"), literal("\"42\"")));
+
+        assertThrows(IllegalArgumentException.class, () -> MappedRDFHexaStore.write(source, directory));
+    }
+}
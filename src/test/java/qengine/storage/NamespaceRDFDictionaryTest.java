@@ -0,0 +1,144 @@
+package qengine.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link NamespaceRDFDictionary}.
+ */
+class NamespaceRDFDictionaryTest {
+
+    @Test
+    void testDecodeReturnsExactOriginalString() {
+        NamespaceRDFDictionary dictionary = new NamespaceRDFDictionary();
+        String[] terms = {
+                "http://db.uwaterloo.ca/~galuc/wsdbm/User0",
+                "http://schema.org/birthDate",
+                "\"1988-09-24\"",
+                "http://www.w3.org/1999/02/22-rdf-syntax-ns#type",
+                "http://example.org/ends/with/slash/",
+                "literal",
+                ""
+        };
+
+        for (int i = 0; i < terms.length; i++) {
+            assertEquals(i, dictionary.encode(terms[i]), "IDs should be assigned in first-seen order.");
+        }
+        for (int i = 0; i < terms.length; i++) {
+            assertEquals(terms[i], dictionary.decode(i), "Decoding must return the exact original string.");
+        }
+    }
+
+    @Test
+    void testNamespacesAreShared() {
+        NamespaceRDFDictionary dictionary = new NamespaceRDFDictionary();
+
+        dictionary.encode("http://db.uwaterloo.ca/~galuc/wsdbm/User0");
+        dictionary.encode("http://db.uwaterloo.ca/~galuc/wsdbm/User1");
+        dictionary.encode("http://schema.org/birthDate");
+        dictionary.encode("http://db.uwaterloo.ca/~galuc/wsdbm/Country1");
+
+        assertEquals(4, dictionary.size());
+        // Espace vide + wsdbm + schema.org
+        assertEquals(3, dictionary.namespaceCount(), "Each namespace should be stored only once.");
+    }
+
+    @Test
+    void testSameLocalNameInDifferentNamespaces() {
+        NamespaceRDFDictionary dictionary = new NamespaceRDFDictionary();
+
+        int a = dictionary.encode("http://a.org/name");
+        int b = dictionary.encode("http://b.org/name");
+        int c = dictionary.encode("name");
+
+        assertNotEquals(a, b, "Same local name in different namespaces must get different IDs.");
+        assertNotEquals(a, c);
+        assertEquals(a, dictionary.encode("http://a.org/name"));
+        assertEquals(b, dictionary.getIdOrNull("http://b.org/name"));
+        assertEquals(c, dictionary.getIdOrNull("name"));
+    }
+
+    @Test
+    void testGetIdOrNullDoesNotEncode() {
+        NamespaceRDFDictionary dictionary = new NamespaceRDFDictionary();
+        dictionary.encode("http://schema.org/birthDate");
+
+        assertNull(dictionary.getIdOrNull("http://schema.org/unknown"), "Unknown local name should return null.");
+        assertNull(dictionary.getIdOrNull("http://unknown.org/birthDate"), "Unknown namespace should return null.");
+        assertNull(dictionary.getIdOrNull(null));
+        assertEquals(1, dictionary.size(), "getIdOrNull must not add terms.");
+        assertEquals(2, dictionary.namespaceCount(), "getIdOrNull must not add namespaces.");
+    }
+
+    @Test
+    void testOnlyIrisAreSplit() {
+        NamespaceRDFDictionary dictionary = new NamespaceRDFDictionary();
+        String[] literals = {"\"a/b#c\"", "\"http://quoted.org/x\"", "1/2", "path/to/file", "-x:/y"};
+        for (String literal : literals) {
+            int id = dictionary.encode(literal);
+            assertEquals(literal, dictionary.decode(id));
+            assertEquals(id, dictionary.getIdOrNull(literal));
+        }
+        assertEquals(1, dictionary.namespaceCount(), "Literals must not add namespaces.");
+
+        dictionary.encode("urn:isbn/0451450523");
+        dictionary.encode("http://schema.org/name");
+        assertEquals(3, dictionary.namespaceCount());
+        assertEquals("urn:isbn/0451450523", dictionary.decode(dictionary.getIdOrNull("urn:isbn/0451450523")));
+    }
+
+    @Test
+    void testErrors() {
+        NamespaceRDFDictionary dictionary = new NamespaceRDFDictionary();
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> dictionary.encode(null));
+        assertEquals("La chaîne ne peut pas être null", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(0));
+    }
+
+    @Test
+    void testManyTermsSurviveGrowth() {
+        NamespaceRDFDictionary dictionary = new NamespaceRDFDictionary();
+        int n = 50_000;
+
+        for (int i = 0; i < n; i++) {
+            String ns = i % 2 == 0 ? "http://db.uwaterloo.ca/~galuc/wsdbm/" : "http://schema.org/";
+            assertEquals(i, dictionary.encode(ns + "Term" + i));
+        }
+        for (int i = 0; i < n; i++) {
+            String ns = i % 2 == 0 ? "http://db.uwaterloo.ca/~galuc/wsdbm/" : "http://schema.org/";
+            assertEquals(ns + "Term" + i, dictionary.decode(i));
+            assertEquals(i, dictionary.getIdOrNull(ns + "Term" + i));
+        }
+    }
+
+    @Test
+    void testNonAsciiLocalNames() {
+        NamespaceRDFDictionary dictionary = new NamespaceRDFDictionary();
+        // Noms locaux codés sur 1 à 4 octets UTF-8 par caractère, préfixes communs compris
+        String[] terms = new String[2000];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = "http://example.org/" + switch (i % 4) {
+                case 0 -> "a" + i;
+                case 1 -> "é" + i;
+                case 2 -> "日本" + i;
+                default -> "\uD83D\uDE00" + i;
+            };
+            assertEquals(i, dictionary.encode(terms[i]));
+        }
+        for (int i = 0; i < terms.length; i++) {
+            assertEquals(terms[i], dictionary.decode(i), "Decoding must return the exact original string.");
+            assertEquals(i, dictionary.getIdOrNull(terms[i]));
+            assertEquals(i, dictionary.encode(terms[i]));
+        }
+        assertNull(dictionary.getIdOrNull("http://example.org/é"));
+        assertNull(dictionary.getIdOrNull("http://example.org/a1"), "A prefix of a stored local name is another term.");
+        assertNull(dictionary.getIdOrNull("http://example.org/a00"), "A longer local name is another term.");
+
+        // Demi-paire isolée : même traitement que String.getBytes, remplacée par '?'
+        int lone = dictionary.encode("http://example.org/x\uD83D");
+        assertEquals("http://example.org/x?", dictionary.decode(lone));
+        assertEquals(lone, dictionary.getIdOrNull("http://example.org/x?"));
+    }
+}
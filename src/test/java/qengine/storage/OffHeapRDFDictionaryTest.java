@@ -0,0 +1,93 @@
+package qengine.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link OffHeapRDFDictionary}.
+ */
+class OffHeapRDFDictionaryTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        OffHeapRDFDictionary dictionary = new OffHeapRDFDictionary();
+
+        int user = dictionary.encode("http://db.uwaterloo.ca/~galuc/wsdbm/User0");
+        int date = dictionary.encode("1988-09-24");
+
+        assertEquals(0, user, "The first string should be encoded with the ID 0.");
+        assertEquals(1, date, "The second string should be encoded with the ID 1.");
+        assertEquals("http://db.uwaterloo.ca/~galuc/wsdbm/User0", dictionary.decode(user));
+        assertEquals("1988-09-24", dictionary.decode(date));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void testEncodeSameStringReturnsSameId() {
+        OffHeapRDFDictionary dictionary = new OffHeapRDFDictionary();
+
+        int first = dictionary.encode("example");
+        int second = dictionary.encode(new String("example"));
+
+        assertEquals(first, second, "The same string should always return the same encoded ID.");
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    void testNonAsciiTermsRoundTrip() {
+        OffHeapRDFDictionary dictionary = new OffHeapRDFDictionary();
+        String accented = "Requête étoile — évaluation";
+        String longTerm = "x".repeat(300);
+
+        int a = dictionary.encode(accented);
+        int b = dictionary.encode(longTerm);
+
+        assertEquals(accented, dictionary.decode(a), "UTF-8 terms should decode to the original string.");
+        assertEquals(longTerm, dictionary.decode(b), "Terms with a multi-byte length prefix should round-trip.");
+        assertEquals(a, dictionary.getIdOrNull(accented));
+    }
+
+    @Test
+    void testGetIdOrNullDoesNotEncode() {
+        OffHeapRDFDictionary dictionary = new OffHeapRDFDictionary();
+        dictionary.encode("known");
+
+        assertNull(dictionary.getIdOrNull("unknown"), "An unknown string should return null.");
+        assertNull(dictionary.getIdOrNull(null), "A null string should return null.");
+        assertEquals(1, dictionary.size(), "getIdOrNull must not add entries to the dictionary.");
+    }
+
+    @Test
+    void testErrors() {
+        OffHeapRDFDictionary dictionary = new OffHeapRDFDictionary();
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> dictionary.encode(null));
+        assertEquals("La chaîne ne peut pas être null", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(0));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapRDFDictionary(0));
+    }
+
+    @Test
+    void testManyTermsAcrossChunks() {
+        // Petits blocs pour forcer l'arène à en allouer plusieurs
+        OffHeapRDFDictionary dictionary = new OffHeapRDFDictionary(1024);
+        int n = 20_000;
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, dictionary.encode("http://db.uwaterloo.ca/~galuc/wsdbm/User" + i));
+        }
+        // Un terme plus grand qu'un bloc reçoit son propre bloc
+        String huge = "y".repeat(4096);
+        int hugeId = dictionary.encode(huge);
+
+        assertEquals(n + 1, dictionary.size());
+        assertTrue(dictionary.offHeapBytes() > 1024, "Several chunks should have been allocated.");
+        for (int i = 0; i < n; i++) {
+            String term = "http://db.uwaterloo.ca/~galuc/wsdbm/User" + i;
+            assertEquals(term, dictionary.decode(i));
+            assertEquals(i, dictionary.getIdOrNull(term));
+        }
+        assertEquals(huge, dictionary.decode(hugeId));
+    }
+}
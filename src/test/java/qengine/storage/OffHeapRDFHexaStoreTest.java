@@ -0,0 +1,51 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.*;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static qengine.storage.StoreFixtures.*;
+
+/**
+ * Tests unitaires pour la classe {@link OffHeapRDFHexaStore} : la suite de
+ * {@link RDFHexaStoreTest} est rejouée sur le store hors tas.
+ */
+public class OffHeapRDFHexaStoreTest extends RDFHexaStoreTest {
+    @Override
+    protected RDFStorage newStore() {
+        return new OffHeapRDFHexaStore();
+    }
+
+    @Test
+    public void testAgreesWithHexaStoreAfterRehash() {
+        RDFHexaStore reference = new RDFHexaStore();
+        OffHeapRDFHexaStore store = new OffHeapRDFHexaStore();
+        Random random = new Random(9);
+        for (int i = 0; i < 20_000; i++) {
+            RDFTriple triple = randomTriple(random, 2000, 15, 3000);
+            assertEquals(reference.add(triple), store.add(triple));
+        }
+        assertEquals(reference.size(), store.size());
+
+        assertSameAnswers(reference, store,
+                List.of(literal("s42"), VAR_S),
+                List.of(literal("p3"), VAR_P),
+                List.of(literal("o17"), VAR_O));
+        assertTrue(store.offHeapBytes() > 0);
+    }
+
+    @Test
+    public void testRepeatedVariable() {
+        OffHeapRDFHexaStore store = new OffHeapRDFHexaStore();
+        store.add(new RDFTriple(literal("a"), literal("knows"), literal("a")));
+        store.add(new RDFTriple(literal("a"), literal("knows"), literal("b")));
+
+        List<Substitution> results = new ArrayList<>();
+        store.match(new RDFTriple(VAR_S, literal("knows"), VAR_S)).forEachRemaining(results::add);
+        assertEquals(1, results.size());
+        assertEquals(literal("a"), results.getFirst().createImageOf(VAR_S));
+    }
+}
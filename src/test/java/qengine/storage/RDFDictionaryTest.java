@@ -82,4 +82,52 @@ class RDFDictionaryTest {
         assertEquals(reusedEncoding, secondUsage, "Reusing a string should return the same ID as the first encoding.");
         assertNotEquals(initialEncoding, reusedEncoding, "Two different strings should not share the same encoded ID.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDecodeReturnsOriginalString() {
+        RDFDictionary dictionary = new RDFDictionary();
+        int id = dictionary.encode("http://db.uwaterloo.ca/~galuc/wsdbm/User0");
+
+        assertEquals("http://db.uwaterloo.ca/~galuc/wsdbm/User0", dictionary.decode(id),
+                "Decoding an encoded ID should return the original string.");
+    }
+
+    @Test
+    void testDecodeUnknownIdThrowsException() {
+        RDFDictionary dictionary = new RDFDictionary();
+        dictionary.encode("example");
+
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(1));
+        assertThrows(IllegalArgumentException.class, () -> dictionary.decode(-1));
+    }
+
+    @Test
+    void testGetIdOrNullDoesNotEncode() {
+        RDFDictionary dictionary = new RDFDictionary();
+        int id = dictionary.encode("known");
+
+        assertEquals(id, dictionary.getIdOrNull("known"), "A known string should return its ID.");
+        assertNull(dictionary.getIdOrNull("unknown"), "An unknown string should return null.");
+        assertNull(dictionary.getIdOrNull(null), "A null string should return null.");
+        assertEquals(1, dictionary.size(), "getIdOrNull must not add entries to the dictionary.");
+    }
+
+    @Test
+    void testManyStringsSurviveGrowth() {
+        RDFDictionary dictionary = new RDFDictionary();
+        int n = 100_000;
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, dictionary.encode("http://db.uwaterloo.ca/~galuc/wsdbm/User" + i),
+                    "IDs should be assigned densely in first-seen order.");
+        }
+
+        assertEquals(n, dictionary.size(), "Size should count every distinct string.");
+        for (int i = 0; i < n; i++) {
+            String term = "http://db.uwaterloo.ca/~galuc/wsdbm/User" + i;
+            assertEquals(i, dictionary.encode(term), "Re-encoding should return the existing ID.");
+            assertEquals(term, dictionary.decode(i), "Decoding should survive table growth.");
+        }
+        assertEquals(n, dictionary.size(), "Re-encoding should not change the size.");
+    }
+}
@@ -316,4 +316,88 @@ public class RDFGiantTableTest {
         }
         return values;
     }
+
+    @Test
+    public void testRemoveUnsupported() {
+        RDFGiantTable store = new RDFGiantTable();
+        RDFTriple triple = new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1);
+        store.add(triple);
+        assertThrows(UnsupportedOperationException.class, () -> store.remove(triple));
+        assertThrows(UnsupportedOperationException.class, () -> store.removeAll(List.of(triple)));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testQueriesDoNotGrowDictionary() {
+        RDFGiantTable store = new RDFGiantTable();
+        store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1));
+        int dictSize = store.getDictionary().size();
+        Variable varO = SameObjectTermFactory.instance().createOrGetVariable("?o");
+
+        assertFalse(store.match(new RDFTriple(SUBJECT_1, PREDICATE_2, varO)).hasNext());
+        assertEquals(0, store.howMany(new RDFTriple(SUBJECT_2, PREDICATE_1, varO)));
+        assertEquals(1, store.howMany(new RDFTriple(SUBJECT_1, PREDICATE_1, varO)));
+        assertEquals(dictSize, store.getDictionary().size());
+    }
+
+    @Test
+    public void testCursorAgreesWithForEachMatch() {
+        RDFGiantTable store = new RDFGiantTable();
+        store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1));
+        store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_2));
+        store.add(new RDFTriple(SUBJECT_2, PREDICATE_2, OBJECT_1));
+        TermDictionary dict = store.getDictionary();
+        int any = EncodedRDFStorage.ANY;
+        int s1 = dict.getIdOrNull(SUBJECT_1.toString());
+        int o1 = dict.getIdOrNull(OBJECT_1.toString());
+
+        for (int[] pattern : new int[][]{{any, any, any}, {s1, any, any}, {any, any, o1}, {s1, any, o1}}) {
+            List<List<Integer>> expected = new ArrayList<>();
+            store.forEachMatch(pattern[0], pattern[1], pattern[2], (s, p, o) -> expected.add(List.of(s, p, o)));
+            List<List<Integer>> actual = new ArrayList<>();
+            EncodedRDFStorage.TripleIdCursor cursor = store.cursor(pattern[0], pattern[1], pattern[2]);
+            while (cursor.advance()) {
+                actual.add(List.of(cursor.s(), cursor.p(), cursor.o()));
+            }
+            assertFalse(cursor.advance(), "An exhausted cursor stays exhausted.");
+            assertEquals(expected, actual, "cursor " + Arrays.toString(pattern));
+        }
+
+        // Un motif dont une variable est répétée ne garde que les triplets cohérents
+        store.add(new RDFTriple(SUBJECT_2, PREDICATE_1, SUBJECT_2));
+        Iterator<Substitution> loops = store.match(new RDFTriple(VAR_S, VAR_P, VAR_S));
+        assertTrue(loops.hasNext());
+        assertEquals(SUBJECT_2, loops.next().createImageOf(VAR_S));
+        assertFalse(loops.hasNext());
+    }
+
+    @Test
+    public void testMatchDecodesOnlyTheAnswersRead() {
+        int[] decoded = {0};
+        RDFGiantTable store = new RDFGiantTable(new RDFDictionary() {
+            @Override
+            public String decode(int i) {
+                decoded[0]++;
+                return super.decode(i);
+            }
+        });
+        for (int i = 0; i < 1_000; i++) {
+            store.add(new RDFTriple(SameObjectTermFactory.instance().createOrGetLiteral("s" + i), PREDICATE_1,
+                    SameObjectTermFactory.instance().createOrGetLiteral("o" + i)));
+        }
+
+        Iterator<Substitution> matches = store.match(new RDFTriple(VAR_S, PREDICATE_1, VAR_O));
+        assertTrue(matches.hasNext());
+        matches.next();
+        // Une seule réponse lue : seuls son sujet et son objet ont été décodés
+        assertEquals(2, decoded[0], "match should decode only the answer it returned");
+
+        int answers = 1;
+        while (matches.hasNext()) {
+            matches.next();
+            answers++;
+        }
+        assertEquals(1_000, answers);
+        assertEquals(2_000, decoded[0]);
+    }
 }
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import qengine.model.StarQuery;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.UnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,9 +29,16 @@ public class RDFHexaStoreTest {
     private static final Variable VAR_O = SameObjectTermFactory.instance().createOrGetVariable("?o");
     private static final Variable VAR_X = SameObjectTermFactory.instance().createOrGetVariable("?x");
 
+    /**
+     * Store testé ; les sous-classes rejouent ces tests sur une autre implémentation.
+     */
+    protected RDFStorage newStore() {
+        return new RDFHexaStore();
+    }
+
     @Test
     public void testAddAllRDFAtoms() {
-        RDFHexaStore store = new RDFHexaStore();
+        RDFStorage store = newStore();
 
         // Version stream
         // Ajouter plusieurs RDFAtom
@@ -46,7 +55,7 @@ public class RDFHexaStoreTest {
         assertTrue(atoms.contains(rdfAtom2), "La base devrait contenir le second RDFAtom ajouté.");
 
         // Version collection
-        store = new RDFHexaStore();
+        store = newStore();
         assertTrue(store.addAll(rdfAtoms), "Les RDFAtoms devraient être ajoutés avec succès.");
 
         // Vérifier que tous les atomes sont présents
@@ -57,7 +66,7 @@ public class RDFHexaStoreTest {
 
     @Test
     public void testAddRDFAtom() {
-        RDFHexaStore store = new RDFHexaStore();
+        RDFStorage store = newStore();
 
         // Adding a new triple should return true
         assertTrue(store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1)),
@@ -78,7 +87,7 @@ public class RDFHexaStoreTest {
 
     @Test
     public void testAddDuplicateAtom() {
-        RDFHexaStore store = new RDFHexaStore();
+        RDFStorage store = newStore();
 
         // Add the first triple
         RDFTriple triple1 = new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1);
@@ -123,7 +132,7 @@ public class RDFHexaStoreTest {
 
     @Test
     public void testSize() {
-        RDFHexaStore store = new RDFHexaStore();
+        RDFStorage store = newStore();
 
         // Test 1: Empty store should have size 0
         assertEquals(0, store.size(), "Empty store should have size 0");
@@ -166,7 +175,7 @@ public class RDFHexaStoreTest {
                 "size() should match the number of atoms returned by getAtoms()");
 
         // Test 9: Test with addAll (using Stream)
-        RDFHexaStore store2 = new RDFHexaStore();
+        RDFStorage store2 = newStore();
         Set<RDFTriple> triples = Set.of(
                 new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1),
                 new RDFTriple(SUBJECT_2, PREDICATE_2, OBJECT_2),
@@ -180,14 +189,14 @@ public class RDFHexaStoreTest {
         assertEquals(3, store2.size(), "Store size should remain 3 after addAll with duplicates");
 
         // Test 11: Test with addAll (using Collection)
-        RDFHexaStore store3 = new RDFHexaStore();
+        RDFStorage store3 = newStore();
         store3.addAll(triples);
         assertEquals(3, store3.size(), "Store should have size 3 after addAll(Collection)");
     }
 
     @Test
     public void testMatchAtom() {
-        RDFHexaStore store = new RDFHexaStore();
+        RDFStorage store = newStore();
         store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1));
         store.add(new RDFTriple(SUBJECT_2, PREDICATE_1, OBJECT_2));
         store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_3));
@@ -237,7 +246,7 @@ public class RDFHexaStoreTest {
 
     @Test
     public void testHowMany() {
-        RDFHexaStore store = new RDFHexaStore();
+        RDFStorage store = newStore();
 
         store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1));
         store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_3));
@@ -302,7 +311,7 @@ public class RDFHexaStoreTest {
 
     @Test
     public void testMatchStarQuery() {
-        RDFHexaStore store = new RDFHexaStore();
+        RDFStorage store = newStore();
 
         // Setup test data
         // Bob: knows Alice, livesIn Paris, worksAt Google
@@ -463,6 +472,22 @@ public class RDFHexaStoreTest {
         assertTrue(names6.contains("Charlie"));
     }
 
+    @Test
+    public void testOffHeapDictionary() {
+        RDFHexaStore store = new RDFHexaStore(new OffHeapRDFDictionary());
+        RDFTriple triple1 = new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1);
+        RDFTriple triple2 = new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_2);
+
+        assertTrue(store.add(triple1));
+        assertTrue(store.add(triple2));
+        assertFalse(store.add(triple1), "Duplicates must be detected with an off-heap dictionary too");
+
+        List<Substitution> results = new ArrayList<>();
+        store.match(new RDFTriple(SUBJECT_1, PREDICATE_1, VAR_O)).forEachRemaining(results::add);
+        assertEquals(Set.of("object1", "object2"), extractVariableValues(results, VAR_O));
+        assertTrue(store.getAtoms().containsAll(List.of(triple1, triple2)));
+    }
+
     // Helper method to extract values for a variable from substitutions
     private Set<String> extractVariableValues(List<Substitution> substitutions, Variable var) {
         Set<String> values = new HashSet<>();
@@ -474,4 +499,272 @@ public class RDFHexaStoreTest {
         }
         return values;
     }
+
+    @Test
+    public void testBitmapLeavesStarQuery() {
+        RDFHexaStore plain = new RDFHexaStore();
+        RDFHexaStore bitmaps = new RDFHexaStore(new RDFDictionary(), true);
+        Random random = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            RDFTriple triple = new RDFTriple(
+                    SameObjectTermFactory.instance().createOrGetLiteral("s" + random.nextInt(2000)),
+                    SameObjectTermFactory.instance().createOrGetLiteral("p" + random.nextInt(3)),
+                    SameObjectTermFactory.instance().createOrGetLiteral("o" + random.nextInt(4)));
+            assertEquals(plain.add(triple), bitmaps.add(triple));
+        }
+
+        List<StarQuery> queries = List.of(
+                new StarQuery("bitmaps", List.of(
+                        new RDFTriple(VAR_X, SameObjectTermFactory.instance().createOrGetLiteral("p0"), SameObjectTermFactory.instance().createOrGetLiteral("o1")),
+                        new RDFTriple(VAR_X, SameObjectTermFactory.instance().createOrGetLiteral("p1"), SameObjectTermFactory.instance().createOrGetLiteral("o2"))),
+                        List.of(VAR_X)),
+                new StarQuery("fallback", List.of(
+                        new RDFTriple(VAR_X, SameObjectTermFactory.instance().createOrGetLiteral("p2"), VAR_O),
+                        new RDFTriple(VAR_X, SameObjectTermFactory.instance().createOrGetLiteral("p1"), SameObjectTermFactory.instance().createOrGetLiteral("o0"))),
+                        List.of(VAR_X, VAR_O)),
+                new StarQuery("unknown", List.of(
+                        new RDFTriple(VAR_X, SameObjectTermFactory.instance().createOrGetLiteral("p0"), OBJECT_1)),
+                        List.of(VAR_X)));
+        for (StarQuery query : queries) {
+            List<Substitution> expected = new ArrayList<>();
+            plain.match(query).forEachRemaining(expected::add);
+            List<Substitution> actual = new ArrayList<>();
+            bitmaps.match(query).forEachRemaining(actual::add);
+            assertEquals(new HashSet<>(expected), new HashSet<>(actual), query.getLabel());
+            assertEquals(expected.size(), actual.size(), query.getLabel());
+        }
+        assertEquals(plain.howMany(new RDFTriple(VAR_S, SameObjectTermFactory.instance().createOrGetLiteral("p1"), VAR_O)),
+                bitmaps.howMany(new RDFTriple(VAR_S, SameObjectTermFactory.instance().createOrGetLiteral("p1"), VAR_O)));
+        assertEquals(new HashSet<>(plain.getAtoms()), new HashSet<>(bitmaps.getAtoms()));
+    }
+
+    @Test
+    public void testRemove() {
+        RDFHexaStore store = new RDFHexaStore();
+        RDFTriple removed = new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1);
+        store.add(removed);
+        store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_2));
+        store.add(new RDFTriple(SUBJECT_2, PREDICATE_2, OBJECT_1));
+
+        assertTrue(store.remove(removed), "Le triplet présent devrait être retiré.");
+        assertFalse(store.remove(removed), "Un triplet déjà retiré ne devrait pas l'être deux fois.");
+        assertFalse(store.remove(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_3)), "Terme inconnu : rien à retirer.");
+
+        assertEquals(2, store.size());
+        assertFalse(store.getAtoms().contains(removed));
+        assertEquals(0, store.howMany(removed));
+        assertEquals(1, store.howMany(new RDFTriple(SUBJECT_1, PREDICATE_1, VAR_O)));
+        assertEquals(1, store.howMany(new RDFTriple(VAR_S, VAR_P, OBJECT_1)));
+        assertEquals(0, store.howMany(new RDFTriple(SUBJECT_1, VAR_P, OBJECT_1)));
+        assertFalse(store.match(new RDFTriple(VAR_S, PREDICATE_1, OBJECT_1)).hasNext());
+
+        assertTrue(store.removeAll(store.getAtoms()));
+        assertEquals(0, store.size());
+        assertTrue(store.indexSPO.isEmpty() && store.indexOPS.isEmpty(), "Les niveaux vides devraient disparaître.");
+        assertTrue(store.countS.isEmpty() && store.countSP.isEmpty() && store.countPO.isEmpty(),
+                "Les statistiques nulles devraient disparaître.");
+    }
+
+    @Test
+    public void testRemoveAllAgreesWithRebuiltStore() {
+        for (boolean bitmapLeaves : List.of(false, true)) {
+            RDFHexaStore store = new RDFHexaStore(new RDFDictionary(), bitmapLeaves);
+            Random random = new Random(11);
+            List<RDFTriple> triples = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) {
+                RDFTriple triple = new RDFTriple(
+                        SameObjectTermFactory.instance().createOrGetLiteral("s" + random.nextInt(1000)),
+                        SameObjectTermFactory.instance().createOrGetLiteral("p" + random.nextInt(5)),
+                        SameObjectTermFactory.instance().createOrGetLiteral("o" + random.nextInt(6000)));
+                if (store.add(triple)) {
+                    triples.add(triple);
+                }
+            }
+
+            // Une moitié au hasard, avec des doublons et des triplets absents
+            Collections.shuffle(triples, random);
+            List<RDFTriple> removed = new ArrayList<>(triples.subList(0, triples.size() / 2));
+            List<RDFTriple> batch = new ArrayList<>(removed);
+            batch.addAll(removed.subList(0, 100));
+            batch.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1));
+            batch.add(new RDFTriple(SameObjectTermFactory.instance().createOrGetLiteral("s1"),
+                    SameObjectTermFactory.instance().createOrGetLiteral("p1"),
+                    SameObjectTermFactory.instance().createOrGetLiteral("absent")));
+            assertTrue(store.removeAll(batch.stream()));
+            assertFalse(store.removeAll(removed));
+
+            RDFHexaStore expected = new RDFHexaStore();
+            expected.addAll(triples.subList(triples.size() / 2, triples.size()));
+            assertEquals(expected.size(), store.size());
+            assertEquals(new HashSet<>(expected.getAtoms()), new HashSet<>(store.getAtoms()));
+            for (Term s : List.of(SameObjectTermFactory.instance().createOrGetLiteral("s42"), VAR_S)) {
+                for (Term p : List.of(SameObjectTermFactory.instance().createOrGetLiteral("p3"), VAR_P)) {
+                    for (Term o : List.of(SameObjectTermFactory.instance().createOrGetLiteral("o17"), VAR_O)) {
+                        RDFTriple pattern = new RDFTriple(s, p, o);
+                        assertEquals(expected.howMany(pattern), store.howMany(pattern), "howMany " + pattern);
+                        Set<Substitution> expectedMatches = new HashSet<>();
+                        expected.match(pattern).forEachRemaining(expectedMatches::add);
+                        Set<Substitution> actualMatches = new HashSet<>();
+                        store.match(pattern).forEachRemaining(actualMatches::add);
+                        assertEquals(expectedMatches, actualMatches, "match " + pattern);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentReadsHaveNoSideEffects() throws Exception {
+        assertConcurrentReadsHaveNoSideEffects(newStore(), UnaryOperator.identity());
+    }
+
+    @Test
+    public void testConcurrentReadsWithNamespaceDictionary() throws Exception {
+        // IRIs réparties sur plusieurs espaces de noms, qui alternent d'une recherche à l'autre
+        assertConcurrentReadsHaveNoSideEffects(new RDFHexaStore(new NamespaceRDFDictionary()),
+                name -> "http://example.org/" + name.charAt(0) + "/" + name);
+    }
+
+    /**
+     * Charge le store, puis rejoue motifs et étoiles depuis plusieurs threads : les
+     * réponses doivent être celles d'un seul thread, et ni le store ni son
+     * dictionnaire ne doivent grandir. Les noms des termes passent par {@code term}.
+     */
+    private static void assertConcurrentReadsHaveNoSideEffects(RDFStorage store, UnaryOperator<String> term) throws Exception {
+        Random random = new Random(13);
+        for (int i = 0; i < 5000; i++) {
+            store.add(new RDFTriple(
+                    SameObjectTermFactory.instance().createOrGetLiteral(term.apply("s" + random.nextInt(500))),
+                    SameObjectTermFactory.instance().createOrGetLiteral(term.apply("p" + random.nextInt(8))),
+                    SameObjectTermFactory.instance().createOrGetLiteral(term.apply("o" + random.nextInt(300)))));
+        }
+        TermDictionary dict = store instanceof EncodedRDFStorage encoded ? encoded.getDictionary() : null;
+        int dictSize = dict == null ? 0 : dict.size();
+        long size = store.size();
+
+        // Motifs et étoiles, dont certains portent des constantes inconnues
+        List<RDFTriple> patterns = new ArrayList<>();
+        for (String s : List.of("s7", "unknownS")) {
+            for (String p : List.of("p3", "unknownP")) {
+                for (String o : List.of("o11", "unknownO")) {
+                    patterns.add(new RDFTriple(SameObjectTermFactory.instance().createOrGetLiteral(term.apply(s)), VAR_P, VAR_O));
+                    patterns.add(new RDFTriple(VAR_S, SameObjectTermFactory.instance().createOrGetLiteral(term.apply(p)), SameObjectTermFactory.instance().createOrGetLiteral(term.apply(o))));
+                    patterns.add(new RDFTriple(SameObjectTermFactory.instance().createOrGetLiteral(term.apply(s)), SameObjectTermFactory.instance().createOrGetLiteral(term.apply(p)), VAR_O));
+                }
+            }
+        }
+        StarQuery star = new StarQuery("star", List.of(
+                new RDFTriple(VAR_X, SameObjectTermFactory.instance().createOrGetLiteral(term.apply("p1")), VAR_O),
+                new RDFTriple(VAR_X, SameObjectTermFactory.instance().createOrGetLiteral(term.apply("p2")), SameObjectTermFactory.instance().createOrGetLiteral(term.apply("o5")))),
+                List.of(VAR_X, VAR_O));
+        StarQuery unknownStar = new StarQuery("unknown", List.of(
+                new RDFTriple(VAR_X, SameObjectTermFactory.instance().createOrGetLiteral(term.apply("p1")), VAR_O),
+                new RDFTriple(VAR_X, SameObjectTermFactory.instance().createOrGetLiteral(term.apply("neverSeen")), OBJECT_1)),
+                List.of(VAR_X));
+        List<Object> expected = answers(store, patterns, star, unknownStar);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Object>>> results = new ArrayList<>();
+            for (int t = 0; t < 32; t++) {
+                results.add(pool.submit(() -> answers(store, patterns, star, unknownStar)));
+            }
+            for (Future<List<Object>> result : results) {
+                assertEquals(expected, result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(size, store.size());
+        if (dict != null) {
+            assertEquals(dictSize, dict.size(), "Les lectures ne devraient pas encoder de constantes.");
+            assertNull(dict.getIdOrNull(SameObjectTermFactory.instance().createOrGetLiteral(term.apply("unknownS")).toString()));
+        }
+    }
+
+    private static final Comparator<List<Integer>> TRIPLE_ORDER = Comparator.<List<Integer>>comparingInt(t -> t.get(0))
+            .thenComparingInt(t -> t.get(1)).thenComparingInt(t -> t.get(2));
+
+    @Test
+    public void testCursorAgreesWithForEachMatch() {
+        RDFStorage store = newStore();
+        Random random = new Random(5);
+        for (int i = 0; i < 3000; i++) {
+            store.add(new RDFTriple(
+                    SameObjectTermFactory.instance().createOrGetLiteral("s" + random.nextInt(200)),
+                    SameObjectTermFactory.instance().createOrGetLiteral("p" + random.nextInt(6)),
+                    SameObjectTermFactory.instance().createOrGetLiteral("o" + random.nextInt(300))));
+        }
+        store.add(new RDFTriple(SUBJECT_1, PREDICATE_1, OBJECT_1));
+        EncodedRDFStorage encoded = (EncodedRDFStorage) store;
+        TermDictionary dict = encoded.getDictionary();
+        int any = EncodedRDFStorage.ANY;
+
+        // Constantes présentes, absentes à cette position, ou libres
+        int[] subjects = {any, dict.getIdOrNull(SUBJECT_1.toString()), dict.getIdOrNull("s17"), dict.getIdOrNull("p1")};
+        int[] predicates = {any, dict.getIdOrNull(PREDICATE_1.toString()), dict.getIdOrNull("p2")};
+        int[] objects = {any, dict.getIdOrNull(OBJECT_1.toString()), dict.getIdOrNull("o40")};
+        for (int s : subjects) {
+            for (int p : predicates) {
+                for (int o : objects) {
+                    List<List<Integer>> expected = new ArrayList<>();
+                    encoded.forEachMatch(s, p, o, (ts, tp, to) -> expected.add(List.of(ts, tp, to)));
+                    List<List<Integer>> actual = new ArrayList<>();
+                    EncodedRDFStorage.TripleIdCursor cursor = encoded.cursor(s, p, o);
+                    while (cursor.advance()) {
+                        actual.add(List.of(cursor.s(), cursor.p(), cursor.o()));
+                    }
+                    assertFalse(cursor.advance(), "An exhausted cursor stays exhausted.");
+                    // Une compaction en arrière-plan peut changer l'ordre entre les deux lectures
+                    expected.sort(TRIPLE_ORDER);
+                    actual.sort(TRIPLE_ORDER);
+                    assertEquals(expected, actual, "cursor " + s + " " + p + " " + o);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStarQueryLimitAndAsk() {
+        RDFStorage store = newStore();
+        for (int i = 0; i < 50; i++) {
+            Literal<String> subject = SameObjectTermFactory.instance().createOrGetLiteral("s" + i);
+            store.add(new RDFTriple(subject, PREDICATE_1, OBJECT_1));
+            store.add(new RDFTriple(subject, PREDICATE_2, SameObjectTermFactory.instance().createOrGetLiteral("o" + i)));
+        }
+        StarQuery star = new StarQuery("star", List.of(
+                new RDFTriple(VAR_X, PREDICATE_1, OBJECT_1),
+                new RDFTriple(VAR_X, PREDICATE_2, VAR_O)), List.of(VAR_X, VAR_O));
+        Set<Substitution> all = new HashSet<>();
+        store.match(star).forEachRemaining(all::add);
+        assertEquals(50, all.size());
+
+        for (long limit : new long[]{0, 1, 10, 50, 100}) {
+            List<Substitution> limited = new ArrayList<>();
+            store.match(star, limit).forEachRemaining(limited::add);
+            assertEquals(Math.min(limit, 50), limited.size(), "limit " + limit);
+            assertTrue(all.containsAll(limited), "limit " + limit);
+        }
+        assertTrue(store.ask(star));
+        assertFalse(store.ask(new StarQuery("none", List.of(
+                new RDFTriple(VAR_X, PREDICATE_1, OBJECT_2),
+                new RDFTriple(VAR_X, PREDICATE_2, VAR_O)), List.of(VAR_X))));
+        assertThrows(IllegalArgumentException.class, () -> store.match(star, -1));
+    }
+
+    private static List<Object> answers(RDFStorage store, List<RDFTriple> patterns, StarQuery... queries) {
+        List<Object> answers = new ArrayList<>();
+        for (RDFTriple pattern : patterns) {
+            Set<Substitution> matches = new HashSet<>();
+            store.match(pattern).forEachRemaining(matches::add);
+            answers.add(matches);
+            answers.add(store.howMany(pattern));
+        }
+        for (StarQuery query : queries) {
+            Set<Substitution> matches = new HashSet<>();
+            store.match(query).forEachRemaining(matches::add);
+            answers.add(matches);
+        }
+        return answers;
+    }
 }
@@ -0,0 +1,318 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Literal;
+import fr.boreal.model.logicalElements.api.Substitution;
+import fr.boreal.model.logicalElements.api.Variable;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link StarQueryEvaluator}.
+ */
+class StarQueryEvaluatorTest {
+    private static final Literal<String> KNOWS = literal("knows");
+    private static final Literal<String> LIVES_IN = literal("livesIn");
+    private static final Literal<String> WORKS_AT = literal("worksAt");
+    private static final Literal<String> ALICE = literal("Alice");
+    private static final Literal<String> PARIS = literal("Paris");
+    private static final Variable VAR_X = SameObjectTermFactory.instance().createOrGetVariable("?x");
+    private static final int ANY = EncodedRDFStorage.ANY;
+    private static final Variable VAR_Y = SameObjectTermFactory.instance().createOrGetVariable("?y");
+
+    private static Literal<String> literal(String value) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(value);
+    }
+
+    /**
+     * Dictionnaire qui compte les appels à decode.
+     */
+    private static final class CountingDictionary extends RDFDictionary {
+        int decodes = 0;
+
+        @Override
+        public String decode(int i) {
+            decodes++;
+            return super.decode(i);
+        }
+    }
+
+    private static void load(RDFStorage store) {
+        for (String person : List.of("Bob", "Charlie", "David")) {
+            store.add(new RDFTriple(literal(person), KNOWS, ALICE));
+            store.add(new RDFTriple(literal(person), WORKS_AT, literal(person + "Corp")));
+        }
+        store.add(new RDFTriple(literal("Bob"), LIVES_IN, PARIS));
+        store.add(new RDFTriple(literal("Charlie"), LIVES_IN, PARIS));
+        store.add(new RDFTriple(literal("David"), LIVES_IN, literal("London")));
+    }
+
+    private static List<Substitution> evaluate(RDFStorage store, StarQuery query) {
+        List<Substitution> results = new ArrayList<>();
+        store.match(query).forEachRemaining(results::add);
+        return results;
+    }
+
+    @Test
+    public void testDecodesOnlyAnswerVariablesOnIteration() {
+        CountingDictionary dictionary = new CountingDictionary();
+        RDFHexaStore store = new RDFHexaStore(dictionary);
+        load(store);
+        StarQuery query = new StarQuery("q", List.of(
+                new RDFTriple(VAR_X, KNOWS, ALICE),
+                new RDFTriple(VAR_X, LIVES_IN, PARIS),
+                new RDFTriple(VAR_X, WORKS_AT, VAR_Y)), List.of(VAR_X));
+
+        Iterator<Substitution> it = store.match(query);
+        assertEquals(0, dictionary.decodes, "Nothing should be decoded before iteration.");
+
+        Set<String> names = new HashSet<>();
+        while (it.hasNext()) {
+            Substitution substitution = it.next();
+            assertEquals(List.of(VAR_X), new ArrayList<>(substitution.keys()), "Only answer variables are bound.");
+            names.add(substitution.createImageOf(VAR_X).toString());
+        }
+        assertEquals(Set.of("Bob", "Charlie"), names);
+        assertEquals(2, dictionary.decodes, "One decode per answer variable and per answer.");
+    }
+
+    @Test
+    public void testHexaStoreAndGiantTableAgree() {
+        RDFHexaStore hexaStore = new RDFHexaStore();
+        RDFGiantTable giantTable = new RDFGiantTable();
+        load(hexaStore);
+        load(giantTable);
+        StarQuery query = new StarQuery("q", List.of(
+                new RDFTriple(VAR_X, KNOWS, ALICE),
+                new RDFTriple(VAR_X, WORKS_AT, VAR_Y)), List.of(VAR_X, VAR_Y));
+
+        List<Substitution> expected = evaluate(hexaStore, query);
+        assertEquals(3, expected.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(evaluate(giantTable, query)));
+        for (Substitution substitution : expected) {
+            assertEquals(substitution.createImageOf(VAR_X) + "Corp", substitution.createImageOf(VAR_Y).toString());
+        }
+    }
+
+    @Test
+    public void testUnknownConstantGivesNoAnswer() {
+        RDFHexaStore store = new RDFHexaStore();
+        load(store);
+        int before = store.dict.size();
+        StarQuery query = new StarQuery("q", List.of(
+                new RDFTriple(VAR_X, KNOWS, ALICE),
+                new RDFTriple(VAR_X, LIVES_IN, literal("Tokyo"))), List.of(VAR_X));
+
+        assertTrue(evaluate(store, query).isEmpty());
+        assertEquals(before, store.dict.size(), "Query constants must not be added to the dictionary.");
+    }
+
+    @Test
+    public void testRepeatedVariableInPattern() {
+        RDFHexaStore store = new RDFHexaStore();
+        store.add(new RDFTriple(literal("Bob"), KNOWS, literal("Bob")));
+        store.add(new RDFTriple(literal("Bob"), KNOWS, ALICE));
+        StarQuery query = new StarQuery("q", List.of(new RDFTriple(VAR_X, KNOWS, VAR_X)), List.of(VAR_X));
+
+        List<Substitution> results = evaluate(store, query);
+        assertEquals(1, results.size());
+        assertEquals(literal("Bob"), results.getFirst().createImageOf(VAR_X));
+    }
+
+    @Test
+    public void testSelectivePatternProbesOthersThroughIndex() {
+        List<int[]> scans = new ArrayList<>();
+        RDFHexaStore store = new RDFHexaStore() {
+            @Override
+            public void forEachMatch(int s, int p, int o, TripleIdConsumer action) {
+                scans.add(new int[]{s, p, o});
+                super.forEachMatch(s, p, o, action);
+            }
+
+            @Override
+            public TripleIdCursor cursor(int s, int p, int o) {
+                scans.add(new int[]{s, p, o});
+                return super.cursor(s, p, o);
+            }
+        };
+        Literal<String> person = literal("Person");
+        Literal<String> type = literal("type");
+        for (int i = 0; i < 100; i++) {
+            store.add(new RDFTriple(literal("p" + i), type, person));
+            store.add(new RDFTriple(literal("p" + i), WORKS_AT, literal("Corp" + i % 10)));
+        }
+        store.add(new RDFTriple(literal("p7"), LIVES_IN, PARIS));
+        store.add(new RDFTriple(literal("p8"), LIVES_IN, PARIS));
+        store.add(new RDFTriple(literal("Robot"), LIVES_IN, PARIS));
+        StarQuery query = new StarQuery("q", List.of(
+                new RDFTriple(VAR_X, type, person),
+                new RDFTriple(VAR_X, WORKS_AT, VAR_Y),
+                new RDFTriple(VAR_X, LIVES_IN, PARIS)), List.of(VAR_X, VAR_Y));
+
+        Set<String> answers = new HashSet<>();
+        store.match(query).forEachRemaining(substitution -> answers.add(
+                substitution.createImageOf(VAR_X) + " " + substitution.createImageOf(VAR_Y)));
+        assertEquals(Set.of("p7 Corp7", "p8 Corp8"), answers);
+        assertEquals(1, scans.stream().filter(scan -> scan[0] == ANY).count(),
+                "Only the most selective pattern may be scanned unbound.");
+    }
+
+    @Test
+    public void testGallopAndIntersect() {
+        int[] sorted = {1, 3, 4, 8, 15, 16, 23, 42, 100};
+        for (int key = 0; key <= 101; key++) {
+            int expected = 0;
+            while (expected < sorted.length && sorted[expected] < key) {
+                expected++;
+            }
+            for (int from = 0; from <= expected; from++) {
+                assertEquals(expected, StarQueryEvaluator.gallop(sorted, from, sorted.length, key), "key " + key);
+            }
+        }
+
+        int[] keys = {-5, 3, 8, 9, 42, 99, 100};
+        int kept = StarQueryEvaluator.intersect(keys, keys.length, sorted);
+        assertArrayEquals(new int[]{3, 8, 42, 100}, Arrays.copyOf(keys, kept));
+        assertEquals(0, StarQueryEvaluator.intersect(new int[]{2, 5}, 2, sorted));
+    }
+
+    @Test
+    public void testCentralJoinAgreesWithNestedLoop() {
+        RDFHexaStore store = new RDFHexaStore();
+        Random random = new Random(31);
+        for (int i = 0; i < 3000; i++) {
+            store.add(new RDFTriple(literal("n" + random.nextInt(300)), literal("p" + random.nextInt(4)),
+                    literal(random.nextBoolean() ? "n" + random.nextInt(300) : "v" + random.nextInt(5))));
+        }
+        // Même store, évalué par le plan par défaut de RDFStorage (boucles imbriquées) ;
+        // toutes les variables sont réponses, ce plan ne projetant pas
+        RDFStorage nestedLoop = new RDFStorage() {
+            @Override
+            public boolean add(RDFTriple t) {
+                return store.add(t);
+            }
+
+            @Override
+            public Iterator<Substitution> match(RDFTriple a) {
+                return store.match(a);
+            }
+
+            @Override
+            public long howMany(RDFTriple a) {
+                return store.howMany(a);
+            }
+
+            @Override
+            public long size() {
+                return store.size();
+            }
+
+            @Override
+            public Collection<RDFTriple> getAtoms() {
+                return store.getAtoms();
+            }
+        };
+
+        List<StarQuery> queries = List.of(
+                new StarQuery("constants", List.of(
+                        new RDFTriple(VAR_X, literal("p0"), literal("v1")),
+                        new RDFTriple(VAR_X, literal("p1"), literal("v2"))), List.of(VAR_X)),
+                new StarQuery("satellites", List.of(
+                        new RDFTriple(VAR_X, literal("p0"), literal("v3")),
+                        new RDFTriple(VAR_X, literal("p2"), VAR_Y)), List.of(VAR_X, VAR_Y)),
+                new StarQuery("shared satellite", List.of(
+                        new RDFTriple(VAR_X, literal("p1"), VAR_Y),
+                        new RDFTriple(VAR_X, literal("p3"), VAR_Y)), List.of(VAR_X, VAR_Y)),
+                new StarQuery("central object", List.of(
+                        new RDFTriple(VAR_Y, literal("p2"), VAR_X),
+                        new RDFTriple(VAR_X, literal("p0"), literal("v0"))), List.of(VAR_X, VAR_Y)));
+        for (StarQuery query : queries) {
+            List<Substitution> expected = evaluate(nestedLoop, query);
+            List<Substitution> actual = evaluate(store, query);
+            assertEquals(new HashSet<>(expected), new HashSet<>(actual), query.getLabel());
+            assertEquals(expected.size(), actual.size(), query.getLabel());
+
+            // Évaluation limitée, éventuellement par le plan par ligne : un sous-ensemble des réponses
+            for (long limit : new long[]{1, 3, expected.size()}) {
+                List<Substitution> limited = new ArrayList<>();
+                store.match(query, limit).forEachRemaining(limited::add);
+                assertEquals(Math.min(limit, expected.size()), limited.size(), query.getLabel() + " limit " + limit);
+                assertTrue(new HashSet<>(expected).containsAll(limited), query.getLabel() + " limit " + limit);
+                if (limit == expected.size()) {
+                    assertEquals(new HashSet<>(expected), new HashSet<>(limited), query.getLabel());
+                }
+            }
+            assertEquals(!expected.isEmpty(), store.ask(query), query.getLabel());
+        }
+    }
+
+    @Test
+    public void testLimitStopsReadingTheIndex() {
+        long[] advanced = {0};
+        RDFHexaStore store = new RDFHexaStore() {
+            @Override
+            public TripleIdCursor cursor(int s, int p, int o) {
+                TripleIdCursor cursor = super.cursor(s, p, o);
+                return new TripleIdCursor() {
+                    @Override
+                    public boolean advance() {
+                        advanced[0]++;
+                        return cursor.advance();
+                    }
+
+                    @Override
+                    public int s() {
+                        return cursor.s();
+                    }
+
+                    @Override
+                    public int p() {
+                        return cursor.p();
+                    }
+
+                    @Override
+                    public int o() {
+                        return cursor.o();
+                    }
+                };
+            }
+        };
+        Literal<String> person = literal("Person");
+        Literal<String> type = literal("type");
+        for (int i = 0; i < 10_000; i++) {
+            store.add(new RDFTriple(literal("p" + i), type, person));
+            store.add(new RDFTriple(literal("p" + i), WORKS_AT, literal("Corp" + i % 10)));
+        }
+        StarQuery star = new StarQuery("q", List.of(
+                new RDFTriple(VAR_X, type, person),
+                new RDFTriple(VAR_X, WORKS_AT, VAR_Y)), List.of(VAR_X, VAR_Y));
+
+        Iterator<Substitution> limited = store.match(star, 5);
+        assertEquals(0, advanced[0], "Nothing should be read before iteration.");
+        int answers = 0;
+        while (limited.hasNext()) {
+            limited.next();
+            answers++;
+        }
+        assertEquals(5, answers);
+        assertTrue(advanced[0] <= 6, "Only the rows of the returned answers should be read: " + advanced[0]);
+
+        advanced[0] = 0;
+        assertTrue(store.ask(star));
+        assertEquals(1, advanced[0]);
+
+        advanced[0] = 0;
+        Iterator<Substitution> single = store.match(new RDFTriple(VAR_X, type, person));
+        single.next();
+        assertEquals(1, advanced[0], "A pattern is read one triple at a time.");
+
+        assertEquals(10_000, evaluate(store, star).size());
+        assertThrows(IllegalArgumentException.class, () -> store.match(star, -1));
+        assertFalse(store.match(star, 0).hasNext());
+    }
+}
@@ -0,0 +1,76 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.*;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import qengine.model.RDFTriple;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Termes et jeux de données communs aux tests qui comparent une implémentation de
+ * store à {@link RDFHexaStore}.
+ */
+final class StoreFixtures {
+    static final Variable VAR_S = SameObjectTermFactory.instance().createOrGetVariable("?s");
+    static final Variable VAR_P = SameObjectTermFactory.instance().createOrGetVariable("?p");
+    static final Variable VAR_O = SameObjectTermFactory.instance().createOrGetVariable("?o");
+    static final Variable VAR_X = SameObjectTermFactory.instance().createOrGetVariable("?x");
+
+    private StoreFixtures() {
+    }
+
+    static Literal<String> literal(String value) {
+        return SameObjectTermFactory.instance().createOrGetLiteral(value);
+    }
+
+    static Set<Substitution> matchSet(RDFStorage store, RDFTriple pattern) {
+        Set<Substitution> results = new HashSet<>();
+        store.match(pattern).forEachRemaining(results::add);
+        return results;
+    }
+
+    /**
+     * Triplet pseudo-aléatoire de la forme ({@code s<i>}, {@code p<j>}, {@code o<k>}).
+     */
+    static RDFTriple randomTriple(Random random, int subjects, int predicates, int objects) {
+        return new RDFTriple(
+                literal("s" + random.nextInt(subjects)),
+                literal("p" + random.nextInt(predicates)),
+                literal("o" + random.nextInt(objects)));
+    }
+
+    /**
+     * Store de référence rempli de 3000 triplets pseudo-aléatoires ; un objet sur deux
+     * est un court littéral entre guillemets (encodé en ligne par {@link InlineRDFDictionary}).
+     */
+    static RDFHexaStore randomStore(TermDictionary dictionary, long seed) {
+        RDFHexaStore store = new RDFHexaStore(dictionary);
+        Random random = new Random(seed);
+        for (int i = 0; i < 3000; i++) {
+            store.add(new RDFTriple(
+                    literal("s" + random.nextInt(200)),
+                    literal("p" + random.nextInt(12)),
+                    random.nextBoolean() ? literal("o" + random.nextInt(300)) : literal("\"" + random.nextInt(50) + "\"")));
+        }
+        return store;
+    }
+
+    /**
+     * Vérifie que {@code actual} répond comme {@code expected} (match et howMany) sur
+     * tous les motifs formés à partir des termes candidats de chaque position.
+     */
+    static void assertSameAnswers(RDFStorage expected, RDFStorage actual,
+                                  List<Term> subjects, List<Term> predicates, List<Term> objects) {
+        for (Term s : subjects) {
+            for (Term p : predicates) {
+                for (Term o : objects) {
+                    RDFTriple pattern = new RDFTriple(s, p, o);
+                    assertEquals(matchSet(expected, pattern), matchSet(actual, pattern), "match " + pattern);
+                    assertEquals(expected.howMany(pattern), actual.howMany(pattern), "howMany " + pattern);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.Term;
+import fr.boreal.model.logicalElements.factory.impl.SameObjectTermFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe {@link TermCache}.
+ */
+class TermCacheTest {
+
+    /**
+     * Dictionnaire qui compte les appels à decode.
+     */
+    private static final class CountingDictionary extends RDFDictionary {
+        int decodes = 0;
+
+        @Override
+        public String decode(int i) {
+            decodes++;
+            return super.decode(i);
+        }
+    }
+
+    @Test
+    public void testSecondLookupDoesNotDecode() {
+        CountingDictionary dictionary = new CountingDictionary();
+        TermCache cache = new TermCache(dictionary);
+        int id = dictionary.encode("http://example.org/a");
+
+        Term first = cache.get(id);
+        Term second = cache.get(id);
+
+        assertSame(first, second);
+        assertEquals(SameObjectTermFactory.instance().createOrGetLiteral("http://example.org/a"), first);
+        assertEquals(1, dictionary.decodes, "The dictionary should be asked only once.");
+    }
+
+    @Test
+    public void testManyPages() {
+        RDFDictionary dictionary = new RDFDictionary();
+        TermCache cache = new TermCache(dictionary);
+        int n = 5 * TermCache.PAGE_SIZE + 3;
+        for (int i = 0; i < n; i++) {
+            dictionary.encode("term" + i);
+        }
+
+        for (int i = n - 1; i >= 0; i -= 97) {
+            assertEquals("term" + i, cache.get(i).toString());
+        }
+        assertEquals("term0", cache.get(0).toString());
+    }
+
+    @Test
+    public void testInlineIdsBypassCache() {
+        InlineRDFDictionary dictionary = new InlineRDFDictionary();
+        TermCache cache = new TermCache(dictionary);
+        int id = dictionary.encode("\"1988-09-24\"");
+
+        assertTrue(id < 0);
+        assertEquals("\"1988-09-24\"", cache.get(id).toString());
+    }
+
+    @Test
+    public void testUnknownId() {
+        TermCache cache = new TermCache(new RDFDictionary());
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(0));
+        assertThrows(NullPointerException.class, () -> new TermCache(null));
+    }
+}
@@ -0,0 +1,148 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.*;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static qengine.storage.StoreFixtures.*;
+
+/**
+ * Tests unitaires pour la classe {@link TieredRDFHexaStore} : la suite de
+ * {@link RDFHexaStoreTest} est rejouée avec un seuil minuscule, pour que les
+ * triplets se répartissent entre le principal et les deltas.
+ */
+public class TieredRDFHexaStoreTest extends RDFHexaStoreTest {
+    @Override
+    protected RDFStorage newStore() {
+        return new TieredRDFHexaStore(new RDFDictionary(), 2);
+    }
+
+    @Test
+    public void testAgreesWithHexaStoreAcrossCompactions() {
+        RDFHexaStore reference = new RDFHexaStore();
+        TieredRDFHexaStore store = new TieredRDFHexaStore(new RDFDictionary(), 500);
+        Random random = new Random(17);
+        for (int i = 0; i < 20_000; i++) {
+            RDFTriple triple = randomTriple(random, 2000, 15, 3000);
+            assertEquals(reference.add(triple), store.add(triple));
+            if (i % 4000 == 0) {
+                assertEquals(reference.size(), store.size());
+            }
+        }
+
+        for (int round = 0; round < 2; round++) {
+            assertEquals(reference.size(), store.size());
+            assertSameAnswers(reference, store,
+                    List.of(literal("s42"), VAR_S),
+                    List.of(literal("p3"), VAR_P),
+                    List.of(literal("o17"), VAR_O));
+            store.flush();
+            assertEquals(0, store.deltaSize());
+        }
+    }
+
+    @Test
+    public void testDuplicateOfCompactedTripleIsRejected() {
+        TieredRDFHexaStore store = new TieredRDFHexaStore(new RDFDictionary(), 1000);
+        RDFTriple triple = new RDFTriple(literal("a"), literal("knows"), literal("b"));
+        assertTrue(store.add(triple));
+        store.flush();
+        assertEquals(0, store.deltaSize());
+
+        assertFalse(store.add(triple));
+        assertEquals(1, store.size());
+        assertTrue(store.add(new RDFTriple(literal("b"), literal("knows"), literal("a"))));
+        assertEquals(1, store.deltaSize());
+        assertEquals(2, store.howMany(new RDFTriple(VAR_S, literal("knows"), VAR_O)));
+    }
+
+    @Test
+    public void testInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new TieredRDFHexaStore(new RDFDictionary(), 0));
+        assertThrows(NullPointerException.class, () -> new TieredRDFHexaStore(null, 10));
+    }
+
+    @Test
+    public void testConcurrentWriterAndReaders() throws Exception {
+        int people = 10_000;
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try (TieredRDFHexaStore store = new TieredRDFHexaStore(new ConcurrentRDFDictionary(), 500)) {
+            Future<?> writer = pool.submit(() -> {
+                for (int i = 0; i < people; i++) {
+                    store.add(new RDFTriple(literal("s" + i), literal("knows"), literal("o" + i)));
+                    store.add(new RDFTriple(literal("s" + i), literal("age"), literal("a" + i % 90)));
+                }
+                done.set(true);
+            });
+            StarQuery query = new StarQuery("star", List.of(
+                    new RDFTriple(VAR_X, literal("knows"), VAR_O),
+                    new RDFTriple(VAR_X, literal("age"), VAR_S)), List.of(VAR_X, VAR_O, VAR_S));
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(pool.submit(() -> {
+                    int checks = 0;
+                    long previousTriples = 0;
+                    long previousAnswers = 0;
+                    do {
+                        // Aucun triplet vu deux fois ni perdu pendant qu'une fusion remplace les niveaux
+                        List<Substitution> triples = new ArrayList<>();
+                        store.match(new RDFTriple(VAR_S, VAR_P, VAR_O)).forEachRemaining(triples::add);
+                        assertEquals(triples.size(), new HashSet<>(triples).size(), "no triple is seen twice");
+                        assertTrue(triples.size() >= previousTriples, "the store never shrinks");
+                        previousTriples = triples.size();
+
+                        // Une étoile voit un seul état : chaque personne complète au plus une fois
+                        List<Substitution> answers = new ArrayList<>();
+                        store.match(query).forEachRemaining(answers::add);
+                        assertEquals(answers.size(), new HashSet<>(answers).size(), "no answer is repeated");
+                        assertTrue(answers.size() >= previousAnswers, "answers never disappear");
+                        assertTrue(answers.size() <= people);
+                        previousAnswers = answers.size();
+                        checks++;
+                    } while (!done.get());
+                    return checks;
+                }));
+            }
+            writer.get(60, TimeUnit.SECONDS);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+            }
+
+            store.flush();
+            assertEquals(0, store.deltaSize());
+            assertEquals(2L * people, store.size());
+            List<Substitution> answers = new ArrayList<>();
+            store.match(query).forEachRemaining(answers::add);
+            assertEquals(people, answers.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testClosedStoreStaysReadable() {
+        TieredRDFHexaStore store = new TieredRDFHexaStore(new RDFDictionary(), 2);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(store.add(new RDFTriple(literal("s" + i), literal("knows"), literal("o" + i))));
+        }
+        store.flush();
+        store.close();
+
+        // Les ajouts restent dans le delta, qui ne peut plus être fusionné
+        assertTrue(store.add(new RDFTriple(literal("late"), literal("knows"), literal("o0"))));
+        assertTrue(store.add(new RDFTriple(literal("later"), literal("knows"), literal("o0"))));
+        assertTrue(store.add(new RDFTriple(literal("latest"), literal("knows"), literal("o0"))));
+        assertFalse(store.add(new RDFTriple(literal("s3"), literal("knows"), literal("o3"))));
+        assertEquals(13, store.size());
+        assertEquals(3, store.deltaSize());
+        assertEquals(4, store.howMany(new RDFTriple(VAR_S, literal("knows"), literal("o0"))));
+        assertThrows(IllegalStateException.class, store::flush);
+    }
+}
@@ -0,0 +1,129 @@
+package qengine.storage;
+
+import fr.boreal.model.logicalElements.api.*;
+import org.junit.jupiter.api.Test;
+import qengine.model.RDFTriple;
+import qengine.model.StarQuery;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static qengine.storage.StoreFixtures.*;
+
+/**
+ * Tests unitaires pour la classe {@link VersionedRDFHexaStore} : la suite de
+ * {@link RDFHexaStoreTest} est rejouée, puis l'isolation des instantanés est vérifiée.
+ */
+public class VersionedRDFHexaStoreTest extends RDFHexaStoreTest {
+    @Override
+    protected RDFStorage newStore() {
+        return new VersionedRDFHexaStore();
+    }
+
+    @Test
+    public void testAgreesWithHexaStore() {
+        RDFHexaStore reference = new RDFHexaStore();
+        VersionedRDFHexaStore store = new VersionedRDFHexaStore();
+        Random random = new Random(23);
+        for (int i = 0; i < 20_000; i++) {
+            RDFTriple triple = randomTriple(random, 2000, 15, 3000);
+            assertEquals(reference.add(triple), store.add(triple));
+        }
+        assertEquals(reference.size(), store.size());
+
+        assertSameAnswers(reference, store,
+                List.of(literal("s42"), VAR_S),
+                List.of(literal("p3"), VAR_P),
+                List.of(literal("o17"), VAR_O));
+    }
+
+    @Test
+    public void testSnapshotIgnoresLaterAdds() {
+        VersionedRDFHexaStore store = new VersionedRDFHexaStore();
+        store.add(new RDFTriple(literal("a"), literal("knows"), literal("b")));
+        store.add(new RDFTriple(literal("a"), literal("likes"), literal("c")));
+        VersionedRDFHexaStore.Snapshot snapshot = store.snapshot();
+        Set<RDFTriple> before = new HashSet<>(snapshot.getAtoms());
+
+        store.add(new RDFTriple(literal("a"), literal("knows"), literal("c")));
+        store.add(new RDFTriple(literal("d"), literal("likes"), literal("c")));
+
+        assertEquals(2, snapshot.epoch());
+        assertEquals(2, snapshot.size());
+        assertEquals(before, new HashSet<>(snapshot.getAtoms()));
+        assertEquals(1, snapshot.howMany(new RDFTriple(literal("a"), literal("knows"), VAR_O)));
+        assertEquals(0, snapshot.howMany(new RDFTriple(literal("d"), literal("likes"), literal("c"))));
+        assertEquals(1, matchSet(snapshot, new RDFTriple(VAR_S, literal("likes"), literal("c"))).size());
+        int any = EncodedRDFStorage.ANY;
+        int knows = store.getDictionary().getIdOrNull("knows");
+        EncodedRDFStorage.TripleIdCursor cursor = snapshot.cursor(any, knows, any);
+        store.add(new RDFTriple(literal("e"), literal("knows"), literal("a")));
+        assertTrue(cursor.advance());
+        assertFalse(cursor.advance(), "A snapshot cursor stops at its epoch.");
+        assertEquals(2, snapshot.howMany(new RDFTriple(VAR_S, VAR_P, VAR_O)));
+        StarQuery query = new StarQuery("star", List.of(
+                new RDFTriple(VAR_X, literal("knows"), VAR_O),
+                new RDFTriple(VAR_X, literal("likes"), literal("c"))), List.of(VAR_X, VAR_O));
+        List<Substitution> answers = new ArrayList<>();
+        snapshot.match(query).forEachRemaining(answers::add);
+        assertEquals(1, answers.size());
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.add(new RDFTriple(literal("e"), literal("knows"), literal("f"))));
+
+        assertEquals(5, store.size());
+        assertEquals(2, store.howMany(new RDFTriple(literal("a"), literal("knows"), VAR_O)));
+        assertEquals(5, store.snapshot().getAtoms().size());
+    }
+
+    @Test
+    public void testConcurrentReadersSeeConsistentSnapshots() throws Exception {
+        VersionedRDFHexaStore store = new VersionedRDFHexaStore();
+        int total = 30_000;
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = pool.submit(() -> {
+                for (int i = 0; i < total; i++) {
+                    store.add(new RDFTriple(literal("s" + i % 500), literal("p" + i % 7), literal("o" + i)));
+                }
+                done.set(true);
+            });
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(pool.submit(() -> {
+                    int checks = 0;
+                    long previous = 0;
+                    do {
+                        VersionedRDFHexaStore.Snapshot snapshot = store.snapshot();
+                        long size = snapshot.size();
+                        assertTrue(size >= previous, "Les époques ne reculent pas");
+                        previous = size;
+                        // Chaque index compte exactement les triplets de l'époque
+                        long bySubject = 0;
+                        for (int s = 0; s < 500; s++) {
+                            bySubject += snapshot.howMany(new RDFTriple(literal("s" + s), VAR_P, VAR_O));
+                        }
+                        assertEquals(size, bySubject);
+                        long[] scanned = {0};
+                        snapshot.forEachMatch(EncodedRDFStorage.ANY, EncodedRDFStorage.ANY, EncodedRDFStorage.ANY,
+                                (s, p, o) -> scanned[0]++);
+                        assertEquals(size, scanned[0]);
+                        RDFTriple pattern = new RDFTriple(VAR_S, literal("p3"), VAR_O);
+                        assertEquals(snapshot.howMany(pattern), matchSet(snapshot, pattern).size());
+                        checks++;
+                    } while (!done.get());
+                    return checks;
+                }));
+            }
+            writer.get(60, TimeUnit.SECONDS);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(total, store.size());
+    }
+}